@@ -0,0 +1,19 @@
+#!/bin/bash
+#
+# Package java8 as wdl.jar with wdl.jsa, a class data sharing archive of the classes that
+# lexing and parsing a document load, so short command line runs start faster:
+#
+#   java -XX:SharedArchiveFile=wdl.jsa -cp wdl.jar WdlEngine workflow.wdl inputs.json
+#
+# ArchiveClassesAtExit needs JDK 13 or later.  The archive only works with the JDK that
+# made it and a classpath starting with this wdl.jar, so rebuild both together.
+
+set -e
+DOCUMENT=${1:-../../runners/cromwell_on_google/wdl_runner/test-wdl/ga4ghMd5.wdl}
+CLASSES=$(mktemp -d)
+
+javac -nowarn -d ${CLASSES} java8/*.java
+jar cf wdl.jar -C ${CLASSES} .
+rm -rf ${CLASSES} wdl.jsa
+java -XX:ArchiveClassesAtExit=wdl.jsa -cp wdl.jar WdlBenchmark cold ${DOCUMENT} > /dev/null
+java -XX:SharedArchiveFile=wdl.jsa -cp wdl.jar WdlBenchmark startup 10 ${DOCUMENT}
@@ -0,0 +1,76 @@
+#!/bin/bash
+#
+# Run ga4ghMd5 and the tutorial workflows in ../../scripts with WdlEngine and compare what
+# they produce with e2e/*.expected: the outputs JSON followed by each output file.
+#
+# ga4ghMd5 runs on md5sum.input, with the /bin/my_md5sum of its docker image replaced by
+# md5sum and cut, and its result must also match md5sum.txt.  The tutorials'
+# tools are replaced by e2e/tool, which writes its command line where the tool would write
+# its results, so their output files show the commands each call rendered.  The inputs are
+# the tutorials' own, with their paths moved into a scratch directory.
+#
+#   sh e2e.sh            check
+#   sh e2e.sh --update   rewrite e2e/*.expected after an intended change
+
+HERE=$(cd $(dirname $0) && pwd)
+SCRIPTS=$(cd ${HERE}/../../scripts && pwd)
+JAVA=$(command -v java)
+WORK=$(mktemp -d)
+trap "rm -rf ${WORK}" EXIT
+STATUS=0
+
+javac -nowarn -d ${WORK}/classes ${HERE}/java8/*.java || exit 1
+mkdir -p ${WORK}/bin ${WORK}/data/jointCallingGenotypes/inputs ${WORK}/data/tutorial_8017
+for TOOL in java bwa k8-darwin samtools gawk; do
+  ln -s ${HERE}/e2e/tool ${WORK}/bin/${TOOL}
+done
+printf 'NA12878\tNA12878.bam\tNA12878.bai\nNA12891\tNA12891.bam\tNA12891.bai\nNA12892\tNA12892.bam\tNA12892.bai\n' \
+  > ${WORK}/data/jointCallingGenotypes/inputs/inputsTSV.txt
+printf '#!/bin/sh\nmd5sum "$1" | cut -d" " -f1 > md5sum.txt\n' > ${WORK}/bin/my_md5sum
+chmod +x ${WORK}/bin/my_md5sum
+
+# name, workflow, inputs
+run() {
+  if [ "$3" != ${WORK}/$1.json ]; then
+    sed -e "s#/path/to/#${WORK}/data/#g" \
+        -e "s#/Users/shlee/Desktop/#${WORK}/data/#g" \
+        -e "s#/Users/shlee/Documents/#${WORK}/data/#g" \
+        -e "s#/Applications/genomicstools/[^\"]*/\([^/\"]*\)\"#${WORK}/bin/\1\"#g" $3 > ${WORK}/$1.json
+  fi
+  (cd ${WORK} && PATH=${WORK}/bin:${PATH} ${JAVA} -cp ${WORK}/classes WdlEngine $2 ${WORK}/$1.json ${WORK}/runs) \
+    > ${WORK}/$1.json.out 2>&1
+  {
+    cat ${WORK}/$1.json.out
+    for FILE in $(grep -o "\"${WORK}/[^\"]*\"" ${WORK}/$1.json.out | tr -d '"'); do
+      echo "== ${FILE}"
+      cat ${FILE}
+    done
+  } | sed -E -e "s#${WORK}#WORK#g" -e 's#[0-9a-f]{8}(-[0-9a-f]{4}){3}-[0-9a-f]{12}#RUN#g' > ${WORK}/$1.actual
+  if [ "${UPDATE}" = 1 ]; then
+    cp ${WORK}/$1.actual ${HERE}/e2e/$1.expected
+  elif diff -u ${HERE}/e2e/$1.expected ${WORK}/$1.actual; then
+    echo "$1: ok"
+  else
+    echo "$1: outputs differ from e2e/$1.expected" >&2
+    STATUS=1
+  fi
+}
+
+[ "$1" = --update ] && UPDATE=1
+
+GA4GH=${SCRIPTS}/ga4gh/tool_execution_challenge_phase1
+sed 's#/bin/my_md5sum#my_md5sum#' ${GA4GH}/ga4ghMd5.wdl > ${WORK}/ga4ghMd5.wdl
+echo "{\"ga4ghMd5.inputFile\": \"${GA4GH}/md5sum.input\"}" > ${WORK}/ga4ghMd5.json
+run ga4ghMd5 ${WORK}/ga4ghMd5.wdl ${WORK}/ga4ghMd5.json
+MD5=$(grep -o "\"${WORK}/[^\"]*\"" ${WORK}/ga4ghMd5.json.out | tr -d '"')
+if [ -z "${MD5}" ] || ! cmp -s ${GA4GH}/md5sum.txt ${MD5}; then
+  echo "ga4ghMd5: result differs from md5sum.txt" >&2
+  STATUS=1
+fi
+for WORKFLOW in helloHaplotypeCaller SimpleVariantDiscovery SimpleVariantSelection jointCallingGenotypes; do
+  run ${WORKFLOW} ${SCRIPTS}/tutorials/wdl/${WORKFLOW}.wdl ${SCRIPTS}/tutorials/wdl/${WORKFLOW}_inputs.json
+done
+for WORKFLOW in tutorial_8017 tutorial_8017_postalt tutorial_8017_toSE; do
+  run ${WORKFLOW} ${SCRIPTS}/tutorials/gatk/${WORKFLOW}.wdl ${SCRIPTS}/tutorials/gatk/${WORKFLOW}.json
+done
+exit ${STATUS}
@@ -1,4 +1,6 @@
 #!/bin/bash
 
-hermes generate ../grammar.hgr --name=wdl --directory=java7 --language=java --java-use-apache-commons --java-imports=org.apache.commons.lang3.StringEscapeUtils
-hermes generate ../grammar.hgr --name=wdl --directory=java8 --language=java --java-imports=org.apache.commons.lang3.StringEscapeUtils
+hermes generate ../grammar.hgr --name=wdl --directory=java7 --language=java --java-use-apache-commons
+# java8/WdlParser.java has been changed by hand since it was generated, so it is not replaced;
+# see README.md for carrying changes over from java8/generated/WdlParser.java.
+hermes generate ../grammar.hgr --name=wdl --directory=java8/generated --language=java
@@ -9,7 +9,6 @@ import java.nio.*;
 import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import org.apache.commons.codec.binary.Base64;
-import org.apache.commons.lang3.StringEscapeUtils;
 import java.util.regex.Pattern;
 import java.util.regex.Matcher;
 import java.lang.reflect.Method;
@@ -5300,7 +5299,99 @@ public void output(LexerContext ctx, TerminalIdentifier terminal, String source_
     default_action(ctx, terminal, source_string, line, col);
 }
 public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String source_string, int line, int col) {
-    default_action(ctx, terminal, StringEscapeUtils.unescapeJava(source_string.substring(1, source_string.length() - 1)), line, col);
+    int end = source_string.length() - 1;
+    boolean escaped = source_string.lastIndexOf('\\', end) > 0;
+    ctx.terminals.add(new StringTerminal(terminal.id(), terminal.string(), source_string, 1, end, escaped, ctx.resource, line, col));
+}
+/**
+ * A string literal whose text is source[start, end).  If escaped, the text holds escape
+ * sequences, which are decoded the first time getSourceString() is called.
+ */
+public static class StringTerminal extends Terminal {
+    private final String source;
+    private final int start;
+    private final int end;
+    private final boolean escaped;
+    private String source_string;
+    public StringTerminal(int id, String terminal_str, String source, int start, int end, boolean escaped, String resource, int line, int col) {
+        super(id, terminal_str, null, resource, line, col);
+        this.source = source;
+        this.start = start;
+        this.end = end;
+        this.escaped = escaped;
+    }
+    public String getSourceString() {
+        /* Racing threads decode the same String, so this needs no lock. */
+        String source_string = this.source_string;
+        if (source_string == null) {
+            source_string = this.escaped ? unescape(this.source, this.start, this.end) : this.source.substring(this.start, this.end);
+            this.source_string = source_string;
+        }
+        return source_string;
+    }
+    /* The text without copying it if there is nothing to decode. */
+    public CharSequence getSourceSequence() {
+        if (this.source_string != null || this.escaped) {
+            return this.getSourceString();
+        }
+        return java.nio.CharBuffer.wrap(this.source, this.start, this.end);
+    }
+    /* Whether the text holds escape sequences. */
+    public boolean isEscaped() {
+        return this.escaped;
+    }
+    /*
+     * Decode the escape sequences string literals may hold: \b \t \n \f \r \" \' \\, octal
+     * and unicode escapes.  A backslash before any other character is dropped.
+     */
+    private static String unescape(String source, int start, int end) {
+        StringBuilder builder = new StringBuilder(end - start);
+        int i = start;
+        while (i < end) {
+            char c = source.charAt(i++);
+            if (c != '\\' || i == end) {
+                builder.append(c);
+                continue;
+            }
+            c = source.charAt(i);
+            if (c >= '0' && c <= '7') {
+                int value = c - '0';
+                int digits = (c <= '3') ? 3 : 2;
+                for (i++; --digits > 0 && i < end && source.charAt(i) >= '0' && source.charAt(i) <= '7'; i++) {
+                    value = value * 8 + source.charAt(i) - '0';
+                }
+                builder.append((char) value);
+                continue;
+            }
+            if (c == 'u') {
+                while (i < end && source.charAt(i) == 'u') {
+                    i++;
+                }
+                if (i < end && source.charAt(i) == '+') {
+                    i++;
+                }
+                if (i + 4 > end) {
+                    throw new IllegalArgumentException("Less than 4 hex digits in unicode value: " + source.substring(start, end));
+                }
+                builder.append((char) Integer.parseInt(source.substring(i, i + 4), 16));
+                i += 4;
+                continue;
+            }
+            switch (c) {
+                case 'b': builder.append('\b'); break;
+                case 't': builder.append('\t'); break;
+                case 'n': builder.append('\n'); break;
+                case 'f': builder.append('\f'); break;
+                case 'r': builder.append('\r'); break;
+                case '\\':
+                case '"':
+                case '\'': builder.append(c); break;
+                default: continue;
+            }
+            i++;
+        }
+        return builder.toString();
+    }
 }
     /* END USER CODE */
     public void destroy(Object context) {
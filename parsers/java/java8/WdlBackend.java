@@ -0,0 +1,108 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Where the commands of calls run.
+ *
+ * WdlEngine renders a call's command and evaluates its runtime section, then submits them
+ * as a Job.  It never waits on a job: a WdlJobMonitor polls every job in flight from one
+ * thread until it is no longer running, so poll() must return immediately.  Once a job has
+ * exited, the engine fetches its stdout, stderr and File outputs before evaluating the
+ * outputs section.  Implementations must be safe to call from several threads.
+ */
+public interface WdlBackend {
+    /** One call of a task, ready to run. */
+    final class Job {
+        private final String call;
+        private final WdlParser.Ast task;
+        private final Path directory;
+        private final String command;
+        private final Map<String, Object> runtime;
+        public Job(String call, WdlParser.Ast task, Path directory, String command, Map<String, Object> runtime) {
+            this.call = call;
+            this.task = task;
+            this.directory = directory;
+            this.command = command;
+            this.runtime = runtime;
+        }
+
+        /* The call's name and scatter path, e.g. align/shard-3. */
+        public String getCall() {
+            return this.call;
+        }
+        public WdlParser.Ast getTask() {
+            return this.task;
+        }
+
+        /* The local directory of the call, where its outputs are fetched to. */
+        public Path getDirectory() {
+            return this.directory;
+        }
+        public String getCommand() {
+            return this.command;
+        }
+
+        /* The evaluated runtime section: docker, cpu, memory and so on. */
+        public Map<String, Object> getRuntime() {
+            return this.runtime;
+        }
+    }
+
+    enum State { RUNNING, EXITED, FAILED, CANCELLED }
+
+    final class Status {
+        public static final Status RUNNING = new Status(State.RUNNING, -1, null);
+        private final State state;
+        private final int returnCode;
+        private final String message;
+        public Status(State state, int returnCode, String message) {
+            this.state = state;
+            this.returnCode = returnCode;
+            this.message = message;
+        }
+        public static Status exited(int returnCode) {
+            return new Status(State.EXITED, returnCode, null);
+        }
+
+        /* A job the backend lost or could not run, as opposed to a command that failed. */
+        public static Status failed(String message) {
+            return new Status(State.FAILED, -1, message);
+        }
+        public State getState() {
+            return this.state;
+        }
+
+        /* The command's return code, once EXITED. */
+        public int getReturnCode() {
+            return this.returnCode;
+        }
+        public String getMessage() {
+            return this.message;
+        }
+    }
+
+    /** A submitted job, as the backend identifies it. */
+    interface Handle {
+        Job getJob();
+    }
+
+    /** Start job, without waiting for it. */
+    Handle submit(Job job) throws IOException;
+
+    /** The job's current status; must not block. */
+    Status poll(Handle handle) throws IOException;
+
+    /** Stop the job if it is still running; poll() then reports it CANCELLED. */
+    void cancel(Handle handle) throws IOException;
+
+    /**
+     * Make a file the job produced available locally and return its local path.  path is
+     * absolute or relative to the job's working directory; stdout and stderr name the
+     * job's standard output and error.
+     */
+    Path fetch(Handle handle, String path) throws IOException;
+
+    /** The longest the monitor should wait between two polls of a job, in milliseconds. */
+    long getPollInterval();
+}
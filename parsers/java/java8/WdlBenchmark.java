@@ -0,0 +1,468 @@
+import java.util.*;
+
+/**
+ * Simple wall-clock benchmarks for the Java WDL tooling.  These are not a substitute for
+ * JMH but are good enough to compare two implementations of the same thing on one machine.
+ *
+ *   java -cp . WdlBenchmark expressions [iterations]
+ *   java -cp . WdlBenchmark hashing [megabytes]
+ *   java -cp . WdlBenchmark commands [shards]
+ *   java -cp . WdlBenchmark lexing [kilobytes]
+ *   java -cp . WdlBenchmark outline [directory]
+ *   java -cp . WdlBenchmark parsing [tasks]
+ *   java -cp . WdlBenchmark engines [tasks]
+ *   java -cp . WdlBenchmark startup [runs] [file]
+ *   java -cp . WdlBenchmark daemon [requests]
+ */
+public class WdlBenchmark {
+    public interface Body {
+        Object run() throws Exception;
+    }
+    private static volatile Object sink;
+
+    /**
+     * Runs body iterations times after an equal number of warmup iterations and returns
+     * the mean time per iteration in nanoseconds.
+     */
+    public static double measure(int iterations, Body body) throws Exception {
+        for (int i = 0; i < iterations; i++) {
+            sink = body.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink = body.run();
+        }
+        return (System.nanoTime() - start) / (double) iterations;
+    }
+    public static void report(String name, double nanos) {
+        System.out.println(String.format("%-48s %12.1f ns/op", name, nanos));
+    }
+    public static void expressions(int iterations) throws Exception {
+        final WdlEvaluator evaluator = new WdlEvaluator();
+        final WdlBytecode bytecode = new WdlBytecode(evaluator);
+        String[] expressions = {
+            "disk_size * 2 + (if preemptible then 10 else 20) - 1",
+            "\"sample_\" + shard + \".bam\"",
+            "cpu * 1.5 > 4 && length(intervals) <= 50",
+            "intervals[shard]",
+            "if length(intervals) > 10 then (mem_gb * 1000 + 500) / 2 else mem_gb * 1000",
+            "select_first([override, \"default\"])",
+        };
+        Map<String, WdlEvaluator.Kind> types = new HashMap<String, WdlEvaluator.Kind>();
+        types.put("disk_size", WdlEvaluator.Kind.INT);
+        types.put("shard", WdlEvaluator.Kind.INT);
+        types.put("cpu", WdlEvaluator.Kind.INT);
+        types.put("mem_gb", WdlEvaluator.Kind.INT);
+        types.put("preemptible", WdlEvaluator.Kind.BOOLEAN);
+        final WdlEvaluator.MapEnvironment env = new WdlEvaluator.MapEnvironment();
+        env.put("disk_size", 100L).put("shard", 7L).put("cpu", 4L).put("mem_gb", 7L)
+            .put("preemptible", Boolean.TRUE).put("override", null);
+        List<Object> intervals = new ArrayList<Object>();
+        for (int i = 0; i < 50; i++) {
+            intervals.add("chr" + i + ".interval_list");
+        }
+        env.put("intervals", intervals);
+        for (String expression : expressions) {
+            final WdlParser.AstNode ast = evaluator.parseExpression(expression);
+            final WdlEvaluator.Node compiled = evaluator.compile(ast, types);
+            final WdlEvaluator.Node generated = bytecode.compile(ast, types);
+            Object expected = evaluator.interpret(ast, env);
+            if (!Objects.equals(expected, compiled.eval(env)) || !Objects.equals(expected, generated.eval(env))) {
+                throw new IllegalStateException("Interpreter and compiler disagree on " + expression);
+            }
+            System.out.println(expression + " = " + expected);
+            report("  interpreted", measure(iterations, () -> evaluator.interpret(ast, env)));
+            report("  compiled", measure(iterations, () -> compiled.eval(env)));
+            report("  bytecode", measure(iterations, () -> generated.eval(env)));
+        }
+    }
+    private static void throughput(String name, long bytes, double nanos) {
+        System.out.println(String.format("%-48s %12.1f MB/s", name, bytes / (nanos / 1e9) / 1e6));
+    }
+
+    /* Digest one temporary file of the given size, which will be in the page cache. */
+    public static void hashing(int megabytes) throws Exception {
+        java.nio.file.Path file = java.nio.file.Files.createTempFile("wdl-hashing", ".bin");
+        try {
+            byte[] block = new byte[1 << 20];
+            new Random(42).nextBytes(block);
+            try (java.io.OutputStream out = java.nio.file.Files.newOutputStream(file)) {
+                for (int i = 0; i < megabytes; i++) {
+                    out.write(block);
+                }
+            }
+            long bytes = (long) megabytes << 20;
+            System.out.println("hashing " + megabytes + " MB");
+            throughput("  streaming sha-256", bytes, measure(2, () -> {
+                java.security.MessageDigest digest = WdlFileHasher.digest();
+                try (java.io.InputStream in = java.nio.file.Files.newInputStream(file)) {
+                    for (int n = in.read(block); n >= 0; n = in.read(block)) {
+                        digest.update(block, 0, n);
+                    }
+                }
+                return digest.digest();
+            }));
+            int cores = Runtime.getRuntime().availableProcessors();
+            for (int parallelism : new TreeSet<Integer>(Arrays.asList(1, cores))) {
+                WdlFileHasher hasher = new WdlFileHasher(parallelism, WdlFileHasher.DEFAULT_CHUNK_SIZE, null);
+                throughput("  mapped tree hash, " + parallelism + " threads", bytes, measure(2, () -> {
+                    /* A fresh hasher each time so that the memo does not answer. */
+                    try (WdlFileHasher fresh = new WdlFileHasher(parallelism, WdlFileHasher.DEFAULT_CHUNK_SIZE, null)) {
+                        return fresh.hash(file);
+                    }
+                }));
+                hasher.hash(file);
+                report("  memoized lookup, " + parallelism + " threads", measure(1000, () -> hasher.hash(file)));
+                hasher.close();
+            }
+        } finally {
+            java.nio.file.Files.delete(file);
+        }
+    }
+
+    /* Render one command per scatter shard, as the engine does for every call. */
+    public static void commands(int shards) throws Exception {
+        String source = "task align {\n"
+            + "  File reference\n  Array[File] reads\n  String sample\n  Int threads\n  Boolean paired\n  String? platform\n"
+            + "  command <<<\n"
+            + "    bwa mem -t ${threads} ${true='-p' false='' paired} -R '@RG\\tID:${sample}\\tPL:${default='ILLUMINA' platform}' \\\n"
+            + "      ${reference} ${sep=' ' reads} \\\n"
+            + "      | samtools sort -@ ${threads} -o ${sample}.bam -\n"
+            + "  >>>\n"
+            + "}\n";
+        WdlParser parser = new WdlParser();
+        WdlParser.Ast document = (WdlParser.Ast) parser.parse(parser.lex(source, "benchmark")).toAst();
+        WdlParser.Ast task = (WdlParser.Ast) ((WdlParser.AstList) document.getAttribute("body")).get(0);
+        WdlEvaluator evaluator = new WdlEvaluator();
+        WdlEvaluator.MapEnvironment[] envs = new WdlEvaluator.MapEnvironment[shards];
+        for (int i = 0; i < shards; i++) {
+            envs[i] = new WdlEvaluator.MapEnvironment();
+            envs[i].put("reference", "/ref/hg38.fa").put("reads", Arrays.<Object>asList("/data/s" + i + "_1.fq", "/data/s" + i + "_2.fq"))
+                .put("sample", "s" + i).put("threads", 8L).put("paired", Boolean.TRUE).put("platform", null);
+        }
+        Map<String, WdlEvaluator.Function> functions = evaluator.getFunctions();
+        WdlCommand command = WdlCommand.compile(evaluator, task);
+        System.out.println(command.render(functions, envs[0]));
+        StringBuilder sb = new StringBuilder();
+        double nanos = measure(3, () -> {
+            for (WdlEvaluator.MapEnvironment env : envs) {
+                sb.setLength(0);
+                command.render(functions, env, sb);
+            }
+            return sb;
+        });
+        System.out.println(String.format("%-48s %12.1f ms", "  " + shards + " shards, compiled once", nanos / 1e6));
+        System.out.println(String.format("%-48s %12.1f ms", "  " + shards + " shards, compiled per shard", measure(3, () -> {
+            for (WdlEvaluator.MapEnvironment env : envs) {
+                sb.setLength(0);
+                WdlCommand.compile(evaluator, task).render(functions, env, sb);
+            }
+            return sb;
+        }) / 1e6));
+    }
+    /* A task whose command section, in both styles, is about kilobytes long, like a GATK task's. */
+    static String commandTask(int kilobytes) {
+        StringBuilder command = new StringBuilder();
+        for (int i = 0; command.length() < kilobytes * 1024 / 2; i++) {
+            command.append("    java -Xmx${mem}g -jar $GATK -T HaplotypeCaller -R ${reference} -I ${bam} \\\n")
+                .append("      --emitRefConfidence GVCF -L chr").append(i).append(" -o out.").append(i).append(".g.vcf && echo done\n");
+        }
+        return "task haplotype_caller {\n  File reference\n  File bam\n  Int mem\n"
+            + "  command {\n" + command + "  }\n"
+            + "  command <<<\n" + command.toString().replace("$GATK", "$(ls gatk*.jar)") + "  >>>\n}\n";
+    }
+
+    /* Lex one task with large command sections. */
+    public static void lexing(int kilobytes) throws Exception {
+        String source = commandTask(kilobytes);
+        WdlParser parser = new WdlParser();
+        int tokens = parser.lex(source, "benchmark").size();
+        System.out.println("lexing a task of " + source.length() / 1024 + " KB, " + tokens + " tokens");
+        double nanos = measure(Math.max(10, 20000 / kilobytes), () -> parser.lex(source, "benchmark"));
+        report("  lex", nanos);
+        throughput("  lex", source.length(), nanos);
+    }
+
+    /* A document of that many small tasks. */
+    static String library(int tasks) {
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; i < tasks; i++) {
+            source.append("task t").append(i).append(" {\n  File unsorted\n  Int threads = ").append(i % 8 + 1).append("\n")
+                .append("  command {\n    sort --parallel=${threads} ${unsorted} > sorted.txt\n  }\n")
+                .append("  runtime { docker: \"ubuntu:16.04\" memory: \"").append(i % 4 + 1).append(" GB\" cpu: threads }\n")
+                .append("  output { File sorted = \"sorted.txt\" Int lines = length(read_lines(sorted)) * 2 + 1 }\n")
+                .append("  meta { author: \"benchmark\" }\n}\n");
+        }
+        return source.toString();
+    }
+
+    /* Parse a library of tasks sequentially, lazily and in parallel. */
+    public static void parsing(int tasks) throws Exception {
+        WdlParser parser = new WdlParser();
+        List<WdlParser.Terminal> tokens = parser.lex(library(tasks), "benchmark");
+        String expected = parser.parse(tokens).toAst().toPrettyString();
+        if (!expected.equals(parser.parseParallel(tokens).toPrettyString())) {
+            throw new IllegalStateException("Parallel parse differs from sequential parse");
+        }
+        System.out.println("parsing " + tasks + " tasks, " + tokens.size() + " tokens, "
+            + java.util.concurrent.ForkJoinPool.commonPool().getParallelism() + " threads");
+        int iterations = Math.max(5, 200000 / tasks);
+        report("  parse and toAst", measure(iterations, () -> parser.parse(tokens).toAst()));
+        report("  parseParallel", measure(iterations, () -> parser.parseParallel(tokens)));
+        report("  parseLazy and expand one task", measure(iterations, () ->
+            ((WdlParser.Ast) ((WdlParser.AstList) parser.parseLazy(tokens).getAttribute("body")).get(tasks / 2)).getAttribute("sections")));
+    }
+
+    /*
+     * The bytecode length of each method of type, by name and descriptor, read from its class
+     * file.  HotSpot does not inline hot methods longer than FreqInlineSize, 325 bytes on
+     * x86, and does not compile methods longer than HugeMethodLimit, 8000 bytes.
+     */
+    static Map<String, Integer> codeSizes(Class<?> type) throws java.io.IOException {
+        Map<String, Integer> sizes = new TreeMap<String, Integer>();
+        try (java.io.DataInputStream in = new java.io.DataInputStream(new java.io.BufferedInputStream(
+                type.getResourceAsStream(type.getName() + ".class")))) {
+            in.readInt();
+            in.readInt();
+            String[] utf8 = new String[in.readUnsignedShort()];
+            for (int i = 1; i < utf8.length; i++) {
+                int tag = in.readUnsignedByte();
+                if (tag == 1) {
+                    utf8[i] = in.readUTF();
+                } else if (tag == 5 || tag == 6) {
+                    in.skipBytes(8);
+                    i++;
+                } else {
+                    in.skipBytes(tag == 15 ? 3 : tag == 7 || tag == 8 || tag == 16 || tag == 19 || tag == 20 ? 2 : 4);
+                }
+            }
+            in.skipBytes(6);
+            in.skipBytes(2 * in.readUnsignedShort());
+            for (int members = 0; members < 2; members++) {
+                for (int n = in.readUnsignedShort(); n > 0; n--) {
+                    in.skipBytes(2);
+                    String name = utf8[in.readUnsignedShort()] + utf8[in.readUnsignedShort()];
+                    for (int attributes = in.readUnsignedShort(); attributes > 0; attributes--) {
+                        String attribute = utf8[in.readUnsignedShort()];
+                        int length = in.readInt();
+                        if (members == 1 && attribute.equals("Code")) {
+                            in.skipBytes(4);
+                            sizes.put(name, in.readInt());
+                            in.skipBytes(length - 8);
+                        } else {
+                            in.skipBytes(length);
+                        }
+                    }
+                }
+            }
+        }
+        return sizes;
+    }
+    private static void codeSize(String name, Map<String, Integer> sizes) {
+        int total = 0, largest = 0, large = 0;
+        for (int size : sizes.values()) {
+            total += size;
+            largest = Math.max(largest, size);
+            large += size > 325 ? 1 : 0;
+        }
+        System.out.println(String.format("  %-46s %5d methods %7d bytes, largest %5d, %3d over 325",
+            name, sizes.size(), total, largest, large));
+    }
+
+    /*
+     * Compare WdlTableParser with the generated parser on a library of tasks: their code size,
+     * the time of each of the first parses, taken in turns so that shared code such as the
+     * lexer and ParseTree warms up for both, and their steady-state time.
+     */
+    public static void engines(int tasks) throws Exception {
+        Map<String, Integer> generated = new TreeMap<String, Integer>();
+        for (Map.Entry<String, Integer> method : codeSizes(WdlParser.class).entrySet()) {
+            if (method.getKey().matches("(parse|nud|led)_.*")) {
+                generated.put(method.getKey(), method.getValue());
+            }
+        }
+        Map<String, Integer> table = new TreeMap<String, Integer>(codeSizes(WdlTableParser.class));
+        for (Class<?> nested : WdlTableParser.class.getDeclaredClasses()) {
+            for (Map.Entry<String, Integer> method : codeSizes(nested).entrySet()) {
+                table.put(nested.getSimpleName() + "." + method.getKey(), method.getValue());
+            }
+        }
+        System.out.println("code size");
+        codeSize("generated parse_, nud_ and led_ methods", generated);
+        codeSize("WdlTableParser, including initialization", table);
+
+        WdlParser parser = new WdlParser();
+        WdlTableParser interpreter = new WdlTableParser();
+        List<WdlParser.Terminal> tokens = parser.lex(library(tasks), "benchmark");
+        if (!parser.parse(tokens).toAst().toPrettyString().equals(interpreter.parse(tokens).toAst().toPrettyString())) {
+            throw new IllegalStateException("WdlTableParser differs from the generated parser");
+        }
+        System.out.println("warmup, parsing " + tasks + " tasks, " + tokens.size() + " tokens, mean of iterations");
+        System.out.println(String.format("  %-20s %12s %12s", "", "generated", "table"));
+        int iterations = 1 << 14;
+        double generatedNanos = 0, tableNanos = 0;
+        for (int i = 1, next = 1; i <= iterations; i++) {
+            long start = System.nanoTime();
+            sink = parser.parse(tokens);
+            long middle = System.nanoTime();
+            sink = interpreter.parse(tokens);
+            generatedNanos += middle - start;
+            tableNanos += System.nanoTime() - middle;
+            if (i == next * 2 - 1) {
+                System.out.println(String.format("  %-20s %9.1f us %9.1f us",
+                    next == i ? Integer.toString(i) : next + "-" + i, generatedNanos / next / 1e3, tableNanos / next / 1e3));
+                generatedNanos = tableNanos = 0;
+                next *= 2;
+            }
+        }
+        System.out.println("steady state");
+        report("  generated parse", measure(iterations / 4, () -> parser.parse(tokens)));
+        report("  WdlTableParser parse", measure(iterations / 4, () -> interpreter.parse(tokens)));
+    }
+
+    /* Outline every .wdl file under directory, against parsing each one in full. */
+    public static void outline(String directory) throws Exception {
+        List<String> sources = new ArrayList<String>();
+        long bytes = 0;
+        try (java.util.stream.Stream<java.nio.file.Path> paths = java.nio.file.Files.walk(java.nio.file.Paths.get(directory))) {
+            for (java.nio.file.Path path : (Iterable<java.nio.file.Path>) paths.filter(p -> p.toString().endsWith(".wdl")).sorted()::iterator) {
+                sources.add(WdlParser.readFile(path.toString()));
+                bytes += sources.get(sources.size() - 1).length();
+            }
+        }
+        WdlParser parser = new WdlParser();
+        System.out.println("outlining " + sources.size() + " documents, " + bytes / 1024 + " KB");
+        double parse = measure(20, () -> {
+            int parsed = 0;
+            for (String source : sources) {
+                try {
+                    sink = parser.parse(parser.lex(source, "benchmark")).toAst();
+                    parsed++;
+                } catch (WdlParser.SyntaxError e) {
+                    /* Outlines of invalid documents are still timed. */
+                }
+            }
+            return parsed;
+        });
+        double outline = measure(20, () -> {
+            int outlined = 0;
+            for (String source : sources) {
+                try {
+                    sink = WdlOutline.scan(source, "benchmark");
+                    outlined++;
+                } catch (WdlParser.SyntaxError e) {
+                }
+            }
+            return outlined;
+        });
+        System.out.println(String.format("%-48s %12.1f ms", "  lex, parse and toAst", parse / 1e6));
+        System.out.println(String.format("%-48s %12.1f ms", "  outline", outline / 1e6));
+        System.out.println(String.format("%-48s %12.1fx", "  speedup", parse / outline));
+    }
+    /* Round trips to a WdlDaemon for a small document, parsed once and then cached. */
+    public static void daemon(int requests) throws Exception {
+        java.nio.file.Path file = java.nio.file.Files.createTempFile("daemon", ".wdl");
+        file.toFile().deleteOnExit();
+        java.nio.file.Files.write(file, library(3).getBytes(java.nio.charset.StandardCharsets.UTF_8));
+        List<java.nio.file.Path> files = Collections.singletonList(file);
+        java.io.PrintStream discard = new java.io.PrintStream(new java.io.ByteArrayOutputStream());
+        java.nio.file.Path directory = java.nio.file.Files.createTempDirectory("daemon");
+        try (WdlDaemon daemon = new WdlDaemon(0, 1, WdlDaemon.DEFAULT_CACHE_ENTRIES, file.getParent(), directory)) {
+            System.out.println("requests to a daemon on port " + daemon.getPort());
+            String token = daemon.getToken();
+            report("  handle validate", measure(requests, () -> daemon.handle("validate", file)));
+            report("  validate round trip", measure(requests, () -> WdlDaemon.request(daemon.getPort(), token, "validate", files, discard)));
+            report("  parse round trip", measure(requests, () -> WdlDaemon.request(daemon.getPort(), token, "parse", files, discard)));
+            report("  outline round trip", measure(requests, () -> WdlDaemon.request(daemon.getPort(), token, "outline", files, discard)));
+        } finally {
+            java.nio.file.Files.delete(directory);
+        }
+    }
+
+    private static final String[] PHASES = {"class init", "constructor", "lex", "parse", "toAst", "JVM start to AST"};
+
+    /*
+     * Time to the first AST of a small document, file or a few generated tasks: each run is
+     * a fresh JVM with this one's classpath and options, such as -XX:SharedArchiveFile, and
+     * the median of each phase is reported.
+     */
+    public static void startup(int runs, String file) throws Exception {
+        if (file == null) {
+            java.nio.file.Path temp = java.nio.file.Files.createTempFile("startup", ".wdl");
+            temp.toFile().deleteOnExit();
+            java.nio.file.Files.write(temp, library(3).getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            file = temp.toString();
+        }
+        List<String> command = new ArrayList<String>();
+        command.add(java.nio.file.Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(java.lang.management.ManagementFactory.getRuntimeMXBean().getInputArguments());
+        command.addAll(Arrays.asList("-cp", System.getProperty("java.class.path"), "WdlBenchmark", "cold", file));
+        double[][] times = new double[PHASES.length][runs];
+        for (int run = 0; run < runs; run++) {
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            String output;
+            try (Scanner scanner = new Scanner(process.getInputStream(), "UTF-8")) {
+                output = scanner.useDelimiter("\\A").hasNext() ? scanner.next().trim() : "";
+            }
+            String[] fields = output.split("\\s+");
+            if (process.waitFor() != 0 || fields.length != PHASES.length) {
+                throw new IllegalStateException("Cold run failed: " + output);
+            }
+            for (int i = 0; i < PHASES.length; i++) {
+                times[i][run] = Double.parseDouble(fields[i]);
+            }
+        }
+        System.out.println("time to first AST of " + file + ", median of " + runs + " JVMs");
+        for (int i = 0; i < PHASES.length; i++) {
+            Arrays.sort(times[i]);
+            System.out.println(String.format("%-48s %12.1f ms", "  " + PHASES[i], times[i][runs / 2]));
+        }
+    }
+
+    /* One cold lex, parse and toAst of file, as the milliseconds each of PHASES took. */
+    static void cold(String file) throws Exception {
+        long start = System.nanoTime();
+        Class.forName("WdlParser");
+        long init = System.nanoTime();
+        WdlParser parser = new WdlParser();
+        long constructed = System.nanoTime();
+        List<WdlParser.Terminal> tokens = parser.lex(java.nio.file.Paths.get(file));
+        long lexed = System.nanoTime();
+        WdlParser.ParseTree tree = parser.parse(tokens);
+        long parsed = System.nanoTime();
+        sink = tree.toAst();
+        long end = System.nanoTime();
+        long wall = System.currentTimeMillis();
+        long jvm = wall - java.lang.management.ManagementFactory.getRuntimeMXBean().getStartTime();
+        System.out.println(String.format("%.2f %.2f %.2f %.2f %.2f %d", (init - start) / 1e6, (constructed - init) / 1e6,
+            (lexed - constructed) / 1e6, (parsed - lexed) / 1e6, (end - parsed) / 1e6, jvm));
+    }
+    public static void main(String[] args) throws Exception {
+        String suite = args.length > 0 ? args[0] : "expressions";
+        int iterations = args.length > 1 && !suite.equals("outline") && !suite.equals("cold") ? Integer.parseInt(args[1]) : 1000000;
+        if (suite.equals("expressions")) {
+            expressions(iterations);
+        } else if (suite.equals("hashing")) {
+            hashing(args.length > 1 ? iterations : 1024);
+        } else if (suite.equals("commands")) {
+            commands(args.length > 1 ? iterations : 100000);
+        } else if (suite.equals("lexing")) {
+            lexing(args.length > 1 ? iterations : 8);
+        } else if (suite.equals("parsing")) {
+            parsing(args.length > 1 ? iterations : 1000);
+        } else if (suite.equals("engines")) {
+            engines(args.length > 1 ? iterations : 20);
+        } else if (suite.equals("daemon")) {
+            daemon(args.length > 1 ? iterations : 10000);
+        } else if (suite.equals("startup")) {
+            startup(args.length > 1 ? iterations : 10, args.length > 2 ? args[2] : null);
+        } else if (suite.equals("cold")) {
+            cold(args[1]);
+        } else if (suite.equals("outline")) {
+            outline(args.length > 1 ? args[1] : "../../../scripts");
+        } else {
+            System.err.println("Unknown benchmark: " + suite);
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,715 @@
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Optional backend that compiles hot WDL expressions into JVM classes so the JIT can inline
+ * the whole expression instead of dispatching through WdlEvaluator's node tree.
+ *
+ * Class files are emitted directly (version 49, which needs no StackMapTable) and loaded
+ * through a throwaway ClassLoader per expression so that unused expressions can be unloaded.
+ * Sub-expressions that have no direct bytecode translation (array, map and object literals,
+ * interpolated strings) are compiled with WdlEvaluator and called from the generated code.
+ *
+ * WdlEngine evaluates the expressions of task declarations, runtime sections and outputs with
+ * adaptive() nodes, which it shares between every call of a task, so an expression evaluated
+ * once per shard of a large scatter ends up as bytecode.
+ */
+public class WdlBytecode {
+    public static final int DEFAULT_THRESHOLD = 10000;
+    private static final AtomicInteger counter = new AtomicInteger();
+
+    private final WdlEvaluator evaluator;
+    public WdlBytecode(WdlEvaluator evaluator) {
+        this.evaluator = evaluator;
+    }
+
+    /**
+     * Returns a node that evaluates with WdlEvaluator's compiled tree until it has been
+     * evaluated threshold times and then switches to generated bytecode.  If bytecode
+     * generation fails the node keeps using the tree.
+     */
+    public WdlEvaluator.Node adaptive(WdlParser.AstNode ast, Map<String, WdlEvaluator.Kind> types, int threshold) throws WdlEvaluator.EvaluationError {
+        WdlEvaluator.Node tree = this.evaluator.compile(ast, types);
+        if (tree.isConstant()) {
+            return tree;
+        }
+        return new Adaptive(this, ast, types, tree, threshold);
+    }
+    public WdlEvaluator.Node adaptive(WdlParser.AstNode ast, Map<String, WdlEvaluator.Kind> types) throws WdlEvaluator.EvaluationError {
+        return adaptive(ast, types, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Compile an expression straight to bytecode.
+     */
+    public WdlEvaluator.Node compile(WdlParser.AstNode ast, Map<String, WdlEvaluator.Kind> types) throws WdlEvaluator.EvaluationError {
+        WdlEvaluator.Node tree = this.evaluator.compile(ast, types);
+        if (tree.isConstant()) {
+            return tree;
+        }
+        String name = "WdlCompiledExpression$" + counter.incrementAndGet();
+        Generator generator = new Generator(name, types);
+        byte[] bytes = generator.generate(ast);
+        try {
+            Class<?> cls = new Loader(WdlBytecode.class.getClassLoader()).define(name, bytes);
+            return (WdlEvaluator.Node) cls.getConstructor(Object[].class).newInstance((Object) generator.constants.toArray());
+        } catch (ReflectiveOperationException | LinkageError e) {
+            throw new WdlEvaluator.EvaluationError("Could not load generated class for expression: " + e);
+        }
+    }
+
+    private static class Adaptive extends WdlEvaluator.Node {
+        private final WdlBytecode backend;
+        private final WdlParser.AstNode ast;
+        private final Map<String, WdlEvaluator.Kind> types;
+        private final int threshold;
+        private volatile WdlEvaluator.Node delegate;
+        /* Counted by every thread that evaluates the node, as WdlEngine's shards all do. */
+        private final AtomicInteger evaluations = new AtomicInteger();
+        private volatile boolean compiled;
+        Adaptive(WdlBytecode backend, WdlParser.AstNode ast, Map<String, WdlEvaluator.Kind> types, WdlEvaluator.Node tree, int threshold) {
+            this.backend = backend;
+            this.ast = ast;
+            this.types = types;
+            this.delegate = tree;
+            this.threshold = threshold;
+        }
+        public Object eval(WdlEvaluator.Environment env) throws WdlEvaluator.EvaluationError {
+            if (!this.compiled && this.evaluations.incrementAndGet() >= this.threshold) {
+                promote();
+            }
+            return this.delegate.eval(env);
+        }
+        public WdlEvaluator.Kind kind() {
+            return this.delegate.kind();
+        }
+        /* Racing threads may both count past the threshold; only the first one compiles. */
+        private synchronized void promote() {
+            if (this.compiled) {
+                return;
+            }
+            this.compiled = true;
+            try {
+                this.delegate = this.backend.compile(this.ast, this.types);
+            } catch (WdlEvaluator.EvaluationError e) {
+                /* Keep using the node tree. */
+            }
+        }
+    }
+    private static class Loader extends ClassLoader {
+        Loader(ClassLoader parent) {
+            super(parent);
+        }
+        Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+
+    /**
+     * Entry points called from generated code.  They must be public since generated classes
+     * live in their own ClassLoader and therefore in a different runtime package.
+     */
+    public static final class Runtime {
+        private Runtime() {}
+        public static Object add(Object a, Object b) throws WdlEvaluator.EvaluationError { return WdlEvaluator.binary(WdlEvaluator.Op.ADD, a, b); }
+        public static Object subtract(Object a, Object b) throws WdlEvaluator.EvaluationError { return WdlEvaluator.binary(WdlEvaluator.Op.SUBTRACT, a, b); }
+        public static Object multiply(Object a, Object b) throws WdlEvaluator.EvaluationError { return WdlEvaluator.binary(WdlEvaluator.Op.MULTIPLY, a, b); }
+        public static Object divide(Object a, Object b) throws WdlEvaluator.EvaluationError { return WdlEvaluator.binary(WdlEvaluator.Op.DIVIDE, a, b); }
+        public static Object remainder(Object a, Object b) throws WdlEvaluator.EvaluationError { return WdlEvaluator.binary(WdlEvaluator.Op.REMAINDER, a, b); }
+        public static Object equals(Object a, Object b) throws WdlEvaluator.EvaluationError { return WdlEvaluator.binary(WdlEvaluator.Op.EQUALS, a, b); }
+        public static Object notEquals(Object a, Object b) throws WdlEvaluator.EvaluationError { return WdlEvaluator.binary(WdlEvaluator.Op.NOT_EQUALS, a, b); }
+        public static Object lessThan(Object a, Object b) throws WdlEvaluator.EvaluationError { return WdlEvaluator.binary(WdlEvaluator.Op.LESS_THAN, a, b); }
+        public static Object lessThanOrEqual(Object a, Object b) throws WdlEvaluator.EvaluationError { return WdlEvaluator.binary(WdlEvaluator.Op.LESS_THAN_OR_EQUAL, a, b); }
+        public static Object greaterThan(Object a, Object b) throws WdlEvaluator.EvaluationError { return WdlEvaluator.binary(WdlEvaluator.Op.GREATER_THAN, a, b); }
+        public static Object greaterThanOrEqual(Object a, Object b) throws WdlEvaluator.EvaluationError { return WdlEvaluator.binary(WdlEvaluator.Op.GREATER_THAN_OR_EQUAL, a, b); }
+        public static Object negate(Object a) throws WdlEvaluator.EvaluationError { return WdlEvaluator.negate(a); }
+        public static Object lookup(Object collection, Object key) throws WdlEvaluator.EvaluationError { return WdlEvaluator.lookup(collection, key); }
+        public static Object member(Object value, String member) throws WdlEvaluator.EvaluationError { return WdlEvaluator.member(value, member); }
+        public static String concatOperand(Object value) throws WdlEvaluator.EvaluationError {
+            if (value instanceof Boolean || value == null) {
+                throw new WdlEvaluator.EvaluationError("Invalid operand for Add: " + WdlEvaluator.describe(value));
+            }
+            return WdlEvaluator.asString(value);
+        }
+        public static long divide(long a, long b) throws WdlEvaluator.EvaluationError {
+            if (b == 0) throw new WdlEvaluator.EvaluationError("Division by zero");
+            return a / b;
+        }
+        public static long remainder(long a, long b) throws WdlEvaluator.EvaluationError {
+            if (b == 0) throw new WdlEvaluator.EvaluationError("Division by zero");
+            return a % b;
+        }
+    }
+
+    /* Section: Class file generation */
+
+    private static final String NODE = "WdlEvaluator$Node";
+    private static final String ENVIRONMENT = "WdlEvaluator$Environment";
+    private static final String FUNCTION = "WdlEvaluator$Function";
+    private static final String EVALUATOR = "WdlEvaluator";
+    private static final String RUNTIME = "WdlBytecode$Runtime";
+    private static final String OBJECT = "Ljava/lang/Object;";
+    private static final String BINARY = "(" + OBJECT + OBJECT + ")" + OBJECT;
+
+    /* JVM operand types: long, double, boolean (as int) and reference. */
+    private enum Type {
+        J(2), D(2), Z(1), A(1);
+        final int size;
+        Type(int size) {
+            this.size = size;
+        }
+    }
+    private static class ConstantPool {
+        private final Map<String, Integer> entries = new HashMap<String, Integer>();
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private int count = 1;
+        private int add(String key, int slots, byte[] entry) {
+            Integer index = this.entries.get(key);
+            if (index != null) {
+                return index;
+            }
+            index = this.count;
+            this.count += slots;
+            this.entries.put(key, index);
+            this.bytes.write(entry, 0, entry.length);
+            return index;
+        }
+        private static byte[] entry(int tag, Object... parts) {
+            try {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                DataOutputStream out = new DataOutputStream(bytes);
+                out.writeByte(tag);
+                for (Object part : parts) {
+                    if (part instanceof String) out.writeUTF((String) part);
+                    else if (part instanceof Long) out.writeLong((Long) part);
+                    else if (part instanceof Double) out.writeDouble((Double) part);
+                    else out.writeShort((Integer) part);
+                }
+                return bytes.toByteArray();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        int utf8(String value) {
+            return add("U" + value, 1, entry(1, value));
+        }
+        int longValue(long value) {
+            return add("J" + value, 2, entry(5, value));
+        }
+        int doubleValue(double value) {
+            return add("D" + Double.doubleToRawLongBits(value), 2, entry(6, value));
+        }
+        int cls(String name) {
+            return add("C" + name, 1, entry(7, utf8(name)));
+        }
+        int string(String value) {
+            return add("S" + value, 1, entry(8, utf8(value)));
+        }
+        private int nameAndType(String name, String descriptor) {
+            return add("N" + name + " " + descriptor, 1, entry(12, utf8(name), utf8(descriptor)));
+        }
+        int field(String owner, String name, String descriptor) {
+            return add("F" + owner + "." + name + descriptor, 1, entry(9, cls(owner), nameAndType(name, descriptor)));
+        }
+        int method(String owner, String name, String descriptor) {
+            return add("M" + owner + "." + name + descriptor, 1, entry(10, cls(owner), nameAndType(name, descriptor)));
+        }
+        int interfaceMethod(String owner, String name, String descriptor) {
+            return add("I" + owner + "." + name + descriptor, 1, entry(11, cls(owner), nameAndType(name, descriptor)));
+        }
+    }
+    private static class Code {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        int stack;
+        int maxStack;
+        void op(int opcode, int stackDelta) {
+            this.bytes.write(opcode);
+            this.stack += stackDelta;
+            this.maxStack = Math.max(this.maxStack, this.stack);
+        }
+        void u1(int value) {
+            this.bytes.write(value);
+        }
+        void u2(int value) {
+            this.bytes.write(value >> 8);
+            this.bytes.write(value);
+        }
+        int position() {
+            return this.bytes.size();
+        }
+        /* Emits a branch with a placeholder offset and returns its position for patch(). */
+        int branch(int opcode, int stackDelta) {
+            int at = position();
+            op(opcode, stackDelta);
+            u2(0);
+            return at;
+        }
+        byte[] patch(byte[] code, int at, int target) {
+            int offset = target - at;
+            code[at + 1] = (byte) (offset >> 8);
+            code[at + 2] = (byte) offset;
+            return code;
+        }
+    }
+
+    private class Generator {
+        private final String name;
+        private final Map<String, WdlEvaluator.Kind> types;
+        private final ConstantPool pool = new ConstantPool();
+        private final Code code = new Code();
+        private final List<int[]> patches = new ArrayList<int[]>();
+        final List<Object> constants = new ArrayList<Object>();
+        Generator(String name, Map<String, WdlEvaluator.Kind> types) {
+            this.name = name;
+            this.types = types;
+        }
+        byte[] generate(WdlParser.AstNode ast) throws WdlEvaluator.EvaluationError {
+            emit(ast, Type.A);
+            this.code.op(0xb0, -1); /* areturn */
+            byte[] body = this.code.bytes.toByteArray();
+            if (body.length > 65535) {
+                throw new WdlEvaluator.EvaluationError("Expression too large to compile");
+            }
+            for (int[] patch : this.patches) {
+                this.code.patch(body, patch[0], patch[1]);
+            }
+            try {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                DataOutputStream out = new DataOutputStream(bytes);
+                int thisClass = this.pool.cls(this.name);
+                int superClass = this.pool.cls(NODE);
+                int field = this.pool.field(this.name, "k", "[" + OBJECT);
+                int superInit = this.pool.method(NODE, "<init>", "()V");
+                int codeName = this.pool.utf8("Code");
+                int initName = this.pool.utf8("<init>");
+                int initDescriptor = this.pool.utf8("([" + OBJECT + ")V");
+                int evalName = this.pool.utf8("eval");
+                int evalDescriptor = this.pool.utf8("(L" + ENVIRONMENT + ";)" + OBJECT);
+                int fieldName = this.pool.utf8("k");
+                int fieldDescriptor = this.pool.utf8("[" + OBJECT);
+                out.writeInt(0xCAFEBABE);
+                out.writeShort(0);
+                out.writeShort(49);
+                out.writeShort(this.pool.count);
+                this.pool.out.flush();
+                out.write(this.pool.bytes.toByteArray());
+                out.writeShort(0x0031); /* public final super */
+                out.writeShort(thisClass);
+                out.writeShort(superClass);
+                out.writeShort(0);
+                out.writeShort(1);
+                out.writeShort(0x0012); /* private final */
+                out.writeShort(fieldName);
+                out.writeShort(fieldDescriptor);
+                out.writeShort(0);
+                out.writeShort(2);
+                /* <init>(Object[] k) { super(); this.k = k; } */
+                byte[] init = {
+                    0x2a, (byte) 0xb7, (byte) (superInit >> 8), (byte) superInit,
+                    0x2a, 0x2b, (byte) 0xb5, (byte) (field >> 8), (byte) field,
+                    (byte) 0xb1
+                };
+                writeMethod(out, 0x0001, initName, initDescriptor, codeName, 2, 2, init);
+                writeMethod(out, 0x0001, evalName, evalDescriptor, codeName, this.code.maxStack, 2, body);
+                out.writeShort(0);
+                out.flush();
+                return bytes.toByteArray();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        private void writeMethod(DataOutputStream out, int access, int name, int descriptor, int codeName, int maxStack, int maxLocals, byte[] body) throws IOException {
+            out.writeShort(access);
+            out.writeShort(name);
+            out.writeShort(descriptor);
+            out.writeShort(1);
+            out.writeShort(codeName);
+            out.writeInt(12 + body.length);
+            out.writeShort(maxStack);
+            out.writeShort(maxLocals);
+            out.writeInt(body.length);
+            out.write(body);
+            out.writeShort(0);
+            out.writeShort(0);
+        }
+
+        /* Section: Type inference, mirrors the node selection in WdlEvaluator.binaryNode() */
+
+        private Type typeOf(WdlParser.AstNode ast) {
+            if (ast instanceof WdlParser.Terminal) {
+                WdlParser.Terminal terminal = (WdlParser.Terminal) ast;
+                switch (terminal.getTerminalStr()) {
+                    case "integer": return Type.J;
+                    case "float": return Type.D;
+                    case "boolean": return Type.Z;
+                    case "identifier": {
+                        WdlEvaluator.Kind kind = this.types.get(terminal.getSourceString());
+                        if (kind == WdlEvaluator.Kind.INT) return Type.J;
+                        if (kind == WdlEvaluator.Kind.FLOAT) return Type.D;
+                        if (kind == WdlEvaluator.Kind.BOOLEAN) return Type.Z;
+                        return Type.A;
+                    }
+                    default: return Type.A;
+                }
+            }
+            WdlParser.Ast node = (WdlParser.Ast) ast;
+            switch (node.getName()) {
+                case "Add":
+                case "Subtract":
+                case "Multiply":
+                case "Divide":
+                case "Remainder":
+                    return arithmeticType(node);
+                case "Equals":
+                case "NotEquals":
+                case "LessThan":
+                case "LessThanOrEqual":
+                case "GreaterThan":
+                case "GreaterThanOrEqual":
+                    return arithmeticType(node) == Type.A ? Type.A : Type.Z;
+                case "LogicalAnd":
+                case "LogicalOr":
+                case "LogicalNot":
+                    return Type.Z;
+                case "UnaryPlus":
+                case "UnaryNegation":
+                    return typeOf(node.getAttribute("expression"));
+                case "TernaryIf": {
+                    Type t = typeOf(node.getAttribute("iftrue"));
+                    return t == typeOf(node.getAttribute("iffalse")) ? t : Type.A;
+                }
+                case "TupleLiteral": {
+                    WdlParser.AstList values = (WdlParser.AstList) node.getAttribute("values");
+                    return values.size() == 1 ? typeOf(values.get(0)) : Type.A;
+                }
+                default:
+                    return Type.A;
+            }
+        }
+        private Type arithmeticType(WdlParser.Ast node) {
+            Type l = typeOf(node.getAttribute("lhs"));
+            Type r = typeOf(node.getAttribute("rhs"));
+            if (l == Type.J && r == Type.J) return Type.J;
+            if ((l == Type.J || l == Type.D) && (r == Type.J || r == Type.D)) return Type.D;
+            return Type.A;
+        }
+
+        /* Section: Emission */
+
+        private void emit(WdlParser.AstNode ast, Type want) throws WdlEvaluator.EvaluationError {
+            convert(emit(ast), want);
+        }
+        private Type emit(WdlParser.AstNode ast) throws WdlEvaluator.EvaluationError {
+            Type type = typeOf(ast);
+            if (ast instanceof WdlParser.Terminal) {
+                WdlParser.Terminal terminal = (WdlParser.Terminal) ast;
+                String source = terminal.getSourceString();
+                switch (terminal.getTerminalStr()) {
+                    case "integer":
+                        ldc2(this.pool.longValue(Long.parseLong(source)));
+                        return Type.J;
+                    case "float":
+                        ldc2(this.pool.doubleValue(Double.parseDouble(source)));
+                        return Type.D;
+                    case "boolean":
+                        this.code.op(Boolean.parseBoolean(source) ? 0x04 : 0x03, 1);
+                        return Type.Z;
+                    case "string":
+                        if (source.indexOf("${") >= 0) {
+                            return delegate(ast);
+                        }
+                        ldc(this.pool.string(source));
+                        return Type.A;
+                    case "identifier":
+                        this.code.op(0x2b, 1); /* aload_1 */
+                        ldc(this.pool.string(source));
+                        invokeinterface(ENVIRONMENT, "lookup", "(Ljava/lang/String;)" + OBJECT, -1);
+                        convert(Type.A, type);
+                        return type;
+                    default:
+                        return delegate(ast);
+                }
+            }
+            WdlParser.Ast node = (WdlParser.Ast) ast;
+            switch (node.getName()) {
+                case "Add":
+                case "Subtract":
+                case "Multiply":
+                case "Divide":
+                case "Remainder":
+                    return arithmetic(node, type);
+                case "Equals":
+                case "NotEquals":
+                case "LessThan":
+                case "LessThanOrEqual":
+                case "GreaterThan":
+                case "GreaterThanOrEqual":
+                    return comparison(node, type);
+                case "LogicalAnd":
+                case "LogicalOr": {
+                    boolean and = node.getName().equals("LogicalAnd");
+                    emit(node.getAttribute("lhs"), Type.Z);
+                    int shortCircuit = this.code.branch(and ? 0x99 : 0x9a, -1); /* ifeq / ifne */
+                    emit(node.getAttribute("rhs"), Type.Z);
+                    int end = this.code.branch(0xa7, 0); /* goto */
+                    this.code.stack -= 1;
+                    mark(shortCircuit);
+                    this.code.op(and ? 0x03 : 0x04, 1);
+                    mark(end);
+                    return Type.Z;
+                }
+                case "LogicalNot":
+                    emit(node.getAttribute("expression"), Type.Z);
+                    this.code.op(0x04, 1); /* iconst_1 */
+                    this.code.op(0x82, -1); /* ixor */
+                    return Type.Z;
+                case "UnaryPlus":
+                    return emit(node.getAttribute("expression"));
+                case "UnaryNegation": {
+                    Type inner = emit(node.getAttribute("expression"));
+                    if (inner == Type.J) {
+                        this.code.op(0x75, 0); /* lneg */
+                    } else if (inner == Type.D) {
+                        this.code.op(0x77, 0); /* dneg */
+                    } else {
+                        convert(inner, Type.A);
+                        invokestatic(RUNTIME, "negate", "(" + OBJECT + ")" + OBJECT, 0);
+                        return Type.A;
+                    }
+                    return inner;
+                }
+                case "TernaryIf": {
+                    emit(node.getAttribute("cond"), Type.Z);
+                    int otherwise = this.code.branch(0x99, -1); /* ifeq */
+                    emit(node.getAttribute("iftrue"), type);
+                    int end = this.code.branch(0xa7, 0);
+                    this.code.stack -= type.size;
+                    mark(otherwise);
+                    emit(node.getAttribute("iffalse"), type);
+                    mark(end);
+                    return type;
+                }
+                case "TupleLiteral": {
+                    WdlParser.AstList values = (WdlParser.AstList) node.getAttribute("values");
+                    return values.size() == 1 ? emit(values.get(0)) : delegate(ast);
+                }
+                case "ArrayOrMapLookup":
+                    emit(node.getAttribute("lhs"), Type.A);
+                    emit(node.getAttribute("rhs"), Type.A);
+                    invokestatic(RUNTIME, "lookup", BINARY, -1);
+                    return Type.A;
+                case "MemberAccess":
+                    emit(node.getAttribute("lhs"), Type.A);
+                    ldc(this.pool.string(((WdlParser.Terminal) node.getAttribute("rhs")).getSourceString()));
+                    invokestatic(RUNTIME, "member", "(" + OBJECT + "Ljava/lang/String;)" + OBJECT, -1);
+                    return Type.A;
+                case "FunctionCall":
+                    return functionCall(node);
+                default:
+                    return delegate(ast);
+            }
+        }
+        private boolean isString(WdlParser.AstNode ast) {
+            if (ast instanceof WdlParser.Terminal) {
+                WdlParser.Terminal terminal = (WdlParser.Terminal) ast;
+                if (terminal.getTerminalStr().equals("identifier")) {
+                    return this.types.get(terminal.getSourceString()) == WdlEvaluator.Kind.STRING;
+                }
+                return terminal.getTerminalStr().equals("string");
+            }
+            WdlParser.Ast node = (WdlParser.Ast) ast;
+            return node.getName().equals("Add") && (isString(node.getAttribute("lhs")) || isString(node.getAttribute("rhs")));
+        }
+        private void concatParts(WdlParser.AstNode ast, List<WdlParser.AstNode> parts) {
+            if (ast instanceof WdlParser.Ast && isString(ast)) {
+                concatParts(((WdlParser.Ast) ast).getAttribute("lhs"), parts);
+                concatParts(((WdlParser.Ast) ast).getAttribute("rhs"), parts);
+            } else {
+                parts.add(ast);
+            }
+        }
+        private Type arithmetic(WdlParser.Ast node, Type type) throws WdlEvaluator.EvaluationError {
+            String name = node.getName();
+            if (type == Type.A && isString(node)) {
+                List<WdlParser.AstNode> parts = new ArrayList<WdlParser.AstNode>();
+                concatParts(node, parts);
+                this.code.op(0xbb, 1); /* new */
+                this.code.u2(this.pool.cls("java/lang/StringBuilder"));
+                this.code.op(0x59, 1);
+                invokespecial("java/lang/StringBuilder", "<init>", "()V", -1);
+                for (WdlParser.AstNode part : parts) {
+                    emit(part, Type.A);
+                    invokestatic(RUNTIME, "concatOperand", "(" + OBJECT + ")Ljava/lang/String;", 0);
+                    invokevirtual("java/lang/StringBuilder", "append", "(Ljava/lang/String;)Ljava/lang/StringBuilder;", -1);
+                }
+                invokevirtual("java/lang/StringBuilder", "toString", "()Ljava/lang/String;", 0);
+                return Type.A;
+            }
+            emit(node.getAttribute("lhs"), type);
+            emit(node.getAttribute("rhs"), type);
+            if (type == Type.J) {
+                switch (name) {
+                    case "Add": this.code.op(0x61, -2); break;
+                    case "Subtract": this.code.op(0x65, -2); break;
+                    case "Multiply": this.code.op(0x69, -2); break;
+                    case "Divide": invokestatic(RUNTIME, "divide", "(JJ)J", -2); break;
+                    default: invokestatic(RUNTIME, "remainder", "(JJ)J", -2); break;
+                }
+            } else if (type == Type.D) {
+                switch (name) {
+                    case "Add": this.code.op(0x63, -2); break;
+                    case "Subtract": this.code.op(0x67, -2); break;
+                    case "Multiply": this.code.op(0x6b, -2); break;
+                    case "Divide": this.code.op(0x6f, -2); break;
+                    default: this.code.op(0x73, -2); break;
+                }
+            } else {
+                invokestatic(RUNTIME, Character.toLowerCase(name.charAt(0)) + name.substring(1), BINARY, -1);
+            }
+            return type;
+        }
+        private Type comparison(WdlParser.Ast node, Type type) throws WdlEvaluator.EvaluationError {
+            String name = node.getName();
+            if (type == Type.A) {
+                emit(node.getAttribute("lhs"), Type.A);
+                emit(node.getAttribute("rhs"), Type.A);
+                invokestatic(RUNTIME, Character.toLowerCase(name.charAt(0)) + name.substring(1), BINARY, -1);
+                return Type.A;
+            }
+            Type operands = arithmeticType(node);
+            emit(node.getAttribute("lhs"), operands);
+            emit(node.getAttribute("rhs"), operands);
+            if (operands == Type.J) {
+                this.code.op(0x94, -3); /* lcmp */
+            } else {
+                /* Not dcmpl: WdlEvaluator orders NaN and -0.0 as Double.compare does. */
+                invokestatic("java/lang/Double", "compare", "(DD)I", -3);
+            }
+            int opcode;
+            switch (name) {
+                case "Equals": opcode = 0x99; break; /* ifeq */
+                case "NotEquals": opcode = 0x9a; break; /* ifne */
+                case "LessThan": opcode = 0x9b; break; /* iflt */
+                case "GreaterThanOrEqual": opcode = 0x9c; break; /* ifge */
+                case "GreaterThan": opcode = 0x9d; break; /* ifgt */
+                default: opcode = 0x9e; break; /* ifle */
+            }
+            int isTrue = this.code.branch(opcode, -1);
+            this.code.op(0x03, 1);
+            int end = this.code.branch(0xa7, 0);
+            this.code.stack -= 1;
+            mark(isTrue);
+            this.code.op(0x04, 1);
+            mark(end);
+            return Type.Z;
+        }
+        private Type functionCall(WdlParser.Ast node) throws WdlEvaluator.EvaluationError {
+            String function = ((WdlParser.Terminal) node.getAttribute("name")).getSourceString();
+            WdlEvaluator.Function impl = evaluator.getFunctions().get(function);
+            if (impl == null) {
+                throw new WdlEvaluator.EvaluationError("Unknown function: " + function);
+            }
+            WdlParser.AstList params = (WdlParser.AstList) node.getAttribute("params");
+            constant(impl, FUNCTION);
+            this.code.op(0xbb, 1); /* new */
+            this.code.u2(this.pool.cls("java/util/ArrayList"));
+            this.code.op(0x59, 1); /* dup */
+            pushInt(params.size());
+            invokespecial("java/util/ArrayList", "<init>", "(I)V", -2);
+            for (WdlParser.AstNode param : params) {
+                this.code.op(0x59, 1);
+                emit(param, Type.A);
+                invokevirtual("java/util/ArrayList", "add", "(" + OBJECT + ")Z", -1);
+                this.code.op(0x57, -1); /* pop */
+            }
+            invokeinterface(FUNCTION, "call", "(Ljava/util/List;)" + OBJECT, -1);
+            return Type.A;
+        }
+
+        /* Hands a sub-expression to a WdlEvaluator node stored in the constants array. */
+        private Type delegate(WdlParser.AstNode ast) throws WdlEvaluator.EvaluationError {
+            constant(evaluator.compile(ast, this.types), NODE);
+            this.code.op(0x2b, 1); /* aload_1 */
+            invokevirtual(NODE, "eval", "(L" + ENVIRONMENT + ";)" + OBJECT, -1);
+            return Type.A;
+        }
+        private void constant(Object value, String cls) {
+            this.constants.add(value);
+            this.code.op(0x2a, 1); /* aload_0 */
+            this.code.op(0xb4, 0); /* getfield */
+            this.code.u2(this.pool.field(this.name, "k", "[" + OBJECT));
+            pushInt(this.constants.size() - 1);
+            this.code.op(0x32, -1); /* aaload */
+            this.code.op(0xc0, 0); /* checkcast */
+            this.code.u2(this.pool.cls(cls));
+        }
+        private void convert(Type from, Type to) {
+            if (from == to) {
+                return;
+            }
+            if (to == Type.A) {
+                switch (from) {
+                    case J: invokestatic("java/lang/Long", "valueOf", "(J)Ljava/lang/Long;", -1); break;
+                    case D: invokestatic("java/lang/Double", "valueOf", "(D)Ljava/lang/Double;", -1); break;
+                    default: invokestatic("java/lang/Boolean", "valueOf", "(Z)Ljava/lang/Boolean;", 0); break;
+                }
+                return;
+            }
+            if (from == Type.J && to == Type.D) {
+                this.code.op(0x8a, 0); /* l2d */
+                return;
+            }
+            convert(from, Type.A);
+            switch (to) {
+                case J: invokestatic(EVALUATOR, "asInt", "(" + OBJECT + ")J", 1); break;
+                case D: invokestatic(EVALUATOR, "asFloat", "(" + OBJECT + ")D", 1); break;
+                default: invokestatic(EVALUATOR, "asBoolean", "(" + OBJECT + ")Z", 0); break;
+            }
+        }
+        private void mark(int branch) {
+            this.patches.add(new int[] {branch, this.code.position()});
+        }
+        private void pushInt(int value) {
+            if (value <= 5) {
+                this.code.op(0x03 + value, 1);
+            } else if (value <= 127) {
+                this.code.op(0x10, 1);
+                this.code.u1(value);
+            } else {
+                this.code.op(0x11, 1);
+                this.code.u2(value);
+            }
+        }
+        private void ldc(int index) {
+            this.code.op(0x13, 1); /* ldc_w */
+            this.code.u2(index);
+        }
+        private void ldc2(int index) {
+            this.code.op(0x14, 2); /* ldc2_w */
+            this.code.u2(index);
+        }
+        private void invokestatic(String owner, String name, String descriptor, int stackDelta) {
+            this.code.op(0xb8, stackDelta);
+            this.code.u2(this.pool.method(owner, name, descriptor));
+        }
+        private void invokevirtual(String owner, String name, String descriptor, int stackDelta) {
+            this.code.op(0xb6, stackDelta);
+            this.code.u2(this.pool.method(owner, name, descriptor));
+        }
+        private void invokespecial(String owner, String name, String descriptor, int stackDelta) {
+            this.code.op(0xb7, stackDelta);
+            this.code.u2(this.pool.method(owner, name, descriptor));
+        }
+        private void invokeinterface(String owner, String name, String descriptor, int stackDelta) {
+            int argumentSlots = 1 - stackDelta;
+            this.code.op(0xb9, stackDelta);
+            this.code.u2(this.pool.interfaceMethod(owner, name, descriptor));
+            this.code.u1(argumentSlots);
+            this.code.u1(0);
+        }
+    }
+}
@@ -0,0 +1,456 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.*;
+
+/**
+ * Content-addressed cache of call results, stored on local disk.
+ *
+ * A call's key is the SHA-256 of its Task Ast (declarations, command, runtime and outputs,
+ * with source positions and the task name left out) together with its input values, where
+ * every File input is replaced by the hash of its contents.  Input files are hashed by a
+ * WdlFileHasher whose digests are remembered in directory/file-hashes.tsv.
+ *
+ * Each entry is a directory directory/ab/abcdef... holding outputs.json and read-only copies
+ * of the output files, so an entry stays valid after the run that produced it is deleted or
+ * changes its files.  A hit hard links those copies into the call's directory; since they are
+ * read-only, a command cannot write through such a link into the cache, and detach() turns
+ * them into private copies before a call is run again in that directory.  Once the cache holds
+ * more than maxEntries entries or maxBytes bytes, the least recently used entries that no
+ * lookup is reading are evicted.
+ */
+public class WdlCallCache implements Closeable {
+    private interface FileVisitor {
+        Object visit(String path) throws IOException;
+    }
+
+    public static final long DEFAULT_MAX_BYTES = 64L << 30;
+    public static final int DEFAULT_MAX_ENTRIES = 100000;
+
+    private final Path directory;
+    private final long maxBytes;
+    private final int maxEntries;
+    private final WdlFileHasher hasher;
+    /* Entry sizes in bytes, least recently used first.  Guarded by this. */
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<String, Long>(16, 0.75f, true);
+    /* Number of lookups reading each entry, which evict() leaves alone.  Guarded by this. */
+    private final Map<String, Integer> pinned = new HashMap<String, Integer>();
+    private long bytes;
+    private volatile long hits;
+    private volatile long misses;
+
+    public WdlCallCache(Path directory, long maxBytes, int maxEntries, int hashThreads) throws IOException {
+        this.directory = directory.toAbsolutePath();
+        this.maxBytes = maxBytes;
+        this.maxEntries = maxEntries;
+        Files.createDirectories(this.directory);
+        this.hasher = new WdlFileHasher(hashThreads, WdlFileHasher.DEFAULT_CHUNK_SIZE, this.directory.resolve("file-hashes.tsv"));
+        load();
+        evict(null);
+    }
+    public long getHits() {
+        return this.hits;
+    }
+    public long getMisses() {
+        return this.misses;
+    }
+    public synchronized int size() {
+        return this.entries.size();
+    }
+    public WdlFileHasher getFileHasher() {
+        return this.hasher;
+    }
+    public void close() throws IOException {
+        this.hasher.close();
+    }
+
+    /* Rebuild the LRU index from the entries on disk, oldest access first. */
+    private void load() throws IOException {
+        List<Object[]> found = new ArrayList<Object[]>();
+        try (DirectoryStream<Path> prefixes = Files.newDirectoryStream(this.directory)) {
+            for (Path prefix : prefixes) {
+                if (!Files.isDirectory(prefix) || prefix.getFileName().toString().length() != 2) {
+                    continue;
+                }
+                try (DirectoryStream<Path> keys = Files.newDirectoryStream(prefix)) {
+                    for (Path entry : keys) {
+                        Path outputs = entry.resolve("outputs.json");
+                        if (entry.getFileName().toString().indexOf('.') >= 0) {
+                            /* Left behind by a store or an eviction that did not finish. */
+                            delete(entry);
+                        } else if (Files.exists(outputs)) {
+                            found.add(new Object[] {entry.getFileName().toString(), Files.getLastModifiedTime(outputs), sizeOf(entry)});
+                        }
+                    }
+                }
+            }
+        }
+        found.sort((a, b) -> ((FileTime) a[1]).compareTo((FileTime) b[1]));
+        for (Object[] entry : found) {
+            this.entries.put((String) entry[0], (Long) entry[2]);
+            this.bytes += (Long) entry[2];
+        }
+    }
+    private Path entry(String key) {
+        return this.directory.resolve(key.substring(0, 2)).resolve(key);
+    }
+
+    /* Section: Keys */
+
+    /**
+     * The cache key of a call of task with the given input values.  types holds the type Ast
+     * of each input so that File values can be found and hashed by content.
+     */
+    public String key(WdlParser.Ast task, Map<String, Object> inputs, Map<String, WdlParser.AstNode> types) throws IOException {
+        Map<String, Object> hashed = hashFiles(this.hasher, inputs, types);
+        StringBuilder sb = new StringBuilder();
+        for (WdlParser.AstNode declaration : (WdlParser.AstList) task.getAttribute("declarations")) {
+            normalize(declaration, sb);
+        }
+        for (WdlParser.AstNode section : (WdlParser.AstList) task.getAttribute("sections")) {
+            String name = ((WdlParser.Ast) section).getName();
+            if (name.equals("RawCommand") || name.equals("Runtime") || name.equals("Outputs")) {
+                normalize(section, sb);
+            }
+        }
+        for (String name : new TreeSet<String>(hashed.keySet())) {
+            sb.append(name.length()).append(':').append(name).append('=');
+            normalizeValue(hashed.get(name), sb);
+        }
+        return WdlFileHasher.hex(WdlFileHasher.digest().digest(sb.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * inputs with every File in them, as described by the type Asts in types, replaced by the
+     * hasher's digest of its contents, or by "path:" and its path if it is not a regular file.
+     */
+    static Map<String, Object> hashFiles(WdlFileHasher hasher, Map<String, Object> inputs, Map<String, WdlParser.AstNode> types) throws IOException {
+        Set<Path> paths = new HashSet<Path>();
+        for (Map.Entry<String, Object> input : inputs.entrySet()) {
+            files(input.getValue(), types.get(input.getKey()), path -> {
+                if (Files.isRegularFile(Paths.get(path))) {
+                    paths.add(Paths.get(path));
+                }
+                return path;
+            });
+        }
+        Map<Path, String> hashes = hasher.hashAll(paths);
+        Map<String, Object> hashed = new HashMap<String, Object>();
+        for (Map.Entry<String, Object> input : inputs.entrySet()) {
+            hashed.put(input.getKey(), files(input.getValue(), types.get(input.getKey()), path -> {
+                String hash = hashes.get(Paths.get(path));
+                return hash != null ? hash : "path:" + path;
+            }));
+        }
+        return hashed;
+    }
+
+    /* A position independent rendering of an Ast, with every string length-prefixed. */
+    private static void normalize(WdlParser.AstNode node, StringBuilder sb) {
+        if (node == null) {
+            sb.append('~');
+        } else if (node instanceof WdlParser.Terminal) {
+            WdlParser.Terminal terminal = (WdlParser.Terminal) node;
+            String source = terminal.getSourceString();
+            sb.append(terminal.getTerminalStr()).append(':').append(source.length()).append(':').append(source);
+        } else if (node instanceof WdlParser.AstList) {
+            sb.append('[');
+            for (WdlParser.AstNode item : (WdlParser.AstList) node) {
+                normalize(item, sb);
+            }
+            sb.append(']');
+        } else {
+            WdlParser.Ast ast = (WdlParser.Ast) node;
+            sb.append('(').append(ast.getName());
+            for (Map.Entry<String, WdlParser.AstNode> attribute : ast.getAttributes().entrySet()) {
+                sb.append(' ').append(attribute.getKey()).append('=');
+                normalize(attribute.getValue(), sb);
+            }
+            sb.append(')');
+        }
+    }
+    private static void normalizeValue(Object value, StringBuilder sb) {
+        if (value instanceof List) {
+            sb.append('[');
+            for (Object item : (List<?>) value) {
+                normalizeValue(item, sb);
+            }
+            sb.append(']');
+        } else if (value instanceof Map) {
+            sb.append('{');
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                normalizeValue(entry.getKey(), sb);
+                normalizeValue(entry.getValue(), sb);
+            }
+            sb.append('}');
+        } else if (value instanceof WdlEvaluator.Pair) {
+            sb.append('(');
+            normalizeValue(((WdlEvaluator.Pair) value).getLeft(), sb);
+            normalizeValue(((WdlEvaluator.Pair) value).getRight(), sb);
+            sb.append(')');
+        } else if (value == null) {
+            sb.append('~');
+        } else {
+            String string = value.toString();
+            sb.append(value.getClass().getSimpleName().charAt(0)).append(string.length()).append(':').append(string);
+        }
+    }
+
+    /* Replace every File in value, as described by type, with visitor's result. */
+    private static Object files(Object value, WdlParser.AstNode type, FileVisitor visitor) throws IOException {
+        if (value == null || type == null) {
+            return value;
+        }
+        if (type instanceof WdlParser.Terminal) {
+            return ((WdlParser.Terminal) type).getSourceString().equals("File") ? visitor.visit(value.toString()) : value;
+        }
+        WdlParser.Ast ast = (WdlParser.Ast) type;
+        if (ast.getName().equals("OptionalType") || ast.getName().equals("NonEmptyType")) {
+            return files(value, ast.getAttribute("innerType"), visitor);
+        }
+        WdlParser.AstList subtype = (WdlParser.AstList) ast.getAttribute("subtype");
+        String name = ((WdlParser.Terminal) ast.getAttribute("name")).getSourceString();
+        if (name.equals("Array") && value instanceof List) {
+            List<Object> result = new ArrayList<Object>();
+            for (Object item : (List<?>) value) {
+                result.add(files(item, subtype.get(0), visitor));
+            }
+            return result;
+        }
+        if (name.equals("Map") && value instanceof Map) {
+            Map<Object, Object> result = new LinkedHashMap<Object, Object>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                result.put(files(entry.getKey(), subtype.get(0), visitor), files(entry.getValue(), subtype.get(1), visitor));
+            }
+            return result;
+        }
+        if (name.equals("Pair") && value instanceof WdlEvaluator.Pair) {
+            WdlEvaluator.Pair pair = (WdlEvaluator.Pair) value;
+            return new WdlEvaluator.Pair(files(pair.getLeft(), subtype.get(0), visitor), files(pair.getRight(), subtype.get(1), visitor));
+        }
+        return value;
+    }
+
+    /* Section: Store */
+
+    private static Map<String, WdlParser.AstNode> outputTypes(WdlParser.Ast task) {
+        Map<String, WdlParser.AstNode> types = new HashMap<String, WdlParser.AstNode>();
+        for (WdlParser.AstNode section : (WdlParser.AstList) task.getAttribute("sections")) {
+            if (((WdlParser.Ast) section).getName().equals("Outputs")) {
+                for (WdlParser.AstNode output : (WdlParser.AstList) ((WdlParser.Ast) section).getAttribute("attributes")) {
+                    WdlParser.Ast ast = (WdlParser.Ast) output;
+                    types.put(((WdlParser.Terminal) ast.getAttribute("name")).getSourceString(), ast.getAttribute("type"));
+                }
+            }
+        }
+        return types;
+    }
+
+    /**
+     * Outputs recorded under key, with their files linked into callDirectory, or null if there
+     * is no such entry.
+     */
+    public Map<String, Object> lookup(String key, WdlParser.Ast task, Path callDirectory) throws IOException {
+        synchronized (this) {
+            if (this.entries.get(key) == null) {
+                this.misses++;
+                return null;
+            }
+            this.pinned.merge(key, 1, Integer::sum);
+        }
+        try {
+            return read(key, task, callDirectory);
+        } finally {
+            synchronized (this) {
+                this.pinned.compute(key, (pinnedKey, count) -> count == 1 ? null : count - 1);
+            }
+        }
+    }
+    private Map<String, Object> read(String key, WdlParser.Ast task, Path callDirectory) throws IOException {
+        Path entry = entry(key);
+        Object json;
+        try {
+            json = WdlJson.parse(entry.resolve("outputs.json").toFile());
+        } catch (IOException e) {
+            synchronized (this) {
+                this.misses++;
+            }
+            return null;
+        }
+        Map<String, WdlParser.AstNode> types = outputTypes(task);
+        Map<String, Object> outputs = new LinkedHashMap<String, Object>();
+        for (Map.Entry<?, ?> output : ((Map<?, ?>) json).entrySet()) {
+            WdlParser.AstNode type = types.get(output.getKey());
+            Object value;
+            try {
+                value = type == null ? output.getValue() : WdlEngine.coerce(output.getValue(), type, entry);
+            } catch (WdlEvaluator.EvaluationError e) {
+                throw new IOException("Corrupt cache entry " + entry + ": " + e.getMessage());
+            }
+            outputs.put((String) output.getKey(), files(value, type, path -> {
+                Path source = Paths.get(path);
+                Path target = callDirectory.resolve(source.getFileName());
+                if (Files.exists(target)) {
+                    target = callDirectory.resolve(entry.relativize(source));
+                }
+                link(source, target);
+                return target.toString();
+            }));
+        }
+        Files.setLastModifiedTime(entry.resolve("outputs.json"), FileTime.fromMillis(System.currentTimeMillis()));
+        synchronized (this) {
+            this.hits++;
+        }
+        return Collections.unmodifiableMap(outputs);
+    }
+
+    /**
+     * Record the outputs of a successful call under key, then evict least recently used
+     * entries until the cache is within its bounds again.
+     */
+    public void store(String key, WdlParser.Ast task, Map<String, Object> outputs) throws IOException {
+        Path entry = entry(key);
+        Files.createDirectories(entry.getParent());
+        Path staging = Files.createTempDirectory(entry.getParent(), key + ".");
+        try {
+            Map<String, WdlParser.AstNode> types = outputTypes(task);
+            Map<String, Object> recorded = new LinkedHashMap<String, Object>();
+            int[] count = {0};
+            for (Map.Entry<String, Object> output : outputs.entrySet()) {
+                recorded.put(output.getKey(), files(output.getValue(), types.get(output.getKey()), path -> {
+                    Path source = Paths.get(path);
+                    Path relative = Paths.get("files", Integer.toString(count[0]++), source.getFileName().toString());
+                    copy(source, staging.resolve(relative));
+                    return relative.toString();
+                }));
+            }
+            Files.write(staging.resolve("outputs.json"), WdlJson.toString(recorded).getBytes(StandardCharsets.UTF_8));
+            long size = sizeOf(staging);
+            /* Entries only appear and disappear under the lock, along with their index entries. */
+            synchronized (this) {
+                try {
+                    Files.move(staging, entry, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileSystemException e) {
+                    if (!Files.isDirectory(entry)) {
+                        throw e;
+                    }
+                    /* Another call with the same key got there first. */
+                    return;
+                }
+                Long previous = this.entries.put(key, size);
+                this.bytes += size - (previous == null ? 0 : previous);
+            }
+        } finally {
+            if (Files.exists(staging)) {
+                delete(staging);
+            }
+        }
+        evict(key);
+    }
+
+    /*
+     * Delete least recently used entries other than keep until the cache is within bounds.
+     * Victims leave the index and are moved aside before they are deleted, so no lookup can
+     * start reading one and no store can put a new entry where one is being deleted.  Pinned
+     * ones are skipped because a lookup is already reading them.
+     */
+    private void evict(String keep) throws IOException {
+        List<Path> evicted = new ArrayList<Path>();
+        synchronized (this) {
+            Iterator<Map.Entry<String, Long>> eldest = this.entries.entrySet().iterator();
+            while ((this.bytes > this.maxBytes || this.entries.size() > this.maxEntries) && eldest.hasNext()) {
+                Map.Entry<String, Long> victim = eldest.next();
+                if (victim.getKey().equals(keep) || this.pinned.containsKey(victim.getKey())) {
+                    continue;
+                }
+                this.bytes -= victim.getValue();
+                eldest.remove();
+                Path entry = entry(victim.getKey());
+                Path aside = Files.createTempDirectory(entry.getParent(), victim.getKey() + ".");
+                evicted.add(aside);
+                Files.move(entry, aside.resolve(victim.getKey()), StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+        for (Path victim : evicted) {
+            delete(victim);
+        }
+    }
+    private static void link(Path source, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        try {
+            Files.createLink(target, source);
+        } catch (IOException | UnsupportedOperationException e) {
+            Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /* Copy source to target and make the copy read-only, so links to it cannot change it. */
+    private static void copy(Path source, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        Files.copy(source, target);
+        try {
+            Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(target);
+            permissions.removeAll(EnumSet.of(PosixFilePermission.OWNER_WRITE, PosixFilePermission.GROUP_WRITE, PosixFilePermission.OTHERS_WRITE));
+            Files.setPosixFilePermissions(target, permissions);
+        } catch (UnsupportedOperationException e) {
+            target.toFile().setReadOnly();
+        }
+    }
+
+    /**
+     * Replace every file in callDirectory that is hard linked elsewhere, as a cache hit leaves
+     * them, with a writable copy of its own, so that running the call again there cannot
+     * write into a cache entry.
+     */
+    public static void detach(Path callDirectory) throws IOException {
+        if (!Files.isDirectory(callDirectory)) {
+            return;
+        }
+        Files.walkFileTree(callDirectory, new SimpleFileVisitor<Path>() {
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                if (attributes.isRegularFile() && links(file) > 1) {
+                    Path copy = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+                    Files.copy(file, copy, StandardCopyOption.REPLACE_EXISTING);
+                    copy.toFile().setWritable(true, true);
+                    Files.move(copy, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+    private static int links(Path file) throws IOException {
+        try {
+            return (Integer) Files.getAttribute(file, "unix:nlink", LinkOption.NOFOLLOW_LINKS);
+        } catch (UnsupportedOperationException | IllegalArgumentException e) {
+            return 1;
+        }
+    }
+    private static long sizeOf(Path directory) throws IOException {
+        long[] size = {0};
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                size[0] += attributes.size();
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return size[0];
+    }
+    private static void delete(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+            public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
@@ -0,0 +1,254 @@
+import java.util.*;
+
+/**
+ * A task's command section compiled into a renderer.
+ *
+ * The RawCommand is compiled once per task: adjacent cmd_part terminals are merged, each
+ * CommandParameter's expression and sep/true/false/default attributes become compiled
+ * WdlEvaluator nodes, and the common leading whitespace is stripped from the literal text
+ * ahead of time, treating every parameter as one non-blank character.  Rendering a shard
+ * then only evaluates the parameters and appends strings.
+ *
+ * Stripping ahead of time gives the same result as stripping the instantiated command
+ * unless a value spans lines, or a value that begins a line is empty or starts with
+ * whitespace.  Those renders fall back to stripping the instantiated command.
+ *
+ * Functions are bound when rendering, not when compiling, so one compiled command serves
+ * every call even though read_*() and write_*() are bound to each call's directory.
+ */
+public class WdlCommand {
+    /* Stands in for a parameter when stripping the template; from the Unicode private use area. */
+    private static final char PLACEHOLDER = '\uE000';
+    private static final ThreadLocal<Map<String, WdlEvaluator.Function>> bound = new ThreadLocal<Map<String, WdlEvaluator.Function>>();
+    private static final ThreadLocal<StringBuilder> buffers = ThreadLocal.withInitial(StringBuilder::new);
+
+    private static final class Parameter {
+        private final WdlEvaluator.Node expression;
+        private final WdlEvaluator.Node sep;
+        private final WdlEvaluator.Node whenTrue;
+        private final WdlEvaluator.Node whenFalse;
+        private final WdlEvaluator.Node fallback;
+        private final boolean leading;
+        Parameter(WdlEvaluator.Node expression, Map<String, WdlEvaluator.Node> attributes, boolean leading) {
+            this.expression = expression;
+            this.sep = attributes.get("sep");
+            this.whenTrue = attributes.get("true");
+            this.whenFalse = attributes.get("false");
+            this.fallback = attributes.get("default");
+            this.leading = leading;
+        }
+    }
+
+    /* literals[i] comes before parameters[i]; there is one more literal than parameters. */
+    private final String[] literals;
+    private final Parameter[] parameters;
+    /* The literals with the common indent removed, or null if the template has no static form. */
+    private final String[] stripped;
+
+    private WdlCommand(String[] literals, Parameter[] parameters, String[] stripped) {
+        this.literals = literals;
+        this.parameters = parameters;
+        this.stripped = stripped;
+    }
+
+    /**
+     * Compile task's command section.  evaluator's function table is only used to resolve
+     * function names; the functions that run are the ones passed to render().
+     */
+    public static WdlCommand compile(WdlEvaluator evaluator, WdlParser.Ast task) throws WdlEvaluator.EvaluationError {
+        WdlEvaluator compiler = lateBinding(evaluator);
+        List<String> literals = new ArrayList<String>();
+        List<Parameter> parameters = new ArrayList<Parameter>();
+        StringBuilder literal = new StringBuilder();
+        StringBuilder template = new StringBuilder();
+        boolean clean = true;
+        for (WdlParser.AstNode section : (WdlParser.AstList) task.getAttribute("sections")) {
+            if (!(section instanceof WdlParser.Ast) || !((WdlParser.Ast) section).getName().equals("RawCommand")) {
+                continue;
+            }
+            for (WdlParser.AstNode part : (WdlParser.AstList) ((WdlParser.Ast) section).getAttribute("parts")) {
+                if (part instanceof WdlParser.Terminal) {
+                    String text = ((WdlParser.Terminal) part).getSourceString();
+                    literal.append(text);
+                    template.append(text);
+                    clean = clean && text.indexOf(PLACEHOLDER) < 0;
+                    continue;
+                }
+                WdlParser.Ast parameter = (WdlParser.Ast) part;
+                Map<String, WdlEvaluator.Node> attributes = new HashMap<String, WdlEvaluator.Node>();
+                for (WdlParser.AstNode item : (WdlParser.AstList) parameter.getAttribute("attributes")) {
+                    WdlParser.Ast attribute = (WdlParser.Ast) item;
+                    attributes.put(((WdlParser.Terminal) attribute.getAttribute("key")).getSourceString(), compiler.compile(attribute.getAttribute("value")));
+                }
+                literals.add(literal.toString());
+                literal.setLength(0);
+                parameters.add(new Parameter(compiler.compile(parameter.getAttribute("expr")), attributes, leading(template)));
+                template.append(PLACEHOLDER);
+            }
+        }
+        literals.add(literal.toString());
+        String[] stripped = clean ? split(stripIndent(template.toString()), parameters.size()) : null;
+        return new WdlCommand(literals.toArray(new String[literals.size()]), parameters.toArray(new Parameter[parameters.size()]), stripped);
+    }
+
+    /* Whether only blank characters precede the end of template on its last line. */
+    private static boolean leading(CharSequence template) {
+        for (int i = template.length() - 1; i >= 0 && template.charAt(i) != '\n'; i--) {
+            if (template.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+    /* The pieces of a stripped template between its placeholders. */
+    private static String[] split(String template, int parameters) {
+        String[] pieces = new String[parameters + 1];
+        int start = 0;
+        for (int i = 0; i < parameters; i++) {
+            int end = template.indexOf(PLACEHOLDER, start);
+            pieces[i] = template.substring(start, end);
+            start = end + 1;
+        }
+        pieces[parameters] = template.substring(start);
+        return pieces;
+    }
+    /**
+     * An evaluator with evaluator's function names whose compiled nodes call the functions
+     * passed to evaluate(), so that other expressions of a task can be compiled once too.
+     */
+    public static WdlEvaluator lateBinding(WdlEvaluator evaluator) {
+        return evaluator.withFunctions(lateBound(evaluator.getFunctions()));
+    }
+    private static Map<String, WdlEvaluator.Function> lateBound(Map<String, WdlEvaluator.Function> defaults) {
+        Map<String, WdlEvaluator.Function> functions = new HashMap<String, WdlEvaluator.Function>();
+        for (String name : defaults.keySet()) {
+            functions.put(name, args -> {
+                Map<String, WdlEvaluator.Function> current = bound.get();
+                WdlEvaluator.Function function = (current != null ? current : defaults).get(name);
+                if (function == null) {
+                    throw new WdlEvaluator.EvaluationError("Unknown function: " + name);
+                }
+                return function.call(args);
+            });
+        }
+        return functions;
+    }
+
+    /** Evaluate node, compiled by a lateBinding() evaluator, calling functions from the given table. */
+    public static Object evaluate(WdlEvaluator.Node node, Map<String, WdlEvaluator.Function> functions, WdlEvaluator.Environment env) throws WdlEvaluator.EvaluationError {
+        Map<String, WdlEvaluator.Function> previous = bound.get();
+        bound.set(functions);
+        try {
+            return node.eval(env);
+        } finally {
+            if (previous == null) {
+                bound.remove();
+            } else {
+                bound.set(previous);
+            }
+        }
+    }
+
+    /** Instantiate the command against env, calling functions from the given table. */
+    public String render(Map<String, WdlEvaluator.Function> functions, WdlEvaluator.Environment env) throws WdlEvaluator.EvaluationError {
+        StringBuilder sb = new StringBuilder();
+        render(functions, env, sb);
+        return sb.toString();
+    }
+
+    /** Like render(functions, env), but appends the command to out. */
+    public void render(Map<String, WdlEvaluator.Function> functions, WdlEvaluator.Environment env, StringBuilder out) throws WdlEvaluator.EvaluationError {
+        Map<String, WdlEvaluator.Function> previous = bound.get();
+        bound.set(functions);
+        try {
+            String[] values = new String[this.parameters.length];
+            boolean exact = this.stripped != null;
+            for (int i = 0; i < values.length; i++) {
+                values[i] = value(this.parameters[i], env);
+                exact = exact && values[i].indexOf('\n') < 0
+                    && (!this.parameters[i].leading || (!values[i].isEmpty() && values[i].charAt(0) > ' '));
+            }
+            if (exact) {
+                out.append(this.stripped[0]);
+                for (int i = 0; i < values.length; i++) {
+                    out.append(values[i]).append(this.stripped[i + 1]);
+                }
+                return;
+            }
+            StringBuilder sb = buffers.get();
+            sb.setLength(0);
+            sb.append(this.literals[0]);
+            for (int i = 0; i < values.length; i++) {
+                sb.append(values[i]).append(this.literals[i + 1]);
+            }
+            out.append(stripIndent(sb.toString()));
+        } finally {
+            if (previous == null) {
+                bound.remove();
+            } else {
+                bound.set(previous);
+            }
+        }
+    }
+
+    /* An unset value renders as its default, a Boolean as its true or false attribute, an Array joined by sep. */
+    private static String value(Parameter parameter, WdlEvaluator.Environment env) throws WdlEvaluator.EvaluationError {
+        Object value = parameter.expression.eval(env);
+        if (value == null) {
+            return parameter.fallback == null ? "" : WdlEvaluator.asString(parameter.fallback.eval(env));
+        }
+        if (value instanceof Boolean && (parameter.whenTrue != null || parameter.whenFalse != null)) {
+            WdlEvaluator.Node chosen = (Boolean) value ? parameter.whenTrue : parameter.whenFalse;
+            return chosen == null ? "" : WdlEvaluator.asString(chosen.eval(env));
+        }
+        if (value instanceof List) {
+            if (parameter.sep == null) {
+                throw new WdlEvaluator.EvaluationError("Array command parameters require a sep attribute");
+            }
+            String sep = WdlEvaluator.asString(parameter.sep.eval(env));
+            List<?> items = (List<?>) value;
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < items.size(); i++) {
+                if (i > 0) {
+                    sb.append(sep);
+                }
+                sb.append(WdlEvaluator.asString(items.get(i)));
+            }
+            return sb.toString();
+        }
+        return WdlEvaluator.asString(value);
+    }
+
+    /**
+     * Remove leading and trailing blank lines and the whitespace common to the start of
+     * every other line, ending each remaining line with a newline.
+     */
+    static String stripIndent(String command) {
+        String[] lines = command.split("\n", -1);
+        int start = 0;
+        int end = lines.length;
+        while (start < end && lines[start].trim().isEmpty()) {
+            start++;
+        }
+        while (end > start && lines[end - 1].trim().isEmpty()) {
+            end--;
+        }
+        int indent = Integer.MAX_VALUE;
+        for (int i = start; i < end; i++) {
+            String line = lines[i];
+            int n = 0;
+            while (n < line.length() && (line.charAt(n) == ' ' || line.charAt(n) == '\t')) {
+                n++;
+            }
+            if (n < line.length()) {
+                indent = Math.min(indent, n);
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = start; i < end; i++) {
+            String line = lines[i];
+            sb.append(line.length() > indent ? line.substring(indent) : line.trim()).append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,421 @@
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * A long-running server that validates, parses and outlines WDL documents for clients on
+ * this machine, so that each check costs a round trip instead of a JVM start and warmup.
+ *
+ *   java -cp . WdlDaemon serve [port] [threads] [root]
+ *   java -cp . WdlDaemon validate|parse|outline [--port port] file...
+ *
+ * Clients connect to the loopback address, which any local user can reach, so the daemon
+ * only answers those who can read its token: a random string it writes to token-<port>
+ * in ~/.wdl-daemon, a directory only its owner can open, and that the first line of each
+ * connection must be.  It also only reads documents under root, the directory it was
+ * started in unless given, so a client cannot use it to read files it could not.
+ *
+ * After the token, each request is one line, "id command path", where path is absolute;
+ * each response is a line "id status length" followed by length bytes of UTF-8: nothing
+ * for a valid document, the AST, the outline as JSON, or the error.  Status is ok, error
+ * for a syntax error, or failed when the request could not be served.  A wrong token is
+ * answered with id - and status failed, and the connection is closed.
+ * A connection may send any number of requests without waiting; they run in parallel on
+ * the worker threads, each of which keeps its own WdlParser, and each response is sent as
+ * soon as it is ready, so responses need not come back in the order they were asked for.
+ * At most MAX_IN_FLIGHT requests of a connection are queued or running at once; the rest
+ * are not read until one of those has been answered.
+ *
+ * Responses are cached by command and path along with the document's bytes, so a document
+ * that has not changed since it was last asked for is answered without lexing it again.
+ */
+public class WdlDaemon implements Closeable {
+    public static final int DEFAULT_PORT = 7341;
+    public static final int DEFAULT_CACHE_ENTRIES = 4096;
+    public static final int MAX_IN_FLIGHT = 64;
+    public static final Path DEFAULT_DIRECTORY = Paths.get(System.getProperty("user.home"), ".wdl-daemon");
+    private static final Set<PosixFilePermission> OWNER_ONLY = PosixFilePermissions.fromString("rwx------");
+    private static final List<String> COMMANDS = Arrays.asList("validate", "parse", "outline");
+
+    public static final class Response {
+        private final String status;
+        private final String body;
+        Response(String status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        /* ok, error or failed. */
+        public String getStatus() {
+            return this.status;
+        }
+        public String getBody() {
+            return this.body;
+        }
+    }
+
+    private static final class Cached {
+        private final byte[] source;
+        private final Response response;
+        Cached(byte[] source, Response response) {
+            this.source = source;
+            this.response = response;
+        }
+    }
+
+    private final ServerSocket server;
+    private final Path root;
+    private final Path tokenFile;
+    private final String token;
+    private final ExecutorService workers;
+    private final ThreadLocal<WdlParser> parsers = ThreadLocal.withInitial(WdlParser::new);
+    private final Map<String, Cached> cache;
+    private final Thread acceptor;
+    private volatile boolean closed;
+
+    /**
+     * Listen on port of the loopback address, 0 for any, serving requests for documents
+     * under root on that many threads.  The token is written to directory, which is made
+     * if need be and must be private to this user.
+     */
+    public WdlDaemon(int port, int threads, final int cacheEntries, Path root, Path directory) throws IOException {
+        this.root = root.toRealPath();
+        this.token = newToken();
+        this.server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        try {
+            this.tokenFile = writeToken(directory, getPort(), this.token);
+        } catch (IOException | RuntimeException e) {
+            this.server.close();
+            throw e;
+        }
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "wdl-daemon-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<String, Cached>(16, 0.75f, true) {
+            protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+                return size() > cacheEntries;
+            }
+        });
+        this.acceptor = new Thread(this::accept, "wdl-daemon");
+        this.acceptor.start();
+    }
+    public int getPort() {
+        return this.server.getLocalPort();
+    }
+
+    /* The token clients must send first, for clients in this process. */
+    public String getToken() {
+        return this.token;
+    }
+
+    private static String newToken() {
+        byte[] bytes = new byte[32];
+        new SecureRandom().nextBytes(bytes);
+        StringBuilder token = new StringBuilder();
+        for (byte b : bytes) {
+            token.append(String.format("%02x", b & 0xff));
+        }
+        return token.toString();
+    }
+
+    /* Make directory private to this user if need be, and write token to it readable only by this user. */
+    private static Path writeToken(Path directory, int port, String token) throws IOException {
+        try {
+            Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(OWNER_ONLY));
+            if (!Files.getPosixFilePermissions(directory).equals(OWNER_ONLY)) {
+                throw new IOException(directory + " must only be accessible to its owner (chmod 700)");
+            }
+            /* Temporary files are only readable by their owner. */
+            Path temporary = Files.createTempFile(directory, "token", null);
+            Files.write(temporary, token.getBytes(StandardCharsets.UTF_8));
+            return Files.move(temporary, directory.resolve("token-" + port), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (UnsupportedOperationException e) {
+            throw new IOException("The daemon's token needs a file system with POSIX permissions: " + directory);
+        }
+    }
+
+    /** The token of the daemon on port that wrote it to directory. */
+    public static String readToken(Path directory, int port) throws IOException {
+        Path file = directory.resolve("token-" + port);
+        try {
+            return new String(Files.readAllBytes(file), StandardCharsets.UTF_8).trim();
+        } catch (NoSuchFileException e) {
+            throw new IOException("No daemon token in " + file + "; is the daemon running on port " + port + "?");
+        }
+    }
+
+    /**
+     * Answer one request, from the cache if the document is unchanged.  command is
+     * validate, parse or outline.
+     */
+    public Response handle(String command, Path path) {
+        if (!COMMANDS.contains(command)) {
+            return new Response("failed", "Unknown command: " + command);
+        }
+        byte[] source;
+        try {
+            /* Resolve links and .. first, so that neither can reach outside root. */
+            path = path.toRealPath();
+            if (!path.startsWith(this.root)) {
+                return new Response("failed", path + " is not under " + this.root);
+            }
+            source = Files.readAllBytes(path);
+        } catch (IOException e) {
+            return new Response("failed", "Cannot read " + path + ": " + e);
+        }
+        String key = command + " " + path;
+        Cached cached = this.cache.get(key);
+        if (cached != null && Arrays.equals(cached.source, source)) {
+            return cached.response;
+        }
+        Response response;
+        try {
+            response = new Response("ok", run(command, new String(source, StandardCharsets.UTF_8), path.toString()));
+        } catch (WdlParser.SyntaxError e) {
+            response = new Response("error", e.getMessage());
+        } catch (RuntimeException | StackOverflowError e) {
+            return new Response("failed", e.toString());
+        }
+        this.cache.put(key, new Cached(source, response));
+        return response;
+    }
+    private Response handle(String command, String path) {
+        try {
+            return handle(command, Paths.get(path));
+        } catch (InvalidPathException e) {
+            return new Response("failed", e.getMessage());
+        }
+    }
+    private String run(String command, String source, String resource) throws WdlParser.SyntaxError {
+        if (command.equals("outline")) {
+            return WdlJson.toString(toJson(WdlOutline.scan(source, resource)));
+        }
+        WdlParser parser = this.parsers.get();
+        WdlParser.ParseTree tree = parser.parse(parser.lex(source, resource));
+        return command.equals("parse") ? tree.toAst().toPrettyString() : "";
+    }
+    private static Map<String, Object> toJson(WdlOutline outline) {
+        List<Object> imports = new ArrayList<Object>();
+        for (WdlOutline.Import imported : outline.getImports()) {
+            Map<String, Object> json = new LinkedHashMap<String, Object>();
+            json.put("uri", imported.getUri());
+            json.put("namespace", imported.getNamespace());
+            imports.add(json);
+        }
+        List<Object> tasks = new ArrayList<Object>();
+        for (WdlOutline.Task task : outline.getTasks()) {
+            Map<String, Object> json = new LinkedHashMap<String, Object>();
+            json.put("name", task.getName());
+            json.put("meta", task.getMeta());
+            json.put("parameter_meta", task.getParameterMeta());
+            tasks.add(json);
+        }
+        List<Object> workflows = new ArrayList<Object>();
+        for (WdlOutline.Workflow workflow : outline.getWorkflows()) {
+            List<Object> calls = new ArrayList<Object>();
+            for (WdlOutline.Call call : workflow.getCalls()) {
+                Map<String, Object> json = new LinkedHashMap<String, Object>();
+                json.put("task", call.getTask());
+                json.put("alias", call.getAlias());
+                calls.add(json);
+            }
+            Map<String, Object> json = new LinkedHashMap<String, Object>();
+            json.put("name", workflow.getName());
+            json.put("calls", calls);
+            json.put("meta", workflow.getMeta());
+            json.put("parameter_meta", workflow.getParameterMeta());
+            workflows.add(json);
+        }
+        Map<String, Object> json = new LinkedHashMap<String, Object>();
+        json.put("imports", imports);
+        json.put("tasks", tasks);
+        json.put("workflows", workflows);
+        return json;
+    }
+
+    private void accept() {
+        while (!this.closed) {
+            try {
+                Socket socket = this.server.accept();
+                Thread reader = new Thread(() -> serve(socket), "wdl-daemon-connection");
+                reader.setDaemon(true);
+                reader.start();
+            } catch (IOException e) {
+                if (!this.closed) {
+                    System.err.println("wdl-daemon: " + e);
+                }
+            }
+        }
+    }
+
+    /* Read the connection's requests and hand each to a worker, which writes its response. */
+    private void serve(Socket socket) {
+        try (Socket connection = socket) {
+            connection.setTcpNoDelay(true);
+            BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
+            OutputStream out = new BufferedOutputStream(connection.getOutputStream());
+            String token = in.readLine();
+            if (token == null || !MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), this.token.getBytes(StandardCharsets.UTF_8))) {
+                respond(out, "-", new Response("failed", "Wrong token"));
+                return;
+            }
+            Semaphore slots = new Semaphore(MAX_IN_FLIGHT);
+            List<Future<?>> pending = new ArrayList<Future<?>>();
+            for (String line; (line = in.readLine()) != null; ) {
+                String[] request = line.split(" ", 3);
+                if (request.length < 3) {
+                    respond(out, request[0], new Response("failed", "Expected: id command path"));
+                    continue;
+                }
+                slots.acquire();
+                FutureTask<Void> task = new FutureTask<Void>(() -> respond(out, request[0], handle(request[1], request[2])), null) {
+                    protected void done() {
+                        if (isCancelled()) {
+                            respond(out, request[0], new Response("failed", "The daemon is shutting down"));
+                        }
+                        slots.release();
+                    }
+                };
+                try {
+                    this.workers.execute(task);
+                } catch (RejectedExecutionException e) {
+                    task.cancel(false);
+                    continue;
+                }
+                pending.add(task);
+                pending.removeIf(Future::isDone);
+            }
+            for (Future<?> future : pending) {
+                try {
+                    future.get();
+                } catch (CancellationException e) {
+                    /* Answered by done(). */
+                }
+            }
+        } catch (IOException | InterruptedException | ExecutionException e) {
+            /* The client went away; its remaining responses have nowhere to go. */
+        }
+    }
+
+    private static void respond(OutputStream out, String id, Response response) {
+        byte[] body = response.getBody().getBytes(StandardCharsets.UTF_8);
+        byte[] header = (id + " " + response.getStatus() + " " + body.length + "\n").getBytes(StandardCharsets.UTF_8);
+        synchronized (out) {
+            try {
+                out.write(header);
+                out.write(body);
+                out.flush();
+            } catch (IOException e) {
+                /* Closed by the client. */
+            }
+        }
+    }
+
+    /** Stop accepting connections and remove the token; requests in progress are abandoned. */
+    public void close() throws IOException {
+        this.closed = true;
+        this.server.close();
+        for (Runnable task : this.workers.shutdownNow()) {
+            /* Queued requests, which done() answers as failed. */
+            ((Future<?>) task).cancel(false);
+        }
+        Files.deleteIfExists(this.tokenFile);
+    }
+
+    /**
+     * Send command for each file to the daemon on port, whose token is token, and print the
+     * responses as they arrive, each body preceded by its file's name.  Returns the number
+     * of files that were not ok.
+     */
+    public static int request(int port, String token, String command, List<Path> files, PrintStream out) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            socket.setTcpNoDelay(true);
+            Writer writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+            writer.write(token + "\n");
+            for (int i = 0; i < files.size(); i++) {
+                writer.write(i + " " + command + " " + files.get(i).toAbsolutePath() + "\n");
+            }
+            writer.flush();
+            socket.shutdownOutput();
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            int failures = 0;
+            for (int received = 0; received < files.size(); received++) {
+                String[] header = readLine(in).split(" ");
+                if (header.length != 3) {
+                    throw new IOException("Malformed response: " + String.join(" ", header));
+                }
+                byte[] body = new byte[Integer.parseInt(header[2])];
+                in.readFully(body);
+                String text = new String(body, StandardCharsets.UTF_8);
+                if (header[0].equals("-")) {
+                    throw new IOException("Daemon refused the connection: " + text);
+                }
+                Path file = files.get(Integer.parseInt(header[0]));
+                if (!header[1].equals("ok")) {
+                    failures++;
+                    out.println(file + ": " + header[1] + ": " + text);
+                } else if (text.isEmpty()) {
+                    out.println(file + ": ok");
+                } else {
+                    out.println(file + ":");
+                    out.println(text);
+                }
+            }
+            return failures;
+        }
+    }
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        for (int c; (c = in.read()) != '\n'; ) {
+            if (c == -1) {
+                throw new EOFException("Daemon closed the connection");
+            }
+            line.write(c);
+        }
+        return new String(line.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("serve") && args.length <= 4) {
+            int port = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PORT;
+            int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+            Path root = Paths.get(args.length > 3 ? args[3] : "");
+            WdlDaemon daemon = new WdlDaemon(port, threads, DEFAULT_CACHE_ENTRIES, root, DEFAULT_DIRECTORY);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    daemon.close();
+                } catch (IOException e) {
+                    /* Exiting anyway. */
+                }
+            }));
+            System.err.println("wdl-daemon: listening on " + InetAddress.getLoopbackAddress().getHostAddress() + ":" + daemon.getPort() + " for documents under " + daemon.root);
+            return;
+        }
+        int port = DEFAULT_PORT;
+        if (args.length > 2 && args[1].equals("--port")) {
+            port = Integer.parseInt(args[2]);
+            List<String> rest = new ArrayList<String>(Arrays.asList(args));
+            rest.subList(1, 3).clear();
+            args = rest.toArray(new String[0]);
+        }
+        if (args.length < 2 || !COMMANDS.contains(args[0])) {
+            System.err.println("Usage: WdlDaemon serve [port] [threads] [root]");
+            System.err.println("       WdlDaemon validate|parse|outline [--port port] file...");
+            System.exit(1);
+        }
+        List<Path> files = new ArrayList<Path>();
+        for (int i = 1; i < args.length; i++) {
+            files.add(Paths.get(args[i]));
+        }
+        System.exit(request(port, readToken(DEFAULT_DIRECTORY, port), args[0], files, System.out) == 0 ? 0 : 1);
+    }
+}
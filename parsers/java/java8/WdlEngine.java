@@ -0,0 +1,1302 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs a workflow on the local machine.
+ *
+ * Every Call gets its own directory under root/workflow/run-id/call-name[/shard-i] and
+ * becomes a job on a WdlBackend.  By default that is WdlLocalBackend, which runs the
+ * command as a bash process in that directory and ignores Docker images and other runtime
+ * attributes that need a remote backend.
+ *
+ * Elements of the workflow are started as soon as the elements they reference (per WdlGraph)
+ * have finished, so independent calls run in parallel.  A call's inputs and runtime section
+ * are evaluated on a bounded pool of workers; its command then waits in a WdlScheduler until
+ * the cpu, memory and disks it requests are free.
+ * Declarations, scatter collections and if conditions are cheap and are evaluated on
+ * whichever thread completed their last dependency.
+ *
+ * Scatter shards are expanded a window at a time onto a work-stealing pool, and a scatter
+ * over the gathered output of an earlier scatter in the same scope starts each shard as soon
+ * as the corresponding upstream shard has finished rather than waiting for all of them.
+ *
+ *   java -cp . WdlEngine workflow.wdl [inputs.json] [root]
+ */
+public class WdlEngine {
+    public static class ExecutionError extends Exception {
+        private static final long serialVersionUID = 1L;
+        public ExecutionError(String message) {
+            super(message);
+        }
+        public ExecutionError(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    /* Memory assumed for one task when sizing the default worker pool, and for tasks that do not request any. */
+    public static final long DEFAULT_TASK_MEMORY = 2L << 30;
+
+    private final WdlParser.Ast workflow;
+    private final String name;
+    private final Map<String, WdlParser.Ast> tasks;
+    private final WdlGraph graph;
+    private final WdlEvaluator evaluator = new WdlEvaluator();
+    private final Path root;
+    private final int parallelism;
+    private volatile WdlCallCache cache;
+    private volatile WdlScheduler scheduler = new WdlScheduler(WdlScheduler.local());
+    private volatile WdlJournal journal;
+    private volatile WdlJobMonitor monitor = new WdlJobMonitor(new WdlLocalBackend());
+    private final Map<WdlParser.Ast, WdlCommand> commands = new ConcurrentHashMap<WdlParser.Ast, WdlCommand>();
+    private final Map<WdlParser.AstNode, WdlEvaluator.Node> expressions = new ConcurrentHashMap<WdlParser.AstNode, WdlEvaluator.Node>();
+    private final List<WdlGraph.Node> top = new ArrayList<WdlGraph.Node>();
+    private final List<List<WdlGraph.Node>> children = new ArrayList<List<WdlGraph.Node>>();
+    private final List<List<WdlGraph.Node>> exports = new ArrayList<List<WdlGraph.Node>>();
+    private final int[][] scopeDependencies;
+    /* For a Scatter that consumes another scatter's shards as they finish: that scatter, else -1. */
+    private final int[] streamSources;
+    private final int[] streamExports;
+    private final String[] streamMembers;
+    /* Scatters whose bodies contain no calls, so that shards are cheap enough to batch. */
+    private final boolean[] tiny;
+    private final boolean[] declarationsOnly;
+
+    /**
+     * An engine for the workflow in document.  Calls may only refer to tasks defined in the
+     * same document; use load() to resolve imports.
+     */
+    public WdlEngine(WdlParser.Ast document, Path root, int parallelism) throws ExecutionError {
+        this(document, localTasks(document), root, parallelism);
+    }
+    private WdlEngine(WdlParser.Ast document, Map<String, WdlParser.Ast> tasks, Path root, int parallelism) throws ExecutionError {
+        WdlParser.Ast workflow = null;
+        for (WdlParser.AstNode element : (WdlParser.AstList) document.getAttribute("body")) {
+            if (element instanceof WdlParser.Ast && ((WdlParser.Ast) element).getName().equals("Workflow")) {
+                if (workflow != null) {
+                    throw new ExecutionError("Document defines more than one workflow");
+                }
+                workflow = (WdlParser.Ast) element;
+            }
+        }
+        if (workflow == null) {
+            throw new ExecutionError("Document does not define a workflow");
+        }
+        this.workflow = workflow;
+        this.name = ((WdlParser.Terminal) workflow.getAttribute("name")).getSourceString();
+        this.tasks = tasks;
+        this.root = root;
+        this.parallelism = parallelism;
+        try {
+            this.graph = WdlGraph.build(workflow);
+        } catch (WdlGraph.GraphError e) {
+            throw new ExecutionError(e.getMessage(), e);
+        }
+        List<WdlGraph.Node> nodes = this.graph.getNodes();
+        for (int i = 0; i < nodes.size(); i++) {
+            this.children.add(new ArrayList<WdlGraph.Node>());
+            this.exports.add(new ArrayList<WdlGraph.Node>());
+        }
+        for (WdlGraph.Node node : this.graph.topologicalOrder()) {
+            (node.getParent() == null ? this.top : this.children.get(node.getParent().getIndex())).add(node);
+        }
+        for (WdlGraph.Node node : nodes) {
+            if (node.getType().equals("Call")) {
+                task(node);
+            }
+            if (node.getType().equals("Call") || node.getType().equals("Declaration")) {
+                for (WdlGraph.Node scope = node.getParent(); scope != null; scope = scope.getParent()) {
+                    this.exports.get(scope.getIndex()).add(node);
+                }
+            }
+        }
+        this.scopeDependencies = liftDependencies();
+        this.streamSources = new int[nodes.size()];
+        this.streamExports = new int[nodes.size()];
+        this.streamMembers = new String[nodes.size()];
+        this.tiny = new boolean[nodes.size()];
+        this.declarationsOnly = new boolean[nodes.size()];
+        Arrays.fill(this.streamSources, -1);
+        for (WdlGraph.Node node : nodes) {
+            if (node.getType().equals("Scatter")) {
+                this.tiny[node.getIndex()] = true;
+                for (WdlGraph.Node export : this.exports.get(node.getIndex())) {
+                    this.tiny[node.getIndex()] &= !export.getType().equals("Call");
+                }
+                this.declarationsOnly[node.getIndex()] = true;
+                for (WdlGraph.Node child : this.children.get(node.getIndex())) {
+                    this.declarationsOnly[node.getIndex()] &= child.getType().equals("Declaration");
+                }
+                findStreamSource(node);
+            }
+        }
+    }
+
+    /**
+     * Parse the WDL file at path and create an engine for its workflow.  Imported documents
+     * are resolved relative to the importing file and their tasks are addressed as
+     * namespace.task.
+     */
+    public static WdlEngine load(Path path, Path root, int parallelism) throws IOException, WdlParser.SyntaxError, ExecutionError {
+        WdlParser parser = new WdlParser();
+        WdlParser.Ast document = parse(parser, path);
+        Map<String, WdlParser.Ast> tasks = new HashMap<String, WdlParser.Ast>();
+        collectTasks(parser, document, path.toAbsolutePath().getParent(), "", tasks);
+        return new WdlEngine(document, tasks, root, parallelism);
+    }
+    private static WdlParser.Ast parse(WdlParser parser, Path path) throws IOException, WdlParser.SyntaxError {
+        List<WdlParser.Terminal> tokens = parser.lex(path);
+        return parser.parseParallel(tokens);
+    }
+    private static Map<String, WdlParser.Ast> localTasks(WdlParser.Ast document) throws ExecutionError {
+        Map<String, WdlParser.Ast> tasks = new HashMap<String, WdlParser.Ast>();
+        try {
+            collectTasks(null, document, null, "", tasks);
+        } catch (IOException | WdlParser.SyntaxError e) {
+            throw new ExecutionError(e.getMessage(), e);
+        }
+        return tasks;
+    }
+    private static void collectTasks(WdlParser parser, WdlParser.Ast document, Path directory, String prefix, Map<String, WdlParser.Ast> tasks) throws IOException, WdlParser.SyntaxError {
+        for (WdlParser.AstNode element : (WdlParser.AstList) document.getAttribute("body")) {
+            if (element instanceof WdlParser.Ast && ((WdlParser.Ast) element).getName().equals("Task")) {
+                WdlParser.Ast task = (WdlParser.Ast) element;
+                tasks.put(prefix + ((WdlParser.Terminal) task.getAttribute("name")).getSourceString(), task);
+            }
+        }
+        if (parser == null) {
+            return;
+        }
+        for (WdlParser.AstNode element : (WdlParser.AstList) document.getAttribute("imports")) {
+            WdlParser.Ast ast = (WdlParser.Ast) element;
+            String uri = ((WdlParser.Terminal) ast.getAttribute("uri")).getSourceString();
+            WdlParser.AstNode namespace = ast.getAttribute("namespace");
+            Path path = directory.resolve(uri);
+            String name = namespace != null
+                ? ((WdlParser.Terminal) namespace).getSourceString()
+                : path.getFileName().toString().replaceFirst("\\.wdl$", "");
+            collectTasks(parser, parse(parser, path), path.getParent(), prefix + name + ".", tasks);
+        }
+    }
+
+    /**
+     * Cores, further limited so that every worker can have DEFAULT_TASK_MEMORY of the
+     * machine's physical memory.
+     */
+    public static int defaultParallelism() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        long memory = WdlScheduler.physicalMemory();
+        if (memory > 0) {
+            return (int) Math.max(1, Math.min(cores, memory / DEFAULT_TASK_MEMORY));
+        }
+        return cores;
+    }
+    public String getName() {
+        return this.name;
+    }
+    public WdlGraph getGraph() {
+        return this.graph;
+    }
+    public WdlCallCache getCallCache() {
+        return this.cache;
+    }
+
+    /* Reuse the outputs of earlier calls with the same task and inputs.  null disables caching. */
+    public void setCallCache(WdlCallCache cache) {
+        this.cache = cache;
+    }
+    public WdlScheduler getScheduler() {
+        return this.scheduler;
+    }
+
+    /* Admit commands onto a different machine, real or made up; the default is this one. */
+    public void setScheduler(WdlScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+    public WdlBackend getBackend() {
+        return this.monitor.getBackend();
+    }
+
+    /* Run commands on backend instead of as local processes.  Must not be called during run(). */
+    public void setBackend(WdlBackend backend) {
+        WdlJobMonitor previous = this.monitor;
+        this.monitor = new WdlJobMonitor(backend);
+        previous.close();
+    }
+    public WdlJournal getJournal() {
+        return this.journal;
+    }
+
+    /*
+     * Journal every call, and resume the run the journal holds: its directory is reused and
+     * calls it saw finish with the same inputs are not run again.  null disables journaling.
+     */
+    public void setJournal(WdlJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * The declarations that inputs can set, keyed as run() expects them: workflow.name for
+     * workflow declarations without an expression and workflow.call.name for the task
+     * declarations of each call that its input section leaves unset.
+     */
+    public Map<String, WdlParser.Ast> getInputs() throws ExecutionError {
+        Map<String, WdlParser.Ast> inputs = new LinkedHashMap<String, WdlParser.Ast>();
+        for (WdlGraph.Node node : this.graph.getNodes()) {
+            if (node.getType().equals("Declaration") && node.getAst().getAttribute("expression") == null) {
+                inputs.put(this.name + "." + node.getName(), node.getAst());
+            } else if (node.getType().equals("Call")) {
+                Set<String> mapped = new HashSet<String>();
+                WdlParser.Ast body = (WdlParser.Ast) node.getAst().getAttribute("body");
+                if (body != null) {
+                    for (WdlParser.AstNode io : (WdlParser.AstList) body.getAttribute("io")) {
+                        for (WdlParser.AstNode item : (WdlParser.AstList) ((WdlParser.Ast) io).getAttribute("map")) {
+                            mapped.add(((WdlParser.Terminal) ((WdlParser.Ast) item).getAttribute("key")).getSourceString());
+                        }
+                    }
+                }
+                for (WdlParser.AstNode item : (WdlParser.AstList) task(node).getAttribute("declarations")) {
+                    String name = ((WdlParser.Terminal) ((WdlParser.Ast) item).getAttribute("name")).getSourceString();
+                    if (!mapped.contains(name)) {
+                        inputs.put(this.name + "." + node.getName() + "." + name, (WdlParser.Ast) item);
+                    }
+                }
+            }
+        }
+        return inputs;
+    }
+    private WdlParser.Ast task(WdlGraph.Node call) throws ExecutionError {
+        String fqn = ((WdlParser.Terminal) call.getAst().getAttribute("task")).getSourceString();
+        WdlParser.Ast task = this.tasks.get(fqn);
+        if (task == null) {
+            throw new ExecutionError("Call " + call.getName() + " refers to unknown task " + fqn);
+        }
+        return task;
+    }
+
+    /*
+     * WdlGraph edges may cross Scatter and If boundaries, but a scope only knows about its
+     * direct children.  An edge from a node inside a scope to a node outside of it becomes an
+     * edge between their ancestors that share a parent, so a scatter does not start before
+     * everything its body references exists.
+     */
+    private int[][] liftDependencies() {
+        List<WdlGraph.Node> nodes = this.graph.getNodes();
+        int[] depth = new int[nodes.size()];
+        for (WdlGraph.Node node : nodes) {
+            for (WdlGraph.Node scope = node.getParent(); scope != null; scope = scope.getParent()) {
+                depth[node.getIndex()]++;
+            }
+        }
+        List<Set<Integer>> lifted = new ArrayList<Set<Integer>>();
+        for (int i = 0; i < nodes.size(); i++) {
+            lifted.add(new LinkedHashSet<Integer>());
+        }
+        for (WdlGraph.Node node : nodes) {
+            for (WdlGraph.Node dependency : this.graph.getDependencies(node)) {
+                WdlGraph.Node a = node;
+                WdlGraph.Node b = dependency;
+                while (depth[a.getIndex()] > depth[b.getIndex()]) {
+                    a = a.getParent();
+                }
+                while (depth[b.getIndex()] > depth[a.getIndex()]) {
+                    b = b.getParent();
+                }
+                if (a == b) {
+                    continue;
+                }
+                while (a.getParent() != b.getParent()) {
+                    a = a.getParent();
+                    b = b.getParent();
+                }
+                lifted.get(a.getIndex()).add(b.getIndex());
+            }
+        }
+        int[][] result = new int[nodes.size()][];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = new int[lifted.get(i).size()];
+            int j = 0;
+            for (int dependency : lifted.get(i)) {
+                result[i][j++] = dependency;
+            }
+        }
+        return result;
+    }
+
+    /*
+     * A scatter T can consume the shards of a sibling scatter S one by one when T's collection
+     * is exactly a value gathered from S (x or call.output) and nothing else in T refers to S.
+     * Shard i of T then only needs shard i of S.
+     */
+    private void findStreamSource(WdlGraph.Node scatter) {
+        WdlParser.AstNode collection = scatter.getAst().getAttribute("collection");
+        String name;
+        String member = null;
+        if (collection instanceof WdlParser.Terminal && ((WdlParser.Terminal) collection).getTerminalStr().equals("identifier")) {
+            name = ((WdlParser.Terminal) collection).getSourceString();
+        } else if (collection instanceof WdlParser.Ast && ((WdlParser.Ast) collection).getName().equals("MemberAccess")
+                && ((WdlParser.Ast) collection).getAttribute("lhs") instanceof WdlParser.Terminal) {
+            name = ((WdlParser.Terminal) ((WdlParser.Ast) collection).getAttribute("lhs")).getSourceString();
+            member = ((WdlParser.Terminal) ((WdlParser.Ast) collection).getAttribute("rhs")).getSourceString();
+        } else {
+            return;
+        }
+        /* The node the graph resolved the collection to, not just any node of that name. */
+        WdlGraph.Node target = null;
+        for (WdlGraph.Node dependency : this.graph.getDependencies(scatter)) {
+            if (dependency != scatter.getParent() && name.equals(dependency.getName())) {
+                target = dependency;
+            }
+        }
+        if (target == null || !target.getType().equals(member == null ? "Declaration" : "Call")) {
+            return;
+        }
+        /* A name bound twice (say the same alias in two blocks) is left to the ordinary path. */
+        for (WdlGraph.Node node : this.graph.getNodes()) {
+            if (node != target && name.equals(node.getName())) {
+                return;
+            }
+        }
+        WdlGraph.Node source = target.getParent();
+        while (source != null && source.getParent() != scatter.getParent()) {
+            source = source.getParent();
+        }
+        if (source == null || !source.getType().equals("Scatter") || source == scatter) {
+            return;
+        }
+        int export = this.exports.get(source.getIndex()).indexOf(target);
+        Set<WdlGraph.Node> inside = new HashSet<WdlGraph.Node>(this.exports.get(source.getIndex()));
+        inside.add(source);
+        for (WdlGraph.Node node : this.graph.getNodes()) {
+            for (WdlGraph.Node scope = node.getParent(); scope != null; scope = scope.getParent()) {
+                if (scope == scatter) {
+                    for (WdlGraph.Node dependency : this.graph.getDependencies(node)) {
+                        if (inside.contains(dependency)) {
+                            return;
+                        }
+                    }
+                    break;
+                }
+            }
+        }
+        this.streamSources[scatter.getIndex()] = source.getIndex();
+        this.streamExports[scatter.getIndex()] = export;
+        this.streamMembers[scatter.getIndex()] = member;
+    }
+
+    /* Section: Execution */
+
+    /* The values bound in one scope: the workflow, one scatter shard or one if body. */
+    private static final class Frame extends WdlEvaluator.MapEnvironment {
+        private final Map<String, Object> values;
+        private final String shard;
+        Frame(Map<String, Object> values, Frame parent, String shard) {
+            super(values, parent);
+            this.values = values;
+            this.shard = shard;
+        }
+        Frame(Frame parent, String shard) {
+            this(Collections.synchronizedMap(new HashMap<String, Object>()), parent, shard);
+        }
+    }
+    private final class Run {
+        private final Map<String, Object> inputs;
+        private final Path directory;
+        private final Path base = Paths.get("").toAbsolutePath();
+        private final WdlEvaluator evaluator;
+        private final ExecutorService pool;
+        private final ForkJoinPool shards;
+        private final Map<WdlParser.AstNode, WdlEvaluator.Node> compiled = new ConcurrentHashMap<WdlParser.AstNode, WdlEvaluator.Node>();
+        private final Map<Integer, Map<String, Object>> outputs = new ConcurrentHashMap<Integer, Map<String, Object>>();
+        private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        Run(Map<String, Object> inputs, Path directory) {
+            this.inputs = inputs;
+            this.directory = directory;
+            this.evaluator = WdlEngine.this.evaluator.withFunctions(WdlStdlib.functions(directory, null, null));
+            this.pool = Executors.newFixedThreadPool(WdlEngine.this.parallelism, new ThreadFactory() {
+                private int count;
+                public synchronized Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "wdl-worker-" + (++this.count));
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            this.shards = new ForkJoinPool(WdlEngine.this.parallelism, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+        }
+        Object evaluate(WdlParser.AstNode expression, Frame frame) throws WdlEvaluator.EvaluationError {
+            WdlEvaluator.Node node = this.compiled.get(expression);
+            if (node == null) {
+                node = this.evaluator.compile(expression);
+                this.compiled.put(expression, node);
+            }
+            return node.eval(frame);
+        }
+    }
+
+    /**
+     * Run the workflow to completion and return its outputs keyed by fully qualified name.
+     * inputs holds the parsed inputs JSON, keyed by workflow.declaration or
+     * workflow.call.declaration; WdlInputs binds and checks a JSON document against
+     * getInputs().  If any call fails, no further calls are started and the
+     * first failure is thrown once the calls already running have finished.  With a journal,
+     * running again after a failure or crash resumes where the run stopped.
+     */
+    public Map<String, Object> run(Map<String, Object> inputs) throws ExecutionError {
+        WdlJournal journal = this.journal;
+        Path directory = journal != null ? journal.getDirectory() : null;
+        try {
+            if (directory == null) {
+                directory = this.root.resolve(this.name).resolve(UUID.randomUUID().toString()).toAbsolutePath();
+                if (journal != null) {
+                    journal.begin(directory);
+                }
+            }
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new ExecutionError("Cannot create " + directory + ": " + e.getMessage(), e);
+        }
+        Run run = new Run(inputs, directory);
+        Frame frame = new Frame(null, "");
+        try {
+            runScope(run, this.top, frame).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExecutionError("Interrupted while running " + this.name, e);
+        } catch (ExecutionException e) {
+            throw error(run.failure.get() != null ? run.failure.get() : e);
+        } finally {
+            run.pool.shutdownNow();
+            run.shards.shutdownNow();
+        }
+        return outputs(run, frame);
+    }
+    private static ExecutionError error(Throwable t) {
+        while ((t instanceof CompletionException || t instanceof ExecutionException) && t.getCause() != null) {
+            t = t.getCause();
+        }
+        if (t instanceof ExecutionError) {
+            return (ExecutionError) t;
+        }
+        return new ExecutionError(t.getMessage() != null ? t.getMessage() : t.toString(), t);
+    }
+    private static <T> CompletableFuture<T> failed(Throwable t) {
+        CompletableFuture<T> future = new CompletableFuture<T>();
+        future.completeExceptionally(t);
+        return future;
+    }
+
+    /*
+     * Start every node of one scope once its dependencies in that scope are done.  A scatter
+     * streaming from a sibling only waits for that sibling to have been expanded.
+     */
+    private CompletableFuture<Void> runScope(Run run, List<WdlGraph.Node> nodes, Frame frame) {
+        Map<Integer, CompletableFuture<Void>> started = new HashMap<Integer, CompletableFuture<Void>>();
+        Map<Integer, CompletableFuture<ScatterRun>> expanded = new HashMap<Integer, CompletableFuture<ScatterRun>>();
+        CompletableFuture<?>[] all = new CompletableFuture<?>[nodes.size()];
+        for (int i = 0; i < all.length; i++) {
+            WdlGraph.Node node = nodes.get(i);
+            int source = this.streamSources[node.getIndex()];
+            int[] dependencies = this.scopeDependencies[node.getIndex()];
+            CompletableFuture<?>[] waits = new CompletableFuture<?>[dependencies.length];
+            for (int j = 0; j < waits.length; j++) {
+                waits[j] = dependencies[j] == source ? expanded.get(source) : started.get(dependencies[j]);
+            }
+            CompletableFuture<Void> ready = waits.length == 0 ? CompletableFuture.<Void>completedFuture(null) : CompletableFuture.allOf(waits);
+            CompletableFuture<Void> done;
+            if (node.getType().equals("Scatter")) {
+                CompletableFuture<ScatterRun> scatter = ready.thenApply(v -> {
+                    try {
+                        return new ScatterRun(run, node, frame, source < 0 ? null : expanded.get(source).join()).start();
+                    } catch (WdlEvaluator.EvaluationError e) {
+                        throw new CompletionException(new ExecutionError(node + ": " + e.getMessage(), e));
+                    } catch (ExecutionError e) {
+                        throw new CompletionException(e);
+                    }
+                });
+                expanded.put(node.getIndex(), scatter);
+                done = scatter.thenCompose(s -> s.done);
+            } else {
+                done = ready.thenCompose(v -> runNode(run, node, frame));
+            }
+            done.whenComplete((v, t) -> {
+                if (t != null) {
+                    run.failure.compareAndSet(null, error(t));
+                }
+            });
+            started.put(node.getIndex(), done);
+            all[i] = done;
+        }
+        return CompletableFuture.allOf(all);
+    }
+    private CompletableFuture<Void> runNode(Run run, WdlGraph.Node node, Frame frame) {
+        try {
+            WdlParser.Ast ast = node.getAst();
+            switch (node.getType()) {
+                case "Declaration":
+                    frame.put(node.getName(), declaration(run, node, frame));
+                    return CompletableFuture.completedFuture(null);
+                case "Call": {
+                    CompletableFuture<Void> future = new CompletableFuture<Void>();
+                    run.pool.execute(() -> {
+                        try {
+                            if (run.failure.get() != null) {
+                                throw new ExecutionError("Call " + node.getName() + " not started because of an earlier failure");
+                            }
+                            call(run, node, frame).whenComplete((outputs, t) -> {
+                                if (t != null) {
+                                    future.completeExceptionally(t);
+                                } else {
+                                    frame.put(node.getName(), outputs);
+                                    future.complete(null);
+                                }
+                            });
+                        } catch (Throwable t) {
+                            future.completeExceptionally(t);
+                        }
+                    });
+                    return future;
+                }
+                case "If":
+                    return conditional(run, node, frame);
+                case "WorkflowOutputDeclaration": {
+                    String name = ((WdlParser.Terminal) ast.getAttribute("name")).getSourceString();
+                    Object value = coerce(run.evaluate(ast.getAttribute("expression"), frame), ast.getAttribute("type"), run.base);
+                    run.outputs.put(node.getIndex(), Collections.singletonMap(this.name + "." + name, value));
+                    return CompletableFuture.completedFuture(null);
+                }
+                case "WorkflowOutputWildcard":
+                    run.outputs.put(node.getIndex(), wildcard(ast, frame));
+                    return CompletableFuture.completedFuture(null);
+                default:
+                    throw new ExecutionError(node.getType() + " is not supported by the local engine");
+            }
+        } catch (ExecutionError e) {
+            return failed(e);
+        } catch (WdlEvaluator.EvaluationError e) {
+            return failed(new ExecutionError(node + ": " + e.getMessage(), e));
+        }
+    }
+    private Object declaration(Run run, WdlGraph.Node node, Frame frame) throws ExecutionError, WdlEvaluator.EvaluationError {
+        WdlParser.Ast ast = node.getAst();
+        WdlParser.AstNode expression = ast.getAttribute("expression");
+        if (expression == null) {
+            return input(run, this.name + "." + node.getName(), ast.getAttribute("type"));
+        }
+        return coerce(run.evaluate(expression, frame), ast.getAttribute("type"), run.base);
+    }
+    private Object input(Run run, String key, WdlParser.AstNode type) throws ExecutionError, WdlEvaluator.EvaluationError {
+        if (run.inputs.containsKey(key)) {
+            return coerce(run.inputs.get(key), type, run.base);
+        }
+        if (type instanceof WdlParser.Ast && ((WdlParser.Ast) type).getName().equals("OptionalType")) {
+            return null;
+        }
+        throw new ExecutionError("Missing required input " + key);
+    }
+    /* Upper bound on the number of call-free shards run as one task on the work-stealing pool. */
+    private static final int MAX_BATCH = 256;
+    /*
+     * Shards with calls in flight per scatter.  Their calls wait in the scheduler and on the
+     * backend without holding threads, so this only bounds the frames kept in memory.
+     */
+    private static final int CALL_WINDOW = 1024;
+
+    /*
+     * One execution of a Scatter node.  Shard frames are created lazily, one window at a time,
+     * and run on the work-stealing pool; shards of bodies without calls run in batches.
+     * Exported values land in preallocated arrays indexed by shard and are published to the
+     * enclosing frame once every shard has finished.
+     */
+    private final class ScatterRun {
+        private final Run run;
+        private final WdlGraph.Node node;
+        private final Frame frame;
+        private final List<Object> items;
+        private final ScatterRun source;
+        private final int size;
+        private final List<WdlGraph.Node> exported;
+        private final List<List<String>> outputNames = new ArrayList<List<String>>();
+        private final Object[][] values;
+        private final CompletableFuture<?>[] shards;
+        private final CompletableFuture<Void> done = new CompletableFuture<Void>();
+        private final int batch;
+        private final int window;
+        private final AtomicInteger remaining;
+        private int next;
+        private int inFlight;
+        private Throwable failure;
+
+        ScatterRun(Run run, WdlGraph.Node node, Frame frame, ScatterRun source) throws WdlEvaluator.EvaluationError, ExecutionError {
+            this.run = run;
+            this.node = node;
+            this.frame = frame;
+            this.source = source;
+            this.items = source == null ? WdlEvaluator.asArray(run.evaluate(node.getAst().getAttribute("collection"), frame)) : null;
+            this.size = source == null ? this.items.size() : source.size;
+            this.exported = WdlEngine.this.exports.get(node.getIndex());
+            this.values = new Object[this.exported.size()][this.size];
+            for (WdlGraph.Node export : this.exported) {
+                this.outputNames.add(export.getType().equals("Call") ? outputNames(task(export)) : null);
+            }
+            this.shards = consumed(node) ? new CompletableFuture<?>[this.size] : null;
+            for (int i = 0; this.shards != null && i < this.size; i++) {
+                this.shards[i] = new CompletableFuture<Void>();
+            }
+            int parallelism = WdlEngine.this.parallelism;
+            if (WdlEngine.this.tiny[node.getIndex()]) {
+                this.batch = Math.max(1, Math.min(MAX_BATCH, this.size / (parallelism * 8)));
+                this.window = parallelism * 2;
+            } else {
+                this.batch = 1;
+                this.window = Math.max(CALL_WINDOW, parallelism * 4);
+            }
+            this.remaining = new AtomicInteger(this.size);
+        }
+        ScatterRun start() {
+            if (this.size == 0) {
+                finish();
+            } else {
+                dispatch();
+            }
+            return this;
+        }
+        private void dispatch() {
+            while (true) {
+                int start;
+                int end;
+                synchronized (this) {
+                    if (this.next >= this.size || this.inFlight >= this.window || this.failure != null) {
+                        return;
+                    }
+                    start = this.next;
+                    end = Math.min(this.size, start + this.batch);
+                    this.next = end;
+                    this.inFlight++;
+                }
+                this.run.shards.execute(() -> runBatch(start, end));
+            }
+        }
+        private void runBatch(int start, int end) {
+            AtomicInteger pending = new AtomicInteger(end - start);
+            for (int i = start; i < end; i++) {
+                int shard = i;
+                startShard(shard).whenComplete((v, t) -> {
+                    if (t != null) {
+                        synchronized (this) {
+                            if (this.failure == null) {
+                                this.failure = t;
+                            }
+                        }
+                        if (this.shards != null) {
+                            this.shards[shard].completeExceptionally(t);
+                        }
+                    }
+                    if (pending.decrementAndGet() == 0) {
+                        boolean drained;
+                        synchronized (this) {
+                            this.inFlight--;
+                            drained = this.inFlight == 0 && this.failure != null;
+                        }
+                        if (drained) {
+                            fail();
+                        } else {
+                            dispatch();
+                        }
+                    }
+                });
+            }
+        }
+        private CompletableFuture<Void> startShard(int i) {
+            if (this.source == null) {
+                return runShard(i, this.items.get(i));
+            }
+            return this.source.shards[i].thenCompose(v -> {
+                try {
+                    return runShard(i, this.source.item(i, WdlEngine.this.streamExports[this.node.getIndex()], WdlEngine.this.streamMembers[this.node.getIndex()]));
+                } catch (WdlEvaluator.EvaluationError e) {
+                    return failed(new ExecutionError(this.node + ": " + e.getMessage(), e));
+                }
+            });
+        }
+        private Object item(int i, int export, String member) throws WdlEvaluator.EvaluationError {
+            Object value = this.values[export][i];
+            return member == null ? value : WdlEvaluator.member(value, member);
+        }
+        private CompletableFuture<Void> runShard(int i, Object item) {
+            String path = this.frame.shard + "/shard-" + i;
+            if (WdlEngine.this.declarationsOnly[this.node.getIndex()]) {
+                Frame shard = new Frame(new HashMap<String, Object>(), this.frame, path);
+                shard.put(this.node.getName(), item);
+                try {
+                    for (WdlGraph.Node child : WdlEngine.this.children.get(this.node.getIndex())) {
+                        shard.put(child.getName(), declaration(this.run, child, shard));
+                    }
+                } catch (ExecutionError e) {
+                    return failed(e);
+                } catch (WdlEvaluator.EvaluationError e) {
+                    return failed(new ExecutionError(this.node + path + ": " + e.getMessage(), e));
+                }
+                record(i, shard);
+                return CompletableFuture.completedFuture(null);
+            }
+            Frame shard = new Frame(this.frame, path);
+            shard.put(this.node.getName(), item);
+            return runScope(this.run, WdlEngine.this.children.get(this.node.getIndex()), shard).thenRun(() -> record(i, shard));
+        }
+        private void record(int i, Frame shard) {
+            for (int e = 0; e < this.values.length; e++) {
+                this.values[e][i] = shard.values.get(this.exported.get(e).getName());
+            }
+            if (this.shards != null) {
+                this.shards[i].complete(null);
+            }
+            if (this.remaining.decrementAndGet() == 0) {
+                finish();
+            }
+        }
+        private void fail() {
+            for (int i = 0; this.shards != null && i < this.size; i++) {
+                this.shards[i].completeExceptionally(this.failure);
+            }
+            this.done.completeExceptionally(this.failure);
+        }
+        /* Outside of a scatter a declaration is an array over the shards, and so is call.output. */
+        private void finish() {
+            for (int e = 0; e < this.values.length; e++) {
+                WdlGraph.Node export = this.exported.get(e);
+                List<String> outputs = this.outputNames.get(e);
+                if (outputs == null) {
+                    this.frame.put(export.getName(), WdlValues.array(this.values[e]));
+                    continue;
+                }
+                Map<String, Object> gathered = new LinkedHashMap<String, Object>();
+                for (String output : outputs) {
+                    Object[] column = new Object[this.size];
+                    for (int i = 0; i < column.length; i++) {
+                        column[i] = ((Map<?, ?>) this.values[e][i]).get(output);
+                    }
+                    gathered.put(output, WdlValues.array(column));
+                }
+                this.frame.put(export.getName(), Collections.unmodifiableMap(gathered));
+            }
+            this.done.complete(null);
+        }
+    }
+    private boolean consumed(WdlGraph.Node scatter) {
+        for (int source : this.streamSources) {
+            if (source == scatter.getIndex()) {
+                return true;
+            }
+        }
+        return false;
+    }
+    private CompletableFuture<Void> conditional(Run run, WdlGraph.Node node, Frame frame) throws WdlEvaluator.EvaluationError, ExecutionError {
+        List<WdlGraph.Node> exported = this.exports.get(node.getIndex());
+        if (!WdlEvaluator.asBoolean(run.evaluate(node.getAst().getAttribute("expression"), frame))) {
+            for (WdlGraph.Node export : exported) {
+                Object value = null;
+                if (export.getType().equals("Call")) {
+                    Map<String, Object> outputs = new LinkedHashMap<String, Object>();
+                    for (String output : outputNames(task(export))) {
+                        outputs.put(output, null);
+                    }
+                    value = Collections.unmodifiableMap(outputs);
+                }
+                frame.put(export.getName(), value);
+            }
+            return CompletableFuture.completedFuture(null);
+        }
+        Frame body = new Frame(frame, frame.shard);
+        return runScope(run, this.children.get(node.getIndex()), body).thenRun(() -> {
+            for (WdlGraph.Node export : exported) {
+                frame.put(export.getName(), body.values.get(export.getName()));
+            }
+        });
+    }
+    private Map<String, Object> wildcard(WdlParser.Ast ast, Frame frame) throws WdlEvaluator.EvaluationError {
+        String fqn = ((WdlParser.Terminal) ast.getAttribute("fqn")).getSourceString();
+        Map<String, Object> outputs = new LinkedHashMap<String, Object>();
+        int dot = fqn.indexOf('.');
+        if (ast.getAttribute("wildcard") != null || (dot < 0 && isCall(fqn))) {
+            /* call.* and a bare call name both export every output of the call. */
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) frame.lookup(fqn)).entrySet()) {
+                outputs.put(this.name + "." + fqn + "." + entry.getKey(), entry.getValue());
+            }
+        } else if (dot >= 0) {
+            outputs.put(this.name + "." + fqn, WdlEvaluator.member(frame.lookup(fqn.substring(0, dot)), fqn.substring(dot + 1)));
+        } else {
+            throw new WdlEvaluator.EvaluationError("Workflow output " + fqn + " is not a call, call.output or call.*");
+        }
+        return outputs;
+    }
+    private boolean isCall(String name) {
+        for (WdlGraph.Node node : this.graph.getNodes()) {
+            if (node.getType().equals("Call") && name.equals(node.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+    private Map<String, Object> outputs(Run run, Frame frame) throws ExecutionError {
+        Map<String, Object> outputs = new LinkedHashMap<String, Object>();
+        boolean declared = false;
+        for (WdlGraph.Node node : this.graph.getNodes()) {
+            if (node.getType().startsWith("WorkflowOutput")) {
+                declared = true;
+                outputs.putAll(run.outputs.get(node.getIndex()));
+            }
+        }
+        if (declared) {
+            return outputs;
+        }
+        for (WdlGraph.Node node : this.graph.getNodes()) {
+            if (node.getType().equals("Call")) {
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) frame.values.get(node.getName())).entrySet()) {
+                    outputs.put(this.name + "." + node.getName() + "." + entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        return outputs;
+    }
+
+    /* Section: Tasks */
+
+    private static List<String> outputNames(WdlParser.Ast task) {
+        List<String> names = new ArrayList<String>();
+        for (WdlParser.Ast section : sections(task, "Outputs")) {
+            for (WdlParser.AstNode output : (WdlParser.AstList) section.getAttribute("attributes")) {
+                names.add(((WdlParser.Terminal) ((WdlParser.Ast) output).getAttribute("name")).getSourceString());
+            }
+        }
+        return names;
+    }
+    private static List<WdlParser.Ast> sections(WdlParser.Ast task, String name) {
+        List<WdlParser.Ast> sections = new ArrayList<WdlParser.Ast>();
+        for (WdlParser.AstNode section : (WdlParser.AstList) task.getAttribute("sections")) {
+            if (section instanceof WdlParser.Ast && ((WdlParser.Ast) section).getName().equals(name)) {
+                sections.add((WdlParser.Ast) section);
+            }
+        }
+        return sections;
+    }
+
+    /*
+     * Evaluate a call's inputs and runtime section, then submit its command to the scheduler.
+     * The future completes with the call's outputs.
+     */
+    private CompletableFuture<Map<String, Object>> call(Run run, WdlGraph.Node node, Frame frame) throws ExecutionError {
+        WdlParser.Ast task = task(node);
+        String call = node.getName();
+        Path directory = run.directory.resolve("call-" + call + frame.shard);
+        try {
+            Map<String, Object> mapped = new HashMap<String, Object>();
+            WdlParser.Ast body = (WdlParser.Ast) node.getAst().getAttribute("body");
+            if (body != null) {
+                for (WdlParser.AstNode io : (WdlParser.AstList) body.getAttribute("io")) {
+                    for (WdlParser.AstNode item : (WdlParser.AstList) ((WdlParser.Ast) io).getAttribute("map")) {
+                        WdlParser.Ast mapping = (WdlParser.Ast) item;
+                        mapped.put(((WdlParser.Terminal) mapping.getAttribute("key")).getSourceString(), run.evaluate(mapping.getAttribute("value"), frame));
+                    }
+                }
+            }
+            Files.createDirectories(directory);
+            WdlEvaluator evaluator = this.evaluator.withFunctions(WdlStdlib.functions(directory, run.directory, null, null));
+            Map<String, Object> values = new HashMap<String, Object>();
+            Map<String, WdlParser.AstNode> types = new HashMap<String, WdlParser.AstNode>();
+            Frame env = new Frame(values, null, frame.shard);
+            for (WdlParser.AstNode item : (WdlParser.AstList) task.getAttribute("declarations")) {
+                WdlParser.Ast declaration = (WdlParser.Ast) item;
+                String name = ((WdlParser.Terminal) declaration.getAttribute("name")).getSourceString();
+                WdlParser.AstNode type = declaration.getAttribute("type");
+                WdlParser.AstNode expression = declaration.getAttribute("expression");
+                String key = this.name + "." + call + "." + name;
+                Object value;
+                if (mapped.containsKey(name)) {
+                    value = coerce(mapped.remove(name), type, run.base);
+                } else if (run.inputs.containsKey(key) || expression == null) {
+                    value = input(run, key, type);
+                } else {
+                    value = coerce(evaluate(evaluator, expression, env), type, directory);
+                }
+                env.put(name, value);
+                types.put(name, type);
+            }
+            if (!mapped.isEmpty()) {
+                throw new ExecutionError("Call " + call + " has inputs that task does not declare: " + mapped.keySet());
+            }
+            WdlJournal journal = this.journal;
+            String journalKey = this.name + "." + call + frame.shard;
+            long digest = 0;
+            if (journal != null) {
+                digest = journal.digest(values, types);
+                Map<String, Object> completed = journal.completed(journalKey, digest);
+                if (completed != null && produced(task, completed)) {
+                    return CompletableFuture.completedFuture(completed);
+                }
+            }
+            WdlCallCache cache = this.cache;
+            String cacheKey = null;
+            if (cache != null) {
+                cacheKey = cache.key(task, values, types);
+                Map<String, Object> cached = cache.lookup(cacheKey, task, directory);
+                if (cached != null) {
+                    if (journal != null) {
+                        journal.finished(journalKey, digest, cached);
+                    }
+                    return CompletableFuture.completedFuture(cached);
+                }
+            }
+            WdlCallCache.detach(directory);
+            Map<String, Object> runtime = new HashMap<String, Object>();
+            for (WdlParser.Ast section : sections(task, "Runtime")) {
+                for (WdlParser.AstNode item : (WdlParser.AstList) section.getAttribute("map")) {
+                    WdlParser.Ast attribute = (WdlParser.Ast) item;
+                    runtime.put(((WdlParser.Terminal) attribute.getAttribute("key")).getSourceString(), evaluate(evaluator, attribute.getAttribute("value"), env));
+                }
+            }
+            String command = command(evaluator, task).render(evaluator.getFunctions(), env);
+            WdlScheduler.Resources request = WdlScheduler.request(runtime);
+            String key = cacheKey;
+            long inputs = digest;
+            return this.scheduler.submitAsync(call, request, () -> {
+                if (run.failure.get() != null) {
+                    throw new ExecutionError("Call " + call + frame.shard + " not started because of an earlier failure");
+                }
+                if (journal != null) {
+                    journal.started(journalKey, values);
+                }
+                WdlJobMonitor monitor = this.monitor;
+                WdlBackend.Job job = new WdlBackend.Job(call + frame.shard, task, directory, command, runtime);
+                return execute(monitor, job).thenApplyAsync(handle -> {
+                    try {
+                        Map<String, Object> outputs = outputs(run, monitor.getBackend(), handle, env, key);
+                        if (journal != null) {
+                            journal.finished(journalKey, inputs, outputs);
+                        }
+                        return outputs;
+                    } catch (ExecutionError | IOException e) {
+                        throw new CompletionException(e);
+                    }
+                }, run.pool);
+            });
+        } catch (WdlEvaluator.EvaluationError e) {
+            throw new ExecutionError("Call " + call + frame.shard + ": " + e.getMessage(), e);
+        } catch (IOException e) {
+            throw new ExecutionError("Call " + call + frame.shard + ": " + e, e);
+        }
+    }
+
+    /* Evaluate the outputs of a call whose job has exited, fetching its File outputs from the backend. */
+    private Map<String, Object> outputs(Run run, WdlBackend backend, WdlBackend.Handle handle, Frame env, String cacheKey) throws ExecutionError {
+        WdlParser.Ast task = handle.getJob().getTask();
+        String call = handle.getJob().getCall();
+        Path directory = handle.getJob().getDirectory();
+        try {
+            WdlEvaluator evaluator = this.evaluator.withFunctions(WdlStdlib.functions(directory, run.directory, backend.fetch(handle, "stdout"), backend.fetch(handle, "stderr")));
+            Map<String, Object> outputs = new LinkedHashMap<String, Object>();
+            Frame outputEnv = new Frame(outputs, env, env.shard);
+            for (WdlParser.Ast section : sections(task, "Outputs")) {
+                for (WdlParser.AstNode item : (WdlParser.AstList) section.getAttribute("attributes")) {
+                    WdlParser.Ast output = (WdlParser.Ast) item;
+                    String name = ((WdlParser.Terminal) output.getAttribute("name")).getSourceString();
+                    WdlParser.AstNode type = output.getAttribute("type");
+                    Object value = coerce(evaluate(evaluator, output.getAttribute("expression"), outputEnv), type, directory);
+                    if (isFile(type) && value != null) {
+                        value = backend.fetch(handle, (String) value).toString();
+                        if (!Files.exists(Paths.get((String) value))) {
+                            throw new ExecutionError("Call " + call + " did not produce output " + name + ": " + value);
+                        }
+                    }
+                    outputs.put(name, value);
+                }
+            }
+            WdlCallCache cache = this.cache;
+            if (cacheKey != null && cache != null) {
+                cache.store(cacheKey, task, outputs);
+            }
+            return Collections.unmodifiableMap(outputs);
+        } catch (WdlEvaluator.EvaluationError e) {
+            throw new ExecutionError("Call " + call + ": " + e.getMessage(), e);
+        } catch (IOException e) {
+            throw new ExecutionError("Call " + call + ": " + e, e);
+        }
+    }
+
+    /* Whether the File outputs of task in outputs, as journaled by an earlier run, still exist. */
+    private static boolean produced(WdlParser.Ast task, Map<String, Object> outputs) {
+        for (WdlParser.Ast section : sections(task, "Outputs")) {
+            for (WdlParser.AstNode item : (WdlParser.AstList) section.getAttribute("attributes")) {
+                WdlParser.Ast output = (WdlParser.Ast) item;
+                Object value = outputs.get(((WdlParser.Terminal) output.getAttribute("name")).getSourceString());
+                if (isFile(output.getAttribute("type")) && value != null && !Files.exists(Paths.get((String) value))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /* The task's command, compiled on first use. */
+    private WdlCommand command(WdlEvaluator evaluator, WdlParser.Ast task) throws WdlEvaluator.EvaluationError {
+        WdlCommand command = this.commands.get(task);
+        if (command == null) {
+            command = WdlCommand.compile(evaluator, task);
+            this.commands.put(task, command);
+        }
+        return command;
+    }
+
+    /*
+     * Evaluate an expression of a task's declarations, runtime or outputs with evaluator's
+     * functions, which are bound to the call.  Like the command, it is compiled once for
+     * every call of the task, and to bytecode once it has been evaluated
+     * WdlBytecode.DEFAULT_THRESHOLD times, e.g. by the shards of a large scatter.
+     */
+    private Object evaluate(WdlEvaluator evaluator, WdlParser.AstNode expression, Frame env) throws WdlEvaluator.EvaluationError {
+        WdlEvaluator.Node node = this.expressions.get(expression);
+        if (node == null) {
+            node = new WdlBytecode(WdlCommand.lateBinding(evaluator)).adaptive(expression, Collections.<String, WdlEvaluator.Kind>emptyMap());
+            this.expressions.put(expression, node);
+        }
+        return WdlCommand.evaluate(node, evaluator.getFunctions(), env);
+    }
+
+    /*
+     * Submit job to the monitor's backend.  The future completes with the job's handle once
+     * it has exited with a return code its runtime section accepts.
+     */
+    private CompletableFuture<WdlBackend.Handle> execute(WdlJobMonitor monitor, WdlBackend.Job job) throws IOException {
+        WdlBackend.Handle handle = monitor.getBackend().submit(job);
+        return monitor.watch(handle).thenApply(status -> {
+            try {
+                exited(monitor.getBackend(), handle, status);
+                return handle;
+            } catch (ExecutionError | IOException | WdlEvaluator.EvaluationError e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+    private static void exited(WdlBackend backend, WdlBackend.Handle handle, WdlBackend.Status status) throws ExecutionError, IOException, WdlEvaluator.EvaluationError {
+        String call = handle.getJob().getCall();
+        Map<String, Object> runtime = handle.getJob().getRuntime();
+        switch (status.getState()) {
+            case CANCELLED:
+                throw new ExecutionError("Call " + call + " was cancelled");
+            case FAILED:
+                throw new ExecutionError("Call " + call + " failed: " + status.getMessage());
+            default:
+                break;
+        }
+        int rc = status.getReturnCode();
+        if (!acceptable(rc, runtime.get("continueOnReturnCode"))) {
+            throw new ExecutionError("Call " + call + " failed with return code " + rc + ", see " + backend.fetch(handle, "stderr"));
+        }
+        if (runtime.containsKey("failOnStderr") && WdlEvaluator.asBoolean(runtime.get("failOnStderr"))) {
+            Path stderr = backend.fetch(handle, "stderr");
+            if (Files.size(stderr) > 0) {
+                throw new ExecutionError("Call " + call + " wrote to stderr, see " + stderr);
+            }
+        }
+    }
+    private static boolean acceptable(int rc, Object continueOnReturnCode) throws WdlEvaluator.EvaluationError {
+        if (continueOnReturnCode == null) {
+            return rc == 0;
+        }
+        if (continueOnReturnCode instanceof Boolean) {
+            return (Boolean) continueOnReturnCode || rc == 0;
+        }
+        if (continueOnReturnCode instanceof List) {
+            for (Object code : (List<?>) continueOnReturnCode) {
+                if (WdlEvaluator.asInt(code) == rc) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return WdlEvaluator.asInt(continueOnReturnCode) == rc;
+    }
+
+    /* Section: Types */
+
+    private static boolean isFile(WdlParser.AstNode type) {
+        if (type instanceof WdlParser.Ast && ((WdlParser.Ast) type).getName().equals("OptionalType")) {
+            type = ((WdlParser.Ast) type).getAttribute("innerType");
+        }
+        return type instanceof WdlParser.Terminal && ((WdlParser.Terminal) type).getSourceString().equals("File");
+    }
+
+    /**
+     * Convert value to the WDL type described by the type Ast.  Relative File paths are
+     * resolved against base; paths with a URI scheme are left alone.
+     */
+    static Object coerce(Object value, WdlParser.AstNode type, Path base) throws WdlEvaluator.EvaluationError {
+        if (type instanceof WdlParser.Terminal) {
+            String name = ((WdlParser.Terminal) type).getSourceString();
+            if (value == null) {
+                throw new WdlEvaluator.EvaluationError("Expected " + name + ", got an undefined value");
+            }
+            switch (name) {
+                case "Int": return Long.valueOf(WdlEvaluator.asInt(value));
+                case "Float": return Double.valueOf(WdlEvaluator.asFloat(value));
+                case "Boolean": return Boolean.valueOf(WdlEvaluator.asBoolean(value));
+                case "String": return WdlEvaluator.asString(value);
+                case "File":
+                    return file(WdlEvaluator.asString(value), base);
+                default: return value;
+            }
+        }
+        WdlParser.Ast ast = (WdlParser.Ast) type;
+        switch (ast.getName()) {
+            case "OptionalType":
+                return value == null ? null : coerce(value, ast.getAttribute("innerType"), base);
+            case "NonEmptyType": {
+                Object result = coerce(value, ast.getAttribute("innerType"), base);
+                if (result instanceof List && ((List<?>) result).isEmpty()) {
+                    throw new WdlEvaluator.EvaluationError("Expected a non-empty array");
+                }
+                return result;
+            }
+            default:
+                break;
+        }
+        String name = ((WdlParser.Terminal) ast.getAttribute("name")).getSourceString();
+        WdlParser.AstList subtype = (WdlParser.AstList) ast.getAttribute("subtype");
+        if (value == null) {
+            throw new WdlEvaluator.EvaluationError("Expected " + name + ", got an undefined value");
+        }
+        switch (name) {
+            case "Array": {
+                if (value instanceof WdlValues.StringArray && ((WdlValues.StringArray) value).depth() == stringArrayDepth(ast)) {
+                    return value;
+                }
+                String element = subtype.get(0) instanceof WdlParser.Terminal ? ((WdlParser.Terminal) subtype.get(0)).getSourceString() : "";
+                if ((value instanceof WdlValues.LongArray && element.equals("Int"))
+                        || (value instanceof WdlValues.DoubleArray && element.equals("Float"))
+                        || (value instanceof WdlValues.BooleanArray && element.equals("Boolean"))) {
+                    return value;
+                }
+                List<Object> items = WdlEvaluator.asArray(value);
+                Object[] result = new Object[items.size()];
+                for (int i = 0; i < result.length; i++) {
+                    result[i] = coerce(items.get(i), subtype.get(0), base);
+                }
+                return WdlValues.array(result);
+            }
+            case "Map": {
+                if (!(value instanceof Map)) {
+                    throw new WdlEvaluator.EvaluationError("Expected Map, got " + WdlEvaluator.describe(value));
+                }
+                Map<Object, Object> result = new LinkedHashMap<Object, Object>();
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                    result.put(coerce(entry.getKey(), subtype.get(0), base), coerce(entry.getValue(), subtype.get(1), base));
+                }
+                return Collections.unmodifiableMap(result);
+            }
+            case "Pair": {
+                Object left;
+                Object right;
+                if (value instanceof WdlEvaluator.Pair) {
+                    left = ((WdlEvaluator.Pair) value).getLeft();
+                    right = ((WdlEvaluator.Pair) value).getRight();
+                } else if (value instanceof Map) {
+                    left = ((Map<?, ?>) value).get("left");
+                    right = ((Map<?, ?>) value).get("right");
+                } else {
+                    throw new WdlEvaluator.EvaluationError("Expected Pair, got " + WdlEvaluator.describe(value));
+                }
+                return new WdlEvaluator.Pair(coerce(left, subtype.get(0), base), coerce(right, subtype.get(1), base));
+            }
+            default:
+                return value;
+        }
+    }
+
+    /* path resolved against base, unless it is a URL.  Paths that are already absolute and normal are returned as they are. */
+    static String file(String path, Path base) {
+        if (path.contains("://")) {
+            return path;
+        }
+        if (path.startsWith("/") && !path.endsWith("/") && !path.contains("//") && !path.contains("/./") && !path.contains("/../")
+                && !path.endsWith("/.") && !path.endsWith("/..")) {
+            return path;
+        }
+        return base.resolve(path).normalize().toString();
+    }
+
+    /* n for Array[...Array[String]...] nested n deep, otherwise -1. */
+    private static int stringArrayDepth(WdlParser.AstNode type) {
+        if (type instanceof WdlParser.Terminal) {
+            return ((WdlParser.Terminal) type).getSourceString().equals("String") ? 0 : -1;
+        }
+        WdlParser.Ast ast = (WdlParser.Ast) type;
+        if (!ast.getName().equals("Type") || !((WdlParser.Terminal) ast.getAttribute("name")).getSourceString().equals("Array")) {
+            return -1;
+        }
+        int depth = stringArrayDepth(((WdlParser.AstList) ast.getAttribute("subtype")).get(0));
+        return depth < 0 ? -1 : depth + 1;
+    }
+
+    /* Section: Main */
+
+    public static void main(String[] args) throws Exception {
+        Path cacheDirectory = null;
+        Path journalFile = null;
+        boolean statistics = false;
+        while (args.length > 0 && args[0].startsWith("--")) {
+            if (args[0].equals("--cache") && args.length > 1) {
+                cacheDirectory = Paths.get(args[1]);
+                args = Arrays.copyOfRange(args, 2, args.length);
+            } else if (args[0].equals("--journal") && args.length > 1) {
+                journalFile = Paths.get(args[1]);
+                args = Arrays.copyOfRange(args, 2, args.length);
+            } else if (args[0].equals("--stats")) {
+                statistics = true;
+                args = Arrays.copyOfRange(args, 1, args.length);
+            } else {
+                break;
+            }
+        }
+        if (args.length < 1 || args.length > 3 || args[0].startsWith("--")) {
+            System.err.println("Usage: WdlEngine [--cache directory] [--journal file] [--stats] <workflow.wdl> [inputs.json] [root directory]");
+            System.exit(1);
+        }
+        Path root = Paths.get(args.length > 2 ? args[2] : "wdl-executions");
+        WdlCallCache cache = null;
+        WdlJournal journal = null;
+        int status = 0;
+        try {
+            WdlEngine engine = load(Paths.get(args[0]), root, defaultParallelism());
+            WdlInputs binder = new WdlInputs(engine);
+            Map<String, Object> inputs = args.length > 1
+                ? binder.bind(Paths.get(args[1]))
+                : binder.bind(new StringReader("{}"), Paths.get("").toAbsolutePath());
+            if (cacheDirectory != null) {
+                cache = new WdlCallCache(cacheDirectory, WdlCallCache.DEFAULT_MAX_BYTES, WdlCallCache.DEFAULT_MAX_ENTRIES, defaultParallelism());
+                engine.setCallCache(cache);
+            }
+            if (journalFile != null) {
+                journal = new WdlJournal(journalFile);
+                engine.setJournal(journal);
+            }
+            System.out.println(WdlJson.toString(engine.run(inputs)));
+            if (statistics) {
+                System.err.print(engine.getScheduler().report());
+            }
+        } catch (ExecutionError | WdlParser.SyntaxError e) {
+            System.err.println(e.getMessage());
+            status = 1;
+        } finally {
+            /* Closing the journal writes the calls that finished before a failure, for resuming. */
+            if (journal != null) {
+                journal.close();
+            }
+            if (cache != null) {
+                cache.close();
+            }
+        }
+        System.exit(status);
+    }
+}
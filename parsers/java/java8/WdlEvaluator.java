@@ -0,0 +1,1149 @@
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Compiles WDL expression ASTs (the output of WdlParser.parse_e) into a tree of
+ * specialized nodes which can then be evaluated many times against different
+ * environments without re-walking the Ast attribute maps.
+ *
+ * Values are represented with plain Java objects: Int is Long, Float is Double,
+ * Boolean is Boolean, String and File are String, Array is a List, Map and Object
+ * are Maps and Pair is WdlEvaluator.Pair.  An unset optional value is null.  Arrays
+ * built here are the compact, shared representations from WdlValues.
+ */
+public class WdlEvaluator {
+    public static class EvaluationError extends Exception {
+        private static final long serialVersionUID = 1L;
+        public EvaluationError(String message) {
+            super(message);
+        }
+    }
+    public interface Environment {
+        /* Returns the value bound to name, null if it is an unset optional.  Throws if name is unbound. */
+        Object lookup(String name) throws EvaluationError;
+    }
+    public interface Function {
+        Object call(List<Object> args) throws EvaluationError;
+    }
+    public enum Kind {
+        INT, FLOAT, BOOLEAN, STRING, ANY;
+        public static Kind fromType(String wdlType) {
+            if ("Int".equals(wdlType)) return INT;
+            if ("Float".equals(wdlType)) return FLOAT;
+            if ("Boolean".equals(wdlType)) return BOOLEAN;
+            if ("String".equals(wdlType) || "File".equals(wdlType)) return STRING;
+            return ANY;
+        }
+    }
+    enum Op {
+        ADD("Add"), SUBTRACT("Subtract"), MULTIPLY("Multiply"), DIVIDE("Divide"), REMAINDER("Remainder"),
+        EQUALS("Equals"), NOT_EQUALS("NotEquals"), LESS_THAN("LessThan"), LESS_THAN_OR_EQUAL("LessThanOrEqual"),
+        GREATER_THAN("GreaterThan"), GREATER_THAN_OR_EQUAL("GreaterThanOrEqual");
+        private final String astName;
+        Op(String astName) {
+            this.astName = astName;
+        }
+        boolean isComparison() {
+            return this.ordinal() >= EQUALS.ordinal();
+        }
+        static Op fromAstName(String name) {
+            for (Op op : values()) {
+                if (op.astName.equals(name)) {
+                    return op;
+                }
+            }
+            return null;
+        }
+    }
+    public static class MapEnvironment implements Environment {
+        private final Map<String, Object> values;
+        private final Environment parent;
+        public MapEnvironment() {
+            this(new HashMap<String, Object>(), null);
+        }
+        public MapEnvironment(Map<String, Object> values) {
+            this(values, null);
+        }
+        public MapEnvironment(Map<String, Object> values, Environment parent) {
+            this.values = values;
+            this.parent = parent;
+        }
+        public MapEnvironment put(String name, Object value) {
+            this.values.put(name, value);
+            return this;
+        }
+        public Object lookup(String name) throws EvaluationError {
+            Object value = this.values.get(name);
+            if (value != null || this.values.containsKey(name)) {
+                return value;
+            }
+            if (this.parent != null) {
+                return this.parent.lookup(name);
+            }
+            throw new EvaluationError("Unbound identifier: " + name);
+        }
+    }
+    public static final class Pair {
+        private final Object left;
+        private final Object right;
+        public Pair(Object left, Object right) {
+            this.left = left;
+            this.right = right;
+        }
+        public Object getLeft() {
+            return this.left;
+        }
+        public Object getRight() {
+            return this.right;
+        }
+        public boolean equals(Object other) {
+            if (!(other instanceof Pair)) {
+                return false;
+            }
+            Pair pair = (Pair) other;
+            return Objects.equals(this.left, pair.left) && Objects.equals(this.right, pair.right);
+        }
+        public int hashCode() {
+            return 31 * Objects.hashCode(this.left) + Objects.hashCode(this.right);
+        }
+        public String toString() {
+            return "(" + this.left + ", " + this.right + ")";
+        }
+    }
+
+    /* Section: Nodes */
+
+    /**
+     * A compiled expression.  eval() always works; evalInt(), evalFloat() and evalBoolean()
+     * avoid boxing when kind() says the node statically produces that type.
+     */
+    public static abstract class Node {
+        public abstract Object eval(Environment env) throws EvaluationError;
+        public long evalInt(Environment env) throws EvaluationError {
+            return asInt(eval(env));
+        }
+        public double evalFloat(Environment env) throws EvaluationError {
+            return asFloat(eval(env));
+        }
+        public boolean evalBoolean(Environment env) throws EvaluationError {
+            return asBoolean(eval(env));
+        }
+        public Kind kind() {
+            return Kind.ANY;
+        }
+        public boolean isConstant() {
+            return false;
+        }
+    }
+    public static class Constant extends Node {
+        private final Object value;
+        Constant(Object value) {
+            this.value = value;
+        }
+        public Object eval(Environment env) {
+            return this.value;
+        }
+        public Kind kind() {
+            if (this.value instanceof Long) return Kind.INT;
+            if (this.value instanceof Double) return Kind.FLOAT;
+            if (this.value instanceof Boolean) return Kind.BOOLEAN;
+            if (this.value instanceof String) return Kind.STRING;
+            return Kind.ANY;
+        }
+        public boolean isConstant() {
+            return true;
+        }
+        public Object getValue() {
+            return this.value;
+        }
+    }
+    private static final class IntConstant extends Constant {
+        private final long value;
+        IntConstant(long value) {
+            super(Long.valueOf(value));
+            this.value = value;
+        }
+        public long evalInt(Environment env) {
+            return this.value;
+        }
+        public double evalFloat(Environment env) {
+            return this.value;
+        }
+    }
+    private static final class FloatConstant extends Constant {
+        private final double value;
+        FloatConstant(double value) {
+            super(Double.valueOf(value));
+            this.value = value;
+        }
+        public double evalFloat(Environment env) {
+            return this.value;
+        }
+    }
+    private static final class BooleanConstant extends Constant {
+        private final boolean value;
+        BooleanConstant(boolean value) {
+            super(Boolean.valueOf(value));
+            this.value = value;
+        }
+        public boolean evalBoolean(Environment env) {
+            return this.value;
+        }
+    }
+    private static final class Variable extends Node {
+        private final String name;
+        private final Kind kind;
+        Variable(String name, Kind kind) {
+            this.name = name;
+            this.kind = kind;
+        }
+        public Object eval(Environment env) throws EvaluationError {
+            return env.lookup(this.name);
+        }
+        public Kind kind() {
+            return this.kind;
+        }
+    }
+    private static abstract class Binary extends Node {
+        protected final Node lhs;
+        protected final Node rhs;
+        Binary(Node lhs, Node rhs) {
+            this.lhs = lhs;
+            this.rhs = rhs;
+        }
+    }
+    private static final class IntArithmetic extends Binary {
+        private final Op op;
+        IntArithmetic(Op op, Node lhs, Node rhs) {
+            super(lhs, rhs);
+            this.op = op;
+        }
+        public Object eval(Environment env) throws EvaluationError {
+            return Long.valueOf(evalInt(env));
+        }
+        public long evalInt(Environment env) throws EvaluationError {
+            long a = this.lhs.evalInt(env);
+            long b = this.rhs.evalInt(env);
+            switch (this.op) {
+                case ADD: return a + b;
+                case SUBTRACT: return a - b;
+                case MULTIPLY: return a * b;
+                case DIVIDE:
+                    if (b == 0) throw new EvaluationError("Division by zero");
+                    return a / b;
+                default:
+                    if (b == 0) throw new EvaluationError("Division by zero");
+                    return a % b;
+            }
+        }
+        public double evalFloat(Environment env) throws EvaluationError {
+            return evalInt(env);
+        }
+        public Kind kind() {
+            return Kind.INT;
+        }
+    }
+    private static final class FloatArithmetic extends Binary {
+        private final Op op;
+        FloatArithmetic(Op op, Node lhs, Node rhs) {
+            super(lhs, rhs);
+            this.op = op;
+        }
+        public Object eval(Environment env) throws EvaluationError {
+            return Double.valueOf(evalFloat(env));
+        }
+        public double evalFloat(Environment env) throws EvaluationError {
+            double a = this.lhs.evalFloat(env);
+            double b = this.rhs.evalFloat(env);
+            switch (this.op) {
+                case ADD: return a + b;
+                case SUBTRACT: return a - b;
+                case MULTIPLY: return a * b;
+                case DIVIDE: return a / b;
+                default: return a % b;
+            }
+        }
+        public Kind kind() {
+            return Kind.FLOAT;
+        }
+    }
+    private static final class NumericComparison extends Binary {
+        private final Op op;
+        private final boolean integral;
+        NumericComparison(Op op, Node lhs, Node rhs, boolean integral) {
+            super(lhs, rhs);
+            this.op = op;
+            this.integral = integral;
+        }
+        public Object eval(Environment env) throws EvaluationError {
+            return Boolean.valueOf(evalBoolean(env));
+        }
+        public boolean evalBoolean(Environment env) throws EvaluationError {
+            int c = this.integral
+                ? Long.compare(this.lhs.evalInt(env), this.rhs.evalInt(env))
+                : Double.compare(this.lhs.evalFloat(env), this.rhs.evalFloat(env));
+            return comparisonResult(this.op, c);
+        }
+        public Kind kind() {
+            return Kind.BOOLEAN;
+        }
+    }
+    private static final class GenericBinary extends Binary {
+        private final Op op;
+        GenericBinary(Op op, Node lhs, Node rhs) {
+            super(lhs, rhs);
+            this.op = op;
+        }
+        public Object eval(Environment env) throws EvaluationError {
+            return binary(this.op, this.lhs.eval(env), this.rhs.eval(env));
+        }
+        public boolean evalBoolean(Environment env) throws EvaluationError {
+            return asBoolean(eval(env));
+        }
+        public Kind kind() {
+            return this.op.isComparison() ? Kind.BOOLEAN : Kind.ANY;
+        }
+    }
+    private static final class Logical extends Binary {
+        private final boolean and;
+        Logical(boolean and, Node lhs, Node rhs) {
+            super(lhs, rhs);
+            this.and = and;
+        }
+        public Object eval(Environment env) throws EvaluationError {
+            return Boolean.valueOf(evalBoolean(env));
+        }
+        public boolean evalBoolean(Environment env) throws EvaluationError {
+            if (this.and) {
+                return this.lhs.evalBoolean(env) && this.rhs.evalBoolean(env);
+            }
+            return this.lhs.evalBoolean(env) || this.rhs.evalBoolean(env);
+        }
+        public Kind kind() {
+            return Kind.BOOLEAN;
+        }
+    }
+    private static final class Not extends Node {
+        private final Node expression;
+        Not(Node expression) {
+            this.expression = expression;
+        }
+        public Object eval(Environment env) throws EvaluationError {
+            return Boolean.valueOf(evalBoolean(env));
+        }
+        public boolean evalBoolean(Environment env) throws EvaluationError {
+            return !this.expression.evalBoolean(env);
+        }
+        public Kind kind() {
+            return Kind.BOOLEAN;
+        }
+    }
+    private static final class Negate extends Node {
+        private final Node expression;
+        Negate(Node expression) {
+            this.expression = expression;
+        }
+        public Object eval(Environment env) throws EvaluationError {
+            switch (this.expression.kind()) {
+                case INT: return Long.valueOf(-this.expression.evalInt(env));
+                case FLOAT: return Double.valueOf(-this.expression.evalFloat(env));
+                default: return negate(this.expression.eval(env));
+            }
+        }
+        public long evalInt(Environment env) throws EvaluationError {
+            return -this.expression.evalInt(env);
+        }
+        public double evalFloat(Environment env) throws EvaluationError {
+            /* Negated as an Int, so that -0 is 0.0 and not -0.0. */
+            if (this.expression.kind() == Kind.INT) {
+                return (double) -this.expression.evalInt(env);
+            }
+            return -this.expression.evalFloat(env);
+        }
+        public Kind kind() {
+            return this.expression.kind();
+        }
+    }
+    private static final class IfThenElse extends Node {
+        private final Node cond;
+        private final Node iftrue;
+        private final Node iffalse;
+        private final Kind kind;
+        IfThenElse(Node cond, Node iftrue, Node iffalse) {
+            this.cond = cond;
+            this.iftrue = iftrue;
+            this.iffalse = iffalse;
+            this.kind = iftrue.kind() == iffalse.kind() ? iftrue.kind() : Kind.ANY;
+        }
+        public Object eval(Environment env) throws EvaluationError {
+            return this.cond.evalBoolean(env) ? this.iftrue.eval(env) : this.iffalse.eval(env);
+        }
+        public long evalInt(Environment env) throws EvaluationError {
+            return this.cond.evalBoolean(env) ? this.iftrue.evalInt(env) : this.iffalse.evalInt(env);
+        }
+        public double evalFloat(Environment env) throws EvaluationError {
+            return this.cond.evalBoolean(env) ? this.iftrue.evalFloat(env) : this.iffalse.evalFloat(env);
+        }
+        public boolean evalBoolean(Environment env) throws EvaluationError {
+            return this.cond.evalBoolean(env) ? this.iftrue.evalBoolean(env) : this.iffalse.evalBoolean(env);
+        }
+        public Kind kind() {
+            return this.kind;
+        }
+    }
+    private static final class Lookup extends Binary {
+        Lookup(Node lhs, Node rhs) {
+            super(lhs, rhs);
+        }
+        public Object eval(Environment env) throws EvaluationError {
+            Object collection = this.lhs.eval(env);
+            if (collection instanceof List) {
+                return index((List<?>) collection, this.rhs.evalInt(env));
+            }
+            return lookup(collection, this.rhs.eval(env));
+        }
+    }
+    private static final class MemberAccess extends Node {
+        private final Node lhs;
+        private final String member;
+        MemberAccess(Node lhs, String member) {
+            this.lhs = lhs;
+            this.member = member;
+        }
+        public Object eval(Environment env) throws EvaluationError {
+            return member(this.lhs.eval(env), this.member);
+        }
+    }
+    private static final class Call extends Node {
+        private final String name;
+        private final Function function;
+        private final Node[] params;
+        Call(String name, Function function, Node[] params) {
+            this.name = name;
+            this.function = function;
+            this.params = params;
+        }
+        public Object eval(Environment env) throws EvaluationError {
+            ArrayList<Object> args = new ArrayList<Object>(this.params.length);
+            for (Node param : this.params) {
+                args.add(param.eval(env));
+            }
+            return this.function.call(args);
+        }
+    }
+    private static final class Concat extends Node {
+        private final Node[] parts;
+        private final boolean strict;
+        /* A strict concatenation implements String '+' and rejects operands that are not String, File, Int or Float. */
+        Concat(Node[] parts, boolean strict) {
+            this.parts = parts;
+            this.strict = strict;
+        }
+        public Object eval(Environment env) throws EvaluationError {
+            StringBuilder sb = new StringBuilder();
+            for (Node part : this.parts) {
+                Object value = part.eval(env);
+                if (this.strict && (value instanceof Boolean || value == null)) {
+                    throw new EvaluationError("Invalid operand for Add: " + describe(value));
+                }
+                sb.append(this.strict ? asString(value) : stringify(value));
+            }
+            return sb.toString();
+        }
+        public Kind kind() {
+            return Kind.STRING;
+        }
+    }
+    private static final class ArrayLiteral extends Node {
+        private final Node[] values;
+        ArrayLiteral(Node[] values) {
+            this.values = values;
+        }
+        public Object eval(Environment env) throws EvaluationError {
+            Object[] array = new Object[this.values.length];
+            for (int i = 0; i < array.length; i++) {
+                array[i] = this.values[i].eval(env);
+            }
+            return WdlValues.array(array);
+        }
+    }
+    private static final class MapLiteral extends Node {
+        private final Node[] keys;
+        private final Node[] values;
+        MapLiteral(Node[] keys, Node[] values) {
+            this.keys = keys;
+            this.values = values;
+        }
+        public Object eval(Environment env) throws EvaluationError {
+            LinkedHashMap<Object, Object> map = new LinkedHashMap<Object, Object>();
+            for (int i = 0; i < this.keys.length; i++) {
+                map.put(this.keys[i].eval(env), this.values[i].eval(env));
+            }
+            return Collections.unmodifiableMap(map);
+        }
+    }
+    private static final class PairLiteral extends Binary {
+        PairLiteral(Node lhs, Node rhs) {
+            super(lhs, rhs);
+        }
+        public Object eval(Environment env) throws EvaluationError {
+            return new Pair(this.lhs.eval(env), this.rhs.eval(env));
+        }
+    }
+
+    /* Section: Compiler */
+
+    private static final Set<String> IMPURE_FUNCTIONS = new HashSet<String>(Arrays.asList(
+        "stdout", "stderr", "size", "glob",
+        "read_lines", "read_tsv", "read_map", "read_object", "read_objects", "read_json",
+        "read_int", "read_string", "read_float", "read_boolean",
+        "write_lines", "write_tsv", "write_map", "write_object", "write_objects", "write_json"
+    ));
+    private static final Environment EMPTY = new MapEnvironment(Collections.<String, Object>emptyMap());
+
+    private final Map<String, Function> functions;
+    private final WdlParser parser;
+
+    public WdlEvaluator() {
+        this(standardLibrary());
+    }
+    public WdlEvaluator(Map<String, Function> functions) {
+        this(functions, new WdlParser());
+    }
+    private WdlEvaluator(Map<String, Function> functions, WdlParser parser) {
+        this.functions = functions;
+        this.parser = parser;
+    }
+
+    /**
+     * An evaluator with a different function table that shares this one's parser, which is
+     * expensive to construct.  Engines use it to bind stdout() and read_*() to one call.
+     */
+    public WdlEvaluator withFunctions(Map<String, Function> functions) {
+        return new WdlEvaluator(functions, this.parser);
+    }
+    public Map<String, Function> getFunctions() {
+        return this.functions;
+    }
+
+    /**
+     * Lex and parse a standalone expression, e.g. a runtime attribute or output expression.
+     */
+    public WdlParser.AstNode parseExpression(String expression) throws WdlParser.SyntaxError {
+        List<WdlParser.Terminal> tokens = this.parser.lex(expression, "expression");
+        WdlParser.TokenStream stream = new WdlParser.TokenStream(tokens);
+        WdlParser.ParseTree tree = this.parser.parse_e(stream);
+        if (stream.current() != null) {
+            throw new WdlParser.SyntaxError("Unexpected tokens after expression: " + stream.current().toPrettyString());
+        }
+        return tree.toAst();
+    }
+    public Node compile(WdlParser.AstNode ast) throws EvaluationError {
+        return compile(ast, Collections.<String, Kind>emptyMap());
+    }
+
+    /**
+     * Compile an expression AST.  Identifiers listed in types are assumed to hold values of
+     * that kind, which lets arithmetic and comparisons over them run unboxed.
+     */
+    public Node compile(WdlParser.AstNode ast, Map<String, Kind> types) throws EvaluationError {
+        return compileNode(ast, types);
+    }
+    private Node compileNode(WdlParser.AstNode ast, Map<String, Kind> types) throws EvaluationError {
+        if (ast instanceof WdlParser.Terminal) {
+            return compileTerminal((WdlParser.Terminal) ast, types);
+        }
+        if (!(ast instanceof WdlParser.Ast)) {
+            throw new EvaluationError("Cannot compile expression: " + ast);
+        }
+        WdlParser.Ast node = (WdlParser.Ast) ast;
+        String name = node.getName();
+        switch (name) {
+            case "Add":
+            case "Subtract":
+            case "Multiply":
+            case "Divide":
+            case "Remainder":
+            case "Equals":
+            case "NotEquals":
+            case "LessThan":
+            case "LessThanOrEqual":
+            case "GreaterThan":
+            case "GreaterThanOrEqual":
+                return fold(binaryNode(Op.fromAstName(name),
+                    compileNode(node.getAttribute("lhs"), types),
+                    compileNode(node.getAttribute("rhs"), types)));
+            case "LogicalAnd":
+            case "LogicalOr":
+                return fold(new Logical(name.equals("LogicalAnd"),
+                    compileNode(node.getAttribute("lhs"), types),
+                    compileNode(node.getAttribute("rhs"), types)));
+            case "LogicalNot":
+                return fold(new Not(compileNode(node.getAttribute("expression"), types)));
+            case "UnaryPlus":
+                return compileNode(node.getAttribute("expression"), types);
+            case "UnaryNegation":
+                return fold(new Negate(compileNode(node.getAttribute("expression"), types)));
+            case "TernaryIf": {
+                /* Only a Boolean constant is folded, and then the untaken branch is not compiled at
+                   all; any other condition fails, or not, when it is evaluated, as it does when
+                   interpreted. */
+                Node cond = compileNode(node.getAttribute("cond"), types);
+                if (cond.isConstant() && ((Constant) cond).getValue() instanceof Boolean) {
+                    boolean taken = ((Boolean) ((Constant) cond).getValue()).booleanValue();
+                    return compileNode(node.getAttribute(taken ? "iftrue" : "iffalse"), types);
+                }
+                return new IfThenElse(cond,
+                    compileNode(node.getAttribute("iftrue"), types),
+                    compileNode(node.getAttribute("iffalse"), types));
+            }
+            case "ArrayOrMapLookup":
+                return fold(new Lookup(
+                    compileNode(node.getAttribute("lhs"), types),
+                    compileNode(node.getAttribute("rhs"), types)));
+            case "MemberAccess":
+                return fold(new MemberAccess(
+                    compileNode(node.getAttribute("lhs"), types),
+                    ((WdlParser.Terminal) node.getAttribute("rhs")).getSourceString()));
+            case "FunctionCall": {
+                String function = ((WdlParser.Terminal) node.getAttribute("name")).getSourceString();
+                Function impl = this.functions.get(function);
+                if (impl == null) {
+                    throw new EvaluationError("Unknown function: " + function);
+                }
+                Node[] params = compileList(node.getAttribute("params"), types);
+                Node call = new Call(function, impl, params);
+                return IMPURE_FUNCTIONS.contains(function) ? call : fold(call, params);
+            }
+            case "ArrayLiteral": {
+                Node[] values = compileList(node.getAttribute("values"), types);
+                return fold(new ArrayLiteral(values), values);
+            }
+            case "MapLiteral":
+            case "ObjectLiteral": {
+                WdlParser.AstList kvs = (WdlParser.AstList) node.getAttribute("map");
+                Node[] keys = new Node[kvs.size()];
+                Node[] values = new Node[kvs.size()];
+                for (int i = 0; i < kvs.size(); i++) {
+                    WdlParser.Ast kv = (WdlParser.Ast) kvs.get(i);
+                    WdlParser.AstNode key = kv.getAttribute("key");
+                    keys[i] = name.equals("ObjectLiteral")
+                        ? new Constant(((WdlParser.Terminal) key).getSourceString())
+                        : compileNode(key, types);
+                    values[i] = compileNode(kv.getAttribute("value"), types);
+                }
+                Node[] all = new Node[keys.length * 2];
+                System.arraycopy(keys, 0, all, 0, keys.length);
+                System.arraycopy(values, 0, all, keys.length, values.length);
+                return fold(new MapLiteral(keys, values), all);
+            }
+            case "TupleLiteral": {
+                Node[] values = compileList(node.getAttribute("values"), types);
+                if (values.length == 1) {
+                    return values[0];
+                }
+                if (values.length == 2) {
+                    return fold(new PairLiteral(values[0], values[1]));
+                }
+                throw new EvaluationError("Tuples of " + values.length + " elements are not supported");
+            }
+            default:
+                throw new EvaluationError("Cannot compile expression: " + name);
+        }
+    }
+    private Node[] compileList(WdlParser.AstNode list, Map<String, Kind> types) throws EvaluationError {
+        WdlParser.AstList items = (WdlParser.AstList) list;
+        Node[] nodes = new Node[items.size()];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = compileNode(items.get(i), types);
+        }
+        return nodes;
+    }
+    private Node compileTerminal(WdlParser.Terminal terminal, Map<String, Kind> types) throws EvaluationError {
+        String source = terminal.getSourceString();
+        switch (terminal.getTerminalStr()) {
+            case "integer":
+                return new IntConstant(Long.parseLong(source));
+            case "float":
+                return new FloatConstant(Double.parseDouble(source));
+            case "boolean":
+                return new BooleanConstant(Boolean.parseBoolean(source));
+            case "string":
+                return compileString(source, types);
+            case "identifier": {
+                Kind kind = types.get(source);
+                return new Variable(source, kind == null ? Kind.ANY : kind);
+            }
+            default:
+                throw new EvaluationError("Unexpected terminal in expression: " + terminal.toPrettyString());
+        }
+    }
+
+    /**
+     * String literals may interpolate expressions with ${...}.  Each placeholder is parsed
+     * once here so evaluation is a single pass over the precompiled parts.
+     */
+    private Node compileString(String source, Map<String, Kind> types) throws EvaluationError {
+        if (source.indexOf("${") < 0) {
+            return new Constant(source);
+        }
+        List<Node> parts = new ArrayList<Node>();
+        int position = 0;
+        while (position < source.length()) {
+            int start = source.indexOf("${", position);
+            if (start < 0) {
+                parts.add(new Constant(source.substring(position)));
+                break;
+            }
+            if (start > position) {
+                parts.add(new Constant(source.substring(position, start)));
+            }
+            int end = placeholderEnd(source, start + 2);
+            if (end < 0) {
+                throw new EvaluationError("Unterminated placeholder in string: " + source);
+            }
+            try {
+                parts.add(compileNode(parseExpression(source.substring(start + 2, end)), types));
+            } catch (WdlParser.SyntaxError e) {
+                throw new EvaluationError("Invalid placeholder in string '" + source + "': " + e.getMessage());
+            }
+            position = end + 1;
+        }
+        Node[] array = parts.toArray(new Node[parts.size()]);
+        return fold(new Concat(array, false), array);
+    }
+
+    /**
+     * The index of the } that closes the placeholder whose expression starts at from in a
+     * string, or -1 if there is none.  Braces of map and object literals inside it are matched,
+     * and string literals inside it, which may hold braces of their own, are skipped.
+     */
+    static int placeholderEnd(String source, int from) {
+        int depth = 0;
+        for (int i = from; i < source.length(); i++) {
+            char c = source.charAt(i);
+            if (c == '"' || c == '\'') {
+                for (i++; i < source.length() && source.charAt(i) != c; i++) {
+                    if (source.charAt(i) == '\\') {
+                        i++;
+                    }
+                }
+            } else if (c == '{') {
+                depth++;
+            } else if (c == '}' && depth-- == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    private static Node binaryNode(Op op, Node lhs, Node rhs) {
+        Kind l = lhs.kind();
+        Kind r = rhs.kind();
+        boolean numeric = (l == Kind.INT || l == Kind.FLOAT) && (r == Kind.INT || r == Kind.FLOAT);
+        if (op == Op.ADD && (l == Kind.STRING || r == Kind.STRING)) {
+            List<Node> parts = new ArrayList<Node>();
+            for (Node side : new Node[] {lhs, rhs}) {
+                if (side instanceof Concat && ((Concat) side).strict) {
+                    parts.addAll(Arrays.asList(((Concat) side).parts));
+                } else {
+                    parts.add(side);
+                }
+            }
+            return new Concat(parts.toArray(new Node[parts.size()]), true);
+        }
+        if (numeric && op.isComparison()) {
+            return new NumericComparison(op, lhs, rhs, l == Kind.INT && r == Kind.INT);
+        }
+        if (numeric && l == Kind.INT && r == Kind.INT) {
+            return new IntArithmetic(op, lhs, rhs);
+        }
+        if (numeric) {
+            return new FloatArithmetic(op, lhs, rhs);
+        }
+        return new GenericBinary(op, lhs, rhs);
+    }
+    private static Node fold(Node node) throws EvaluationError {
+        if (node instanceof Binary) {
+            return fold(node, ((Binary) node).lhs, ((Binary) node).rhs);
+        }
+        if (node instanceof Not) {
+            return fold(node, ((Not) node).expression);
+        }
+        if (node instanceof Negate) {
+            return fold(node, ((Negate) node).expression);
+        }
+        if (node instanceof Concat) {
+            return fold(node, ((Concat) node).parts);
+        }
+        if (node instanceof MemberAccess) {
+            return fold(node, ((MemberAccess) node).lhs);
+        }
+        return node;
+    }
+
+    /**
+     * Replace node with its value if all of its children are constants.  Errors are left for
+     * runtime so that e.g. a division by zero in an untaken branch does not fail compilation.
+     */
+    private static Node fold(Node node, Node... children) {
+        for (Node child : children) {
+            if (!child.isConstant()) {
+                return node;
+            }
+        }
+        try {
+            return constant(node.eval(EMPTY));
+        } catch (EvaluationError e) {
+            return node;
+        }
+    }
+    static Constant constant(Object value) {
+        if (value instanceof Long) return new IntConstant(((Long) value).longValue());
+        if (value instanceof Double) return new FloatConstant(((Double) value).doubleValue());
+        if (value instanceof Boolean) return new BooleanConstant(((Boolean) value).booleanValue());
+        return new Constant(value);
+    }
+
+    /* Section: Interpreter */
+
+    /**
+     * Evaluate an expression by walking the Ast directly.  This is the reference semantics for
+     * the compiled nodes and is useful for expressions that are only evaluated once.
+     */
+    public Object interpret(WdlParser.AstNode ast, Environment env) throws EvaluationError {
+        if (ast instanceof WdlParser.Terminal) {
+            WdlParser.Terminal terminal = (WdlParser.Terminal) ast;
+            String source = terminal.getSourceString();
+            switch (terminal.getTerminalStr()) {
+                case "integer": return Long.valueOf(source);
+                case "float": return Double.valueOf(source);
+                case "boolean": return Boolean.valueOf(source);
+                case "identifier": return env.lookup(source);
+                case "string":
+                    return source.indexOf("${") < 0 ? source : compileString(source, Collections.<String, Kind>emptyMap()).eval(env);
+                default: throw new EvaluationError("Unexpected terminal in expression: " + terminal.toPrettyString());
+            }
+        }
+        WdlParser.Ast node = (WdlParser.Ast) ast;
+        String name = node.getName();
+        switch (name) {
+            case "LogicalAnd":
+                return asBoolean(interpret(node.getAttribute("lhs"), env)) && asBoolean(interpret(node.getAttribute("rhs"), env));
+            case "LogicalOr":
+                return asBoolean(interpret(node.getAttribute("lhs"), env)) || asBoolean(interpret(node.getAttribute("rhs"), env));
+            case "LogicalNot":
+                return !asBoolean(interpret(node.getAttribute("expression"), env));
+            case "UnaryPlus":
+                return interpret(node.getAttribute("expression"), env);
+            case "UnaryNegation":
+                return negate(interpret(node.getAttribute("expression"), env));
+            case "TernaryIf":
+                return asBoolean(interpret(node.getAttribute("cond"), env))
+                    ? interpret(node.getAttribute("iftrue"), env)
+                    : interpret(node.getAttribute("iffalse"), env);
+            case "ArrayOrMapLookup":
+                return lookup(interpret(node.getAttribute("lhs"), env), interpret(node.getAttribute("rhs"), env));
+            case "MemberAccess":
+                return member(interpret(node.getAttribute("lhs"), env), ((WdlParser.Terminal) node.getAttribute("rhs")).getSourceString());
+            case "FunctionCall": {
+                String function = ((WdlParser.Terminal) node.getAttribute("name")).getSourceString();
+                Function impl = this.functions.get(function);
+                if (impl == null) {
+                    throw new EvaluationError("Unknown function: " + function);
+                }
+                List<Object> args = new ArrayList<Object>();
+                for (WdlParser.AstNode param : (WdlParser.AstList) node.getAttribute("params")) {
+                    args.add(interpret(param, env));
+                }
+                return impl.call(args);
+            }
+            case "ArrayLiteral": {
+                List<Object> values = new ArrayList<Object>();
+                for (WdlParser.AstNode value : (WdlParser.AstList) node.getAttribute("values")) {
+                    values.add(interpret(value, env));
+                }
+                return WdlValues.array(values.toArray());
+            }
+            case "MapLiteral":
+            case "ObjectLiteral": {
+                LinkedHashMap<Object, Object> map = new LinkedHashMap<Object, Object>();
+                for (WdlParser.AstNode item : (WdlParser.AstList) node.getAttribute("map")) {
+                    WdlParser.Ast kv = (WdlParser.Ast) item;
+                    Object key = name.equals("ObjectLiteral")
+                        ? ((WdlParser.Terminal) kv.getAttribute("key")).getSourceString()
+                        : interpret(kv.getAttribute("key"), env);
+                    map.put(key, interpret(kv.getAttribute("value"), env));
+                }
+                return Collections.unmodifiableMap(map);
+            }
+            case "TupleLiteral": {
+                WdlParser.AstList values = (WdlParser.AstList) node.getAttribute("values");
+                if (values.size() == 1) {
+                    return interpret(values.get(0), env);
+                }
+                if (values.size() == 2) {
+                    return new Pair(interpret(values.get(0), env), interpret(values.get(1), env));
+                }
+                throw new EvaluationError("Tuples of " + values.size() + " elements are not supported");
+            }
+            default:
+                Op op = Op.fromAstName(name);
+                if (op == null) {
+                    throw new EvaluationError("Cannot evaluate expression: " + name);
+                }
+                return binary(op, interpret(node.getAttribute("lhs"), env), interpret(node.getAttribute("rhs"), env));
+        }
+    }
+
+    /* Section: Operators */
+
+    public static long asInt(Object value) throws EvaluationError {
+        if (value instanceof Long) return ((Long) value).longValue();
+        if (value instanceof Integer) return ((Integer) value).longValue();
+        if (value instanceof String) {
+            try {
+                return Long.parseLong((String) value);
+            } catch (NumberFormatException e) {
+                throw new EvaluationError("Cannot coerce '" + value + "' to Int");
+            }
+        }
+        throw new EvaluationError("Expected Int, got " + describe(value));
+    }
+    public static double asFloat(Object value) throws EvaluationError {
+        if (value instanceof Number) return ((Number) value).doubleValue();
+        if (value instanceof String) {
+            try {
+                return Double.parseDouble((String) value);
+            } catch (NumberFormatException e) {
+                throw new EvaluationError("Cannot coerce '" + value + "' to Float");
+            }
+        }
+        throw new EvaluationError("Expected Float, got " + describe(value));
+    }
+    public static boolean asBoolean(Object value) throws EvaluationError {
+        if (value instanceof Boolean) return ((Boolean) value).booleanValue();
+        if ("true".equals(value)) return true;
+        if ("false".equals(value)) return false;
+        throw new EvaluationError("Expected Boolean, got " + describe(value));
+    }
+    public static String asString(Object value) throws EvaluationError {
+        if (value == null || value instanceof List || value instanceof Map || value instanceof Pair) {
+            throw new EvaluationError("Expected String, got " + describe(value));
+        }
+        return stringify(value);
+    }
+    public static String stringify(Object value) {
+        return value == null ? "" : value.toString();
+    }
+    static String describe(Object value) {
+        return value == null ? "an undefined value" : value.getClass().getSimpleName() + " " + value;
+    }
+    private static boolean comparisonResult(Op op, int c) {
+        switch (op) {
+            case EQUALS: return c == 0;
+            case NOT_EQUALS: return c != 0;
+            case LESS_THAN: return c < 0;
+            case LESS_THAN_OR_EQUAL: return c <= 0;
+            case GREATER_THAN: return c > 0;
+            default: return c >= 0;
+        }
+    }
+    static Object binary(Op op, Object a, Object b) throws EvaluationError {
+        boolean integral = a instanceof Long && b instanceof Long;
+        boolean numeric = a instanceof Number && b instanceof Number;
+        if (op.isComparison()) {
+            int c;
+            if (integral) {
+                c = Long.compare((Long) a, (Long) b);
+            } else if (numeric) {
+                c = Double.compare(((Number) a).doubleValue(), ((Number) b).doubleValue());
+            } else if (a instanceof String && b instanceof String) {
+                c = ((String) a).compareTo((String) b);
+            } else if (a instanceof Boolean && b instanceof Boolean) {
+                c = Boolean.compare((Boolean) a, (Boolean) b);
+            } else if (op == Op.EQUALS || op == Op.NOT_EQUALS) {
+                c = Objects.equals(a, b) ? 0 : 1;
+            } else {
+                throw new EvaluationError("Cannot compare " + describe(a) + " and " + describe(b));
+            }
+            return comparisonResult(op, c);
+        }
+        if (op == Op.ADD && (a instanceof String || b instanceof String) && !(a instanceof Boolean || b instanceof Boolean)) {
+            return asString(a) + asString(b);
+        }
+        if (integral) {
+            long x = (Long) a;
+            long y = (Long) b;
+            switch (op) {
+                case ADD: return x + y;
+                case SUBTRACT: return x - y;
+                case MULTIPLY: return x * y;
+                case DIVIDE:
+                    if (y == 0) throw new EvaluationError("Division by zero");
+                    return x / y;
+                case REMAINDER:
+                    if (y == 0) throw new EvaluationError("Division by zero");
+                    return x % y;
+            }
+        } else if (numeric) {
+            double x = ((Number) a).doubleValue();
+            double y = ((Number) b).doubleValue();
+            switch (op) {
+                case ADD: return x + y;
+                case SUBTRACT: return x - y;
+                case MULTIPLY: return x * y;
+                case DIVIDE: return x / y;
+                case REMAINDER: return x % y;
+            }
+        }
+        throw new EvaluationError("Invalid operands for " + op.astName + ": " + describe(a) + " and " + describe(b));
+    }
+    static Object negate(Object value) throws EvaluationError {
+        if (value instanceof Long) return -((Long) value);
+        if (value instanceof Double) return -((Double) value);
+        throw new EvaluationError("Cannot negate " + describe(value));
+    }
+    static Object index(List<?> list, long index) throws EvaluationError {
+        if (index < 0 || index >= list.size()) {
+            throw new EvaluationError("Index " + index + " out of bounds for array of length " + list.size());
+        }
+        return list.get((int) index);
+    }
+    static Object lookup(Object collection, Object key) throws EvaluationError {
+        if (collection instanceof List) {
+            return index((List<?>) collection, asInt(key));
+        }
+        if (collection instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) collection;
+            if (!map.containsKey(key)) {
+                throw new EvaluationError("Key not found: " + key);
+            }
+            return map.get(key);
+        }
+        throw new EvaluationError("Cannot index into " + describe(collection));
+    }
+    static Object member(Object value, String member) throws EvaluationError {
+        if (value instanceof Pair) {
+            if (member.equals("left")) return ((Pair) value).getLeft();
+            if (member.equals("right")) return ((Pair) value).getRight();
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            if (map.containsKey(member)) {
+                return map.get(member);
+            }
+        }
+        throw new EvaluationError("No member '" + member + "' in " + describe(value));
+    }
+
+    /* Section: Standard Library */
+
+    private static void arity(String name, List<Object> args, int min, int max) throws EvaluationError {
+        if (args.size() < min || args.size() > max) {
+            throw new EvaluationError(name + "() takes " + (min == max ? min : min + " to " + max) + " arguments, got " + args.size());
+        }
+    }
+    @SuppressWarnings("unchecked")
+    static List<Object> asArray(Object value) throws EvaluationError {
+        if (value instanceof List) {
+            return (List<Object>) value;
+        }
+        throw new EvaluationError("Expected Array, got " + describe(value));
+    }
+
+    /**
+     * The side-effect free subset of the WDL standard library.  Engines add stdout(),
+     * read_*() and write_*() on top of this map.
+     */
+    public static Map<String, Function> standardLibrary() {
+        Map<String, Function> lib = new HashMap<String, Function>();
+        lib.put("length", args -> {
+            arity("length", args, 1, 1);
+            return Long.valueOf(asArray(args.get(0)).size());
+        });
+        lib.put("range", args -> {
+            arity("range", args, 1, 1);
+            long n = asInt(args.get(0));
+            if (n > Integer.MAX_VALUE - 8) {
+                throw new EvaluationError("range() is limited to " + (Integer.MAX_VALUE - 8) + " elements, got " + n);
+            }
+            return WdlValues.range((int) Math.max(n, 0));
+        });
+        lib.put("flatten", args -> {
+            arity("flatten", args, 1, 1);
+            List<Object> outer = asArray(args.get(0));
+            List<List<Object>> inner = new ArrayList<List<Object>>(outer.size());
+            for (Object array : outer) {
+                inner.add(asArray(array));
+            }
+            return WdlValues.flatten(inner);
+        });
+        lib.put("prefix", args -> {
+            arity("prefix", args, 2, 2);
+            return WdlValues.prefix(asString(args.get(0)), asArray(args.get(1)));
+        });
+        lib.put("select_first", args -> {
+            arity("select_first", args, 1, 1);
+            for (Object value : asArray(args.get(0))) {
+                if (value != null) {
+                    return value;
+                }
+            }
+            throw new EvaluationError("select_first() found no defined values");
+        });
+        lib.put("select_all", args -> {
+            arity("select_all", args, 1, 1);
+            List<Object> result = new ArrayList<Object>();
+            for (Object value : asArray(args.get(0))) {
+                if (value != null) {
+                    result.add(value);
+                }
+            }
+            return WdlValues.array(result.toArray());
+        });
+        lib.put("defined", args -> {
+            arity("defined", args, 1, 1);
+            return Boolean.valueOf(args.get(0) != null);
+        });
+        lib.put("basename", args -> {
+            arity("basename", args, 1, 2);
+            String path = asString(args.get(0));
+            String name = path.substring(path.lastIndexOf('/') + 1);
+            if (args.size() == 2) {
+                String suffix = asString(args.get(1));
+                if (name.endsWith(suffix)) {
+                    name = name.substring(0, name.length() - suffix.length());
+                }
+            }
+            return name;
+        });
+        lib.put("sub", args -> {
+            arity("sub", args, 3, 3);
+            return Pattern.compile(asString(args.get(1))).matcher(asString(args.get(0))).replaceAll(asString(args.get(2)));
+        });
+        lib.put("floor", args -> {
+            arity("floor", args, 1, 1);
+            return Long.valueOf((long) Math.floor(asFloat(args.get(0))));
+        });
+        lib.put("ceil", args -> {
+            arity("ceil", args, 1, 1);
+            return Long.valueOf((long) Math.ceil(asFloat(args.get(0))));
+        });
+        lib.put("round", args -> {
+            arity("round", args, 1, 1);
+            return Long.valueOf(Math.round(asFloat(args.get(0))));
+        });
+        lib.put("zip", args -> {
+            arity("zip", args, 2, 2);
+            return WdlValues.zip(asArray(args.get(0)), asArray(args.get(1)));
+        });
+        lib.put("cross", args -> {
+            arity("cross", args, 2, 2);
+            return WdlValues.cross(asArray(args.get(0)), asArray(args.get(1)));
+        });
+        lib.put("transpose", args -> {
+            arity("transpose", args, 1, 1);
+            return WdlValues.transpose(asArray(args.get(0)));
+        });
+        return lib;
+    }
+}
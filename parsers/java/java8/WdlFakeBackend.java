@@ -0,0 +1,89 @@
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToLongFunction;
+
+/**
+ * A backend that runs nothing, for load testing the engine.
+ *
+ * Each job "runs" for the time given by duration and then exits with return code 0.
+ * Fetching an output creates an empty file in its place, so Files the outputs section
+ * expects exist; outputs read from stdout or files see empty content.
+ */
+public class WdlFakeBackend implements WdlBackend {
+    private static final class Fake implements Handle {
+        private final Job job;
+        private final long deadline;
+        private final AtomicBoolean stopped = new AtomicBoolean();
+        private volatile boolean cancelled;
+        Fake(Job job, long deadline) {
+            this.job = job;
+            this.deadline = deadline;
+        }
+        public Job getJob() {
+            return this.job;
+        }
+    }
+
+    private final ToLongFunction<Job> duration;
+    private final AtomicInteger submitted = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+
+    /** Jobs that each take duration milliseconds. */
+    public WdlFakeBackend(long duration) {
+        this(job -> duration);
+    }
+
+    /** Jobs that take as many milliseconds as duration gives for them. */
+    public WdlFakeBackend(ToLongFunction<Job> duration) {
+        this.duration = duration;
+    }
+    public int getSubmitted() {
+        return this.submitted.get();
+    }
+
+    /* The most jobs that were running at once. */
+    public int getMaxRunning() {
+        return this.maxRunning.get();
+    }
+
+    public Handle submit(Job job) {
+        this.submitted.incrementAndGet();
+        this.maxRunning.accumulateAndGet(this.running.incrementAndGet(), Math::max);
+        return new Fake(job, System.nanoTime() + this.duration.applyAsLong(job) * 1000000L);
+    }
+
+    public Status poll(Handle handle) {
+        Fake fake = (Fake) handle;
+        if (!fake.cancelled && System.nanoTime() - fake.deadline < 0) {
+            return Status.RUNNING;
+        }
+        if (fake.stopped.compareAndSet(false, true)) {
+            this.running.decrementAndGet();
+        }
+        return fake.cancelled ? new Status(State.CANCELLED, -1, "cancelled") : Status.exited(0);
+    }
+
+    public void cancel(Handle handle) {
+        ((Fake) handle).cancelled = true;
+    }
+
+    public Path fetch(Handle handle, String path) throws IOException {
+        Path file = handle.getJob().getDirectory().resolve(path);
+        if (!Files.exists(file)) {
+            Files.createDirectories(file.getParent());
+            try {
+                Files.createFile(file);
+            } catch (FileAlreadyExistsException e) {
+                /* Fetched concurrently. */
+            }
+        }
+        return file;
+    }
+
+    public long getPollInterval() {
+        return 10;
+    }
+}
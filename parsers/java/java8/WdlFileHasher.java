@@ -0,0 +1,219 @@
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Content digests of (possibly very large) input files.
+ *
+ * A file is split into LEAF_SIZE leaves, each hashed with SHA-256; the digest is the SHA-256
+ * of the file size and the leaf digests in order.  The leaves are hashed in parallel on a
+ * fork-join pool a chunk at a time, each chunk a memory-mapped run of whole leaves, so the
+ * result depends only on the contents, not on the chunk size or the degree of parallelism.
+ *
+ * Digests are remembered by path, size, modification time and inode, so an unchanged file is
+ * read at most once.  With a memo file they are also remembered across processes.
+ */
+public class WdlFileHasher implements Closeable {
+    public static final int LEAF_SIZE = 1 << 20;
+    public static final int DEFAULT_CHUNK_SIZE = 8 << 20;
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+    private final Map<String, String> memo = new ConcurrentHashMap<String, String>();
+    private final Writer memoWriter;
+    private final AtomicLong bytesHashed = new AtomicLong();
+
+    /**
+     * @param chunkSize bytes mapped and hashed by one task, rounded up to a multiple of LEAF_SIZE
+     * @param memoFile file in which digests are persisted, or null to only remember them in memory
+     */
+    public WdlFileHasher(int parallelism, int chunkSize, Path memoFile) throws IOException {
+        this.pool = new ForkJoinPool(parallelism);
+        this.chunkSize = Math.max(1, (chunkSize + LEAF_SIZE - 1) / LEAF_SIZE) * LEAF_SIZE;
+        if (memoFile == null) {
+            this.memoWriter = null;
+            return;
+        }
+        if (Files.exists(memoFile)) {
+            for (String line : Files.readAllLines(memoFile, StandardCharsets.UTF_8)) {
+                int tab = line.indexOf('\t');
+                if (tab > 0) {
+                    this.memo.put(line.substring(tab + 1), line.substring(0, tab));
+                }
+            }
+        }
+        this.memoWriter = Files.newBufferedWriter(memoFile, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+    public int getChunkSize() {
+        return this.chunkSize;
+    }
+
+    /* Bytes actually read from disk, i.e. not answered from the memo. */
+    public long getBytesHashed() {
+        return this.bytesHashed.get();
+    }
+    public void close() throws IOException {
+        this.pool.shutdownNow();
+        if (this.memoWriter != null) {
+            synchronized (this.memoWriter) {
+                this.memoWriter.close();
+            }
+        }
+    }
+
+    /* What must not change for a remembered digest to stay valid. */
+    private String identity(Path file, BasicFileAttributes attributes) {
+        return attributes.size() + "\t" + attributes.lastModifiedTime().toMillis() + "\t" + attributes.fileKey() + "\t" + file.toAbsolutePath();
+    }
+
+    public String hash(Path file) throws IOException {
+        return hashAll(Collections.singletonList(file)).get(file);
+    }
+
+    /**
+     * Digests of every file in files.  Files are hashed concurrently with each other as well as
+     * chunk by chunk.
+     */
+    public Map<Path, String> hashAll(Collection<Path> files) throws IOException {
+        Map<Path, String> digests = new HashMap<Path, String>();
+        List<FileDigest> tasks = new ArrayList<FileDigest>();
+        for (Path file : files) {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            String identity = identity(file, attributes);
+            String digest = this.memo.get(identity);
+            if (digest != null) {
+                digests.put(file, digest);
+            } else {
+                tasks.add(new FileDigest(file, attributes.size(), identity));
+            }
+        }
+        if (tasks.isEmpty()) {
+            return digests;
+        }
+        try {
+            this.pool.invoke(new RecursiveAction() {
+                protected void compute() {
+                    invokeAll(tasks);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        for (FileDigest task : tasks) {
+            String digest = task.getRawResult();
+            digests.put(task.file, digest);
+            remember(task.identity, digest);
+        }
+        return digests;
+    }
+    private void remember(String identity, String digest) throws IOException {
+        if (this.memo.put(identity, digest) == null && this.memoWriter != null) {
+            synchronized (this.memoWriter) {
+                this.memoWriter.write(digest + "\t" + identity + "\n");
+                this.memoWriter.flush();
+            }
+        }
+    }
+
+    private final class FileDigest extends RecursiveTask<String> {
+        private static final long serialVersionUID = 1L;
+        private final Path file;
+        private final long size;
+        private final String identity;
+        FileDigest(Path file, long size, String identity) {
+            this.file = file;
+            this.size = size;
+            this.identity = identity;
+        }
+        protected String compute() {
+            int chunks = (int) Math.max(1, (this.size + chunkSize - 1) / chunkSize);
+            byte[][] leaves = new byte[(int) Math.max(1, (this.size + LEAF_SIZE - 1) / LEAF_SIZE)][];
+            try (FileChannel channel = FileChannel.open(this.file, StandardOpenOption.READ)) {
+                new Chunks(channel, this.size, leaves, 0, chunks).invoke();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            MessageDigest root = digest();
+            root.update((byte) 1);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                root.update((byte) (this.size >>> shift));
+            }
+            for (byte[] leaf : leaves) {
+                root.update(leaf);
+            }
+            return "sha256-tree:" + hex(root.digest());
+        }
+    }
+
+    /* Hashes the leaves of chunks [start, end) of a file, splitting the range in half until one is left. */
+    private final class Chunks extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final FileChannel channel;
+        private final long size;
+        private final byte[][] leaves;
+        private final int start;
+        private final int end;
+        Chunks(FileChannel channel, long size, byte[][] leaves, int start, int end) {
+            this.channel = channel;
+            this.size = size;
+            this.leaves = leaves;
+            this.start = start;
+            this.end = end;
+        }
+        protected void compute() {
+            if (this.end - this.start > 1) {
+                int middle = (this.start + this.end) >>> 1;
+                invokeAll(new Chunks(this.channel, this.size, this.leaves, this.start, middle),
+                          new Chunks(this.channel, this.size, this.leaves, middle, this.end));
+                return;
+            }
+            long offset = (long) this.start * chunkSize;
+            long length = Math.min(chunkSize, this.size - offset);
+            if (length <= 0) {
+                /* An empty file has one empty leaf. */
+                MessageDigest leaf = digest();
+                leaf.update((byte) 0);
+                this.leaves[0] = leaf.digest();
+                return;
+            }
+            MappedByteBuffer buffer;
+            try {
+                buffer = this.channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            for (int index = (int) (offset / LEAF_SIZE); buffer.hasRemaining(); index++) {
+                buffer.limit(Math.min(buffer.position() + LEAF_SIZE, buffer.capacity()));
+                MessageDigest leaf = digest();
+                leaf.update((byte) 0);
+                leaf.update(buffer);
+                this.leaves[index] = leaf.digest();
+                buffer.limit(buffer.capacity());
+            }
+            bytesHashed.addAndGet(length);
+        }
+    }
+
+    static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    static String hex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return sb.toString();
+    }
+}
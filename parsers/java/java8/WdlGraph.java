@@ -0,0 +1,396 @@
+import java.util.*;
+
+/**
+ * Dependency graph of the elements of a Workflow Ast.
+ *
+ * Every Call, Declaration, Scatter, If, WhileLoop and workflow output becomes a node.  A node
+ * depends on the nodes whose names are referenced by its expressions (call input mappings,
+ * declaration expressions, scatter collections, if conditions) and on the Scatter/If/WhileLoop
+ * that encloses it.  A scatter's item variable resolves to the Scatter node itself.
+ *
+ * Building the graph and every query on it are linear in the number of nodes plus edges.
+ */
+public class WdlGraph {
+    public static class GraphError extends Exception {
+        private static final long serialVersionUID = 1L;
+        public GraphError(String message) {
+            super(message);
+        }
+    }
+    public interface Cost {
+        double of(Node node);
+    }
+    public static class Node {
+        private final int index;
+        private final String name;
+        private final WdlParser.Ast ast;
+        private final Node parent;
+        private final List<WdlParser.AstNode> expressions = new ArrayList<WdlParser.AstNode>();
+        private int[] dependencies;
+        private int[] dependents;
+        Node(int index, String name, WdlParser.Ast ast, Node parent) {
+            this.index = index;
+            this.name = name;
+            this.ast = ast;
+            this.parent = parent;
+        }
+        public int getIndex() {
+            return this.index;
+        }
+        /* The name other elements use to refer to this one: call alias, declaration or output name. */
+        public String getName() {
+            return this.name;
+        }
+        /* Call, Declaration, Scatter, If, WhileLoop or WorkflowOutputDeclaration. */
+        public String getType() {
+            return this.ast.getName();
+        }
+        public WdlParser.Ast getAst() {
+            return this.ast;
+        }
+        /* The Scatter, If or WhileLoop node this element is nested in, or null. */
+        public Node getParent() {
+            return this.parent;
+        }
+        public String toString() {
+            return getType() + "(" + this.name + ")";
+        }
+    }
+
+    private final WdlParser.Ast workflow;
+    private final List<Node> nodes = new ArrayList<Node>();
+    private int[] order;
+
+    private WdlGraph(WdlParser.Ast workflow) {
+        this.workflow = workflow;
+    }
+    public WdlParser.Ast getWorkflow() {
+        return this.workflow;
+    }
+    public List<Node> getNodes() {
+        return Collections.unmodifiableList(this.nodes);
+    }
+    public Node getNode(int index) {
+        return this.nodes.get(index);
+    }
+    public List<Node> getDependencies(Node node) {
+        return select(node.dependencies);
+    }
+    public List<Node> getDependents(Node node) {
+        return select(node.dependents);
+    }
+    private List<Node> select(int[] indexes) {
+        List<Node> result = new ArrayList<Node>(indexes.length);
+        for (int index : indexes) {
+            result.add(this.nodes.get(index));
+        }
+        return result;
+    }
+
+    /**
+     * Build the graph for a Workflow Ast.
+     *
+     * @throws GraphError if the workflow's elements depend on each other cyclically
+     */
+    public static WdlGraph build(WdlParser.Ast workflow) throws GraphError {
+        WdlGraph graph = new WdlGraph(workflow);
+        Map<String, Node> scope = new HashMap<String, Node>();
+        graph.collect((WdlParser.AstList) workflow.getAttribute("body"), null, scope);
+        graph.link(scope);
+        graph.order = graph.sort();
+        return graph;
+    }
+    public static String callName(WdlParser.Ast call) {
+        WdlParser.AstNode alias = call.getAttribute("alias");
+        if (alias != null) {
+            return ((WdlParser.Terminal) alias).getSourceString();
+        }
+        String task = ((WdlParser.Terminal) call.getAttribute("task")).getSourceString();
+        return task.substring(task.lastIndexOf('.') + 1);
+    }
+    private Node add(String name, WdlParser.Ast ast, Node parent, Map<String, Node> scope) {
+        Node node = new Node(this.nodes.size(), name, ast, parent);
+        this.nodes.add(node);
+        if (name != null) {
+            scope.put(name, node);
+        }
+        return node;
+    }
+    private void collect(WdlParser.AstList body, Node parent, Map<String, Node> scope) {
+        for (WdlParser.AstNode element : body) {
+            if (!(element instanceof WdlParser.Ast)) {
+                continue;
+            }
+            WdlParser.Ast ast = (WdlParser.Ast) element;
+            switch (ast.getName()) {
+                case "Call": {
+                    Node node = add(callName(ast), ast, parent, scope);
+                    WdlParser.Ast callBody = (WdlParser.Ast) ast.getAttribute("body");
+                    if (callBody != null) {
+                        for (WdlParser.AstNode io : (WdlParser.AstList) callBody.getAttribute("io")) {
+                            for (WdlParser.AstNode mapping : (WdlParser.AstList) ((WdlParser.Ast) io).getAttribute("map")) {
+                                node.expressions.add(((WdlParser.Ast) mapping).getAttribute("value"));
+                            }
+                        }
+                    }
+                    break;
+                }
+                case "Declaration": {
+                    Node node = add(((WdlParser.Terminal) ast.getAttribute("name")).getSourceString(), ast, parent, scope);
+                    addExpression(node, ast.getAttribute("expression"));
+                    break;
+                }
+                case "Scatter": {
+                    Node node = add(((WdlParser.Terminal) ast.getAttribute("item")).getSourceString(), ast, parent, scope);
+                    node.expressions.add(ast.getAttribute("collection"));
+                    collect((WdlParser.AstList) ast.getAttribute("body"), node, scope);
+                    break;
+                }
+                case "If":
+                case "WhileLoop": {
+                    Node node = add(null, ast, parent, scope);
+                    node.expressions.add(ast.getAttribute("expression"));
+                    collect((WdlParser.AstList) ast.getAttribute("body"), node, scope);
+                    break;
+                }
+                case "WorkflowOutputs":
+                    for (WdlParser.AstNode output : (WdlParser.AstList) ast.getAttribute("outputs")) {
+                        WdlParser.Ast declaration = (WdlParser.Ast) output;
+                        Node node = add(null, declaration, parent, scope);
+                        boolean wildcard = declaration.getName().equals("WorkflowOutputWildcard");
+                        node.expressions.add(declaration.getAttribute(wildcard ? "fqn" : "expression"));
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+    private static void addExpression(Node node, WdlParser.AstNode expression) {
+        if (expression != null) {
+            node.expressions.add(expression);
+        }
+    }
+    private void link(Map<String, Node> scope) {
+        int n = this.nodes.size();
+        int[] stamp = new int[n];
+        Arrays.fill(stamp, -1);
+        int[] outDegree = new int[n];
+        List<String> names = new ArrayList<String>();
+        for (Node node : this.nodes) {
+            List<Integer> deps = new ArrayList<Integer>();
+            if (node.parent != null) {
+                stamp[node.parent.index] = node.index;
+                deps.add(node.parent.index);
+            }
+            names.clear();
+            for (WdlParser.AstNode expression : node.expressions) {
+                references(expression, names);
+            }
+            for (String name : names) {
+                Node target = scope.get(name);
+                if (target != null && target != node && stamp[target.index] != node.index) {
+                    stamp[target.index] = node.index;
+                    deps.add(target.index);
+                }
+            }
+            int[] array = new int[deps.size()];
+            for (int i = 0; i < array.length; i++) {
+                array[i] = deps.get(i);
+                outDegree[array[i]]++;
+            }
+            node.dependencies = array;
+        }
+        for (Node node : this.nodes) {
+            node.dependents = new int[outDegree[node.index]];
+            outDegree[node.index] = 0;
+        }
+        for (Node node : this.nodes) {
+            for (int dependency : node.dependencies) {
+                Node target = this.nodes.get(dependency);
+                target.dependents[outDegree[dependency]++] = node.index;
+            }
+        }
+    }
+
+    /**
+     * Collect the identifiers an expression reads, in order of appearance.  For member access
+     * like call.output only the leftmost identifier is a reference; function names, member
+     * names and object literal keys are not.  Placeholders in string literals are included.
+     */
+    public static void references(WdlParser.AstNode expression, List<String> names) {
+        if (expression instanceof WdlParser.Terminal) {
+            WdlParser.Terminal terminal = (WdlParser.Terminal) expression;
+            String type = terminal.getTerminalStr();
+            if (type.equals("identifier")) {
+                names.add(terminal.getSourceString());
+            } else if (type.equals("fqn")) {
+                String fqn = terminal.getSourceString();
+                int dot = fqn.indexOf('.');
+                names.add(dot < 0 ? fqn : fqn.substring(0, dot));
+            } else if (type.equals("string") && terminal.getSourceString().indexOf("${") >= 0) {
+                placeholderReferences(terminal.getSourceString(), names);
+            }
+        } else if (expression instanceof WdlParser.AstList) {
+            for (WdlParser.AstNode item : (WdlParser.AstList) expression) {
+                references(item, names);
+            }
+        } else if (expression instanceof WdlParser.Ast) {
+            WdlParser.Ast ast = (WdlParser.Ast) expression;
+            switch (ast.getName()) {
+                case "MemberAccess":
+                    references(ast.getAttribute("lhs"), names);
+                    break;
+                case "FunctionCall":
+                    references(ast.getAttribute("params"), names);
+                    break;
+                case "ObjectKV":
+                    references(ast.getAttribute("value"), names);
+                    break;
+                default:
+                    for (WdlParser.AstNode child : ast.getAttributes().values()) {
+                        references(child, names);
+                    }
+            }
+        }
+    }
+    private static WdlEvaluator placeholderParser;
+    private static synchronized WdlEvaluator placeholderParser() {
+        if (placeholderParser == null) {
+            placeholderParser = new WdlEvaluator();
+        }
+        return placeholderParser;
+    }
+    private static void placeholderReferences(String string, List<String> names) {
+        int position = 0;
+        while (true) {
+            int start = string.indexOf("${", position);
+            int end = start < 0 ? -1 : WdlEvaluator.placeholderEnd(string, start + 2);
+            if (end < 0) {
+                return;
+            }
+            try {
+                references(placeholderParser().parseExpression(string.substring(start + 2, end)), names);
+            } catch (WdlParser.SyntaxError e) {
+                /* Reported when the expression is evaluated. */
+            }
+            position = end + 1;
+        }
+    }
+
+    /* Section: Scheduling */
+
+    /* Kahn's algorithm, always taking the earliest ready node so that workflow order is kept. */
+    private int[] sort() throws GraphError {
+        int n = this.nodes.size();
+        int[] inDegree = new int[n];
+        int[] order = new int[n];
+        int tail = 0;
+        PriorityQueue<Integer> ready = new PriorityQueue<Integer>();
+        for (Node node : this.nodes) {
+            inDegree[node.index] = node.dependencies.length;
+            if (inDegree[node.index] == 0) {
+                ready.add(node.index);
+            }
+        }
+        while (!ready.isEmpty()) {
+            int index = ready.poll();
+            order[tail++] = index;
+            for (int dependent : this.nodes.get(index).dependents) {
+                if (--inDegree[dependent] == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+        if (tail < n) {
+            List<String> cycle = new ArrayList<String>();
+            for (Node node : this.nodes) {
+                if (inDegree[node.index] > 0) {
+                    cycle.add(node.toString());
+                }
+            }
+            throw new GraphError("Workflow elements depend on each other cyclically: " + WdlParser.join(cycle, ", "));
+        }
+        return order;
+    }
+
+    /**
+     * Nodes in an order where every node comes after all of its dependencies.  Among nodes
+     * with no ordering constraint, earlier elements of the workflow come first.
+     */
+    public List<Node> topologicalOrder() {
+        return select(this.order);
+    }
+
+    /**
+     * Earliest level of each node (indexed by Node.getIndex()) if every node takes one step:
+     * nodes with no dependencies are at level 0 and all nodes at the same level can run
+     * concurrently.
+     */
+    public int[] levels() {
+        int[] level = new int[this.nodes.size()];
+        for (int index : this.order) {
+            for (int dependency : this.nodes.get(index).dependencies) {
+                level[index] = Math.max(level[index], level[dependency] + 1);
+            }
+        }
+        return level;
+    }
+
+    /**
+     * Maximum parallelism width: the largest number of nodes sharing a level in levels().
+     * This is what an as-soon-as-possible scheduler with unit costs would run at once.
+     */
+    public int maxWidth() {
+        int[] level = levels();
+        int[] count = new int[level.length + 1];
+        int width = 0;
+        for (int l : level) {
+            width = Math.max(width, ++count[l]);
+        }
+        return width;
+    }
+
+    /**
+     * The chain of dependent nodes with the largest total cost, in execution order.
+     */
+    public List<Node> criticalPath(Cost cost) {
+        int n = this.nodes.size();
+        double[] finish = new double[n];
+        int[] previous = new int[n];
+        int last = -1;
+        for (int index : this.order) {
+            Node node = this.nodes.get(index);
+            double start = 0;
+            int slowest = -1;
+            for (int dependency : node.dependencies) {
+                if (slowest < 0 || finish[dependency] > start) {
+                    start = finish[dependency];
+                    slowest = dependency;
+                }
+            }
+            previous[index] = slowest;
+            finish[index] = start + cost.of(node);
+            if (last < 0 || finish[index] > finish[last]) {
+                last = index;
+            }
+        }
+        LinkedList<Node> path = new LinkedList<Node>();
+        for (int index = last; index >= 0; index = previous[index]) {
+            path.addFirst(this.nodes.get(index));
+        }
+        return path;
+    }
+
+    /**
+     * Estimated completion time of the whole workflow with unlimited parallelism: the total
+     * cost of the critical path.
+     */
+    public double criticalPathLength(Cost cost) {
+        double length = 0;
+        for (Node node : criticalPath(cost)) {
+            length += cost.of(node);
+        }
+        return length;
+    }
+}
@@ -0,0 +1,323 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Binds an inputs JSON document to the declarations of a workflow.
+ *
+ * The document is read in one pass with WdlJson's pull reader.  Each value is read straight
+ * into the WDL type of the declaration its key names: Array[Int] and Array[Float] go into
+ * primitive arrays, Files are resolved, and only Object values and unknown keys are ever
+ * held as generic JSON.  Problems do not stop the pass; every unknown key, missing required
+ * input and mistyped value is reported together in one InputError.
+ */
+public class WdlInputs {
+    public static class InputError extends WdlEngine.ExecutionError {
+        private static final long serialVersionUID = 1L;
+        private final List<String> problems;
+        public InputError(List<String> problems) {
+            super(problems.size() + (problems.size() == 1 ? " problem" : " problems") + " with inputs:\n  " + String.join("\n  ", problems));
+            this.problems = Collections.unmodifiableList(new ArrayList<String>(problems));
+        }
+        public List<String> getProblems() {
+            return this.problems;
+        }
+    }
+
+    private final Map<String, WdlParser.Ast> declarations;
+
+    public WdlInputs(WdlEngine engine) throws WdlEngine.ExecutionError {
+        this.declarations = engine.getInputs();
+    }
+
+    /** Keys of inputs that must be given. */
+    public Set<String> getRequired() {
+        Set<String> required = new LinkedHashSet<String>();
+        for (Map.Entry<String, WdlParser.Ast> entry : this.declarations.entrySet()) {
+            if (entry.getValue().getAttribute("expression") == null && !optional(entry.getValue().getAttribute("type"))) {
+                required.add(entry.getKey());
+            }
+        }
+        return required;
+    }
+
+    /** Bind the JSON in file; relative File paths are resolved against the working directory. */
+    public Map<String, Object> bind(Path file) throws IOException, InputError {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return bind(reader, Paths.get("").toAbsolutePath());
+        }
+    }
+
+    /**
+     * The inputs in json, typed and keyed as WdlEngine.run() expects them.
+     *
+     * @throws IOException if json is not well formed
+     * @throws InputError if any key or value does not fit the workflow
+     */
+    public Map<String, Object> bind(Reader json, Path base) throws IOException, InputError {
+        Binding binding = new Binding(new WdlJson(json), base);
+        Map<String, Object> inputs = new LinkedHashMap<String, Object>();
+        if (binding.json.peek() != '{') {
+            throw binding.json.error("Expected the inputs to be a JSON object");
+        }
+        binding.json.expect('{');
+        for (boolean first = true; binding.json.hasNext('}', first); first = false) {
+            String key = binding.json.name();
+            WdlParser.Ast declaration = this.declarations.get(key);
+            binding.enter(key);
+            if (declaration == null) {
+                binding.problem("is not an input of this workflow");
+                binding.json.skip();
+            } else if (inputs.containsKey(key)) {
+                binding.problem("is given more than once");
+                binding.json.skip();
+            } else {
+                inputs.put(key, binding.read(declaration.getAttribute("type")));
+            }
+            binding.leave();
+        }
+        binding.json.end();
+        for (String key : getRequired()) {
+            if (!inputs.containsKey(key)) {
+                binding.problems.add(key + ": missing required input");
+            }
+        }
+        if (!binding.problems.isEmpty()) {
+            throw new InputError(binding.problems);
+        }
+        return inputs;
+    }
+
+    private static boolean optional(WdlParser.AstNode type) {
+        return type instanceof WdlParser.Ast && ((WdlParser.Ast) type).getName().equals("OptionalType");
+    }
+    private static String typeName(WdlParser.AstNode type) {
+        if (type instanceof WdlParser.Terminal) {
+            return ((WdlParser.Terminal) type).getSourceString();
+        }
+        WdlParser.Ast ast = (WdlParser.Ast) type;
+        switch (ast.getName()) {
+            case "OptionalType": return typeName(ast.getAttribute("innerType")) + "?";
+            case "NonEmptyType": return typeName(ast.getAttribute("innerType")) + "+";
+            default: break;
+        }
+        StringBuilder sb = new StringBuilder(((WdlParser.Terminal) ast.getAttribute("name")).getSourceString()).append('[');
+        WdlParser.AstList subtype = (WdlParser.AstList) ast.getAttribute("subtype");
+        for (int i = 0; i < subtype.size(); i++) {
+            sb.append(i == 0 ? "" : ", ").append(typeName(subtype.get(i)));
+        }
+        return sb.append(']').toString();
+    }
+
+    /*
+     * The state of one bind(): the reader, where relative Files point and what went wrong.
+     * The path to the value being read is kept as a stack of segments and only spelled out
+     * when there is a problem to report.
+     */
+    private static final class Binding {
+        private final WdlJson json;
+        private final Path base;
+        private final List<String> problems = new ArrayList<String>();
+        /* A segment is a key or member name, or null for an array index. */
+        private String[] segments = new String[8];
+        private int[] indices = new int[8];
+        private int depth;
+
+        Binding(WdlJson json, Path base) {
+            this.json = json;
+            this.base = base;
+        }
+        void enter(String segment) {
+            if (this.depth == this.segments.length) {
+                this.segments = Arrays.copyOf(this.segments, this.depth * 2);
+                this.indices = Arrays.copyOf(this.indices, this.depth * 2);
+            }
+            this.segments[this.depth++] = segment;
+        }
+        void enter(int index) {
+            enter((String) null);
+            this.indices[this.depth - 1] = index;
+        }
+        void leave() {
+            this.depth--;
+        }
+        String path() {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < this.depth; i++) {
+                if (this.segments[i] == null) {
+                    sb.append('[').append(this.indices[i]).append(']');
+                } else {
+                    sb.append(i == 0 ? "" : ".").append(this.segments[i]);
+                }
+            }
+            return sb.toString();
+        }
+        void problem(String message) {
+            problem(message, this.json.mark());
+        }
+        void problem(String message, long mark) {
+            this.problems.add(path() + ": " + message + " (" + WdlJson.position(mark) + ")");
+        }
+        /* Report that the next value is not a type, skip it and return null. */
+        Object mismatch(WdlParser.AstNode type) throws IOException {
+            String found;
+            switch (this.json.peek()) {
+                case '{': found = "an object"; break;
+                case '[': found = "an array"; break;
+                case '"': found = "a string"; break;
+                case 'n': found = "null"; break;
+                case 't': case 'f': found = "a boolean"; break;
+                default: found = "a number"; break;
+            }
+            problem("expected " + typeName(type) + ", got " + found);
+            this.json.skip();
+            return null;
+        }
+
+        /* The next value as a value of type; on a problem, records it and returns null. */
+        Object read(WdlParser.AstNode type) throws IOException {
+            int next = this.json.peek();
+            if (type instanceof WdlParser.Ast && ((WdlParser.Ast) type).getName().equals("OptionalType")) {
+                if (next == 'n') {
+                    this.json.literal("null");
+                    return null;
+                }
+                return read(((WdlParser.Ast) type).getAttribute("innerType"));
+            }
+            if (next == 'n') {
+                return mismatch(type);
+            }
+            if (type instanceof WdlParser.Terminal) {
+                return primitive(((WdlParser.Terminal) type).getSourceString(), type);
+            }
+            WdlParser.Ast ast = (WdlParser.Ast) type;
+            if (ast.getName().equals("NonEmptyType")) {
+                long mark = this.json.mark();
+                Object value = read(ast.getAttribute("innerType"));
+                if (value instanceof List && ((List<?>) value).isEmpty()) {
+                    problem("expected a non-empty array", mark);
+                }
+                return value;
+            }
+            WdlParser.AstList subtype = (WdlParser.AstList) ast.getAttribute("subtype");
+            switch (((WdlParser.Terminal) ast.getAttribute("name")).getSourceString()) {
+                case "Array":
+                    return next == '[' ? array(subtype.get(0)) : mismatch(type);
+                case "Map":
+                    return next == '{' ? map(subtype.get(0), subtype.get(1)) : mismatch(type);
+                case "Pair":
+                    return next == '{' ? pair(subtype.get(0), subtype.get(1)) : mismatch(type);
+                default:
+                    return this.json.value();
+            }
+        }
+
+        /* Scalars accept what WdlEngine.coerce() accepts: numbers and booleans spelled as strings too. */
+        private Object primitive(String name, WdlParser.AstNode type) throws IOException {
+            int next = this.json.peek();
+            if (next == '{' || next == '[') {
+                return name.equals("Object") && next == '{' ? this.json.value() : mismatch(type);
+            }
+            long mark = this.json.mark();
+            Object value = this.json.value();
+            try {
+                switch (name) {
+                    case "Int": return Long.valueOf(WdlEvaluator.asInt(value));
+                    case "Float": return Double.valueOf(WdlEvaluator.asFloat(value));
+                    case "Boolean": return Boolean.valueOf(WdlEvaluator.asBoolean(value));
+                    case "String": return WdlEvaluator.asString(value);
+                    case "File": return WdlEngine.file(WdlEvaluator.asString(value), this.base);
+                    default: return value;
+                }
+            } catch (WdlEvaluator.EvaluationError e) {
+                problem(e.getMessage(), mark);
+                return null;
+            }
+        }
+
+        /* Array[Int] and Array[Float] go straight into a primitive array, anything else through WdlValues.array(). */
+        private Object array(WdlParser.AstNode element) throws IOException {
+            this.json.expect('[');
+            String kind = element instanceof WdlParser.Terminal ? ((WdlParser.Terminal) element).getSourceString() : "";
+            long[] longs = kind.equals("Int") ? new long[16] : null;
+            double[] doubles = kind.equals("Float") ? new double[16] : null;
+            Object[] values = longs == null && doubles == null ? new Object[16] : null;
+            int n = 0;
+            enter(0);
+            for (boolean first = true; this.json.hasNext(']', first); first = false) {
+                this.indices[this.depth - 1] = n;
+                Object value = read(element);
+                if (longs != null) {
+                    if (n == longs.length) {
+                        longs = Arrays.copyOf(longs, n * 2);
+                    }
+                    longs[n] = value == null ? 0 : (Long) value;
+                } else if (doubles != null) {
+                    if (n == doubles.length) {
+                        doubles = Arrays.copyOf(doubles, n * 2);
+                    }
+                    doubles[n] = value == null ? 0 : (Double) value;
+                } else {
+                    if (n == values.length) {
+                        values = Arrays.copyOf(values, n * 2);
+                    }
+                    values[n] = value;
+                }
+                n++;
+            }
+            leave();
+            if (longs != null) {
+                return WdlValues.ints(longs, n);
+            }
+            if (doubles != null) {
+                return WdlValues.floats(doubles, n);
+            }
+            return WdlValues.array(Arrays.copyOf(values, n));
+        }
+        private Object map(WdlParser.AstNode keyType, WdlParser.AstNode valueType) throws IOException {
+            this.json.expect('{');
+            Map<Object, Object> map = new LinkedHashMap<Object, Object>();
+            for (boolean first = true; this.json.hasNext('}', first); first = false) {
+                String name = this.json.name();
+                enter(name);
+                Object key = name;
+                try {
+                    key = WdlEngine.coerce(name, keyType, this.base);
+                } catch (WdlEvaluator.EvaluationError e) {
+                    problem("key " + e.getMessage());
+                }
+                map.put(key, read(valueType));
+                leave();
+            }
+            return Collections.unmodifiableMap(map);
+        }
+        private Object pair(WdlParser.AstNode leftType, WdlParser.AstNode rightType) throws IOException {
+            this.json.expect('{');
+            long mark = this.json.mark();
+            Object left = null;
+            Object right = null;
+            boolean hasLeft = false;
+            boolean hasRight = false;
+            for (boolean first = true; this.json.hasNext('}', first); first = false) {
+                String name = this.json.name();
+                enter(name);
+                if (name.equals("left")) {
+                    left = read(leftType);
+                    hasLeft = true;
+                } else if (name.equals("right")) {
+                    right = read(rightType);
+                    hasRight = true;
+                } else {
+                    problem("is not a member of a Pair");
+                    this.json.skip();
+                }
+                leave();
+            }
+            if (!hasLeft || !hasRight) {
+                problem("expected a Pair with left and right", mark);
+            }
+            return new WdlEvaluator.Pair(left, right);
+        }
+    }
+}
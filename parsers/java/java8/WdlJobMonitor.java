@@ -0,0 +1,120 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Watches every job in flight on a WdlBackend from a single thread.
+ *
+ * The thread polls each watched job in turn, completes the futures of those that are no
+ * longer running, and sleeps between rounds.  The sleep starts short and doubles while no
+ * job changes state, up to the backend's poll interval, so short commands are noticed
+ * quickly and thousands of long ones cost one poll each per interval.
+ */
+public class WdlJobMonitor implements Closeable {
+    private static final long MIN_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final class Watch {
+        private final WdlBackend.Handle handle;
+        private final CompletableFuture<WdlBackend.Status> status = new CompletableFuture<WdlBackend.Status>();
+        Watch(WdlBackend.Handle handle) {
+            this.handle = handle;
+        }
+    }
+
+    private final WdlBackend backend;
+    private final Queue<Watch> added = new ConcurrentLinkedQueue<Watch>();
+    private final Set<WdlBackend.Handle> cancelled = ConcurrentHashMap.newKeySet();
+    private final Thread thread;
+    private volatile boolean closed;
+    private volatile int watching;
+
+    public WdlJobMonitor(WdlBackend backend) {
+        this.backend = backend;
+        this.thread = new Thread(this::loop, "wdl-monitor");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+    public WdlBackend getBackend() {
+        return this.backend;
+    }
+
+    /* Jobs currently watched. */
+    public int getWatching() {
+        return this.watching + this.added.size();
+    }
+
+    /** Submit job to the backend; the future completes with its status once it has stopped running. */
+    public CompletableFuture<WdlBackend.Status> run(WdlBackend.Job job) throws IOException {
+        return watch(this.backend.submit(job));
+    }
+
+    /** A future that completes with the handle's status once it has stopped running. */
+    public CompletableFuture<WdlBackend.Status> watch(WdlBackend.Handle handle) {
+        Watch watch = new Watch(handle);
+        if (this.closed) {
+            watch.status.completeExceptionally(new IOException("Job monitor is closed"));
+            return watch.status;
+        }
+        this.added.add(watch);
+        LockSupport.unpark(this.thread);
+        return watch.status;
+    }
+
+    /** Ask the backend to cancel the job; its future completes once the backend says so. */
+    public void cancel(WdlBackend.Handle handle) throws IOException {
+        if (this.cancelled.add(handle)) {
+            this.backend.cancel(handle);
+        }
+    }
+
+    private void loop() {
+        List<Watch> watches = new ArrayList<Watch>();
+        long interval = MIN_INTERVAL_NANOS;
+        long maxInterval = TimeUnit.MILLISECONDS.toNanos(Math.max(1, this.backend.getPollInterval()));
+        while (!this.closed) {
+            boolean changed = false;
+            for (Watch watch; (watch = this.added.poll()) != null; ) {
+                watches.add(watch);
+                changed = true;
+            }
+            int running = 0;
+            for (Watch watch : watches) {
+                try {
+                    WdlBackend.Status status = this.backend.poll(watch.handle);
+                    if (status.getState() == WdlBackend.State.RUNNING) {
+                        watches.set(running++, watch);
+                        continue;
+                    }
+                    watch.status.complete(status);
+                } catch (IOException | RuntimeException e) {
+                    watch.status.completeExceptionally(e);
+                }
+                this.cancelled.remove(watch.handle);
+                changed = true;
+            }
+            watches.subList(running, watches.size()).clear();
+            this.watching = watches.size();
+            if (watches.isEmpty()) {
+                LockSupport.park(this);
+                interval = MIN_INTERVAL_NANOS;
+                continue;
+            }
+            interval = changed ? MIN_INTERVAL_NANOS : Math.min(maxInterval, interval * 2);
+            LockSupport.parkNanos(this, interval);
+        }
+        for (Watch watch; (watch = this.added.poll()) != null; ) {
+            watches.add(watch);
+        }
+        for (Watch watch : watches) {
+            watch.status.completeExceptionally(new IOException("Job monitor is closed"));
+        }
+    }
+
+    /** Stop watching; futures of jobs still running fail, the jobs themselves are left alone. */
+    public void close() {
+        this.closed = true;
+        LockSupport.unpark(this.thread);
+    }
+}
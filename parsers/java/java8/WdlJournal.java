@@ -0,0 +1,501 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only journal of call executions, from which a crashed run can be resumed.
+ *
+ * Calls are keyed by workflow.call plus their scatter path, e.g. w.align/shard-3.  The
+ * journal records the run directory, the inputs of every call that starts and the outputs
+ * of every call that finishes.  Opening an existing journal replays it, so a run resumed
+ * with it reuses the same directory and skips every call whose inputs are unchanged.  File
+ * inputs count as unchanged only if their contents are, so a call downstream of one that ran
+ * again and wrote other outputs runs again too; the digests of input files are remembered
+ * next to the journal, in file.file-hashes.tsv.
+ *
+ * Records are binary: length, CRC-32, type, key and a tagged encoding of the values.  They
+ * are buffered and written and forced to disk together every SYNC_INTERVAL_MS, so a crash
+ * loses at most the calls that finished in the last interval, which simply run again.  A
+ * torn or corrupt tail is cut off on replay.  Once most records are superseded or belong to
+ * finished calls' starts, the journal is rewritten with only the latest finish of each call.
+ */
+public class WdlJournal implements Closeable {
+    public static final long SYNC_INTERVAL_MS = 200;
+    /* Journals with fewer records than this are never compacted. */
+    private static final int MIN_COMPACT_RECORDS = 4096;
+    private static final int BUFFER_SIZE = 64 << 10;
+
+    private static final byte RUN = 1;
+    private static final byte START = 2;
+    private static final byte FINISH = 3;
+
+    /* Value tags. */
+    private static final byte NULL = 0;
+    private static final byte FALSE = 1;
+    private static final byte TRUE = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte STRING = 5;
+    private static final byte ARRAY = 6;
+    private static final byte MAP = 7;
+    private static final byte PAIR = 8;
+
+    /* Where the latest finish of a call is in the file, and a digest of its inputs. */
+    private static final class Entry {
+        private final long offset;
+        private final int length;
+        private final long inputs;
+        Entry(long offset, int length, long inputs) {
+            this.offset = offset;
+            this.length = length;
+            this.inputs = inputs;
+        }
+    }
+
+    private final Path file;
+    private final WdlFileHasher hasher;
+    private FileChannel channel;
+    /* Guarded by this, like everything below. */
+    private final Map<String, Entry> finished = new HashMap<String, Entry>();
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final Encoder encoder = new Encoder();
+    private final ScheduledExecutorService syncer;
+    private String directory;
+    /* Bytes in the file, including what is still buffered. */
+    private long size;
+    private long records;
+    private boolean dirty;
+    private IOException failure;
+
+    /** Open the journal at file, replaying it if it exists. */
+    public WdlJournal(Path file) throws IOException {
+        this.file = file.toAbsolutePath();
+        if (this.file.getParent() != null) {
+            Files.createDirectories(this.file.getParent());
+        }
+        this.hasher = new WdlFileHasher(Runtime.getRuntime().availableProcessors(), WdlFileHasher.DEFAULT_CHUNK_SIZE,
+            this.file.resolveSibling(this.file.getFileName() + ".file-hashes.tsv"));
+        this.channel = FileChannel.open(this.file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            replay();
+            if (needsCompaction(2)) {
+                compact();
+            }
+        } catch (IOException e) {
+            this.channel.close();
+            this.hasher.close();
+            throw e;
+        }
+        this.syncer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "wdl-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.syncer.scheduleWithFixedDelay(() -> {
+            try {
+                sync();
+            } catch (IOException e) {
+                /* Kept in failure and thrown from the next append. */
+            }
+        }, SYNC_INTERVAL_MS, SYNC_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /* Read every intact record, then cut the file after the last one. */
+    private void replay() throws IOException {
+        long end = this.channel.size();
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(this.channel.position(0)), 1 << 20));
+        CRC32 crc = new CRC32();
+        byte[] record = new byte[256];
+        long offset = 0;
+        while (end - offset >= 8) {
+            int length = in.readInt();
+            int checksum = in.readInt();
+            if (length <= 0 || length > end - offset - 8) {
+                break;
+            }
+            if (length > record.length) {
+                record = new byte[Math.max(length, record.length * 2)];
+            }
+            in.readFully(record, 0, length);
+            crc.reset();
+            crc.update(record, 0, length);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            index(record, length, offset);
+            offset += 8 + length;
+        }
+        if (offset < end) {
+            this.channel.truncate(offset);
+        }
+        this.size = offset;
+    }
+
+    /* Apply one record, starting at offset in the file, to the index. */
+    private void index(byte[] record, int length, long offset) throws IOException {
+        Decoder decoder = new Decoder(ByteBuffer.wrap(record, 0, length));
+        byte type = decoder.in.get();
+        String key = decoder.string();
+        switch (type) {
+            case RUN:
+                this.directory = key;
+                break;
+            case FINISH:
+                this.finished.put(key, new Entry(offset, length, decoder.in.getLong()));
+                break;
+            default:
+                break;
+        }
+        this.records++;
+    }
+
+    /* Section: Records */
+
+    /** The run directory of the journaled run, or null for a new journal. */
+    public synchronized Path getDirectory() {
+        return this.directory == null ? null : Paths.get(this.directory);
+    }
+
+    /** Calls whose latest finish is journaled. */
+    public synchronized int size() {
+        return this.finished.size();
+    }
+
+    /** Records in the journal, superseded ones included. */
+    public synchronized long getRecords() {
+        return this.records;
+    }
+
+    /** Record that a run uses directory, which resuming runs will reuse. */
+    public void begin(Path directory) throws IOException {
+        append(RUN, directory.toString(), null, 0);
+    }
+
+    /** Record that the call key started with inputs. */
+    public void started(String key, Map<String, Object> inputs) throws IOException {
+        append(START, key, inputs, 0);
+    }
+
+    /** Record that the call key, whose inputs have the given digest(), produced outputs. */
+    public void finished(String key, long inputs, Map<String, Object> outputs) throws IOException {
+        append(FINISH, key, outputs, inputs);
+    }
+
+    /**
+     * The outputs journaled for the call key, or null if it has not finished or finished
+     * with inputs other than the digest() given.
+     */
+    public Map<String, Object> completed(String key, long inputs) throws IOException {
+        byte[] record;
+        synchronized (this) {
+            Entry entry = this.finished.get(key);
+            if (entry == null || entry.inputs != inputs) {
+                return null;
+            }
+            if (entry.offset + 8 + entry.length > this.size - this.buffer.position()) {
+                drain();
+            }
+            record = new byte[entry.length];
+            ByteBuffer target = ByteBuffer.wrap(record);
+            while (target.hasRemaining()) {
+                if (this.channel.read(target, entry.offset + 8 + target.position()) < 0) {
+                    throw new EOFException("Journal " + this.file + " ends inside a record");
+                }
+            }
+        }
+        Decoder decoder = new Decoder(ByteBuffer.wrap(record));
+        decoder.in.get();
+        decoder.string();
+        decoder.in.getLong();
+        @SuppressWarnings("unchecked")
+        Map<String, Object> outputs = (Map<String, Object>) decoder.value();
+        return outputs;
+    }
+
+    /**
+     * A digest of inputs, independent of the order of its keys, in which every File, as given
+     * by the type Asts in types, stands for the digest of its contents.
+     */
+    public long digest(Map<String, Object> inputs, Map<String, WdlParser.AstNode> types) throws IOException {
+        return digest(WdlCallCache.hashFiles(this.hasher, inputs, types));
+    }
+
+    /** A digest of inputs, independent of the order of its keys. */
+    public static long digest(Map<String, Object> inputs) {
+        Encoder encoder = new Encoder();
+        for (String name : new TreeSet<String>(inputs.keySet())) {
+            encoder.string(name);
+            encoder.value(inputs.get(name));
+        }
+        byte[] hash = WdlFileHasher.digest().digest(encoder.toByteArray());
+        return ByteBuffer.wrap(hash).getLong();
+    }
+
+    private synchronized void append(byte type, String key, Object value, long inputs) throws IOException {
+        if (this.failure != null) {
+            throw new IOException("Journal " + this.file + " could not be written", this.failure);
+        }
+        Encoder encoder = this.encoder;
+        encoder.reset();
+        encoder.bytes.write(type);
+        encoder.string(key);
+        if (type == FINISH) {
+            encoder.fixed(inputs);
+        }
+        if (type != RUN) {
+            encoder.value(value);
+        }
+        byte[] record = encoder.bytes.buffer();
+        int length = encoder.bytes.size();
+        CRC32 crc = new CRC32();
+        crc.update(record, 0, length);
+        long offset = this.size;
+        if (8 + length > this.buffer.remaining()) {
+            drain();
+        }
+        if (8 + length > this.buffer.remaining()) {
+            ByteBuffer large = ByteBuffer.allocate(8 + length);
+            large.putInt(length).putInt((int) crc.getValue()).put(record, 0, length).flip();
+            write(large);
+        } else {
+            this.buffer.putInt(length).putInt((int) crc.getValue()).put(record, 0, length);
+        }
+        this.size += 8 + length;
+        this.dirty = true;
+        index(record, length, offset);
+        if (needsCompaction(4)) {
+            compact();
+        }
+    }
+
+    /*
+     * Whether there are more than factor records per live one.  A run that finishes every
+     * call it starts writes two, so while running the journal waits for more garbage.
+     */
+    private boolean needsCompaction(int factor) {
+        return this.records >= MIN_COMPACT_RECORDS && this.records > (long) factor * (this.finished.size() + 1);
+    }
+
+    /* Write out the buffer, without forcing it to disk.  Caller holds the lock. */
+    private void drain() throws IOException {
+        this.buffer.flip();
+        write(this.buffer);
+        this.buffer.clear();
+    }
+    private void write(ByteBuffer bytes) throws IOException {
+        long position = this.channel.size();
+        while (bytes.hasRemaining()) {
+            position += this.channel.write(bytes, position);
+        }
+    }
+
+    /** Write and force every record appended so far. */
+    public synchronized void sync() throws IOException {
+        if (!this.dirty) {
+            return;
+        }
+        try {
+            drain();
+            this.channel.force(false);
+            this.dirty = false;
+        } catch (IOException e) {
+            this.failure = e;
+            throw e;
+        }
+    }
+
+    /**
+     * Rewrite the journal with only the run directory and the latest finish of each call,
+     * replacing the file atomically.
+     */
+    public synchronized void compact() throws IOException {
+        drain();
+        Path compacted = this.file.resolveSibling(this.file.getFileName() + ".compact");
+        Map<String, Entry> moved = new HashMap<String, Entry>();
+        try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long position = 0;
+            if (this.directory != null) {
+                Encoder encoder = new Encoder();
+                encoder.bytes.write(RUN);
+                encoder.string(this.directory);
+                byte[] record = encoder.toByteArray();
+                CRC32 crc = new CRC32();
+                crc.update(record);
+                ByteBuffer bytes = ByteBuffer.allocate(8 + record.length);
+                bytes.putInt(record.length).putInt((int) crc.getValue()).put(record).flip();
+                while (bytes.hasRemaining()) {
+                    position += out.write(bytes, position);
+                }
+            }
+            /* Copy in file order, so that the compacted journal replays the same way. */
+            List<Map.Entry<String, Entry>> live = new ArrayList<Map.Entry<String, Entry>>(this.finished.entrySet());
+            live.sort((a, b) -> Long.compare(a.getValue().offset, b.getValue().offset));
+            for (Map.Entry<String, Entry> entry : live) {
+                Entry old = entry.getValue();
+                long copied = 0;
+                while (copied < 8 + old.length) {
+                    copied += this.channel.transferTo(old.offset + copied, 8 + old.length - copied, out.position(position + copied));
+                }
+                moved.put(entry.getKey(), new Entry(position, old.length, old.inputs));
+                position += 8 + old.length;
+            }
+            out.force(true);
+            this.size = position;
+            this.records = moved.size() + (this.directory != null ? 1 : 0);
+        }
+        Files.move(compacted, this.file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        this.channel.close();
+        this.channel = FileChannel.open(this.file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.finished.clear();
+        this.finished.putAll(moved);
+        this.dirty = false;
+    }
+
+    public void close() throws IOException {
+        if (this.syncer != null) {
+            this.syncer.shutdownNow();
+        }
+        synchronized (this) {
+            try {
+                sync();
+            } finally {
+                this.channel.close();
+                this.hasher.close();
+            }
+        }
+    }
+
+    /* Section: Encoding */
+
+    private static final class Bytes extends ByteArrayOutputStream {
+        byte[] buffer() {
+            return this.buf;
+        }
+    }
+
+    /* Values as a tag byte followed by the value; lengths and Ints are zig-zag varints. */
+    private static final class Encoder {
+        private final Bytes bytes = new Bytes();
+
+        void reset() {
+            this.bytes.reset();
+        }
+        byte[] toByteArray() {
+            return this.bytes.toByteArray();
+        }
+        void fixed(long value) {
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                this.bytes.write((int) (value >>> shift));
+            }
+        }
+        void varint(long value) {
+            value = (value << 1) ^ (value >> 63);
+            while ((value & ~0x7fL) != 0) {
+                this.bytes.write((int) (value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+            this.bytes.write((int) value);
+        }
+        void string(String value) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            varint(utf8.length);
+            this.bytes.write(utf8, 0, utf8.length);
+        }
+        void value(Object value) {
+            if (value == null) {
+                this.bytes.write(NULL);
+            } else if (value instanceof Boolean) {
+                this.bytes.write((Boolean) value ? TRUE : FALSE);
+            } else if (value instanceof Long || value instanceof Integer) {
+                this.bytes.write(LONG);
+                varint(((Number) value).longValue());
+            } else if (value instanceof Double) {
+                this.bytes.write(DOUBLE);
+                fixed(Double.doubleToRawLongBits((Double) value));
+            } else if (value instanceof String) {
+                this.bytes.write(STRING);
+                string((String) value);
+            } else if (value instanceof List) {
+                List<?> list = (List<?>) value;
+                this.bytes.write(ARRAY);
+                varint(list.size());
+                for (Object item : list) {
+                    value(item);
+                }
+            } else if (value instanceof Map) {
+                Map<?, ?> map = (Map<?, ?>) value;
+                this.bytes.write(MAP);
+                varint(map.size());
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    value(entry.getKey());
+                    value(entry.getValue());
+                }
+            } else if (value instanceof WdlEvaluator.Pair) {
+                this.bytes.write(PAIR);
+                value(((WdlEvaluator.Pair) value).getLeft());
+                value(((WdlEvaluator.Pair) value).getRight());
+            } else {
+                this.bytes.write(STRING);
+                string(value.toString());
+            }
+        }
+    }
+    private static final class Decoder {
+        private final ByteBuffer in;
+        Decoder(ByteBuffer in) {
+            this.in = in;
+        }
+        long varint() {
+            long value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = this.in.get();
+                value |= (long) (b & 0x7f) << shift;
+                if (b >= 0) {
+                    return (value >>> 1) ^ -(value & 1);
+                }
+            }
+        }
+        String string() {
+            int length = (int) varint();
+            String value = new String(this.in.array(), this.in.arrayOffset() + this.in.position(), length, StandardCharsets.UTF_8);
+            this.in.position(this.in.position() + length);
+            return value;
+        }
+        Object value() throws IOException {
+            byte tag = this.in.get();
+            switch (tag) {
+                case NULL: return null;
+                case FALSE: return Boolean.FALSE;
+                case TRUE: return Boolean.TRUE;
+                case LONG: return Long.valueOf(varint());
+                case DOUBLE: return Double.valueOf(this.in.getDouble());
+                case STRING: return string();
+                case ARRAY: {
+                    Object[] values = new Object[(int) varint()];
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = value();
+                    }
+                    return WdlValues.array(values);
+                }
+                case MAP: {
+                    int size = (int) varint();
+                    Map<Object, Object> map = new LinkedHashMap<Object, Object>();
+                    for (int i = 0; i < size; i++) {
+                        map.put(value(), value());
+                    }
+                    return Collections.unmodifiableMap(map);
+                }
+                case PAIR:
+                    return new WdlEvaluator.Pair(value(), value());
+                default:
+                    throw new IOException("Unknown value tag " + tag + " in journal");
+            }
+        }
+    }
+}
@@ -0,0 +1,402 @@
+import java.io.*;
+import java.util.*;
+
+/**
+ * Minimal JSON reader and writer for workflow inputs, outputs and read_json()/write_json().
+ *
+ * JSON values map onto the same Java objects WdlEvaluator uses: objects become LinkedHashMaps,
+ * arrays become Lists, integral numbers become Long, other numbers Double, and null is null.
+ *
+ * Besides parsing whole documents, a WdlJson can be used as a pull reader: peek() at the next
+ * value, then read it with value(), string(), number() or literal(), step through objects and
+ * arrays with hasNext() and name(), or skip() it without building anything.
+ */
+public class WdlJson {
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private final StringBuilder scratch = new StringBuilder();
+    private int next;
+    private int line = 1;
+    private int col = 0;
+
+    WdlJson(Reader reader) throws IOException {
+        this.reader = reader;
+        advance();
+    }
+
+    /**
+     * Parse exactly one JSON value from reader.
+     *
+     * @throws IOException if the input is not well formed JSON
+     */
+    public static Object parse(Reader reader) throws IOException {
+        WdlJson json = new WdlJson(reader);
+        json.skipWhitespace();
+        Object value = json.value();
+        json.skipWhitespace();
+        if (json.next != -1) {
+            throw json.error("Unexpected trailing characters");
+        }
+        return value;
+    }
+    public static Object parse(String string) throws IOException {
+        return parse(new StringReader(string));
+    }
+    public static Object parse(File file) throws IOException {
+        Reader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "utf-8"));
+        try {
+            return parse(reader);
+        } finally {
+            reader.close();
+        }
+    }
+    private void advance() throws IOException {
+        if (this.next == '\n') {
+            this.line++;
+            this.col = 0;
+        }
+        if (this.position == this.limit) {
+            this.position = 0;
+            this.limit = Math.max(0, this.reader.read(this.buffer, 0, this.buffer.length));
+        }
+        this.next = this.position < this.limit ? this.buffer[this.position++] : -1;
+        this.col++;
+    }
+    IOException error(String message) {
+        return new IOException(message + " at " + position());
+    }
+    String position() {
+        return position(mark());
+    }
+
+    /* The current position packed into a long, to describe later with position(mark). */
+    long mark() {
+        return ((long) this.line << 32) | this.col;
+    }
+    static String position(long mark) {
+        return "line " + (mark >>> 32) + ", col " + (int) mark;
+    }
+    private void skipWhitespace() throws IOException {
+        while (this.next == ' ' || this.next == '\t' || this.next == '\n' || this.next == '\r') {
+            advance();
+        }
+    }
+    void expect(char c) throws IOException {
+        if (this.next != c) {
+            throw error("Expected '" + c + "'");
+        }
+        advance();
+    }
+
+    /* Section: Pull reader */
+
+    /* The first character of the next value after any whitespace, or -1 at end of input. */
+    int peek() throws IOException {
+        skipWhitespace();
+        return this.next;
+    }
+
+    /*
+     * Call after the opening '{' or '[' with first set, then after each element: whether
+     * another element follows.  Consumes the separating ',' or the closing bracket.
+     */
+    boolean hasNext(char close, boolean first) throws IOException {
+        skipWhitespace();
+        if (this.next == close) {
+            advance();
+            return false;
+        }
+        if (!first) {
+            expect(',');
+            skipWhitespace();
+        }
+        return true;
+    }
+
+    /* The key of the next object member, leaving the reader at its value. */
+    String name() throws IOException {
+        String key = string();
+        skipWhitespace();
+        expect(':');
+        skipWhitespace();
+        return key;
+    }
+
+    /* Read past the next value without building it. */
+    void skip() throws IOException {
+        switch (peek()) {
+            case '{': {
+                advance();
+                for (boolean first = true; hasNext('}', first); first = false) {
+                    skipWhitespace();
+                    name();
+                    skip();
+                }
+                break;
+            }
+            case '[': {
+                advance();
+                for (boolean first = true; hasNext(']', first); first = false) {
+                    skip();
+                }
+                break;
+            }
+            default:
+                value();
+        }
+    }
+
+    /* Fails unless only whitespace is left. */
+    void end() throws IOException {
+        if (peek() != -1) {
+            throw error("Unexpected trailing characters");
+        }
+    }
+
+    Object value() throws IOException {
+        switch (this.next) {
+            case '{': return object();
+            case '[': return array();
+            case '"': return string();
+            case 't': literal("true"); return Boolean.TRUE;
+            case 'f': literal("false"); return Boolean.FALSE;
+            case 'n': literal("null"); return null;
+            case -1: throw error("Unexpected end of input");
+            default:
+                if (this.next == '-' || (this.next >= '0' && this.next <= '9')) {
+                    return number();
+                }
+                throw error("Unexpected character '" + (char) this.next + "'");
+        }
+    }
+    void literal(String word) throws IOException {
+        for (int i = 0; i < word.length(); i++) {
+            expect(word.charAt(i));
+        }
+    }
+    private Map<String, Object> object() throws IOException {
+        Map<String, Object> map = new LinkedHashMap<String, Object>();
+        expect('{');
+        skipWhitespace();
+        if (this.next == '}') {
+            advance();
+            return map;
+        }
+        while (true) {
+            skipWhitespace();
+            String key = string();
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+            map.put(key, value());
+            skipWhitespace();
+            if (this.next == '}') {
+                advance();
+                return map;
+            }
+            expect(',');
+        }
+    }
+    private List<Object> array() throws IOException {
+        List<Object> list = new ArrayList<Object>();
+        expect('[');
+        skipWhitespace();
+        if (this.next == ']') {
+            advance();
+            return list;
+        }
+        while (true) {
+            skipWhitespace();
+            list.add(value());
+            skipWhitespace();
+            if (this.next == ']') {
+                advance();
+                return list;
+            }
+            expect(',');
+        }
+    }
+    String string() throws IOException {
+        expect('"');
+        /* Fast path: no escapes and the closing quote is already buffered */
+        int start = this.position - 1;
+        for (int i = start; this.next != -1 && i < this.limit; i++) {
+            char c = this.buffer[i];
+            if (c == '"') {
+                String string = new String(this.buffer, start, i - start);
+                this.position = i + 1;
+                this.col += i - start;
+                this.next = c;
+                advance();
+                return string;
+            }
+            if (c == '\\' || c < 0x20) {
+                break;
+            }
+        }
+        StringBuilder sb = this.scratch;
+        sb.setLength(0);
+        while (this.next != '"') {
+            if (this.next == -1 || this.next < 0x20) {
+                throw error("Unterminated string");
+            }
+            if (this.next == '\\') {
+                advance();
+                switch (this.next) {
+                    case '"': case '\\': case '/': sb.append((char) this.next); break;
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'n': sb.append('\n'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'u': {
+                        int c = 0;
+                        for (int i = 0; i < 4; i++) {
+                            advance();
+                            int digit = Character.digit(this.next, 16);
+                            if (digit < 0) {
+                                throw error("Invalid unicode escape");
+                            }
+                            c = c * 16 + digit;
+                        }
+                        sb.append((char) c);
+                        break;
+                    }
+                    default: throw error("Invalid escape");
+                }
+            } else {
+                sb.append((char) this.next);
+            }
+            advance();
+        }
+        advance();
+        return sb.toString();
+    }
+    Object number() throws IOException {
+        StringBuilder sb = this.scratch;
+        sb.setLength(0);
+        boolean integral = true;
+        while (this.next == '-' || this.next == '+' || this.next == '.' || this.next == 'e' || this.next == 'E'
+                || (this.next >= '0' && this.next <= '9')) {
+            if (this.next == '.' || this.next == 'e' || this.next == 'E') {
+                integral = false;
+            }
+            sb.append((char) this.next);
+            advance();
+        }
+        if (integral && sb.length() > 0 && sb.length() < 19) {
+            return Long.valueOf(digits(sb));
+        }
+        try {
+            return integral ? (Object) Long.valueOf(sb.toString()) : (Object) Double.valueOf(sb.toString());
+        } catch (NumberFormatException e) {
+            throw error("Invalid number '" + sb + "'");
+        }
+    }
+    /* An integer of at most 18 digits, without going through a String. */
+    private long digits(CharSequence number) throws IOException {
+        boolean negative = number.charAt(0) == '-';
+        int i = negative ? 1 : 0;
+        if (i == number.length()) {
+            throw error("Invalid number '" + number + "'");
+        }
+        long value = 0;
+        for (; i < number.length(); i++) {
+            char c = number.charAt(i);
+            if (c < '0' || c > '9') {
+                throw error("Invalid number '" + number + "'");
+            }
+            value = value * 10 + (c - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    /* Section: Writer */
+
+    public static String toString(Object value) {
+        StringBuilder sb = new StringBuilder();
+        try {
+            write(value, sb, 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Write value as indented JSON.  Pairs are written as {"left": ..., "right": ...} and any
+     * other object as a string.
+     */
+    public static void write(Object value, Appendable out) throws IOException {
+        write(value, out, 0);
+    }
+    private static void write(Object value, Appendable out, int indent) throws IOException {
+        if (value == null) {
+            out.append("null");
+        } else if (value instanceof Boolean || value instanceof Long || value instanceof Integer) {
+            out.append(value.toString());
+        } else if (value instanceof Double) {
+            double d = (Double) value;
+            out.append(Double.isNaN(d) || Double.isInfinite(d) ? "null" : value.toString());
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            if (map.isEmpty()) {
+                out.append("{}");
+                return;
+            }
+            out.append("{\n");
+            Iterator<? extends Map.Entry<?, ?>> entries = map.entrySet().iterator();
+            while (entries.hasNext()) {
+                Map.Entry<?, ?> entry = entries.next();
+                out.append(WdlParser.getIndentString(indent + 2));
+                writeString(String.valueOf(entry.getKey()), out);
+                out.append(": ");
+                write(entry.getValue(), out, indent + 2);
+                out.append(entries.hasNext() ? ",\n" : "\n");
+            }
+            out.append(WdlParser.getIndentString(indent)).append('}');
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            if (list.isEmpty()) {
+                out.append("[]");
+                return;
+            }
+            out.append("[\n");
+            for (int i = 0; i < list.size(); i++) {
+                out.append(WdlParser.getIndentString(indent + 2));
+                write(list.get(i), out, indent + 2);
+                out.append(i + 1 < list.size() ? ",\n" : "\n");
+            }
+            out.append(WdlParser.getIndentString(indent)).append(']');
+        } else if (value instanceof WdlEvaluator.Pair) {
+            Map<String, Object> pair = new LinkedHashMap<String, Object>();
+            pair.put("left", ((WdlEvaluator.Pair) value).getLeft());
+            pair.put("right", ((WdlEvaluator.Pair) value).getRight());
+            write(pair, out, indent);
+        } else {
+            writeString(value.toString(), out);
+        }
+    }
+    private static void writeString(String string, Appendable out) throws IOException {
+        out.append('"');
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            switch (c) {
+                case '"': out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\t': out.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+}
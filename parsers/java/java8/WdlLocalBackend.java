@@ -0,0 +1,71 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+
+/**
+ * Runs each job as a bash process on this machine, in the call's directory, which then
+ * holds the script, stdout, stderr and rc files.  Docker images are ignored; fetching an
+ * output only resolves its path.
+ */
+public class WdlLocalBackend implements WdlBackend {
+    public static final long POLL_INTERVAL_MS = 50;
+
+    private static final class Running implements Handle {
+        private final Job job;
+        private final Process process;
+        private volatile boolean cancelled;
+        private volatile Status status;
+        Running(Job job, Process process) {
+            this.job = job;
+            this.process = process;
+        }
+        public Job getJob() {
+            return this.job;
+        }
+    }
+
+    public Handle submit(Job job) throws IOException {
+        Path directory = job.getDirectory();
+        Path script = directory.resolve("script");
+        Files.write(script, ("#!/bin/bash\n" + job.getCommand()).getBytes(StandardCharsets.UTF_8));
+        Process process = new ProcessBuilder("/bin/bash", script.toString())
+            .directory(directory.toFile())
+            .redirectOutput(directory.resolve("stdout").toFile())
+            .redirectError(directory.resolve("stderr").toFile())
+            .start();
+        process.getOutputStream().close();
+        return new Running(job, process);
+    }
+
+    public Status poll(Handle handle) throws IOException {
+        Running running = (Running) handle;
+        if (running.status != null) {
+            return running.status;
+        }
+        if (running.process.isAlive()) {
+            return Status.RUNNING;
+        }
+        int rc = running.process.exitValue();
+        synchronized (running) {
+            if (running.status == null) {
+                Files.write(running.job.getDirectory().resolve("rc"), (rc + "\n").getBytes(StandardCharsets.UTF_8));
+                running.status = running.cancelled ? new Status(State.CANCELLED, rc, "cancelled") : Status.exited(rc);
+            }
+        }
+        return running.status;
+    }
+
+    public void cancel(Handle handle) {
+        Running running = (Running) handle;
+        running.cancelled = true;
+        running.process.destroy();
+    }
+
+    public Path fetch(Handle handle, String path) {
+        return handle.getJob().getDirectory().resolve(path);
+    }
+
+    public long getPollInterval() {
+        return POLL_INTERVAL_MS;
+    }
+}
@@ -0,0 +1,511 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * The outline of a WDL document: its imports, the names and metadata of its tasks, and the
+ * names, calls and metadata of its workflows, for indexing many documents quickly.
+ *
+ * An outline is read in one pass over the source without lexing or parsing it.  Comments,
+ * strings and command sections are recognized as the lexer does; everything else that
+ * does not matter to the outline (declarations, command bodies, runtime and output sections,
+ * call inputs and expressions) is skipped by matching brackets.  So scan() does not check
+ * that a document is valid WDL, only that its brackets and strings are closed.
+ */
+public class WdlOutline {
+    public static final class Import {
+        private final String uri;
+        private final String namespace;
+        Import(String uri, String namespace) {
+            this.uri = uri;
+            this.namespace = namespace;
+        }
+        public String getUri() {
+            return this.uri;
+        }
+
+        /* The name given with as, or null. */
+        public String getNamespace() {
+            return this.namespace;
+        }
+    }
+
+    public static final class Call {
+        private final String task;
+        private final String alias;
+        Call(String task, String alias) {
+            this.task = task;
+            this.alias = alias;
+        }
+
+        /* The called task as written, e.g. lib.align. */
+        public String getTask() {
+            return this.task;
+        }
+
+        /* The name given with as, or null. */
+        public String getAlias() {
+            return this.alias;
+        }
+
+        /* The call's name in its workflow: the alias, or else the task's unqualified name. */
+        public String getName() {
+            return this.alias != null ? this.alias : this.task.substring(this.task.lastIndexOf('.') + 1);
+        }
+    }
+
+    public static final class Task {
+        private final String name;
+        private final Map<String, String> meta;
+        private final Map<String, String> parameterMeta;
+        Task(String name, Map<String, String> meta, Map<String, String> parameterMeta) {
+            this.name = name;
+            this.meta = meta;
+            this.parameterMeta = parameterMeta;
+        }
+        public String getName() {
+            return this.name;
+        }
+
+        /*
+         * The meta section.  String values are decoded; other values are the source text of
+         * their expression.
+         */
+        public Map<String, String> getMeta() {
+            return this.meta;
+        }
+        public Map<String, String> getParameterMeta() {
+            return this.parameterMeta;
+        }
+    }
+
+    public static final class Workflow {
+        private final String name;
+        private final List<Call> calls;
+        private final Map<String, String> meta;
+        private final Map<String, String> parameterMeta;
+        Workflow(String name, List<Call> calls, Map<String, String> meta, Map<String, String> parameterMeta) {
+            this.name = name;
+            this.calls = calls;
+            this.meta = meta;
+            this.parameterMeta = parameterMeta;
+        }
+        public String getName() {
+            return this.name;
+        }
+
+        /* Every call, including those in scatter, if and while blocks, in source order. */
+        public List<Call> getCalls() {
+            return this.calls;
+        }
+        public Map<String, String> getMeta() {
+            return this.meta;
+        }
+        public Map<String, String> getParameterMeta() {
+            return this.parameterMeta;
+        }
+    }
+
+    private final String resource;
+    private final List<Import> imports = new ArrayList<Import>();
+    private final List<Task> tasks = new ArrayList<Task>();
+    private final List<Workflow> workflows = new ArrayList<Workflow>();
+
+    private WdlOutline(String resource) {
+        this.resource = resource;
+    }
+    public static WdlOutline scan(Path path) throws IOException, WdlParser.SyntaxError {
+        return scan(WdlParser.readFile(path.toString()), path.toString());
+    }
+    public static WdlOutline scan(String source, String resource) throws WdlParser.SyntaxError {
+        WdlOutline outline = new WdlOutline(resource);
+        new Scanner(source, outline).document();
+        return outline;
+    }
+    public String getResource() {
+        return this.resource;
+    }
+    public List<Import> getImports() {
+        return this.imports;
+    }
+    public List<Task> getTasks() {
+        return this.tasks;
+    }
+    public List<Workflow> getWorkflows() {
+        return this.workflows;
+    }
+
+    private static final class Scanner {
+        private final String source;
+        private final WdlOutline outline;
+        private int position;
+        Scanner(String source, WdlOutline outline) {
+            this.source = source;
+            this.outline = outline;
+        }
+
+        void document() throws WdlParser.SyntaxError {
+            while (space()) {
+                if (keyword("import")) {
+                    space();
+                    String uri = string();
+                    space();
+                    String namespace = null;
+                    if (keyword("as")) {
+                        space();
+                        namespace = identifier();
+                    }
+                    this.outline.imports.add(new Import(uri, namespace));
+                } else if (keyword("task")) {
+                    task();
+                } else if (keyword("workflow")) {
+                    workflow();
+                } else {
+                    skip();
+                }
+            }
+        }
+        private void task() throws WdlParser.SyntaxError {
+            space();
+            String name = identifier();
+            Map<String, String> meta = new LinkedHashMap<String, String>();
+            Map<String, String> parameterMeta = new LinkedHashMap<String, String>();
+            space();
+            expect('{');
+            while (!close('}')) {
+                if (keyword("command")) {
+                    command();
+                } else if (keyword("parameter_meta")) {
+                    map(parameterMeta);
+                } else if (keyword("meta")) {
+                    map(meta);
+                } else {
+                    skip();
+                }
+            }
+            this.outline.tasks.add(new Task(name, meta, parameterMeta));
+        }
+        private void workflow() throws WdlParser.SyntaxError {
+            space();
+            String name = identifier();
+            List<Call> calls = new ArrayList<Call>();
+            Map<String, String> meta = new LinkedHashMap<String, String>();
+            Map<String, String> parameterMeta = new LinkedHashMap<String, String>();
+            space();
+            expect('{');
+            body(calls, meta, parameterMeta);
+            this.outline.workflows.add(new Workflow(name, calls, meta, parameterMeta));
+        }
+
+        /* The elements of a workflow or of a block in it, up to and including the closing brace. */
+        private void body(List<Call> calls, Map<String, String> meta, Map<String, String> parameterMeta) throws WdlParser.SyntaxError {
+            while (!close('}')) {
+                if (keyword("call")) {
+                    space();
+                    String task = qualifiedName();
+                    space();
+                    String alias = null;
+                    if (keyword("as")) {
+                        space();
+                        alias = identifier();
+                    }
+                    calls.add(new Call(task, alias));
+                } else if (keyword("scatter") || keyword("if") || keyword("while")) {
+                    /* An if expression has no block after its condition. */
+                    space();
+                    if (peek() == '(') {
+                        skip();
+                        space();
+                        if (peek() == '{') {
+                            this.position++;
+                            body(calls, meta, parameterMeta);
+                        }
+                    }
+                } else if (keyword("parameter_meta")) {
+                    map(parameterMeta);
+                } else if (keyword("meta")) {
+                    map(meta);
+                } else {
+                    skip();
+                }
+            }
+        }
+
+        /* A meta or parameter_meta section: { key: expression ... } */
+        private void map(Map<String, String> map) throws WdlParser.SyntaxError {
+            space();
+            expect('{');
+            while (!close('}')) {
+                String key = identifier();
+                space();
+                expect(':');
+                space();
+                int start = this.position;
+                int end;
+                int tokens = 0;
+                do {
+                    skip();
+                    end = this.position;
+                    tokens++;
+                } while (space() && peek() != '}' && !keyFollows());
+                if (tokens == 1 && (this.source.charAt(start) == '"' || this.source.charAt(start) == '\'')) {
+                    map.put(key, decode(start, end));
+                } else {
+                    map.put(key, this.source.substring(start, end));
+                }
+            }
+        }
+        private boolean keyFollows() {
+            int start = this.position;
+            boolean key = identifierStart(peek()) && skipIdentifier() && space() && peek() == ':';
+            this.position = start;
+            return key;
+        }
+
+        /*
+         * A command section, after the keyword: text up to } or >>>, in which ${ starts a
+         * parameter that ends at the next } outside a string.
+         */
+        private void command() throws WdlParser.SyntaxError {
+            int start = this.position;
+            while (this.position < this.source.length() && Character.isWhitespace(this.source.charAt(this.position))) {
+                this.position++;
+            }
+            String end;
+            if (this.source.startsWith("<<<", this.position)) {
+                end = ">>>";
+            } else if (peek() == '{') {
+                end = "}";
+            } else {
+                /* Just an identifier named command. */
+                this.position = start;
+                return;
+            }
+            this.position += end.length();
+            while (true) {
+                if (this.position >= this.source.length()) {
+                    throw error("Unterminated command section");
+                }
+                char c = this.source.charAt(this.position);
+                if (c == '$' && this.position + 1 < this.source.length() && this.source.charAt(this.position + 1) == '{') {
+                    this.position += 2;
+                    while (peek() != '}') {
+                        if (this.position >= this.source.length()) {
+                            throw error("Unterminated command parameter");
+                        }
+                        if (peek() == '"' || peek() == '\'') {
+                            skipString();
+                        } else {
+                            this.position++;
+                        }
+                    }
+                    this.position++;
+                } else if (this.source.startsWith(end, this.position)) {
+                    this.position += end.length();
+                    return;
+                } else {
+                    this.position++;
+                }
+            }
+        }
+
+        /* Skip one token, or a whole bracketed group with the brackets in it matched. */
+        private void skip() throws WdlParser.SyntaxError {
+            char c = peek();
+            if (c == '"' || c == '\'') {
+                skipString();
+            } else if (identifierStart(c)) {
+                skipIdentifier();
+            } else if (c == '{' || c == '(' || c == '[') {
+                int depth = 0;
+                do {
+                    c = peek();
+                    if (c == '{' || c == '(' || c == '[') {
+                        depth++;
+                    } else if (c == '}' || c == ')' || c == ']') {
+                        depth--;
+                    } else if (c == '"' || c == '\'') {
+                        skipString();
+                        continue;
+                    }
+                    this.position++;
+                } while (depth > 0 && space());
+                if (depth > 0) {
+                    throw error("Unclosed bracket");
+                }
+            } else {
+                this.position++;
+            }
+        }
+
+        /* Skip whitespace and comments; false at the end of the source. */
+        private boolean space() {
+            while (this.position < this.source.length()) {
+                char c = this.source.charAt(this.position);
+                if (c == '#') {
+                    int end = this.source.indexOf('\n', this.position);
+                    this.position = end < 0 ? this.source.length() : end;
+                } else if (Character.isWhitespace(c)) {
+                    this.position++;
+                } else {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /* Whether the next token is the closing bracket c, consuming it if so. */
+        private boolean close(char c) throws WdlParser.SyntaxError {
+            if (!space()) {
+                throw error("Missing " + c);
+            }
+            if (peek() == c) {
+                this.position++;
+                return true;
+            }
+            return false;
+        }
+        private void expect(char c) throws WdlParser.SyntaxError {
+            if (peek() != c) {
+                throw error("Expected " + c);
+            }
+            this.position++;
+        }
+        private char peek() {
+            return this.position < this.source.length() ? this.source.charAt(this.position) : '\0';
+        }
+        private boolean keyword(String keyword) {
+            if (!this.source.startsWith(keyword, this.position)) {
+                return false;
+            }
+            int end = this.position + keyword.length();
+            if (end < this.source.length() && identifierPart(this.source.charAt(end))) {
+                return false;
+            }
+            this.position = end;
+            return true;
+        }
+        private String identifier() throws WdlParser.SyntaxError {
+            int start = this.position;
+            if (!identifierStart(peek())) {
+                throw error("Expected an identifier");
+            }
+            skipIdentifier();
+            return this.source.substring(start, this.position);
+        }
+        private String qualifiedName() throws WdlParser.SyntaxError {
+            int start = this.position;
+            identifier();
+            while (peek() == '.' && this.position + 1 < this.source.length() && identifierStart(this.source.charAt(this.position + 1))) {
+                this.position++;
+                skipIdentifier();
+            }
+            return this.source.substring(start, this.position);
+        }
+        private boolean skipIdentifier() {
+            do {
+                this.position++;
+            } while (this.position < this.source.length() && identifierPart(this.source.charAt(this.position)));
+            return true;
+        }
+        private String string() throws WdlParser.SyntaxError {
+            int start = this.position;
+            char c = peek();
+            if (c != '"' && c != '\'') {
+                throw error("Expected a string");
+            }
+            skipString();
+            return decode(start, this.position);
+        }
+
+        /* The value of the string literal source[start, end), decoded as the lexer does. */
+        private String decode(int start, int end) throws WdlParser.SyntaxError {
+            boolean escaped = this.source.lastIndexOf('\\', end - 1) > start;
+            try {
+                return new WdlParser.StringTerminal(WdlParser.WdlTerminalIdentifier.TERMINAL_STRING.id(), "string", this.source, start + 1, end - 1, escaped, null, 0, 0).getSourceString();
+            } catch (IllegalArgumentException e) {
+                /* An escape such as \U7fffffff, which names no code point. */
+                this.position = start;
+                throw error("Invalid string: " + e.getMessage());
+            }
+        }
+
+        /*
+         * A string literal, which like the lexer's cannot span lines and only holds the escape
+         * sequences that the lexer's string rule does.
+         */
+        private void skipString() throws WdlParser.SyntaxError {
+            char quote = this.source.charAt(this.position);
+            for (int i = this.position + 1; i < this.source.length(); i++) {
+                char c = this.source.charAt(i);
+                if (c == quote) {
+                    this.position = i + 1;
+                    return;
+                }
+                if (c == '\n') {
+                    break;
+                }
+                if (c == '\\') {
+                    int length = escape(i + 1);
+                    if (length == 0) {
+                        this.position = i;
+                        throw error("Invalid escape sequence in string");
+                    }
+                    i += length;
+                }
+            }
+            throw error("Unterminated string");
+        }
+
+        /* The length of the escape sequence after a backslash at i - 1, or 0 if it is not one. */
+        private int escape(int i) {
+            if (i >= this.source.length()) {
+                return 0;
+            }
+            char c = this.source.charAt(i);
+            if ("\"'nrbtfav\\?".indexOf(c) >= 0) {
+                return 1;
+            }
+            if (c >= '0' && c <= '7') {
+                int length = 1;
+                while (length < 3 && i + length < this.source.length() && this.source.charAt(i + length) >= '0' && this.source.charAt(i + length) <= '7') {
+                    length++;
+                }
+                return length;
+            }
+            int digits = 0;
+            while (i + 1 + digits < this.source.length() && hexDigit(this.source.charAt(i + 1 + digits))) {
+                digits++;
+            }
+            if (c == 'x') {
+                return digits > 0 ? 1 + digits : 0;
+            }
+            if (c == 'u' || c == 'U') {
+                return digits >= 8 ? 9 : digits >= 4 ? 5 : 0;
+            }
+            return 0;
+        }
+        private static boolean hexDigit(char c) {
+            return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+        }
+        private static boolean identifierStart(char c) {
+            return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+        }
+        private static boolean identifierPart(char c) {
+            return identifierStart(c) || (c >= '0' && c <= '9') || c == '_';
+        }
+        private WdlParser.SyntaxError error(String message) {
+            int line = 1;
+            int column = 1;
+            for (int i = 0; i < this.position && i < this.source.length(); i++) {
+                if (this.source.charAt(i) == '\n') {
+                    line++;
+                    column = 1;
+                } else {
+                    column++;
+                }
+            }
+            return new WdlParser.SyntaxError(String.format("%s:%d:%d: %s", this.outline.resource, line, column, message));
+        }
+    }
+}
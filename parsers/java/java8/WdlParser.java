@@ -1,29 +1,66 @@
-
+/* Generated by hermes, then changed by hand: see ../README.md before generating it again. */
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.io.IOException;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.InputStreamReader;
+import java.io.InputStream;
 import java.util.Arrays;
 import java.nio.*;
+import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
-import java.nio.charset.Charset;
-import org.apache.commons.lang3.StringEscapeUtils;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.regex.Pattern;
 import java.util.regex.Matcher;
-import java.lang.reflect.Method;
+import java.util.regex.MatchResult;
 public class WdlParser {
-    private static Map<Integer, List<TerminalIdentifier>> nonterminal_first;
-    private static Map<Integer, List<TerminalIdentifier>> nonterminal_follow;
-    private static Map<Integer, List<TerminalIdentifier>> rule_first;
-    private static Map<Integer, List<String>> nonterminal_rules;
-    private static Map<Integer, String> rules;
+    static Map<Integer, List<TerminalIdentifier>> nonterminal_first;
+    static Map<Integer, List<TerminalIdentifier>> nonterminal_follow;
+    static Map<Integer, List<TerminalIdentifier>> rule_first;
+    static Map<Integer, List<String>> nonterminal_rules;
+    static Map<Integer, String> rules;
     public static WdlTerminalMap terminal_map = new WdlTerminalMap(WdlTerminalIdentifier.values());
+    private int max_depth;
+    private int max_tokens;
+    private long timeout;
     public WdlParser() {
         try {
             lexer_init();
         } catch(Exception e) {}
     }
+    /**
+     * Fail parses with a SyntaxError when expressions nest more than depth deep, 0 for no
+     * limit.  Expressions are parsed and converted to ASTs without recursion, so deep ones
+     * only cost heap, but a limit keeps hostile input away from code that does recurse.
+     */
+    public void setMaxDepth(int depth) {
+        this.max_depth = depth;
+    }
+    /** Fail lexing or parsing more than count tokens with a SyntaxError, 0 for no limit. */
+    public void setMaxTokens(int count) {
+        this.max_tokens = count;
+    }
+    /**
+     * Fail lexing or parsing that takes more than millis milliseconds with a SyntaxError,
+     * 0 for no limit.  Lexing, parsing and each LazyAst's expansion are timed separately.
+     */
+    public void setTimeout(long millis) {
+        this.timeout = millis;
+    }
+    void check_tokens(int count) throws SyntaxError {
+        if (this.max_tokens > 0 && count > this.max_tokens) {
+            throw new SyntaxError("Too many tokens: " + count + ", the limit is " + this.max_tokens);
+        }
+    }
+    private ParserContext context(TokenStream tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
+        check_tokens(tokens.size());
+        ParserContext ctx = new ParserContext(tokens, error_formatter);
+        ctx.max_depth = this.max_depth;
+        if (this.timeout > 0) {
+            ctx.deadline = System.nanoTime() + this.timeout * 1000000L;
+        }
+        return ctx;
+    }
     public static String join(Collection<?> s, String delimiter) {
         StringBuilder builder = new StringBuilder();
         Iterator iter = s.iterator();
@@ -44,25 +81,11 @@ public class WdlParser {
         return sb.toString();
     }
     public static String readStdin() throws IOException {
-        InputStreamReader stream = new InputStreamReader(System.in, "utf-8");
-        char buffer[] = new char[System.in.available()];
-        try {
-            stream.read(buffer, 0, System.in.available());
-        } finally {
-            stream.close();
-        }
-        return new String(buffer);
+        return new WdlParserRuntime.LexerInput(Channels.newChannel(System.in)).readAll();
     }
     public static String readFile(String path) throws IOException {
-        FileInputStream stream = new FileInputStream(new File(path));
-        try {
-            FileChannel fc = stream.getChannel();
-            MappedByteBuffer bb = fc.map(FileChannel.MapMode.READ_ONLY, 0, fc.size());
-            /* Instead of using default, pass in a decoder. */
-            return Charset.defaultCharset().decode(bb).toString();
-        }
-        finally {
-            stream.close();
+        try (FileChannel channel = FileChannel.open(Paths.get(path))) {
+            return new WdlParserRuntime.LexerInput(channel).readAll();
         }
     }
     public static class SyntaxError extends Exception {
@@ -70,6 +93,16 @@ public class WdlParser {
             super(message);
         }
     }
+    /* A SyntaxError found while expanding a LazyAst, which AstNode methods cannot throw. */
+    public static class UncheckedSyntaxError extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        public UncheckedSyntaxError(SyntaxError cause) {
+            super(cause.getMessage(), cause);
+        }
+        public SyntaxError getCause() {
+            return (SyntaxError) super.getCause();
+        }
+    }
     public interface SyntaxErrorFormatter {
         /* Called when the parser runs out of tokens but isn't finished parsing. */
         String unexpectedEof(String method, List<TerminalIdentifier> expected, List<String> nt_rules);
@@ -293,6 +326,8 @@ public class WdlParser {
         public AstNode toAst() { return this; }
     }
     public static class ParseTree implements ParseTreeNode {
+        /* How deep toAst() recurses before it converts the rest of the tree with convert(). */
+        private static final int RECURSION_DEPTH = 256;
         private NonTerminal nonterminal;
         private ArrayList<ParseTreeNode> children;
         private boolean isExpr, isNud, isPrefix, isInfix, isExprNud;
@@ -345,6 +380,15 @@ public class WdlParser {
             return false;
         }
         public AstNode toAst() {
+            return toAst(0);
+        }
+        private static AstNode toAst(ParseTreeNode node, int depth) {
+            return node instanceof ParseTree ? ((ParseTree) node).toAst(depth) : node.toAst();
+        }
+        private AstNode toAst(int depth) {
+            if (depth >= RECURSION_DEPTH) {
+                return convert();
+            }
             if ( this.list == true ) {
                 AstList astList = new AstList();
                 if ( this.children.size() == 0 ) {
@@ -355,13 +399,13 @@ public class WdlParser {
                         ((Terminal) this.children.get(i)).id == this.listSeparatorId) {
                         continue;
                     }
-                    astList.add(this.children.get(i).toAst());
+                    astList.add(toAst(this.children.get(i), depth + 1));
                 }
                 return astList;
             } else if ( this.isExpr ) {
                 if ( this.astTransform instanceof AstTransformSubstitution ) {
                     AstTransformSubstitution astSubstitution = (AstTransformSubstitution) astTransform;
-                    return this.children.get(astSubstitution.getIndex()).toAst();
+                    return toAst(this.children.get(astSubstitution.getIndex()), depth + 1);
                 } else if ( this.astTransform instanceof AstTransformNodeCreator ) {
                     AstTransformNodeCreator astNodeCreator = (AstTransformNodeCreator) this.astTransform;
                     LinkedHashMap<String, AstNode> parameters = new LinkedHashMap<String, AstNode>();
@@ -385,7 +429,7 @@ public class WdlParser {
                         } else {
                             child = this.children.get(index);
                         }
-                        parameters.put(name, child.toAst());
+                        parameters.put(name, toAst(child, depth + 1));
                     }
                     return new Ast(astNodeCreator.getName(), parameters);
                 }
@@ -395,20 +439,134 @@ public class WdlParser {
                 if (this.children.size() == 0) return null;
                 if (action instanceof AstTransformSubstitution) {
                     AstTransformSubstitution astSubstitution = (AstTransformSubstitution) action;
-                    return this.children.get(astSubstitution.getIndex()).toAst();
+                    return toAst(this.children.get(astSubstitution.getIndex()), depth + 1);
                 } else if (action instanceof AstTransformNodeCreator) {
                     AstTransformNodeCreator astNodeCreator = (AstTransformNodeCreator) action;
                     LinkedHashMap<String, AstNode> evaluatedParameters = new LinkedHashMap<String, AstNode>();
                     for ( Map.Entry<String, Integer> baseParameter : astNodeCreator.getParameters().entrySet() ) {
                         String name = baseParameter.getKey();
                         int index2 = baseParameter.getValue().intValue();
-                        evaluatedParameters.put(name, this.children.get(index2).toAst());
+                        evaluatedParameters.put(name, toAst(this.children.get(index2), depth + 1));
                     }
                     return new Ast(astNodeCreator.getName(), evaluatedParameters);
                 }
             }
             return null;
         }
+        /*
+         * toAst() without recursion, for trees nested deeper than RECURSION_DEPTH, so that
+         * they cost heap rather than the thread's stack.  Each tree on the work stack is
+         * replaced by its children, followed by how to build its AST from theirs: the
+         * AstTransformNodeCreator for an Ast, or the number of items for an AstList.
+         * Children leave their ASTs on the value stack in order for that to take.
+         */
+        private AstNode convert() {
+            ArrayList<Object> work = new ArrayList<Object>();
+            ArrayList<AstNode> values = new ArrayList<AstNode>();
+            work.add(this);
+            while (!work.isEmpty()) {
+                Object item = work.remove(work.size() - 1);
+                if (item instanceof ParseTree) {
+                    ((ParseTree) item).expand(work, values);
+                } else if (item instanceof AstTransformNodeCreator) {
+                    AstTransformNodeCreator astNodeCreator = (AstTransformNodeCreator) item;
+                    List<AstNode> parameters = values.subList(values.size() - astNodeCreator.getParameters().size(), values.size());
+                    LinkedHashMap<String, AstNode> evaluatedParameters = new LinkedHashMap<String, AstNode>();
+                    Iterator<AstNode> value = parameters.iterator();
+                    for (String name : astNodeCreator.getParameters().keySet()) {
+                        evaluatedParameters.put(name, value.next());
+                    }
+                    parameters.clear();
+                    values.add(new Ast(astNodeCreator.getName(), evaluatedParameters));
+                } else if (item instanceof Integer) {
+                    List<AstNode> items = values.subList(values.size() - (Integer) item, values.size());
+                    AstList astList = new AstList();
+                    astList.addAll(items);
+                    items.clear();
+                    values.add(astList);
+                } else {
+                    values.add(((ParseTreeNode) item).toAst());
+                }
+            }
+            return values.get(0);
+        }
+        /* One step of convert(): push the children this tree's AST is made from, and how, or its AST if it has none. */
+        private void expand(List<Object> work, List<AstNode> values) {
+            if ( this.list == true ) {
+                int start = work.size();
+                for (int i = this.children.size() - 1; i >= 0; i--) {
+                    if (this.children.get(i) instanceof Terminal && this.listSeparatorId >= 0 &&
+                        ((Terminal) this.children.get(i)).id == this.listSeparatorId) {
+                        continue;
+                    }
+                    work.add(this.children.get(i));
+                }
+                work.add(start, work.size() - start);
+                return;
+            } else if ( this.isExpr ) {
+                if ( this.astTransform instanceof AstTransformSubstitution ) {
+                    AstTransformSubstitution astSubstitution = (AstTransformSubstitution) astTransform;
+                    work.add(this.children.get(astSubstitution.getIndex()));
+                    return;
+                } else if ( this.astTransform instanceof AstTransformNodeCreator ) {
+                    AstTransformNodeCreator astNodeCreator = (AstTransformNodeCreator) this.astTransform;
+                    ParseTreeNode[] parameters = new ParseTreeNode[astNodeCreator.getParameters().size()];
+                    ParseTreeNode child;
+                    int i = 0;
+                    for ( final Map.Entry<String, Integer> parameter : astNodeCreator.getParameters().entrySet() ) {
+                        int index = parameter.getValue().intValue();
+                        if ( index == '$' ) {
+                            child = this.children.get(0);
+                        } else if ( this.isCompoundNud() ) {
+                            ParseTree firstChild = (ParseTree) this.children.get(0);
+                            if ( index < firstChild.getNudMorphemeCount() ) {
+                                child = firstChild.getChildren().get(index);
+                            } else {
+                                index = index - firstChild.getNudMorphemeCount() + 1;
+                                child = this.children.get(index);
+                            }
+                        } else if ( this.children.size() == 1 && !(this.children.get(0) instanceof ParseTree) && !(this.children.get(0) instanceof List) ) {
+                            // TODO: I don't think this should ever be called
+                            child = this.children.get(0);
+                        } else {
+                            child = this.children.get(index);
+                        }
+                        parameters[i++] = child;
+                    }
+                    work.add(astNodeCreator);
+                    for (i = parameters.length - 1; i >= 0; i--) {
+                        work.add(parameters[i]);
+                    }
+                    return;
+                }
+            } else {
+                AstTransformSubstitution defaultAction = new AstTransformSubstitution(0);
+                AstTransform action = this.astTransform != null ? this.astTransform : defaultAction;
+                if (this.children.size() == 0) {
+                    values.add(null);
+                    return;
+                }
+                if (action instanceof AstTransformSubstitution) {
+                    AstTransformSubstitution astSubstitution = (AstTransformSubstitution) action;
+                    work.add(this.children.get(astSubstitution.getIndex()));
+                    return;
+                } else if (action instanceof AstTransformNodeCreator) {
+                    AstTransformNodeCreator astNodeCreator = (AstTransformNodeCreator) action;
+                    ParseTreeNode[] parameters = new ParseTreeNode[astNodeCreator.getParameters().size()];
+                    int i = 0;
+                    for ( Map.Entry<String, Integer> baseParameter : astNodeCreator.getParameters().entrySet() ) {
+                        int index2 = baseParameter.getValue().intValue();
+                        parameters[i++] = this.children.get(index2);
+                    }
+                    work.add(astNodeCreator);
+                    for (i = parameters.length - 1; i >= 0; i--) {
+                        work.add(parameters[i]);
+                    }
+                    return;
+                }
+            }
+            values.add(null);
+        }
         public String toString() {
           ArrayList<String> children = new ArrayList<String>();
           for (ParseTreeNode child : this.children) {
@@ -437,12 +595,18 @@ public class WdlParser {
         public SyntaxErrorFormatter error_formatter;
         public String nonterminal;
         public String rule;
+        /* Limits from the WdlParser, 0 for none; deadline is a System.nanoTime(). */
+        public int max_depth;
+        public long deadline;
+        /* Expressions being parsed, one inside the other, and tokens taken since the clock was last read. */
+        public int depth;
+        public int ticks;
         public ParserContext(TokenStream tokens, SyntaxErrorFormatter error_formatter) {
             this.tokens = tokens;
             this.error_formatter = error_formatter;
         }
     }
-    private static class DefaultSyntaxErrorFormatter implements SyntaxErrorFormatter {
+    static class DefaultSyntaxErrorFormatter implements SyntaxErrorFormatter {
         public String unexpectedEof(String method, List<TerminalIdentifier> expected, List<String> nt_rules) {
             return "Error: unexpected end of file";
         }
@@ -479,22 +643,25 @@ public class WdlParser {
         boolean isValid(int id);
     }
     public static class WdlTerminalMap implements TerminalMap {
-        private Map<Integer, TerminalIdentifier> id_to_term;
+        /* Indexed by id + 3, so that END_SENTINAL's -3 fits. */
+        private TerminalIdentifier[] id_to_term;
         private Map<String, TerminalIdentifier> str_to_term;
         WdlTerminalMap(WdlTerminalIdentifier[] terminals) {
-            id_to_term = new HashMap<Integer, TerminalIdentifier>();
+            int max = 0;
+            for( WdlTerminalIdentifier terminal : terminals ) {
+                max = Math.max(max, terminal.id());
+            }
+            id_to_term = new TerminalIdentifier[max + 4];
             str_to_term = new HashMap<String, TerminalIdentifier>();
             for( WdlTerminalIdentifier terminal : terminals ) {
-                Integer id = new Integer(terminal.id());
-                String str = terminal.string();
-                id_to_term.put(id, terminal);
-                str_to_term.put(str, terminal);
+                id_to_term[terminal.id() + 3] = terminal;
+                str_to_term.put(terminal.string(), terminal);
             }
         }
         public TerminalIdentifier get(String string) { return this.str_to_term.get(string); }
-        public TerminalIdentifier get(int id) { return this.id_to_term.get(id); }
+        public TerminalIdentifier get(int id) { return id >= -3 && id < this.id_to_term.length - 3 ? this.id_to_term[id + 3] : null; }
         public boolean isValid(String string) { return this.str_to_term.containsKey(string); }
-        public boolean isValid(int id) { return this.id_to_term.containsKey(id); }
+        public boolean isValid(int id) { return get(id) != null; }
     }
     public interface TerminalIdentifier {
         public int id();
@@ -570,1617 +737,314 @@ public class WdlParser {
         public String string() {return string;}
     }
     /* table[nonterminal][terminal] = rule */
-    private static final int[][] table = {
-        { -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 28, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 73, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 29, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { -1, 19, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 24, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { 4, -1, 5, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 3, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 5, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { 2, -1, 2, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 2, -1, -1, 2, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 2, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 30, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { 12, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { -1, -1, 42, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 43, -1, 46, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 48, 44, -1, 41, -1, -1, 47, -1, -1, -1, -1, -1, 45, 42, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { -1, -1, 27, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 27, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 26, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { -1, -1, 62, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 62, -1, -1, -1, -1, -1, -1, -1, -1, 63 },
-        { -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 71, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 8, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 69, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { -1, -1, 64, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 64, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 55, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 32, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { 35, 35, 35, 35, -1, -1, -1, 35, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 35, -1, 35, -1, -1, -1, -1, -1, -1, -1, 35, 35, -1, -1, 35, 35, -1, 35, -1, -1, 35, -1, -1, -1, -1, -1, 35, 35, -1, -1, 34, -1, -1, -1, -1, -1, -1 },
-        { -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { -1, -1, -1, -1, -1, -1, -1, 57, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 9, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 58, -1, -1, -1, -1 },
-        { -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 33, -1, -1, -1, -1 },
-        { -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 59, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 23, -1 },
-        { -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { -1, -1, 52, 52, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 52, -1, 52, 51, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 52, 52, -1, 52, -1, -1, 52, -1, -1, -1, -1, -1, 52, 52, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { -1, -1, 36, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 36, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { 7, -1, 7, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 7, -1, -1, 7, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 6, -1, 7, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 67 },
-        { -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 72, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 74, -1, -1, -1, -1 },
-        { -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { -1, 13, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 14, -1, -1, -1, -1, -1, -1, -1, -1, 15, -1, -1, 17, -1, -1, -1, -1, -1, 16, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { -1, -1, 50, 50, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 50, -1, 50, 50, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 50, 50, -1, 50, -1, -1, 50, -1, -1, -1, -1, 49, 50, 50, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 70, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 37, -1, -1, -1, -1, -1, -1 },
-        { -1, -1, 66, 66, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 65, -1, -1, 66, -1, -1, -1, -1, -1, -1, -1, -1, 66 },
-        { -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 40, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 53, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { -1, -1, -1, -1, 38, -1, -1, -1, -1, 38, -1, -1, 38, -1, -1, 38, -1, 38, -1, -1, -1, -1, -1, -1, 38, -1, -1, -1, -1, -1, 38, -1, -1, -1, -1, -1, 38, -1, -1, 38, -1, -1, -1, 38, 38, -1, -1, -1, -1, -1, -1, -1, 38, 38, 38, -1, -1, -1 },
-        { -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 68, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-        { -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 20, 21, -1 },
-        { -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 61, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
-    };
+    static final int[][] table = WdlParserRuntime.unpackTable(58,
+        ";" +
+        "32=28;" +
+        "47=73;" +
+        "41=29;" +
+        "1=19;" +
+        "33=24;" +
+        ";" +
+        "0=4,2=5,31=3,48=5;" +
+        "0=2,2=2,31=2,34=2,48=2;" +
+        "35=30;" +
+        ";" +
+        ";" +
+        "0=12;" +
+        "2=42,21=43,23=46,35=48,36=44,38=41,41=47,47=45,48=42;" +
+        "2=27,48=27;" +
+        "23=26;" +
+        "2=62,48=62,57=63;" +
+        ";" +
+        ";" +
+        "21=71;" +
+        "34=8;" +
+        "41=69;" +
+        "2=64,48=64;" +
+        ";" +
+        "24=55;" +
+        "24=32;" +
+        ";" +
+        "0=35,1=35,2=35,3=35,7=35,21=35,23=35,31=35,32=35,35=35,36=35,38=35,41=35,47=35,48=35,51=34;" +
+        ";" +
+        "7=57;" +
+        "46=9;" +
+        ";" +
+        ";" +
+        "53=58;" +
+        "53=33;" +
+        ";" +
+        "46=59;" +
+        "56=23;" +
+        ";" +
+        "2=52,3=52,21=52,23=52,24=51,35=52,36=52,38=52,41=52,47=52,48=52;" +
+        ";" +
+        "2=36,48=36;" +
+        "0=7,2=7,31=7,34=7,46=6,48=7;" +
+        "57=67;" +
+        "36=72;" +
+        ";" +
+        "53=74;" +
+        ";" +
+        "1=13,23=14,32=15,35=17,41=16;" +
+        "2=50,3=50,21=50,23=50,24=50,35=50,36=50,38=50,41=50,46=49,47=50,48=50;" +
+        ";" +
+        "35=70;" +
+        "51=37;" +
+        "2=66,3=66,45=65,48=66,57=66;" +
+        ";" +
+        "31=40;" +
+        "38=53;" +
+        "4=38,9=38,12=38,15=38,17=38,24=38,30=38,36=38,39=38,43=38,44=38,52=38,53=38,54=38;" +
+        "45=68;" +
+        "55=20,56=21;" +
+        "23=61"
+    );
     static {
-        Map<Integer, List<TerminalIdentifier>> map = new HashMap<Integer, List<TerminalIdentifier>>();
-        map.put(98, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_IMPORT,
-        }));
-        map.put(69, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_TASK,
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-            WdlTerminalIdentifier.TERMINAL_WORKFLOW,
-        }));
-        map.put(76, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_CALL,
-            WdlTerminalIdentifier.TERMINAL_IF,
-            WdlTerminalIdentifier.TERMINAL_META,
-            WdlTerminalIdentifier.TERMINAL_OUTPUT,
-            WdlTerminalIdentifier.TERMINAL_PARAMETER_META,
-            WdlTerminalIdentifier.TERMINAL_SCATTER,
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-            WdlTerminalIdentifier.TERMINAL_WHILE,
-        }));
-        map.put(107, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_AS,
-        }));
-        map.put(97, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_LBRACE,
-        }));
-        map.put(90, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_INPUT,
-        }));
-        map.put(112, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_IDENTIFIER,
-        }));
-        map.put(108, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_FQN,
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-        }));
-        map.put(111, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_DOT,
-        }));
-        map.put(105, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-        }));
-        map.put(84, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_BOOLEAN,
-            WdlTerminalIdentifier.TERMINAL_DASH,
-            WdlTerminalIdentifier.TERMINAL_E,
-            WdlTerminalIdentifier.TERMINAL_FLOAT,
-            WdlTerminalIdentifier.TERMINAL_IDENTIFIER,
-            WdlTerminalIdentifier.TERMINAL_IF,
-            WdlTerminalIdentifier.TERMINAL_INTEGER,
-            WdlTerminalIdentifier.TERMINAL_LBRACE,
-            WdlTerminalIdentifier.TERMINAL_LPAREN,
-            WdlTerminalIdentifier.TERMINAL_LSQUARE,
-            WdlTerminalIdentifier.TERMINAL_NOT,
-            WdlTerminalIdentifier.TERMINAL_OBJECT,
-            WdlTerminalIdentifier.TERMINAL_PLUS,
-            WdlTerminalIdentifier.TERMINAL_STRING,
-        }));
-        map.put(75, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_IDENTIFIER,
-        }));
-        map.put(100, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_AS,
-        }));
-        map.put(103, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_BOOLEAN,
-            WdlTerminalIdentifier.TERMINAL_DASH,
-            WdlTerminalIdentifier.TERMINAL_E,
-            WdlTerminalIdentifier.TERMINAL_FLOAT,
-            WdlTerminalIdentifier.TERMINAL_IDENTIFIER,
-            WdlTerminalIdentifier.TERMINAL_IF,
-            WdlTerminalIdentifier.TERMINAL_INTEGER,
-            WdlTerminalIdentifier.TERMINAL_LBRACE,
-            WdlTerminalIdentifier.TERMINAL_LPAREN,
-            WdlTerminalIdentifier.TERMINAL_LSQUARE,
-            WdlTerminalIdentifier.TERMINAL_NOT,
-            WdlTerminalIdentifier.TERMINAL_OBJECT,
-            WdlTerminalIdentifier.TERMINAL_PLUS,
-            WdlTerminalIdentifier.TERMINAL_STRING,
-        }));
-        map.put(86, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-        }));
-        map.put(58, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_META,
-            WdlTerminalIdentifier.TERMINAL_OUTPUT,
-            WdlTerminalIdentifier.TERMINAL_PARAMETER_META,
-            WdlTerminalIdentifier.TERMINAL_RAW_COMMAND,
-            WdlTerminalIdentifier.TERMINAL_RUNTIME,
-        }));
-        map.put(96, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_CMD_PARAM_START,
-            WdlTerminalIdentifier.TERMINAL_CMD_PART,
-        }));
-        map.put(81, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_CMD_ATTR_HINT,
-        }));
-        map.put(64, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-        }));
-        map.put(89, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_IDENTIFIER,
-        }));
-        map.put(85, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_EQUAL,
-        }));
-        map.put(94, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_AS,
-        }));
-        map.put(114, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_CALL,
-        }));
-        map.put(82, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_LBRACE,
-        }));
-        map.put(87, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_INPUT,
-        }));
-        map.put(95, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_CMD_PARAM_START,
-        }));
-        map.put(63, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_CMD_ATTR_HINT,
-        }));
-        map.put(62, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_RAW_COMMAND,
-        }));
-        map.put(117, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_CMD_PARAM_START,
-            WdlTerminalIdentifier.TERMINAL_CMD_PART,
-        }));
-        map.put(99, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-        }));
-        map.put(66, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_IMPORT,
-            WdlTerminalIdentifier.TERMINAL_TASK,
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-            WdlTerminalIdentifier.TERMINAL_WORKFLOW,
-        }));
-        map.put(93, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_BOOLEAN,
-            WdlTerminalIdentifier.TERMINAL_DASH,
-            WdlTerminalIdentifier.TERMINAL_E,
-            WdlTerminalIdentifier.TERMINAL_FLOAT,
-            WdlTerminalIdentifier.TERMINAL_IDENTIFIER,
-            WdlTerminalIdentifier.TERMINAL_IF,
-            WdlTerminalIdentifier.TERMINAL_INTEGER,
-            WdlTerminalIdentifier.TERMINAL_LBRACE,
-            WdlTerminalIdentifier.TERMINAL_LPAREN,
-            WdlTerminalIdentifier.TERMINAL_LSQUARE,
-            WdlTerminalIdentifier.TERMINAL_NOT,
-            WdlTerminalIdentifier.TERMINAL_OBJECT,
-            WdlTerminalIdentifier.TERMINAL_PLUS,
-            WdlTerminalIdentifier.TERMINAL_STRING,
-        }));
-        map.put(102, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_IF,
-        }));
-        map.put(78, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_IMPORT,
-        }));
-        map.put(88, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_AS,
-        }));
-        map.put(92, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_IDENTIFIER,
-        }));
-        map.put(83, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_LBRACE,
-        }));
-        map.put(115, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_BOOLEAN,
-            WdlTerminalIdentifier.TERMINAL_DASH,
-            WdlTerminalIdentifier.TERMINAL_E,
-            WdlTerminalIdentifier.TERMINAL_FLOAT,
-            WdlTerminalIdentifier.TERMINAL_IDENTIFIER,
-            WdlTerminalIdentifier.TERMINAL_IF,
-            WdlTerminalIdentifier.TERMINAL_INTEGER,
-            WdlTerminalIdentifier.TERMINAL_LBRACE,
-            WdlTerminalIdentifier.TERMINAL_LPAREN,
-            WdlTerminalIdentifier.TERMINAL_LSQUARE,
-            WdlTerminalIdentifier.TERMINAL_NOT,
-            WdlTerminalIdentifier.TERMINAL_OBJECT,
-            WdlTerminalIdentifier.TERMINAL_PLUS,
-            WdlTerminalIdentifier.TERMINAL_STRING,
-        }));
-        map.put(91, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_IDENTIFIER,
-        }));
-        map.put(67, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_META,
-        }));
-        map.put(104, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_IDENTIFIER,
-        }));
-        map.put(72, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-        }));
-        map.put(73, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_OUTPUT,
-        }));
-        map.put(61, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_PARAMETER_META,
-        }));
-        map.put(59, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_RUNTIME,
-        }));
-        map.put(60, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_SCATTER,
-        }));
-        map.put(106, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_META,
-            WdlTerminalIdentifier.TERMINAL_OUTPUT,
-            WdlTerminalIdentifier.TERMINAL_PARAMETER_META,
-            WdlTerminalIdentifier.TERMINAL_RAW_COMMAND,
-            WdlTerminalIdentifier.TERMINAL_RUNTIME,
-        }));
-        map.put(110, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_EQUAL,
-        }));
-        map.put(70, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_TASK,
-        }));
-        map.put(68, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-        }));
-        map.put(71, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_CALL,
-            WdlTerminalIdentifier.TERMINAL_IF,
-            WdlTerminalIdentifier.TERMINAL_META,
-            WdlTerminalIdentifier.TERMINAL_OUTPUT,
-            WdlTerminalIdentifier.TERMINAL_PARAMETER_META,
-            WdlTerminalIdentifier.TERMINAL_SCATTER,
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-            WdlTerminalIdentifier.TERMINAL_WHILE,
-        }));
-        map.put(109, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_META,
-        }));
-        map.put(74, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_FQN,
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-        }));
-        map.put(80, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-        }));
-        map.put(116, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_DOT,
-        }));
-        map.put(101, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_FQN,
-        }));
-        map.put(118, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_OUTPUT,
-        }));
-        map.put(79, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_PARAMETER_META,
-        }));
-        map.put(77, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_WHILE,
-        }));
-        map.put(113, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_WORKFLOW,
-        }));
-        map.put(65, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_TASK,
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-            WdlTerminalIdentifier.TERMINAL_WORKFLOW,
-        }));
-        nonterminal_first = Collections.unmodifiableMap(map);
-    }
-    static {
-        Map<Integer, List<TerminalIdentifier>> map = new HashMap<Integer, List<TerminalIdentifier>>();
-        map.put(98, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_TASK,
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-            WdlTerminalIdentifier.TERMINAL_WORKFLOW,
-        }));
-        map.put(69, Arrays.asList(new TerminalIdentifier[] {
-        }));
-        map.put(76, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_RBRACE,
-        }));
-        map.put(107, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_CALL,
-            WdlTerminalIdentifier.TERMINAL_IF,
-            WdlTerminalIdentifier.TERMINAL_LBRACE,
-            WdlTerminalIdentifier.TERMINAL_META,
-            WdlTerminalIdentifier.TERMINAL_OUTPUT,
-            WdlTerminalIdentifier.TERMINAL_PARAMETER_META,
-            WdlTerminalIdentifier.TERMINAL_RBRACE,
-            WdlTerminalIdentifier.TERMINAL_SCATTER,
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-            WdlTerminalIdentifier.TERMINAL_WHILE,
-        }));
-        map.put(97, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_CALL,
-            WdlTerminalIdentifier.TERMINAL_IF,
-            WdlTerminalIdentifier.TERMINAL_META,
-            WdlTerminalIdentifier.TERMINAL_OUTPUT,
-            WdlTerminalIdentifier.TERMINAL_PARAMETER_META,
-            WdlTerminalIdentifier.TERMINAL_RBRACE,
-            WdlTerminalIdentifier.TERMINAL_SCATTER,
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-            WdlTerminalIdentifier.TERMINAL_WHILE,
-        }));
-        map.put(90, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_RBRACE,
-        }));
-        map.put(112, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_INPUT,
-            WdlTerminalIdentifier.TERMINAL_RBRACE,
-        }));
-        map.put(108, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_RBRACE,
-        }));
-        map.put(111, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_FQN,
-            WdlTerminalIdentifier.TERMINAL_RBRACE,
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-        }));
-        map.put(105, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_RSQUARE,
-        }));
-        map.put(84, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_RPAREN,
-            WdlTerminalIdentifier.TERMINAL_RSQUARE,
-        }));
-        map.put(75, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_RBRACE,
-        }));
-        map.put(100, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_IMPORT,
-            WdlTerminalIdentifier.TERMINAL_TASK,
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-            WdlTerminalIdentifier.TERMINAL_WORKFLOW,
-        }));
-        map.put(103, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_RBRACE,
-        }));
-        map.put(86, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_INPUT,
-            WdlTerminalIdentifier.TERMINAL_META,
-            WdlTerminalIdentifier.TERMINAL_OUTPUT,
-            WdlTerminalIdentifier.TERMINAL_PARAMETER_META,
-            WdlTerminalIdentifier.TERMINAL_RAW_COMMAND,
-            WdlTerminalIdentifier.TERMINAL_RUNTIME,
-        }));
-        map.put(58, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_RBRACE,
-        }));
-        map.put(96, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_RAW_CMD_END,
-        }));
-        map.put(81, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_BOOLEAN,
-            WdlTerminalIdentifier.TERMINAL_DASH,
-            WdlTerminalIdentifier.TERMINAL_E,
-            WdlTerminalIdentifier.TERMINAL_FLOAT,
-            WdlTerminalIdentifier.TERMINAL_IDENTIFIER,
-            WdlTerminalIdentifier.TERMINAL_IF,
-            WdlTerminalIdentifier.TERMINAL_INTEGER,
-            WdlTerminalIdentifier.TERMINAL_LBRACE,
-            WdlTerminalIdentifier.TERMINAL_LPAREN,
-            WdlTerminalIdentifier.TERMINAL_LSQUARE,
-            WdlTerminalIdentifier.TERMINAL_NOT,
-            WdlTerminalIdentifier.TERMINAL_OBJECT,
-            WdlTerminalIdentifier.TERMINAL_PLUS,
-            WdlTerminalIdentifier.TERMINAL_STRING,
-        }));
-        map.put(64, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_RBRACE,
-        }));
-        map.put(89, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_RBRACE,
-        }));
-        map.put(85, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_CALL,
-            WdlTerminalIdentifier.TERMINAL_IF,
-            WdlTerminalIdentifier.TERMINAL_INPUT,
-            WdlTerminalIdentifier.TERMINAL_META,
-            WdlTerminalIdentifier.TERMINAL_OUTPUT,
-            WdlTerminalIdentifier.TERMINAL_PARAMETER_META,
-            WdlTerminalIdentifier.TERMINAL_RAW_COMMAND,
-            WdlTerminalIdentifier.TERMINAL_RBRACE,
-            WdlTerminalIdentifier.TERMINAL_RUNTIME,
-            WdlTerminalIdentifier.TERMINAL_SCATTER,
-            WdlTerminalIdentifier.TERMINAL_TASK,
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-            WdlTerminalIdentifier.TERMINAL_WHILE,
-            WdlTerminalIdentifier.TERMINAL_WORKFLOW,
-        }));
-        map.put(94, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_CALL,
-            WdlTerminalIdentifier.TERMINAL_IF,
-            WdlTerminalIdentifier.TERMINAL_LBRACE,
-            WdlTerminalIdentifier.TERMINAL_META,
-            WdlTerminalIdentifier.TERMINAL_OUTPUT,
-            WdlTerminalIdentifier.TERMINAL_PARAMETER_META,
-            WdlTerminalIdentifier.TERMINAL_RBRACE,
-            WdlTerminalIdentifier.TERMINAL_SCATTER,
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-            WdlTerminalIdentifier.TERMINAL_WHILE,
-        }));
-        map.put(114, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_CALL,
-            WdlTerminalIdentifier.TERMINAL_IF,
-            WdlTerminalIdentifier.TERMINAL_META,
-            WdlTerminalIdentifier.TERMINAL_OUTPUT,
-            WdlTerminalIdentifier.TERMINAL_PARAMETER_META,
-            WdlTerminalIdentifier.TERMINAL_RBRACE,
-            WdlTerminalIdentifier.TERMINAL_SCATTER,
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-            WdlTerminalIdentifier.TERMINAL_WHILE,
-        }));
-        map.put(82, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_CALL,
-            WdlTerminalIdentifier.TERMINAL_IF,
-            WdlTerminalIdentifier.TERMINAL_META,
-            WdlTerminalIdentifier.TERMINAL_OUTPUT,
-            WdlTerminalIdentifier.TERMINAL_PARAMETER_META,
-            WdlTerminalIdentifier.TERMINAL_RBRACE,
-            WdlTerminalIdentifier.TERMINAL_SCATTER,
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-            WdlTerminalIdentifier.TERMINAL_WHILE,
-        }));
-        map.put(87, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_INPUT,
-            WdlTerminalIdentifier.TERMINAL_RBRACE,
-        }));
-        map.put(95, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_CMD_PARAM_START,
-            WdlTerminalIdentifier.TERMINAL_CMD_PART,
-            WdlTerminalIdentifier.TERMINAL_RAW_CMD_END,
-        }));
-        map.put(63, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_BOOLEAN,
-            WdlTerminalIdentifier.TERMINAL_CMD_ATTR_HINT,
-            WdlTerminalIdentifier.TERMINAL_DASH,
-            WdlTerminalIdentifier.TERMINAL_E,
-            WdlTerminalIdentifier.TERMINAL_FLOAT,
-            WdlTerminalIdentifier.TERMINAL_IDENTIFIER,
-            WdlTerminalIdentifier.TERMINAL_IF,
-            WdlTerminalIdentifier.TERMINAL_INTEGER,
-            WdlTerminalIdentifier.TERMINAL_LBRACE,
-            WdlTerminalIdentifier.TERMINAL_LPAREN,
-            WdlTerminalIdentifier.TERMINAL_LSQUARE,
-            WdlTerminalIdentifier.TERMINAL_NOT,
-            WdlTerminalIdentifier.TERMINAL_OBJECT,
-            WdlTerminalIdentifier.TERMINAL_PLUS,
-            WdlTerminalIdentifier.TERMINAL_STRING,
-        }));
-        map.put(62, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_META,
-            WdlTerminalIdentifier.TERMINAL_OUTPUT,
-            WdlTerminalIdentifier.TERMINAL_PARAMETER_META,
-            WdlTerminalIdentifier.TERMINAL_RAW_COMMAND,
-            WdlTerminalIdentifier.TERMINAL_RBRACE,
-            WdlTerminalIdentifier.TERMINAL_RUNTIME,
-        }));
-        map.put(117, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_CMD_PARAM_START,
-            WdlTerminalIdentifier.TERMINAL_CMD_PART,
-            WdlTerminalIdentifier.TERMINAL_RAW_CMD_END,
-        }));
-        map.put(99, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_CALL,
-            WdlTerminalIdentifier.TERMINAL_IF,
-            WdlTerminalIdentifier.TERMINAL_INPUT,
-            WdlTerminalIdentifier.TERMINAL_META,
-            WdlTerminalIdentifier.TERMINAL_OUTPUT,
-            WdlTerminalIdentifier.TERMINAL_PARAMETER_META,
-            WdlTerminalIdentifier.TERMINAL_RAW_COMMAND,
-            WdlTerminalIdentifier.TERMINAL_RBRACE,
-            WdlTerminalIdentifier.TERMINAL_RUNTIME,
-            WdlTerminalIdentifier.TERMINAL_SCATTER,
-            WdlTerminalIdentifier.TERMINAL_TASK,
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-            WdlTerminalIdentifier.TERMINAL_WHILE,
-            WdlTerminalIdentifier.TERMINAL_WORKFLOW,
-        }));
-        map.put(66, Arrays.asList(new TerminalIdentifier[] {
-        }));
-        map.put(93, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_ASTERISK,
-            WdlTerminalIdentifier.TERMINAL_BOOLEAN,
-            WdlTerminalIdentifier.TERMINAL_CALL,
-            WdlTerminalIdentifier.TERMINAL_CMD_ATTR_HINT,
-            WdlTerminalIdentifier.TERMINAL_CMD_PARAM_END,
-            WdlTerminalIdentifier.TERMINAL_COLON,
-            WdlTerminalIdentifier.TERMINAL_COMMA,
-            WdlTerminalIdentifier.TERMINAL_DASH,
-            WdlTerminalIdentifier.TERMINAL_DOUBLE_AMPERSAND,
-            WdlTerminalIdentifier.TERMINAL_DOUBLE_EQUAL,
-            WdlTerminalIdentifier.TERMINAL_DOUBLE_PIPE,
-            WdlTerminalIdentifier.TERMINAL_E,
-            WdlTerminalIdentifier.TERMINAL_ELSE,
-            WdlTerminalIdentifier.TERMINAL_FLOAT,
-            WdlTerminalIdentifier.TERMINAL_FQN,
-            WdlTerminalIdentifier.TERMINAL_GT,
-            WdlTerminalIdentifier.TERMINAL_GTEQ,
-            WdlTerminalIdentifier.TERMINAL_IDENTIFIER,
-            WdlTerminalIdentifier.TERMINAL_IF,
-            WdlTerminalIdentifier.TERMINAL_INPUT,
-            WdlTerminalIdentifier.TERMINAL_INTEGER,
-            WdlTerminalIdentifier.TERMINAL_LBRACE,
-            WdlTerminalIdentifier.TERMINAL_LPAREN,
-            WdlTerminalIdentifier.TERMINAL_LSQUARE,
-            WdlTerminalIdentifier.TERMINAL_LT,
-            WdlTerminalIdentifier.TERMINAL_LTEQ,
-            WdlTerminalIdentifier.TERMINAL_META,
-            WdlTerminalIdentifier.TERMINAL_NOT,
-            WdlTerminalIdentifier.TERMINAL_NOT_EQUAL,
-            WdlTerminalIdentifier.TERMINAL_OBJECT,
-            WdlTerminalIdentifier.TERMINAL_OUTPUT,
-            WdlTerminalIdentifier.TERMINAL_PARAMETER_META,
-            WdlTerminalIdentifier.TERMINAL_PERCENT,
-            WdlTerminalIdentifier.TERMINAL_PLUS,
-            WdlTerminalIdentifier.TERMINAL_RAW_COMMAND,
-            WdlTerminalIdentifier.TERMINAL_RBRACE,
-            WdlTerminalIdentifier.TERMINAL_RPAREN,
-            WdlTerminalIdentifier.TERMINAL_RSQUARE,
-            WdlTerminalIdentifier.TERMINAL_RUNTIME,
-            WdlTerminalIdentifier.TERMINAL_SCATTER,
-            WdlTerminalIdentifier.TERMINAL_SLASH,
-            WdlTerminalIdentifier.TERMINAL_STRING,
-            WdlTerminalIdentifier.TERMINAL_TASK,
-            WdlTerminalIdentifier.TERMINAL_THEN,
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-            WdlTerminalIdentifier.TERMINAL_WHILE,
-            WdlTerminalIdentifier.TERMINAL_WORKFLOW,
-        }));
-        map.put(102, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_CALL,
-            WdlTerminalIdentifier.TERMINAL_IF,
-            WdlTerminalIdentifier.TERMINAL_META,
-            WdlTerminalIdentifier.TERMINAL_OUTPUT,
-            WdlTerminalIdentifier.TERMINAL_PARAMETER_META,
-            WdlTerminalIdentifier.TERMINAL_RBRACE,
-            WdlTerminalIdentifier.TERMINAL_SCATTER,
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-            WdlTerminalIdentifier.TERMINAL_WHILE,
-        }));
-        map.put(78, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_IMPORT,
-            WdlTerminalIdentifier.TERMINAL_TASK,
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-            WdlTerminalIdentifier.TERMINAL_WORKFLOW,
-        }));
-        map.put(88, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_IMPORT,
-            WdlTerminalIdentifier.TERMINAL_TASK,
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-            WdlTerminalIdentifier.TERMINAL_WORKFLOW,
-        }));
-        map.put(92, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_IDENTIFIER,
-            WdlTerminalIdentifier.TERMINAL_RBRACE,
-        }));
-        map.put(83, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_CALL,
-            WdlTerminalIdentifier.TERMINAL_IF,
-            WdlTerminalIdentifier.TERMINAL_META,
-            WdlTerminalIdentifier.TERMINAL_OUTPUT,
-            WdlTerminalIdentifier.TERMINAL_PARAMETER_META,
-            WdlTerminalIdentifier.TERMINAL_RAW_COMMAND,
-            WdlTerminalIdentifier.TERMINAL_RBRACE,
-            WdlTerminalIdentifier.TERMINAL_RUNTIME,
-            WdlTerminalIdentifier.TERMINAL_SCATTER,
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-            WdlTerminalIdentifier.TERMINAL_WHILE,
-        }));
-        map.put(115, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_COMMA,
-            WdlTerminalIdentifier.TERMINAL_RBRACE,
-        }));
-        map.put(91, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_COMMA,
-            WdlTerminalIdentifier.TERMINAL_INPUT,
-            WdlTerminalIdentifier.TERMINAL_RBRACE,
-        }));
-        map.put(67, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_META,
-            WdlTerminalIdentifier.TERMINAL_OUTPUT,
-            WdlTerminalIdentifier.TERMINAL_PARAMETER_META,
-            WdlTerminalIdentifier.TERMINAL_RAW_COMMAND,
-            WdlTerminalIdentifier.TERMINAL_RBRACE,
-            WdlTerminalIdentifier.TERMINAL_RUNTIME,
-        }));
-        map.put(104, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_COMMA,
-            WdlTerminalIdentifier.TERMINAL_RBRACE,
-        }));
-        map.put(72, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_RBRACE,
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-        }));
-        map.put(73, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_META,
-            WdlTerminalIdentifier.TERMINAL_OUTPUT,
-            WdlTerminalIdentifier.TERMINAL_PARAMETER_META,
-            WdlTerminalIdentifier.TERMINAL_RAW_COMMAND,
-            WdlTerminalIdentifier.TERMINAL_RBRACE,
-            WdlTerminalIdentifier.TERMINAL_RUNTIME,
-        }));
-        map.put(61, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_META,
-            WdlTerminalIdentifier.TERMINAL_OUTPUT,
-            WdlTerminalIdentifier.TERMINAL_PARAMETER_META,
-            WdlTerminalIdentifier.TERMINAL_RAW_COMMAND,
-            WdlTerminalIdentifier.TERMINAL_RBRACE,
-            WdlTerminalIdentifier.TERMINAL_RUNTIME,
-        }));
-        map.put(59, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_META,
-            WdlTerminalIdentifier.TERMINAL_OUTPUT,
-            WdlTerminalIdentifier.TERMINAL_PARAMETER_META,
-            WdlTerminalIdentifier.TERMINAL_RAW_COMMAND,
-            WdlTerminalIdentifier.TERMINAL_RBRACE,
-            WdlTerminalIdentifier.TERMINAL_RUNTIME,
-        }));
-        map.put(60, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_CALL,
-            WdlTerminalIdentifier.TERMINAL_IF,
-            WdlTerminalIdentifier.TERMINAL_META,
-            WdlTerminalIdentifier.TERMINAL_OUTPUT,
-            WdlTerminalIdentifier.TERMINAL_PARAMETER_META,
-            WdlTerminalIdentifier.TERMINAL_RBRACE,
-            WdlTerminalIdentifier.TERMINAL_SCATTER,
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-            WdlTerminalIdentifier.TERMINAL_WHILE,
-        }));
-        map.put(106, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_META,
-            WdlTerminalIdentifier.TERMINAL_OUTPUT,
-            WdlTerminalIdentifier.TERMINAL_PARAMETER_META,
-            WdlTerminalIdentifier.TERMINAL_RAW_COMMAND,
-            WdlTerminalIdentifier.TERMINAL_RBRACE,
-            WdlTerminalIdentifier.TERMINAL_RUNTIME,
-        }));
-        map.put(110, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_CALL,
-            WdlTerminalIdentifier.TERMINAL_IF,
-            WdlTerminalIdentifier.TERMINAL_INPUT,
-            WdlTerminalIdentifier.TERMINAL_META,
-            WdlTerminalIdentifier.TERMINAL_OUTPUT,
-            WdlTerminalIdentifier.TERMINAL_PARAMETER_META,
-            WdlTerminalIdentifier.TERMINAL_RAW_COMMAND,
-            WdlTerminalIdentifier.TERMINAL_RBRACE,
-            WdlTerminalIdentifier.TERMINAL_RUNTIME,
-            WdlTerminalIdentifier.TERMINAL_SCATTER,
-            WdlTerminalIdentifier.TERMINAL_TASK,
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-            WdlTerminalIdentifier.TERMINAL_WHILE,
-            WdlTerminalIdentifier.TERMINAL_WORKFLOW,
-        }));
-        map.put(70, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_TASK,
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-            WdlTerminalIdentifier.TERMINAL_WORKFLOW,
-        }));
-        map.put(68, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_COMMA,
-            WdlTerminalIdentifier.TERMINAL_IDENTIFIER,
-            WdlTerminalIdentifier.TERMINAL_RSQUARE,
-        }));
-        map.put(71, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_CALL,
-            WdlTerminalIdentifier.TERMINAL_IF,
-            WdlTerminalIdentifier.TERMINAL_META,
-            WdlTerminalIdentifier.TERMINAL_OUTPUT,
-            WdlTerminalIdentifier.TERMINAL_PARAMETER_META,
-            WdlTerminalIdentifier.TERMINAL_RBRACE,
-            WdlTerminalIdentifier.TERMINAL_SCATTER,
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-            WdlTerminalIdentifier.TERMINAL_WHILE,
-        }));
-        map.put(109, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_CALL,
-            WdlTerminalIdentifier.TERMINAL_IF,
-            WdlTerminalIdentifier.TERMINAL_META,
-            WdlTerminalIdentifier.TERMINAL_OUTPUT,
-            WdlTerminalIdentifier.TERMINAL_PARAMETER_META,
-            WdlTerminalIdentifier.TERMINAL_RBRACE,
-            WdlTerminalIdentifier.TERMINAL_SCATTER,
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-            WdlTerminalIdentifier.TERMINAL_WHILE,
-        }));
-        map.put(74, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_FQN,
-            WdlTerminalIdentifier.TERMINAL_RBRACE,
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-        }));
-        map.put(80, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_FQN,
-            WdlTerminalIdentifier.TERMINAL_RBRACE,
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-        }));
-        map.put(116, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_FQN,
-            WdlTerminalIdentifier.TERMINAL_RBRACE,
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-        }));
-        map.put(101, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_FQN,
-            WdlTerminalIdentifier.TERMINAL_RBRACE,
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-        }));
-        map.put(118, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_CALL,
-            WdlTerminalIdentifier.TERMINAL_IF,
-            WdlTerminalIdentifier.TERMINAL_META,
-            WdlTerminalIdentifier.TERMINAL_OUTPUT,
-            WdlTerminalIdentifier.TERMINAL_PARAMETER_META,
-            WdlTerminalIdentifier.TERMINAL_RBRACE,
-            WdlTerminalIdentifier.TERMINAL_SCATTER,
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-            WdlTerminalIdentifier.TERMINAL_WHILE,
-        }));
-        map.put(79, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_CALL,
-            WdlTerminalIdentifier.TERMINAL_IF,
-            WdlTerminalIdentifier.TERMINAL_META,
-            WdlTerminalIdentifier.TERMINAL_OUTPUT,
-            WdlTerminalIdentifier.TERMINAL_PARAMETER_META,
-            WdlTerminalIdentifier.TERMINAL_RBRACE,
-            WdlTerminalIdentifier.TERMINAL_SCATTER,
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-            WdlTerminalIdentifier.TERMINAL_WHILE,
-        }));
-        map.put(77, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_CALL,
-            WdlTerminalIdentifier.TERMINAL_IF,
-            WdlTerminalIdentifier.TERMINAL_META,
-            WdlTerminalIdentifier.TERMINAL_OUTPUT,
-            WdlTerminalIdentifier.TERMINAL_PARAMETER_META,
-            WdlTerminalIdentifier.TERMINAL_RBRACE,
-            WdlTerminalIdentifier.TERMINAL_SCATTER,
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-            WdlTerminalIdentifier.TERMINAL_WHILE,
-        }));
-        map.put(113, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_TASK,
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-            WdlTerminalIdentifier.TERMINAL_WORKFLOW,
-        }));
-        map.put(65, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_TASK,
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-            WdlTerminalIdentifier.TERMINAL_WORKFLOW,
-        }));
-        nonterminal_follow = Collections.unmodifiableMap(map);
+        nonterminal_first = WdlParserRuntime.unpackSets(terminal_map, 58,
+            "58=35,23,41,1,32;" +
+            "59=32;" +
+            "60=47;" +
+            "61=41;" +
+            "62=1;" +
+            "63=33;" +
+            "64=2,48;" +
+            "65=0,2,48,31;" +
+            "66=34,0,2,48,31;" +
+            "67=35;" +
+            "68=2,48;" +
+            "69=0,2,48,31;" +
+            "70=0;" +
+            "71=38,36,35,23,41,47,2,48,21;" +
+            "72=2,48;" +
+            "73=23;" +
+            "74=57,2,48;" +
+            "75=53;" +
+            "76=38,36,35,23,41,47,2,48,21;" +
+            "77=21;" +
+            "78=34;" +
+            "79=41;" +
+            "80=2,48;" +
+            "81=33;" +
+            "82=24;" +
+            "83=24;" +
+            "84=39,4,43,9,53,36,30,24,12,44,17,52,15,54;" +
+            "85=51;" +
+            "86=2,48;" +
+            "87=7;" +
+            "88=46;" +
+            "89=53;" +
+            "90=7;" +
+            "91=53;" +
+            "92=53;" +
+            "93=39,4,43,9,53,36,30,24,12,44,17,52,15,54;" +
+            "94=46;" +
+            "95=56;" +
+            "96=56,55;" +
+            "97=24;" +
+            "98=34;" +
+            "99=2,48;" +
+            "100=46;" +
+            "101=57;" +
+            "102=36;" +
+            "103=39,4,43,9,53,36,30,24,12,44,17,52,15,54;" +
+            "104=53;" +
+            "105=2,48;" +
+            "106=35,23,41,1,32;" +
+            "107=46;" +
+            "108=57,2,48;" +
+            "109=35;" +
+            "110=51;" +
+            "111=45;" +
+            "112=53;" +
+            "113=31;" +
+            "114=38;" +
+            "115=39,4,43,9,53,36,30,24,12,44,17,52,15,54;" +
+            "116=45;" +
+            "117=56,55;" +
+            "118=23"
+        );
     }
     static {
-        Map<Integer, List<TerminalIdentifier>> map = new HashMap<Integer, List<TerminalIdentifier>>();
-        map.put(0, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_IMPORT,
-        }));
-        map.put(1, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_TASK,
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-            WdlTerminalIdentifier.TERMINAL_WORKFLOW,
-        }));
-        map.put(39, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_CALL,
-            WdlTerminalIdentifier.TERMINAL_IF,
-            WdlTerminalIdentifier.TERMINAL_META,
-            WdlTerminalIdentifier.TERMINAL_OUTPUT,
-            WdlTerminalIdentifier.TERMINAL_PARAMETER_META,
-            WdlTerminalIdentifier.TERMINAL_SCATTER,
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-            WdlTerminalIdentifier.TERMINAL_WHILE,
-        }));
-        map.put(49, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_AS,
-        }));
-        map.put(50, Arrays.asList(new TerminalIdentifier[] {
-        }));
-        map.put(51, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_LBRACE,
-        }));
-        map.put(52, Arrays.asList(new TerminalIdentifier[] {
-        }));
-        map.put(54, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_INPUT,
-        }));
-        map.put(56, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_IDENTIFIER,
-        }));
-        map.put(60, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_FQN,
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-        }));
-        map.put(65, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_DOT,
-        }));
-        map.put(66, Arrays.asList(new TerminalIdentifier[] {
-        }));
-        map.put(75, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-        }));
-        map.put(96, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_BOOLEAN,
-            WdlTerminalIdentifier.TERMINAL_DASH,
-            WdlTerminalIdentifier.TERMINAL_E,
-            WdlTerminalIdentifier.TERMINAL_FLOAT,
-            WdlTerminalIdentifier.TERMINAL_IDENTIFIER,
-            WdlTerminalIdentifier.TERMINAL_IF,
-            WdlTerminalIdentifier.TERMINAL_INTEGER,
-            WdlTerminalIdentifier.TERMINAL_LBRACE,
-            WdlTerminalIdentifier.TERMINAL_LPAREN,
-            WdlTerminalIdentifier.TERMINAL_LSQUARE,
-            WdlTerminalIdentifier.TERMINAL_NOT,
-            WdlTerminalIdentifier.TERMINAL_OBJECT,
-            WdlTerminalIdentifier.TERMINAL_PLUS,
-            WdlTerminalIdentifier.TERMINAL_STRING,
-        }));
-        map.put(100, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_IDENTIFIER,
-        }));
-        map.put(6, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_AS,
-        }));
-        map.put(7, Arrays.asList(new TerminalIdentifier[] {
-        }));
-        map.put(103, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_BOOLEAN,
-            WdlTerminalIdentifier.TERMINAL_DASH,
-            WdlTerminalIdentifier.TERMINAL_E,
-            WdlTerminalIdentifier.TERMINAL_FLOAT,
-            WdlTerminalIdentifier.TERMINAL_IDENTIFIER,
-            WdlTerminalIdentifier.TERMINAL_IF,
-            WdlTerminalIdentifier.TERMINAL_INTEGER,
-            WdlTerminalIdentifier.TERMINAL_LBRACE,
-            WdlTerminalIdentifier.TERMINAL_LPAREN,
-            WdlTerminalIdentifier.TERMINAL_LSQUARE,
-            WdlTerminalIdentifier.TERMINAL_NOT,
-            WdlTerminalIdentifier.TERMINAL_OBJECT,
-            WdlTerminalIdentifier.TERMINAL_PLUS,
-            WdlTerminalIdentifier.TERMINAL_STRING,
-        }));
-        map.put(10, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-        }));
-        map.put(11, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_META,
-            WdlTerminalIdentifier.TERMINAL_OUTPUT,
-            WdlTerminalIdentifier.TERMINAL_PARAMETER_META,
-            WdlTerminalIdentifier.TERMINAL_RAW_COMMAND,
-            WdlTerminalIdentifier.TERMINAL_RUNTIME,
-        }));
-        map.put(18, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_CMD_PARAM_START,
-            WdlTerminalIdentifier.TERMINAL_CMD_PART,
-        }));
-        map.put(22, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_CMD_ATTR_HINT,
-        }));
-        map.put(25, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-        }));
-        map.put(31, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_IDENTIFIER,
-        }));
-        map.put(34, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_EQUAL,
-        }));
-        map.put(35, Arrays.asList(new TerminalIdentifier[] {
-        }));
-        map.put(59, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_AS,
-        }));
-        map.put(53, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_CALL,
-        }));
-        map.put(55, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_LBRACE,
-        }));
-        map.put(57, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_INPUT,
-        }));
-        map.put(23, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_CMD_PARAM_START,
-        }));
-        map.put(24, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_CMD_ATTR_HINT,
-        }));
-        map.put(19, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_RAW_COMMAND,
-        }));
-        map.put(21, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_CMD_PARAM_START,
-        }));
-        map.put(20, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_CMD_PART,
-        }));
-        map.put(36, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-        }));
-        map.put(2, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_IMPORT,
-            WdlTerminalIdentifier.TERMINAL_TASK,
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-            WdlTerminalIdentifier.TERMINAL_WORKFLOW,
-        }));
-        map.put(90, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_BOOLEAN,
-            WdlTerminalIdentifier.TERMINAL_DASH,
-            WdlTerminalIdentifier.TERMINAL_E,
-            WdlTerminalIdentifier.TERMINAL_FLOAT,
-            WdlTerminalIdentifier.TERMINAL_IDENTIFIER,
-            WdlTerminalIdentifier.TERMINAL_IF,
-            WdlTerminalIdentifier.TERMINAL_INTEGER,
-            WdlTerminalIdentifier.TERMINAL_LBRACE,
-            WdlTerminalIdentifier.TERMINAL_LPAREN,
-            WdlTerminalIdentifier.TERMINAL_LSQUARE,
-            WdlTerminalIdentifier.TERMINAL_NOT,
-            WdlTerminalIdentifier.TERMINAL_OBJECT,
-            WdlTerminalIdentifier.TERMINAL_PLUS,
-            WdlTerminalIdentifier.TERMINAL_STRING,
-        }));
-        map.put(89, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_BOOLEAN,
-            WdlTerminalIdentifier.TERMINAL_DASH,
-            WdlTerminalIdentifier.TERMINAL_E,
-            WdlTerminalIdentifier.TERMINAL_FLOAT,
-            WdlTerminalIdentifier.TERMINAL_IDENTIFIER,
-            WdlTerminalIdentifier.TERMINAL_IF,
-            WdlTerminalIdentifier.TERMINAL_INTEGER,
-            WdlTerminalIdentifier.TERMINAL_LBRACE,
-            WdlTerminalIdentifier.TERMINAL_LPAREN,
-            WdlTerminalIdentifier.TERMINAL_LSQUARE,
-            WdlTerminalIdentifier.TERMINAL_NOT,
-            WdlTerminalIdentifier.TERMINAL_OBJECT,
-            WdlTerminalIdentifier.TERMINAL_PLUS,
-            WdlTerminalIdentifier.TERMINAL_STRING,
-        }));
-        map.put(81, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_BOOLEAN,
-            WdlTerminalIdentifier.TERMINAL_DASH,
-            WdlTerminalIdentifier.TERMINAL_E,
-            WdlTerminalIdentifier.TERMINAL_FLOAT,
-            WdlTerminalIdentifier.TERMINAL_IDENTIFIER,
-            WdlTerminalIdentifier.TERMINAL_IF,
-            WdlTerminalIdentifier.TERMINAL_INTEGER,
-            WdlTerminalIdentifier.TERMINAL_LBRACE,
-            WdlTerminalIdentifier.TERMINAL_LPAREN,
-            WdlTerminalIdentifier.TERMINAL_LSQUARE,
-            WdlTerminalIdentifier.TERMINAL_NOT,
-            WdlTerminalIdentifier.TERMINAL_OBJECT,
-            WdlTerminalIdentifier.TERMINAL_PLUS,
-            WdlTerminalIdentifier.TERMINAL_STRING,
-        }));
-        map.put(82, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_BOOLEAN,
-            WdlTerminalIdentifier.TERMINAL_DASH,
-            WdlTerminalIdentifier.TERMINAL_E,
-            WdlTerminalIdentifier.TERMINAL_FLOAT,
-            WdlTerminalIdentifier.TERMINAL_IDENTIFIER,
-            WdlTerminalIdentifier.TERMINAL_IF,
-            WdlTerminalIdentifier.TERMINAL_INTEGER,
-            WdlTerminalIdentifier.TERMINAL_LBRACE,
-            WdlTerminalIdentifier.TERMINAL_LPAREN,
-            WdlTerminalIdentifier.TERMINAL_LSQUARE,
-            WdlTerminalIdentifier.TERMINAL_NOT,
-            WdlTerminalIdentifier.TERMINAL_OBJECT,
-            WdlTerminalIdentifier.TERMINAL_PLUS,
-            WdlTerminalIdentifier.TERMINAL_STRING,
-        }));
-        map.put(80, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_BOOLEAN,
-            WdlTerminalIdentifier.TERMINAL_DASH,
-            WdlTerminalIdentifier.TERMINAL_E,
-            WdlTerminalIdentifier.TERMINAL_FLOAT,
-            WdlTerminalIdentifier.TERMINAL_IDENTIFIER,
-            WdlTerminalIdentifier.TERMINAL_IF,
-            WdlTerminalIdentifier.TERMINAL_INTEGER,
-            WdlTerminalIdentifier.TERMINAL_LBRACE,
-            WdlTerminalIdentifier.TERMINAL_LPAREN,
-            WdlTerminalIdentifier.TERMINAL_LSQUARE,
-            WdlTerminalIdentifier.TERMINAL_NOT,
-            WdlTerminalIdentifier.TERMINAL_OBJECT,
-            WdlTerminalIdentifier.TERMINAL_PLUS,
-            WdlTerminalIdentifier.TERMINAL_STRING,
-        }));
-        map.put(86, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_BOOLEAN,
-            WdlTerminalIdentifier.TERMINAL_DASH,
-            WdlTerminalIdentifier.TERMINAL_E,
-            WdlTerminalIdentifier.TERMINAL_FLOAT,
-            WdlTerminalIdentifier.TERMINAL_IDENTIFIER,
-            WdlTerminalIdentifier.TERMINAL_IF,
-            WdlTerminalIdentifier.TERMINAL_INTEGER,
-            WdlTerminalIdentifier.TERMINAL_LBRACE,
-            WdlTerminalIdentifier.TERMINAL_LPAREN,
-            WdlTerminalIdentifier.TERMINAL_LSQUARE,
-            WdlTerminalIdentifier.TERMINAL_NOT,
-            WdlTerminalIdentifier.TERMINAL_OBJECT,
-            WdlTerminalIdentifier.TERMINAL_PLUS,
-            WdlTerminalIdentifier.TERMINAL_STRING,
-        }));
-        map.put(87, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_BOOLEAN,
-            WdlTerminalIdentifier.TERMINAL_DASH,
-            WdlTerminalIdentifier.TERMINAL_E,
-            WdlTerminalIdentifier.TERMINAL_FLOAT,
-            WdlTerminalIdentifier.TERMINAL_IDENTIFIER,
-            WdlTerminalIdentifier.TERMINAL_IF,
-            WdlTerminalIdentifier.TERMINAL_INTEGER,
-            WdlTerminalIdentifier.TERMINAL_LBRACE,
-            WdlTerminalIdentifier.TERMINAL_LPAREN,
-            WdlTerminalIdentifier.TERMINAL_LSQUARE,
-            WdlTerminalIdentifier.TERMINAL_NOT,
-            WdlTerminalIdentifier.TERMINAL_OBJECT,
-            WdlTerminalIdentifier.TERMINAL_PLUS,
-            WdlTerminalIdentifier.TERMINAL_STRING,
-        }));
-        map.put(84, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_BOOLEAN,
-            WdlTerminalIdentifier.TERMINAL_DASH,
-            WdlTerminalIdentifier.TERMINAL_E,
-            WdlTerminalIdentifier.TERMINAL_FLOAT,
-            WdlTerminalIdentifier.TERMINAL_IDENTIFIER,
-            WdlTerminalIdentifier.TERMINAL_IF,
-            WdlTerminalIdentifier.TERMINAL_INTEGER,
-            WdlTerminalIdentifier.TERMINAL_LBRACE,
-            WdlTerminalIdentifier.TERMINAL_LPAREN,
-            WdlTerminalIdentifier.TERMINAL_LSQUARE,
-            WdlTerminalIdentifier.TERMINAL_NOT,
-            WdlTerminalIdentifier.TERMINAL_OBJECT,
-            WdlTerminalIdentifier.TERMINAL_PLUS,
-            WdlTerminalIdentifier.TERMINAL_STRING,
-        }));
-        map.put(85, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_BOOLEAN,
-            WdlTerminalIdentifier.TERMINAL_DASH,
-            WdlTerminalIdentifier.TERMINAL_E,
-            WdlTerminalIdentifier.TERMINAL_FLOAT,
-            WdlTerminalIdentifier.TERMINAL_IDENTIFIER,
-            WdlTerminalIdentifier.TERMINAL_IF,
-            WdlTerminalIdentifier.TERMINAL_INTEGER,
-            WdlTerminalIdentifier.TERMINAL_LBRACE,
-            WdlTerminalIdentifier.TERMINAL_LPAREN,
-            WdlTerminalIdentifier.TERMINAL_LSQUARE,
-            WdlTerminalIdentifier.TERMINAL_NOT,
-            WdlTerminalIdentifier.TERMINAL_OBJECT,
-            WdlTerminalIdentifier.TERMINAL_PLUS,
-            WdlTerminalIdentifier.TERMINAL_STRING,
-        }));
-        map.put(83, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_BOOLEAN,
-            WdlTerminalIdentifier.TERMINAL_DASH,
-            WdlTerminalIdentifier.TERMINAL_E,
-            WdlTerminalIdentifier.TERMINAL_FLOAT,
-            WdlTerminalIdentifier.TERMINAL_IDENTIFIER,
-            WdlTerminalIdentifier.TERMINAL_IF,
-            WdlTerminalIdentifier.TERMINAL_INTEGER,
-            WdlTerminalIdentifier.TERMINAL_LBRACE,
-            WdlTerminalIdentifier.TERMINAL_LPAREN,
-            WdlTerminalIdentifier.TERMINAL_LSQUARE,
-            WdlTerminalIdentifier.TERMINAL_NOT,
-            WdlTerminalIdentifier.TERMINAL_OBJECT,
-            WdlTerminalIdentifier.TERMINAL_PLUS,
-            WdlTerminalIdentifier.TERMINAL_STRING,
-        }));
-        map.put(92, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_BOOLEAN,
-            WdlTerminalIdentifier.TERMINAL_DASH,
-            WdlTerminalIdentifier.TERMINAL_E,
-            WdlTerminalIdentifier.TERMINAL_FLOAT,
-            WdlTerminalIdentifier.TERMINAL_IDENTIFIER,
-            WdlTerminalIdentifier.TERMINAL_IF,
-            WdlTerminalIdentifier.TERMINAL_INTEGER,
-            WdlTerminalIdentifier.TERMINAL_LBRACE,
-            WdlTerminalIdentifier.TERMINAL_LPAREN,
-            WdlTerminalIdentifier.TERMINAL_LSQUARE,
-            WdlTerminalIdentifier.TERMINAL_NOT,
-            WdlTerminalIdentifier.TERMINAL_OBJECT,
-            WdlTerminalIdentifier.TERMINAL_PLUS,
-            WdlTerminalIdentifier.TERMINAL_STRING,
-        }));
-        map.put(88, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_BOOLEAN,
-            WdlTerminalIdentifier.TERMINAL_DASH,
-            WdlTerminalIdentifier.TERMINAL_E,
-            WdlTerminalIdentifier.TERMINAL_FLOAT,
-            WdlTerminalIdentifier.TERMINAL_IDENTIFIER,
-            WdlTerminalIdentifier.TERMINAL_IF,
-            WdlTerminalIdentifier.TERMINAL_INTEGER,
-            WdlTerminalIdentifier.TERMINAL_LBRACE,
-            WdlTerminalIdentifier.TERMINAL_LPAREN,
-            WdlTerminalIdentifier.TERMINAL_LSQUARE,
-            WdlTerminalIdentifier.TERMINAL_NOT,
-            WdlTerminalIdentifier.TERMINAL_OBJECT,
-            WdlTerminalIdentifier.TERMINAL_PLUS,
-            WdlTerminalIdentifier.TERMINAL_STRING,
-        }));
-        map.put(91, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_BOOLEAN,
-            WdlTerminalIdentifier.TERMINAL_DASH,
-            WdlTerminalIdentifier.TERMINAL_E,
-            WdlTerminalIdentifier.TERMINAL_FLOAT,
-            WdlTerminalIdentifier.TERMINAL_IDENTIFIER,
-            WdlTerminalIdentifier.TERMINAL_IF,
-            WdlTerminalIdentifier.TERMINAL_INTEGER,
-            WdlTerminalIdentifier.TERMINAL_LBRACE,
-            WdlTerminalIdentifier.TERMINAL_LPAREN,
-            WdlTerminalIdentifier.TERMINAL_LSQUARE,
-            WdlTerminalIdentifier.TERMINAL_NOT,
-            WdlTerminalIdentifier.TERMINAL_OBJECT,
-            WdlTerminalIdentifier.TERMINAL_PLUS,
-            WdlTerminalIdentifier.TERMINAL_STRING,
-        }));
-        map.put(109, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_BOOLEAN,
-        }));
-        map.put(95, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_DASH,
-        }));
-        map.put(111, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_FLOAT,
-        }));
-        map.put(108, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_IDENTIFIER,
-        }));
-        map.put(99, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_IDENTIFIER,
-        }));
-        map.put(97, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_IDENTIFIER,
-        }));
-        map.put(98, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_IDENTIFIER,
-        }));
-        map.put(106, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_IF,
-        }));
-        map.put(110, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_INTEGER,
-        }));
-        map.put(104, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_LBRACE,
-        }));
-        map.put(105, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_LPAREN,
-        }));
-        map.put(102, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_LSQUARE,
-        }));
-        map.put(93, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_NOT,
-        }));
-        map.put(101, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_OBJECT,
-        }));
-        map.put(94, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_PLUS,
-        }));
-        map.put(107, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_STRING,
-        }));
-        map.put(72, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_IF,
-        }));
-        map.put(8, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_IMPORT,
-        }));
-        map.put(9, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_AS,
-        }));
-        map.put(33, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_IDENTIFIER,
-        }));
-        map.put(32, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_LBRACE,
-        }));
-        map.put(38, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_BOOLEAN,
-            WdlTerminalIdentifier.TERMINAL_DASH,
-            WdlTerminalIdentifier.TERMINAL_E,
-            WdlTerminalIdentifier.TERMINAL_FLOAT,
-            WdlTerminalIdentifier.TERMINAL_IDENTIFIER,
-            WdlTerminalIdentifier.TERMINAL_IF,
-            WdlTerminalIdentifier.TERMINAL_INTEGER,
-            WdlTerminalIdentifier.TERMINAL_LBRACE,
-            WdlTerminalIdentifier.TERMINAL_LPAREN,
-            WdlTerminalIdentifier.TERMINAL_LSQUARE,
-            WdlTerminalIdentifier.TERMINAL_NOT,
-            WdlTerminalIdentifier.TERMINAL_OBJECT,
-            WdlTerminalIdentifier.TERMINAL_PLUS,
-            WdlTerminalIdentifier.TERMINAL_STRING,
-        }));
-        map.put(58, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_IDENTIFIER,
-        }));
-        map.put(30, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_META,
-        }));
-        map.put(74, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_IDENTIFIER,
-        }));
-        map.put(27, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-        }));
-        map.put(26, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_OUTPUT,
-        }));
-        map.put(29, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_PARAMETER_META,
-        }));
-        map.put(28, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_RUNTIME,
-        }));
-        map.put(73, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_SCATTER,
-        }));
-        map.put(13, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_RAW_COMMAND,
-        }));
-        map.put(17, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_META,
-        }));
-        map.put(14, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_OUTPUT,
-        }));
-        map.put(16, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_PARAMETER_META,
-        }));
-        map.put(15, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_RUNTIME,
-        }));
-        map.put(37, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_EQUAL,
-        }));
-        map.put(12, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_TASK,
-        }));
-        map.put(79, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-        }));
-        map.put(76, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-        }));
-        map.put(78, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-        }));
-        map.put(77, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-        }));
-        map.put(41, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_CALL,
-        }));
-        map.put(42, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-        }));
-        map.put(44, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_IF,
-        }));
-        map.put(45, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_SCATTER,
-        }));
-        map.put(48, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_META,
-        }));
-        map.put(46, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_OUTPUT,
-        }));
-        map.put(47, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_PARAMETER_META,
-        }));
-        map.put(43, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_WHILE,
-        }));
-        map.put(70, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_META,
-        }));
-        map.put(62, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-        }));
-        map.put(63, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_FQN,
-        }));
-        map.put(64, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-        }));
-        map.put(68, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_DOT,
-        }));
-        map.put(67, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_FQN,
-        }));
-        map.put(61, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_OUTPUT,
-        }));
-        map.put(69, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_PARAMETER_META,
-        }));
-        map.put(71, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_WHILE,
-        }));
-        map.put(40, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_WORKFLOW,
-        }));
-        map.put(5, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_TYPE,
-            WdlTerminalIdentifier.TERMINAL_TYPE_E,
-        }));
-        map.put(4, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_TASK,
-        }));
-        map.put(3, Arrays.asList(new TerminalIdentifier[] {
-            WdlTerminalIdentifier.TERMINAL_WORKFLOW,
-        }));
-        rule_first = Collections.unmodifiableMap(map);
+        nonterminal_follow = WdlParserRuntime.unpackSets(terminal_map, 58,
+            "58=3;" +
+            "59=35,23,41,1,3,32;" +
+            "60=38,36,35,23,41,3,47,2,48,21;" +
+            "61=35,23,41,1,3,32;" +
+            "62=35,23,41,1,3,32;" +
+            "63=39,33,4,43,9,53,36,30,24,12,44,17,52,15,54;" +
+            "64=3;" +
+            "65=0,2,48,31;" +
+            "66=;" +
+            "67=35,23,41,1,3,32;" +
+            "68=13,53,5;" +
+            "69=;" +
+            "70=0,2,48,31;" +
+            "71=38,36,35,23,41,3,47,2,48,21;" +
+            "72=3,2,48;" +
+            "73=35,23,41,1,3,32;" +
+            "74=57,3,2,48;" +
+            "75=3;" +
+            "76=3;" +
+            "77=38,36,35,23,41,3,47,2,48,21;" +
+            "78=34,0,2,48,31;" +
+            "79=38,36,35,23,41,3,47,2,48,21;" +
+            "80=57,3,2,48;" +
+            "81=39,4,43,9,53,36,30,24,12,44,17,52,15,54;" +
+            "82=38,36,35,23,41,3,47,2,48,21;" +
+            "83=38,36,35,23,41,1,3,32,47,2,48,21;" +
+            "84=25,5;" +
+            "85=38,36,7,35,23,41,1,3,32,47,0,2,48,21,31;" +
+            "86=7,35,23,41,1,32;" +
+            "87=7,3;" +
+            "88=34,0,2,48,31;" +
+            "89=3;" +
+            "90=3;" +
+            "91=13,7,3;" +
+            "92=53,3;" +
+            "93=27,39,38,33,20,37,13,4,19,14,8,43,22,9,57,42,29,53,36,7,30,24,12,44,40,49,35,17,28,52,23,41,26,15,1,3,25,5,32,47,50,54,0,10,2,48,21,31;" +
+            "94=38,36,24,35,23,41,3,47,2,48,21;" +
+            "95=56,55,16;" +
+            "96=16;" +
+            "97=38,36,35,23,41,3,47,2,48,21;" +
+            "98=0,2,48,31;" +
+            "99=38,36,7,35,23,41,1,3,32,47,0,2,48,21,31;" +
+            "100=34,0,2,48,31;" +
+            "101=57,3,2,48;" +
+            "102=38,36,35,23,41,3,47,2,48,21;" +
+            "103=3;" +
+            "104=13,3;" +
+            "105=5;" +
+            "106=35,23,41,1,3,32;" +
+            "107=38,36,24,35,23,41,3,47,2,48,21;" +
+            "108=3;" +
+            "109=38,36,35,23,41,3,47,2,48,21;" +
+            "110=38,36,7,35,23,41,1,3,32,47,0,2,48,21,31;" +
+            "111=57,3,2,48;" +
+            "112=7,3;" +
+            "113=0,2,48,31;" +
+            "114=38,36,35,23,41,3,47,2,48,21;" +
+            "115=13,3;" +
+            "116=57,3,2,48;" +
+            "117=56,55,16;" +
+            "118=38,36,35,23,41,3,47,2,48,21"
+        );
     }
     static {
-        Map<Integer, List<String>> map = new HashMap<Integer, List<String>>();
-        map.put(98, new ArrayList<String>());
-        map.put(69, new ArrayList<String>());
-        map.put(76, new ArrayList<String>());
-        map.put(107, new ArrayList<String>());
-        map.put(97, new ArrayList<String>());
-        map.put(90, new ArrayList<String>());
-        map.put(112, new ArrayList<String>());
-        map.put(108, new ArrayList<String>());
-        map.put(111, new ArrayList<String>());
-        map.put(105, new ArrayList<String>());
-        map.put(84, new ArrayList<String>());
-        map.put(75, new ArrayList<String>());
-        map.put(100, new ArrayList<String>());
-        map.put(103, new ArrayList<String>());
-        map.put(86, new ArrayList<String>());
-        map.put(58, new ArrayList<String>());
-        map.put(96, new ArrayList<String>());
-        map.put(81, new ArrayList<String>());
-        map.put(64, new ArrayList<String>());
-        map.put(89, new ArrayList<String>());
-        map.put(85, new ArrayList<String>());
-        map.put(94, new ArrayList<String>());
-        map.put(114, new ArrayList<String>());
-        map.put(82, new ArrayList<String>());
-        map.put(87, new ArrayList<String>());
-        map.put(95, new ArrayList<String>());
-        map.put(63, new ArrayList<String>());
-        map.put(62, new ArrayList<String>());
-        map.put(117, new ArrayList<String>());
-        map.put(99, new ArrayList<String>());
-        map.put(66, new ArrayList<String>());
-        map.put(93, new ArrayList<String>());
-        map.put(102, new ArrayList<String>());
-        map.put(78, new ArrayList<String>());
-        map.put(88, new ArrayList<String>());
-        map.put(92, new ArrayList<String>());
-        map.put(83, new ArrayList<String>());
-        map.put(115, new ArrayList<String>());
-        map.put(91, new ArrayList<String>());
-        map.put(67, new ArrayList<String>());
-        map.put(104, new ArrayList<String>());
-        map.put(72, new ArrayList<String>());
-        map.put(73, new ArrayList<String>());
-        map.put(61, new ArrayList<String>());
-        map.put(59, new ArrayList<String>());
-        map.put(60, new ArrayList<String>());
-        map.put(106, new ArrayList<String>());
-        map.put(110, new ArrayList<String>());
-        map.put(70, new ArrayList<String>());
-        map.put(68, new ArrayList<String>());
-        map.put(71, new ArrayList<String>());
-        map.put(109, new ArrayList<String>());
-        map.put(74, new ArrayList<String>());
-        map.put(80, new ArrayList<String>());
-        map.put(116, new ArrayList<String>());
-        map.put(101, new ArrayList<String>());
-        map.put(118, new ArrayList<String>());
-        map.put(79, new ArrayList<String>());
-        map.put(77, new ArrayList<String>());
-        map.put(113, new ArrayList<String>());
-        map.put(65, new ArrayList<String>());
-        map.get(98).add("$_gen0 = list($import)");
-        map.get(69).add("$_gen1 = list($workflow_or_task_or_decl)");
-        map.get(76).add("$_gen10 = list($wf_body_element)");
-        map.get(107).add("$_gen11 = $alias");
-        map.get(107).add("$_gen11 = :_empty");
-        map.get(97).add("$_gen12 = $call_body");
-        map.get(97).add("$_gen12 = :_empty");
-        map.get(90).add("$_gen13 = list($call_input)");
-        map.get(112).add("$_gen14 = list($mapping, :comma)");
-        map.get(108).add("$_gen15 = list($wf_output)");
-        map.get(111).add("$_gen16 = $wf_output_wildcard");
-        map.get(111).add("$_gen16 = :_empty");
-        map.get(105).add("$_gen17 = list($type_e, :comma)");
-        map.get(84).add("$_gen18 = list($e, :comma)");
-        map.get(75).add("$_gen19 = list($object_kv, :comma)");
-        map.get(100).add("$_gen2 = $import_namespace");
-        map.get(100).add("$_gen2 = :_empty");
-        map.get(103).add("$_gen20 = list($map_kv, :comma)");
-        map.get(86).add("$_gen3 = list($declaration)");
-        map.get(58).add("$_gen4 = list($sections)");
-        map.get(96).add("$_gen5 = list($command_part)");
-        map.get(81).add("$_gen6 = list($cmd_param_kv)");
-        map.get(64).add("$_gen7 = list($output_kv)");
-        map.get(89).add("$_gen8 = list($kv)");
-        map.get(85).add("$_gen9 = $setter");
-        map.get(85).add("$_gen9 = :_empty");
-        map.get(94).add("$alias = :as :identifier -> $1");
-        map.get(114).add("$call = :call :fqn $_gen11 $_gen12 -> Call( task=$1, alias=$2, body=$3 )");
-        map.get(82).add("$call_body = :lbrace $_gen3 $_gen13 :rbrace -> CallBody( declarations=$1, io=$2 )");
-        map.get(87).add("$call_input = :input :colon $_gen14 -> Inputs( map=$2 )");
-        map.get(95).add("$cmd_param = :cmd_param_start $_gen6 $e :cmd_param_end -> CommandParameter( attributes=$1, expr=$2 )");
-        map.get(63).add("$cmd_param_kv = :cmd_attr_hint :identifier :equal $e -> CommandParameterAttr( key=$1, value=$3 )");
-        map.get(62).add("$command = :raw_command :raw_cmd_start $_gen5 :raw_cmd_end -> RawCommand( parts=$2 )");
-        map.get(117).add("$command_part = $cmd_param");
-        map.get(117).add("$command_part = :cmd_part");
-        map.get(99).add("$declaration = $type_e :identifier $_gen9 -> Declaration( type=$0, name=$1, expression=$2 )");
-        map.get(66).add("$document = $_gen0 $_gen1 -> Namespace( imports=$0, body=$1 )");
-        map.get(93).add("$e = $e :asterisk $e -> Multiply( lhs=$0, rhs=$2 )");
-        map.get(93).add("$e = $e :dash $e -> Subtract( lhs=$0, rhs=$2 )");
-        map.get(93).add("$e = $e :double_ampersand $e -> LogicalAnd( lhs=$0, rhs=$2 )");
-        map.get(93).add("$e = $e :double_equal $e -> Equals( lhs=$0, rhs=$2 )");
-        map.get(93).add("$e = $e :double_pipe $e -> LogicalOr( lhs=$0, rhs=$2 )");
-        map.get(93).add("$e = $e :gt $e -> GreaterThan( lhs=$0, rhs=$2 )");
-        map.get(93).add("$e = $e :gteq $e -> GreaterThanOrEqual( lhs=$0, rhs=$2 )");
-        map.get(93).add("$e = $e :lt $e -> LessThan( lhs=$0, rhs=$2 )");
-        map.get(93).add("$e = $e :lteq $e -> LessThanOrEqual( lhs=$0, rhs=$2 )");
-        map.get(93).add("$e = $e :not_equal $e -> NotEquals( lhs=$0, rhs=$2 )");
-        map.get(93).add("$e = $e :percent $e -> Remainder( lhs=$0, rhs=$2 )");
-        map.get(93).add("$e = $e :plus $e -> Add( lhs=$0, rhs=$2 )");
-        map.get(93).add("$e = $e :slash $e -> Divide( lhs=$0, rhs=$2 )");
-        map.get(93).add("$e = :boolean");
-        map.get(93).add("$e = :dash $e -> UnaryNegation( expression=$1 )");
-        map.get(93).add("$e = :float");
-        map.get(93).add("$e = :identifier");
-        map.get(93).add("$e = :identifier <=> :dot :identifier -> MemberAccess( lhs=$0, rhs=$2 )");
-        map.get(93).add("$e = :identifier <=> :lparen $_gen18 :rparen -> FunctionCall( name=$0, params=$2 )");
-        map.get(93).add("$e = :identifier <=> :lsquare $e :rsquare -> ArrayOrMapLookup( lhs=$0, rhs=$2 )");
-        map.get(93).add("$e = :if $e :then $e :else $e -> TernaryIf( cond=$1, iftrue=$3, iffalse=$5 )");
-        map.get(93).add("$e = :integer");
-        map.get(93).add("$e = :lbrace $_gen20 :rbrace -> MapLiteral( map=$1 )");
-        map.get(93).add("$e = :lparen $_gen18 :rparen -> TupleLiteral( values=$1 )");
-        map.get(93).add("$e = :lsquare $_gen18 :rsquare -> ArrayLiteral( values=$1 )");
-        map.get(93).add("$e = :not $e -> LogicalNot( expression=$1 )");
-        map.get(93).add("$e = :object :lbrace $_gen19 :rbrace -> ObjectLiteral( map=$2 )");
-        map.get(93).add("$e = :plus $e -> UnaryPlus( expression=$1 )");
-        map.get(93).add("$e = :string");
-        map.get(102).add("$if_stmt = :if :lparen $e :rparen :lbrace $_gen10 :rbrace -> If( expression=$2, body=$5 )");
-        map.get(78).add("$import = :import :string $_gen2 -> Import( uri=$1, namespace=$2 )");
-        map.get(88).add("$import_namespace = :as :identifier -> $1");
-        map.get(92).add("$kv = :identifier :colon $e -> RuntimeAttribute( key=$0, value=$2 )");
-        map.get(83).add("$map = :lbrace $_gen8 :rbrace -> $1");
-        map.get(115).add("$map_kv = $e :colon $e -> MapLiteralKv( key=$0, value=$2 )");
-        map.get(91).add("$mapping = :identifier :equal $e -> IOMapping( key=$0, value=$2 )");
-        map.get(67).add("$meta = :meta $map -> Meta( map=$1 )");
-        map.get(104).add("$object_kv = :identifier :colon $e -> ObjectKV( key=$0, value=$2 )");
-        map.get(72).add("$output_kv = $type_e :identifier :equal $e -> Output( type=$0, name=$1, expression=$3 )");
-        map.get(73).add("$outputs = :output :lbrace $_gen7 :rbrace -> Outputs( attributes=$2 )");
-        map.get(61).add("$parameter_meta = :parameter_meta $map -> ParameterMeta( map=$1 )");
-        map.get(59).add("$runtime = :runtime $map -> Runtime( map=$1 )");
-        map.get(60).add("$scatter = :scatter :lparen :identifier :in $e :rparen :lbrace $_gen10 :rbrace -> Scatter( item=$2, collection=$4, body=$7 )");
-        map.get(106).add("$sections = $command");
-        map.get(106).add("$sections = $meta");
-        map.get(106).add("$sections = $outputs");
-        map.get(106).add("$sections = $parameter_meta");
-        map.get(106).add("$sections = $runtime");
-        map.get(110).add("$setter = :equal $e -> $1");
-        map.get(70).add("$task = :task :identifier :lbrace $_gen3 $_gen4 :rbrace -> Task( name=$1, declarations=$3, sections=$4 )");
-        map.get(68).add("$type_e = :type");
-        map.get(68).add("$type_e = :type <=> :lsquare $_gen17 :rsquare -> Type( name=$0, subtype=$2 )");
-        map.get(68).add("$type_e = :type <=> :plus -> NonEmptyType( innerType=$0 )");
-        map.get(68).add("$type_e = :type <=> :qmark -> OptionalType( innerType=$0 )");
-        map.get(71).add("$wf_body_element = $call");
-        map.get(71).add("$wf_body_element = $declaration");
-        map.get(71).add("$wf_body_element = $if_stmt");
-        map.get(71).add("$wf_body_element = $scatter");
-        map.get(71).add("$wf_body_element = $wf_meta");
-        map.get(71).add("$wf_body_element = $wf_outputs");
-        map.get(71).add("$wf_body_element = $wf_parameter_meta");
-        map.get(71).add("$wf_body_element = $while_loop");
-        map.get(109).add("$wf_meta = :meta $map -> Meta( map=$1 )");
-        map.get(74).add("$wf_output = $wf_output_declaration_syntax");
-        map.get(74).add("$wf_output = $wf_output_wildcard_syntax");
-        map.get(80).add("$wf_output_declaration_syntax = $type_e :identifier :equal $e -> WorkflowOutputDeclaration( type=$0, name=$1, expression=$3 )");
-        map.get(116).add("$wf_output_wildcard = :dot :asterisk -> $1");
-        map.get(101).add("$wf_output_wildcard_syntax = :fqn $_gen16 -> WorkflowOutputWildcard( fqn=$0, wildcard=$1 )");
-        map.get(118).add("$wf_outputs = :output :lbrace $_gen15 :rbrace -> WorkflowOutputs( outputs=$2 )");
-        map.get(79).add("$wf_parameter_meta = :parameter_meta $map -> ParameterMeta( map=$1 )");
-        map.get(77).add("$while_loop = :while :lparen $e :rparen :lbrace $_gen10 :rbrace -> WhileLoop( expression=$2, body=$5 )");
-        map.get(113).add("$workflow = :workflow :identifier :lbrace $_gen10 :rbrace -> Workflow( name=$1, body=$3 )");
-        map.get(65).add("$workflow_or_task_or_decl = $declaration");
-        map.get(65).add("$workflow_or_task_or_decl = $task");
-        map.get(65).add("$workflow_or_task_or_decl = $workflow");
-        nonterminal_rules = Collections.unmodifiableMap(map);
+        rule_first = WdlParserRuntime.unpackSets(terminal_map, 58,
+            "0=34;" +
+            "1=0,2,48,31;" +
+            "2=34,0,2,48,31;" +
+            "3=31;" +
+            "4=0;" +
+            "5=2,48;" +
+            "6=46;" +
+            "7=;" +
+            "8=34;" +
+            "9=46;" +
+            "10=2,48;" +
+            "11=35,23,41,1,32;" +
+            "12=0;" +
+            "13=1;" +
+            "14=23;" +
+            "15=32;" +
+            "16=41;" +
+            "17=35;" +
+            "18=56,55;" +
+            "19=1;" +
+            "20=55;" +
+            "21=56;" +
+            "22=33;" +
+            "23=56;" +
+            "24=33;" +
+            "25=2,48;" +
+            "26=23;" +
+            "27=2,48;" +
+            "28=32;" +
+            "29=41;" +
+            "30=35;" +
+            "31=53;" +
+            "32=24;" +
+            "33=53;" +
+            "34=51;" +
+            "35=;" +
+            "36=2,48;" +
+            "37=51;" +
+            "38=39,4,43,9,53,36,30,24,12,44,17,52,15,54;" +
+            "39=38,36,35,23,41,47,2,48,21;" +
+            "40=31;" +
+            "41=38;" +
+            "42=2,48;" +
+            "43=21;" +
+            "44=36;" +
+            "45=47;" +
+            "46=23;" +
+            "47=41;" +
+            "48=35;" +
+            "49=46;" +
+            "50=;" +
+            "51=24;" +
+            "52=;" +
+            "53=38;" +
+            "54=7;" +
+            "55=24;" +
+            "56=53;" +
+            "57=7;" +
+            "58=53;" +
+            "59=46;" +
+            "60=57,2,48;" +
+            "61=23;" +
+            "62=2,48;" +
+            "63=57;" +
+            "64=2,48;" +
+            "65=45;" +
+            "66=;" +
+            "67=57;" +
+            "68=45;" +
+            "69=41;" +
+            "70=35;" +
+            "71=21;" +
+            "72=36;" +
+            "73=47;" +
+            "74=53;" +
+            "75=2,48;" +
+            "76=2;" +
+            "77=2;" +
+            "78=2;" +
+            "79=2;" +
+            "80=39,4,43,9,53,36,30,24,12,44,17,52,15,54;" +
+            "81=39,4,43,9,53,36,30,24,12,44,17,52,15,54;" +
+            "82=39,4,43,9,53,36,30,24,12,44,17,52,15,54;" +
+            "83=39,4,43,9,53,36,30,24,12,44,17,52,15,54;" +
+            "84=39,4,43,9,53,36,30,24,12,44,17,52,15,54;" +
+            "85=39,4,43,9,53,36,30,24,12,44,17,52,15,54;" +
+            "86=39,4,43,9,53,36,30,24,12,44,17,52,15,54;" +
+            "87=39,4,43,9,53,36,30,24,12,44,17,52,15,54;" +
+            "88=39,4,43,9,53,36,30,24,12,44,17,52,15,54;" +
+            "89=39,4,43,9,53,36,30,24,12,44,17,52,15,54;" +
+            "90=39,4,43,9,53,36,30,24,12,44,17,52,15,54;" +
+            "91=39,4,43,9,53,36,30,24,12,44,17,52,15,54;" +
+            "92=39,4,43,9,53,36,30,24,12,44,17,52,15,54;" +
+            "93=17;" +
+            "94=15;" +
+            "95=4;" +
+            "96=39,4,43,9,53,36,30,24,12,44,17,52,15,54;" +
+            "97=53;" +
+            "98=53;" +
+            "99=53;" +
+            "100=53;" +
+            "101=52;" +
+            "102=44;" +
+            "103=39,4,43,9,53,36,30,24,12,44,17,52,15,54;" +
+            "104=24;" +
+            "105=12;" +
+            "106=36;" +
+            "107=54;" +
+            "108=53;" +
+            "109=39;" +
+            "110=30;" +
+            "111=9"
+        );
     }
     static {
         Map<Integer, String> map = new HashMap<Integer, String>();
@@ -2298,6 +1162,76 @@ public class WdlParser {
         map.put(new Integer(3), "$workflow_or_task_or_decl = $workflow");
         rules = Collections.unmodifiableMap(map);
     }
+    /* nonterminal_rules[nonterminal] = rules, packed as ids in order of their text */
+    static {
+        String[] text = new String[rules.size()];
+        for (Map.Entry<Integer, String> rule : rules.entrySet()) {
+            text[rule.getKey()] = rule.getValue();
+        }
+        nonterminal_rules = WdlParserRuntime.unpackLists(text,
+            "58=11;" +
+            "59=28;" +
+            "60=73;" +
+            "61=29;" +
+            "62=19;" +
+            "63=24;" +
+            "64=25;" +
+            "65=5,4,3;" +
+            "66=2;" +
+            "67=30;" +
+            "68=79,76,78,77;" +
+            "69=1;" +
+            "70=12;" +
+            "71=41,42,44,45,48,46,47,43;" +
+            "72=27;" +
+            "73=26;" +
+            "74=62,63;" +
+            "75=100;" +
+            "76=39;" +
+            "77=71;" +
+            "78=8;" +
+            "79=69;" +
+            "80=64;" +
+            "81=22;" +
+            "82=55;" +
+            "83=32;" +
+            "84=96;" +
+            "85=34,35;" +
+            "86=10;" +
+            "87=57;" +
+            "88=9;" +
+            "89=31;" +
+            "90=54;" +
+            "91=58;" +
+            "92=33;" +
+            "93=90,89,81,82,80,86,87,84,85,83,92,88,91,109,95,111,108,99,97,98,106,110,104,105,102,93,101,94,107;" +
+            "94=59;" +
+            "95=23;" +
+            "96=18;" +
+            "97=51,52;" +
+            "98=0;" +
+            "99=36;" +
+            "100=6,7;" +
+            "101=67;" +
+            "102=72;" +
+            "103=103;" +
+            "104=74;" +
+            "105=75;" +
+            "106=13,17,14,16,15;" +
+            "107=49,50;" +
+            "108=60;" +
+            "109=70;" +
+            "110=37;" +
+            "111=65,66;" +
+            "112=56;" +
+            "113=40;" +
+            "114=53;" +
+            "115=38;" +
+            "116=68;" +
+            "117=21,20;" +
+            "118=61"
+        );
+    }
     public static boolean is_terminal(int id) {
         return 0 <= id && id <= 57;
     }
@@ -2308,8 +1242,14 @@ public class WdlParser {
         return parse(new TokenStream(tokens));
     }
     public ParseTree parse(TokenStream tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(tokens, error_formatter);
-        ParseTree tree = parse_document(ctx);
+        ParserContext ctx = context(tokens, error_formatter);
+        ParseTree tree;
+        try {
+            tree = parse_document(ctx);
+        } catch (StackOverflowError e) {
+            /* Nesting other than in expressions, such as of if and scatter blocks, still recurses. */
+            throw new SyntaxError("Document is nested too deeply to parse");
+        }
         if (ctx.tokens.current() != null) {
             StackTraceElement[] stack = Thread.currentThread().getStackTrace();
             throw new SyntaxError(ctx.error_formatter.excessTokens(stack[1].getMethodName(), ctx.tokens.current()));
@@ -2319,6 +1259,52 @@ public class WdlParser {
     public ParseTree parse(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
         return parse(new TokenStream(tokens), error_formatter);
     }
+    /**
+     * Parse a document into its Namespace Ast, leaving each top-level task and workflow
+     * as a LazyAst that is parsed on first use.  Imports and top-level declarations are
+     * parsed now.  Syntax errors in tasks and workflows are only found when they are used,
+     * or by validate().
+     */
+    public Ast parseLazy(List<Terminal> tokens) throws SyntaxError {
+        return parseLazy(tokens, new DefaultSyntaxErrorFormatter());
+    }
+    public Ast parseLazy(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
+        return WdlParserRuntime.parseLazy(this, tokens, error_formatter);
+    }
+    /* Parse the tokens of a top-level Task or Workflow, for WdlParserRuntime.LazyAst. */
+    Ast parse_definition(String name, List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
+        ParseTree tree;
+        try {
+            tree = name.equals("Task") ? parse_task(ctx) : parse_workflow(ctx);
+        } catch (StackOverflowError e) {
+            throw new SyntaxError(name + " is nested too deeply to parse");
+        }
+        if (ctx.tokens.current() != null) {
+            throw new SyntaxError(ctx.error_formatter.excessTokens(ctx.nonterminal, ctx.tokens.current()));
+        }
+        try {
+            return (Ast) tree.toAst();
+        } catch (IndexOutOfBoundsException e) {
+            /* The tokens ran out part way, leaving the tree incomplete. */
+            throw new SyntaxError(ctx.error_formatter.unexpectedEof(ctx.nonterminal, new ArrayList<TerminalIdentifier>(), new ArrayList<String>()));
+        }
+    }
+    /**
+     * Parse a document as parse() does, but parse its top-level tasks and workflows in
+     * parallel on pool.  The result equals parse(tokens).toAst(), and a syntax error is
+     * the one parse() would throw.
+     */
+    public Ast parseParallel(List<Terminal> tokens) throws SyntaxError {
+        return parseParallel(tokens, new DefaultSyntaxErrorFormatter(), ForkJoinPool.commonPool());
+    }
+    public Ast parseParallel(List<Terminal> tokens, SyntaxErrorFormatter error_formatter, ForkJoinPool pool) throws SyntaxError {
+        return WdlParserRuntime.parseParallel(this, tokens, error_formatter, pool);
+    }
+    /* Expand every LazyAst in tree, throwing the first syntax error in them. */
+    public static void validate(AstNode tree) throws SyntaxError {
+        WdlParserRuntime.validate(tree);
+    }
     private static Terminal expect(ParserContext ctx, TerminalIdentifier expecting) throws SyntaxError {
         Terminal current = ctx.tokens.current();
         if (current == null) {
@@ -2333,10 +1319,13 @@ public class WdlParser {
         if ( next != null && !is_terminal(next.getId()) ) {
             throw new SyntaxError(ctx.error_formatter.invalidTerminal(ctx.nonterminal, next));
         }
+        if (ctx.deadline != 0 && (++ctx.ticks & 1023) == 0 && System.nanoTime() - ctx.deadline > 0) {
+            throw new SyntaxError("Timed out parsing at line " + current.getLine() + ", column " + current.getColumn());
+        }
         return current;
     }
-    private static Map<Integer, Integer> infix_binding_power_e;
-    private static Map<Integer, Integer> prefix_binding_power_e;
+    static Map<Integer, Integer> infix_binding_power_e;
+    static Map<Integer, Integer> prefix_binding_power_e;
     static {
         Map<Integer, Integer> map = new HashMap<Integer, Integer>();
         map.put(8, 4000); /* $e = $e :double_pipe $e -> LogicalOr( lhs=$0, rhs=$2 ) */
@@ -2377,27 +1366,199 @@ public class WdlParser {
         return 0;
     }
     public ParseTree parse_e(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse_e_internal(ctx, 0);
     }
+    public ParseTree parse_e(TokenStream tokens) throws SyntaxError {
+        return parse_e_internal(context(tokens, new DefaultSyntaxErrorFormatter()), 0);
+    }
     public static ParseTree parse_e(ParserContext ctx) throws SyntaxError {
         return parse_e_internal(ctx, 0);
     }
-    public static ParseTree parse_e_internal(ParserContext ctx, int rbp) throws SyntaxError {
-        ParseTree left = nud_e(ctx);
-        if ( left instanceof ParseTree ) {
-            left.setExpr(true);
-            left.setNud(true);
+    /*
+     * Expressions are parsed with an explicit stack of frames instead of by recursion
+     * between parse_e_internal, nud_e and led_e, so that long operator chains and deeply
+     * nested expressions cost heap rather than the thread's stack.  nud_e and led_e parse
+     * a rule up to its first nested expression or list and push a frame for the rest.
+     * A frame is resumed with the tree of each frame it pushed once that one is done, and
+     * the tokens are consumed, and ctx.nonterminal and ctx.rule set, in the same order as
+     * the recursive parser did, so that syntax errors read the same.
+     */
+    private static abstract class ExpressionFrame {
+        /* Continue with child, the tree of the frame this one pushed, or null at first; returns this frame's tree, or null after pushing another frame. */
+        abstract ParseTree resume(ParserContext ctx, List<ExpressionFrame> stack, ParseTree child) throws SyntaxError;
+    }
+    /*
+     * One parse_e_internal(rbp): a nud, then leds while the next operator binds tighter
+     * than rbp.  When the expression is an operator's last morpheme, such as a prefix or
+     * infix operator's operand, it is added to the operator's tree, which is returned.
+     */
+    private static class PrattFrame extends ExpressionFrame {
+        private final int rbp;
+        private final ParseTree operator;
+        private ParseTree left;
+        private boolean started;
+        PrattFrame(int rbp, ParseTree operator) {
+            this.rbp = rbp;
+            this.operator = operator;
+        }
+        ParseTree resume(ParserContext ctx, List<ExpressionFrame> stack, ParseTree child) throws SyntaxError {
+            if (!this.started) {
+                this.started = true;
+                child = nud_e(ctx, stack);
+                if (child == null) {
+                    return null;
+                }
+            }
+            if (this.left == null) {
+                child.setExpr(true);
+                child.setNud(true);
+            }
+            this.left = child;
+            while (ctx.tokens.current() != null && this.rbp < get_infix_binding_power_e(ctx.tokens.current().getId())) {
+                ParseTree tree = led_e(this.left, ctx, stack);
+                if (tree == null) {
+                    return null;
+                }
+                this.left = tree;
+            }
+            this.left.setExpr(true);
+            ctx.depth--;
+            if (this.operator != null) {
+                this.operator.add(this.left);
+                return this.operator;
+            }
+            return this.left;
+        }
+    }
+    /* Marks where a RuleFrame parses an expression, at the frame's binding power. */
+    private static final Object EXPRESSION = new Object();
+    /* The rest of a rule: expressions, lists as a ListFrame to push, and terminals. */
+    private static class RuleFrame extends ExpressionFrame {
+        private final ParseTree tree;
+        private final int rbp;
+        private final Object[] morphemes;
+        private int next;
+        RuleFrame(ParseTree tree, int rbp, Object[] morphemes) {
+            this.tree = tree;
+            this.rbp = rbp;
+            this.morphemes = morphemes;
+        }
+        ParseTree resume(ParserContext ctx, List<ExpressionFrame> stack, ParseTree child) throws SyntaxError {
+            if (child != null) {
+                this.tree.add(child);
+            }
+            while (this.next < this.morphemes.length) {
+                Object morpheme = this.morphemes[this.next++];
+                if (morpheme == EXPRESSION) {
+                    push_e(ctx, stack, this.rbp, null);
+                    return null;
+                } else if (morpheme instanceof ListFrame) {
+                    stack.add((ListFrame) morpheme);
+                    return null;
+                }
+                this.tree.add(expect(ctx, (TerminalIdentifier) morpheme));
+            }
+            return this.tree;
         }
-        while (ctx.tokens.current() != null && rbp < get_infix_binding_power_e(ctx.tokens.current().getId())) {
-            left = led_e(left, ctx);
+    }
+    /* $_gen18, $_gen19 or $_gen20, a list of $e, $object_kv or $map_kv, as parse__gen18, 19 and 20 parse them. */
+    private static class ListFrame extends ExpressionFrame {
+        private final int id;
+        private final String name;
+        private final ParseTree tree;
+        ListFrame(int id, String name) {
+            this.id = id;
+            this.name = name;
+            this.tree = new ParseTree(new NonTerminal(id, name));
+            this.tree.setList(true);
+            this.tree.setListSeparator(13);
+        }
+        ParseTree resume(ParserContext ctx, List<ExpressionFrame> stack, ParseTree child) throws SyntaxError {
+            Terminal current = ctx.tokens.current();
+            ctx.nonterminal = this.name;
+            if (child == null) {
+                if (current == null || (!nonterminal_first.get(this.id).contains(terminal_map.get(current.getId())) &&
+                        nonterminal_follow.get(this.id).contains(terminal_map.get(current.getId())))) {
+                    return this.tree;
+                }
+            } else {
+                this.tree.add(child);
+                if (current == null || current.getId() != WdlTerminalIdentifier.TERMINAL_COMMA.id()) {
+                    return this.tree;
+                }
+                this.tree.add(expect(ctx, WdlTerminalIdentifier.TERMINAL_COMMA));
+                current = ctx.tokens.current();
+            }
+            if (current == null || !nonterminal_first.get(this.id).contains(terminal_map.get(current.getId()))) {
+                return this.tree;
+            }
+            if (this.id == 84) {
+                push_e(ctx, stack, 0, null);
+            } else if (this.id == 75) {
+                /* $object_kv = :identifier :colon $e -> ObjectKV( key=$0, value=$2 ) */
+                ParseTree kv = new ParseTree(new NonTerminal(104, "object_kv"));
+                ctx.nonterminal = "object_kv";
+                ctx.rule = rules.get(74);
+                LinkedHashMap<String, Integer> parameters = new LinkedHashMap<String, Integer>();
+                parameters.put("key", 0);
+                parameters.put("value", 2);
+                kv.setAstTransformation(new AstTransformNodeCreator("ObjectKV", parameters));
+                rule(stack, kv, 0, WdlTerminalIdentifier.TERMINAL_IDENTIFIER, WdlTerminalIdentifier.TERMINAL_COLON, EXPRESSION);
+            } else {
+                /* $map_kv = $e :colon $e -> MapLiteralKv( key=$0, value=$2 ) */
+                ParseTree kv = new ParseTree(new NonTerminal(115, "map_kv"));
+                ctx.nonterminal = "map_kv";
+                ctx.rule = rules.get(38);
+                LinkedHashMap<String, Integer> parameters = new LinkedHashMap<String, Integer>();
+                parameters.put("key", 0);
+                parameters.put("value", 2);
+                kv.setAstTransformation(new AstTransformNodeCreator("MapLiteralKv", parameters));
+                rule(stack, kv, 0, EXPRESSION, WdlTerminalIdentifier.TERMINAL_COLON, EXPRESSION);
+            }
+            return null;
         }
-        if (left != null) {
-            left.setExpr(true);
+    }
+    /* Finish tree's rule with morphemes, expressions at rbp, in a new frame; null, for nud_e and led_e to return. */
+    private static ParseTree rule(List<ExpressionFrame> stack, ParseTree tree, int rbp, Object... morphemes) {
+        stack.add(new RuleFrame(tree, rbp, morphemes));
+        return null;
+    }
+    /* Finish operator with its operand, an expression at rbp; null, for nud_e and led_e to return. */
+    private static ParseTree operand(ParserContext ctx, List<ExpressionFrame> stack, ParseTree operator, int rbp) throws SyntaxError {
+        push_e(ctx, stack, rbp, operator);
+        return null;
+    }
+    private static void push_e(ParserContext ctx, List<ExpressionFrame> stack, int rbp, ParseTree operator) throws SyntaxError {
+        if (ctx.max_depth > 0 && ctx.depth >= ctx.max_depth) {
+            Terminal current = ctx.tokens.current() != null ? ctx.tokens.current() : ctx.tokens.last();
+            throw new SyntaxError("Expression nested more than " + ctx.max_depth + " deep at line " + current.getLine() + ", column " + current.getColumn());
         }
-        return left;
+        ctx.depth++;
+        stack.add(new PrattFrame(rbp, operator));
     }
-    private static ParseTree nud_e(ParserContext ctx) throws SyntaxError {
+    public static ParseTree parse_e_internal(ParserContext ctx, int rbp) throws SyntaxError {
+        List<ExpressionFrame> stack = new ArrayList<ExpressionFrame>();
+        int depth = ctx.depth;
+        try {
+            push_e(ctx, stack, rbp, null);
+            ParseTree child = null;
+            while (true) {
+                ParseTree tree = stack.get(stack.size() - 1).resume(ctx, stack, child);
+                child = null;
+                if (tree != null) {
+                    stack.remove(stack.size() - 1);
+                    if (stack.isEmpty()) {
+                        return tree;
+                    }
+                    child = tree;
+                }
+            }
+        } finally {
+            ctx.depth = depth;
+        }
+    }
+    private static ParseTree nud_e(ParserContext ctx, List<ExpressionFrame> stack) throws SyntaxError {
         ParseTree tree = new ParseTree( new NonTerminal(93, "e") );
         Terminal current = ctx.tokens.current();
         ctx.nonterminal = "e";
@@ -2412,8 +1573,8 @@ public class WdlParser {
             tree.setAstTransformation(new AstTransformNodeCreator("LogicalNot", parameters));
             tree.setNudMorphemeCount(2);
             tree.add(expect(ctx, WdlTerminalIdentifier.TERMINAL_NOT));
-            tree.add(parse_e_internal(ctx, get_prefix_binding_power_e(17)));
             tree.setPrefix(true);
+            return operand(ctx, stack, tree, get_prefix_binding_power_e(17));
         }
         else if (rule_first.get(94).contains(terminal_map.get(current.getId()))) {
             /* (94) $e = :plus $e -> UnaryPlus( expression=$1 ) */
@@ -2423,8 +1584,8 @@ public class WdlParser {
             tree.setAstTransformation(new AstTransformNodeCreator("UnaryPlus", parameters));
             tree.setNudMorphemeCount(2);
             tree.add(expect(ctx, WdlTerminalIdentifier.TERMINAL_PLUS));
-            tree.add(parse_e_internal(ctx, get_prefix_binding_power_e(15)));
             tree.setPrefix(true);
+            return operand(ctx, stack, tree, get_prefix_binding_power_e(15));
         }
         else if (rule_first.get(95).contains(terminal_map.get(current.getId()))) {
             /* (95) $e = :dash $e -> UnaryNegation( expression=$1 ) */
@@ -2434,8 +1595,8 @@ public class WdlParser {
             tree.setAstTransformation(new AstTransformNodeCreator("UnaryNegation", parameters));
             tree.setNudMorphemeCount(2);
             tree.add(expect(ctx, WdlTerminalIdentifier.TERMINAL_DASH));
-            tree.add(parse_e_internal(ctx, get_prefix_binding_power_e(4)));
             tree.setPrefix(true);
+            return operand(ctx, stack, tree, get_prefix_binding_power_e(4));
         }
         else if (rule_first.get(97).contains(terminal_map.get(current.getId()))) {
             /* (97) $e = :identifier <=> :lparen $_gen18 :rparen -> FunctionCall( name=$0, params=$2 ) */
@@ -2467,8 +1628,7 @@ public class WdlParser {
             tree.setNudMorphemeCount(4);
             tree.add(expect(ctx, WdlTerminalIdentifier.TERMINAL_OBJECT));
             tree.add(expect(ctx, WdlTerminalIdentifier.TERMINAL_LBRACE));
-            tree.add(parse__gen19(ctx));
-            tree.add(expect(ctx, WdlTerminalIdentifier.TERMINAL_RBRACE));
+            return rule(stack, tree, 0, new ListFrame(75, "_gen19"), WdlTerminalIdentifier.TERMINAL_RBRACE);
         }
         else if (rule_first.get(102).contains(terminal_map.get(current.getId()))) {
             /* (102) $e = :lsquare $_gen18 :rsquare -> ArrayLiteral( values=$1 ) */
@@ -2478,8 +1638,7 @@ public class WdlParser {
             tree.setAstTransformation(new AstTransformNodeCreator("ArrayLiteral", parameters));
             tree.setNudMorphemeCount(3);
             tree.add(expect(ctx, WdlTerminalIdentifier.TERMINAL_LSQUARE));
-            tree.add(parse__gen18(ctx));
-            tree.add(expect(ctx, WdlTerminalIdentifier.TERMINAL_RSQUARE));
+            return rule(stack, tree, 0, new ListFrame(84, "_gen18"), WdlTerminalIdentifier.TERMINAL_RSQUARE);
         }
         else if (rule_first.get(104).contains(terminal_map.get(current.getId()))) {
             /* (104) $e = :lbrace $_gen20 :rbrace -> MapLiteral( map=$1 ) */
@@ -2489,8 +1648,7 @@ public class WdlParser {
             tree.setAstTransformation(new AstTransformNodeCreator("MapLiteral", parameters));
             tree.setNudMorphemeCount(3);
             tree.add(expect(ctx, WdlTerminalIdentifier.TERMINAL_LBRACE));
-            tree.add(parse__gen20(ctx));
-            tree.add(expect(ctx, WdlTerminalIdentifier.TERMINAL_RBRACE));
+            return rule(stack, tree, 0, new ListFrame(103, "_gen20"), WdlTerminalIdentifier.TERMINAL_RBRACE);
         }
         else if (rule_first.get(105).contains(terminal_map.get(current.getId()))) {
             /* (105) $e = :lparen $_gen18 :rparen -> TupleLiteral( values=$1 ) */
@@ -2500,8 +1658,7 @@ public class WdlParser {
             tree.setAstTransformation(new AstTransformNodeCreator("TupleLiteral", parameters));
             tree.setNudMorphemeCount(3);
             tree.add(expect(ctx, WdlTerminalIdentifier.TERMINAL_LPAREN));
-            tree.add(parse__gen18(ctx));
-            tree.add(expect(ctx, WdlTerminalIdentifier.TERMINAL_RPAREN));
+            return rule(stack, tree, 0, new ListFrame(84, "_gen18"), WdlTerminalIdentifier.TERMINAL_RPAREN);
         }
         else if (rule_first.get(106).contains(terminal_map.get(current.getId()))) {
             /* (106) $e = :if $e :then $e :else $e -> TernaryIf( cond=$1, iftrue=$3, iffalse=$5 ) */
@@ -2513,11 +1670,7 @@ public class WdlParser {
             tree.setAstTransformation(new AstTransformNodeCreator("TernaryIf", parameters));
             tree.setNudMorphemeCount(6);
             tree.add(expect(ctx, WdlTerminalIdentifier.TERMINAL_IF));
-            tree.add(parse_e(ctx));
-            tree.add(expect(ctx, WdlTerminalIdentifier.TERMINAL_THEN));
-            tree.add(parse_e(ctx));
-            tree.add(expect(ctx, WdlTerminalIdentifier.TERMINAL_ELSE));
-            tree.add(parse_e(ctx));
+            return rule(stack, tree, 0, EXPRESSION, WdlTerminalIdentifier.TERMINAL_THEN, EXPRESSION, WdlTerminalIdentifier.TERMINAL_ELSE, EXPRESSION);
         }
         else if (rule_first.get(107).contains(terminal_map.get(current.getId()))) {
             /* (107) $e = :string */
@@ -2556,7 +1709,7 @@ public class WdlParser {
         }
         return tree;
     }
-    private static ParseTree led_e(ParseTree left, ParserContext ctx) throws SyntaxError {
+    private static ParseTree led_e(ParseTree left, ParserContext ctx, List<ExpressionFrame> stack) throws SyntaxError {
         ParseTree tree = new ParseTree( new NonTerminal(93, "e") );
         Terminal current = ctx.tokens.current();
         ctx.nonterminal = "e";
@@ -2573,8 +1726,7 @@ public class WdlParser {
             tree.add(expect(ctx, WdlTerminalIdentifier.TERMINAL_DOUBLE_PIPE));
             modifier = 0;
             tree.setInfix(true);
-            tree.add(parse_e_internal(ctx, get_infix_binding_power_e(8) - modifier));
-            return tree;
+            return operand(ctx, stack, tree, get_infix_binding_power_e(8) - modifier);
         }
         if (current.getId() == 19) {
             /* $e = $e :double_ampersand $e -> LogicalAnd( lhs=$0, rhs=$2 ) */
@@ -2588,8 +1740,7 @@ public class WdlParser {
             tree.add(expect(ctx, WdlTerminalIdentifier.TERMINAL_DOUBLE_AMPERSAND));
             modifier = 0;
             tree.setInfix(true);
-            tree.add(parse_e_internal(ctx, get_infix_binding_power_e(19) - modifier));
-            return tree;
+            return operand(ctx, stack, tree, get_infix_binding_power_e(19) - modifier);
         }
         if (current.getId() == 14) {
             /* $e = $e :double_equal $e -> Equals( lhs=$0, rhs=$2 ) */
@@ -2603,8 +1754,7 @@ public class WdlParser {
             tree.add(expect(ctx, WdlTerminalIdentifier.TERMINAL_DOUBLE_EQUAL));
             modifier = 0;
             tree.setInfix(true);
-            tree.add(parse_e_internal(ctx, get_infix_binding_power_e(14) - modifier));
-            return tree;
+            return operand(ctx, stack, tree, get_infix_binding_power_e(14) - modifier);
         }
         if (current.getId() == 28) {
             /* $e = $e :not_equal $e -> NotEquals( lhs=$0, rhs=$2 ) */
@@ -2618,8 +1768,7 @@ public class WdlParser {
             tree.add(expect(ctx, WdlTerminalIdentifier.TERMINAL_NOT_EQUAL));
             modifier = 0;
             tree.setInfix(true);
-            tree.add(parse_e_internal(ctx, get_infix_binding_power_e(28) - modifier));
-            return tree;
+            return operand(ctx, stack, tree, get_infix_binding_power_e(28) - modifier);
         }
         if (current.getId() == 40) {
             /* $e = $e :lt $e -> LessThan( lhs=$0, rhs=$2 ) */
@@ -2633,8 +1782,7 @@ public class WdlParser {
             tree.add(expect(ctx, WdlTerminalIdentifier.TERMINAL_LT));
             modifier = 0;
             tree.setInfix(true);
-            tree.add(parse_e_internal(ctx, get_infix_binding_power_e(40) - modifier));
-            return tree;
+            return operand(ctx, stack, tree, get_infix_binding_power_e(40) - modifier);
         }
         if (current.getId() == 49) {
             /* $e = $e :lteq $e -> LessThanOrEqual( lhs=$0, rhs=$2 ) */
@@ -2648,8 +1796,7 @@ public class WdlParser {
             tree.add(expect(ctx, WdlTerminalIdentifier.TERMINAL_LTEQ));
             modifier = 0;
             tree.setInfix(true);
-            tree.add(parse_e_internal(ctx, get_infix_binding_power_e(49) - modifier));
-            return tree;
+            return operand(ctx, stack, tree, get_infix_binding_power_e(49) - modifier);
         }
         if (current.getId() == 42) {
             /* $e = $e :gt $e -> GreaterThan( lhs=$0, rhs=$2 ) */
@@ -2663,8 +1810,7 @@ public class WdlParser {
             tree.add(expect(ctx, WdlTerminalIdentifier.TERMINAL_GT));
             modifier = 0;
             tree.setInfix(true);
-            tree.add(parse_e_internal(ctx, get_infix_binding_power_e(42) - modifier));
-            return tree;
+            return operand(ctx, stack, tree, get_infix_binding_power_e(42) - modifier);
         }
         if (current.getId() == 29) {
             /* $e = $e :gteq $e -> GreaterThanOrEqual( lhs=$0, rhs=$2 ) */
@@ -2678,8 +1824,7 @@ public class WdlParser {
             tree.add(expect(ctx, WdlTerminalIdentifier.TERMINAL_GTEQ));
             modifier = 0;
             tree.setInfix(true);
-            tree.add(parse_e_internal(ctx, get_infix_binding_power_e(29) - modifier));
-            return tree;
+            return operand(ctx, stack, tree, get_infix_binding_power_e(29) - modifier);
         }
         if (current.getId() == 15) {
             /* $e = $e :plus $e -> Add( lhs=$0, rhs=$2 ) */
@@ -2693,8 +1838,7 @@ public class WdlParser {
             tree.add(expect(ctx, WdlTerminalIdentifier.TERMINAL_PLUS));
             modifier = 0;
             tree.setInfix(true);
-            tree.add(parse_e_internal(ctx, get_infix_binding_power_e(15) - modifier));
-            return tree;
+            return operand(ctx, stack, tree, get_infix_binding_power_e(15) - modifier);
         }
         if (current.getId() == 4) {
             /* $e = $e :dash $e -> Subtract( lhs=$0, rhs=$2 ) */
@@ -2708,8 +1852,7 @@ public class WdlParser {
             tree.add(expect(ctx, WdlTerminalIdentifier.TERMINAL_DASH));
             modifier = 0;
             tree.setInfix(true);
-            tree.add(parse_e_internal(ctx, get_infix_binding_power_e(4) - modifier));
-            return tree;
+            return operand(ctx, stack, tree, get_infix_binding_power_e(4) - modifier);
         }
         if (current.getId() == 27) {
             /* $e = $e :asterisk $e -> Multiply( lhs=$0, rhs=$2 ) */
@@ -2723,8 +1866,7 @@ public class WdlParser {
             tree.add(expect(ctx, WdlTerminalIdentifier.TERMINAL_ASTERISK));
             modifier = 0;
             tree.setInfix(true);
-            tree.add(parse_e_internal(ctx, get_infix_binding_power_e(27) - modifier));
-            return tree;
+            return operand(ctx, stack, tree, get_infix_binding_power_e(27) - modifier);
         }
         if (current.getId() == 50) {
             /* $e = $e :slash $e -> Divide( lhs=$0, rhs=$2 ) */
@@ -2738,8 +1880,7 @@ public class WdlParser {
             tree.add(expect(ctx, WdlTerminalIdentifier.TERMINAL_SLASH));
             modifier = 0;
             tree.setInfix(true);
-            tree.add(parse_e_internal(ctx, get_infix_binding_power_e(50) - modifier));
-            return tree;
+            return operand(ctx, stack, tree, get_infix_binding_power_e(50) - modifier);
         }
         if (current.getId() == 26) {
             /* $e = $e :percent $e -> Remainder( lhs=$0, rhs=$2 ) */
@@ -2753,8 +1894,7 @@ public class WdlParser {
             tree.add(expect(ctx, WdlTerminalIdentifier.TERMINAL_PERCENT));
             modifier = 0;
             tree.setInfix(true);
-            tree.add(parse_e_internal(ctx, get_infix_binding_power_e(26) - modifier));
-            return tree;
+            return operand(ctx, stack, tree, get_infix_binding_power_e(26) - modifier);
         }
         if (current.getId() == 12) {
             /* $e = :identifier <=> :lparen $_gen18 :rparen -> FunctionCall( name=$0, params=$2 ) */
@@ -2765,9 +1905,7 @@ public class WdlParser {
             tree.setAstTransformation(new AstTransformNodeCreator("FunctionCall", parameters));
             tree.add(left);
             tree.add(expect(ctx, WdlTerminalIdentifier.TERMINAL_LPAREN));
-            tree.add(parse__gen18(ctx));
-            tree.add(expect(ctx, WdlTerminalIdentifier.TERMINAL_RPAREN));
-            return tree;
+            return rule(stack, tree, 0, new ListFrame(84, "_gen18"), WdlTerminalIdentifier.TERMINAL_RPAREN);
         }
         if (current.getId() == 44) {
             /* $e = :identifier <=> :lsquare $e :rsquare -> ArrayOrMapLookup( lhs=$0, rhs=$2 ) */
@@ -2779,9 +1917,7 @@ public class WdlParser {
             tree.add(left);
             tree.add(expect(ctx, WdlTerminalIdentifier.TERMINAL_LSQUARE));
             modifier = 0;
-            tree.add(parse_e_internal(ctx, get_infix_binding_power_e(44) - modifier));
-            tree.add(expect(ctx, WdlTerminalIdentifier.TERMINAL_RSQUARE));
-            return tree;
+            return rule(stack, tree, get_infix_binding_power_e(44) - modifier, EXPRESSION, WdlTerminalIdentifier.TERMINAL_RSQUARE);
         }
         if (current.getId() == 45) {
             /* $e = :identifier <=> :dot :identifier -> MemberAccess( lhs=$0, rhs=$2 ) */
@@ -2797,8 +1933,8 @@ public class WdlParser {
         }
         return tree;
     }
-    private static Map<Integer, Integer> infix_binding_power_type_e;
-    private static Map<Integer, Integer> prefix_binding_power_type_e;
+    static Map<Integer, Integer> infix_binding_power_type_e;
+    static Map<Integer, Integer> prefix_binding_power_type_e;
     static {
         Map<Integer, Integer> map = new HashMap<Integer, Integer>();
         map.put(44, 1000); /* $type_e = :type <=> :lsquare list($type_e, :comma) :rsquare -> Type( name=$0, subtype=$2 ) */
@@ -2823,7 +1959,7 @@ public class WdlParser {
         return 0;
     }
     public ParseTree parse_type_e(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse_type_e_internal(ctx, 0);
     }
     public static ParseTree parse_type_e(ParserContext ctx) throws SyntaxError {
@@ -2921,7 +2057,7 @@ public class WdlParser {
         return tree;
     }
     public ParseTree parse__gen0(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse__gen0(ctx);
     }
     private static ParseTree parse__gen0(ParserContext ctx) throws SyntaxError {
@@ -2947,7 +2083,7 @@ public class WdlParser {
         return tree;
     }
     public ParseTree parse__gen1(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse__gen1(ctx);
     }
     private static ParseTree parse__gen1(ParserContext ctx) throws SyntaxError {
@@ -2973,7 +2109,7 @@ public class WdlParser {
         return tree;
     }
     public ParseTree parse__gen10(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse__gen10(ctx);
     }
     private static ParseTree parse__gen10(ParserContext ctx) throws SyntaxError {
@@ -2999,7 +2135,7 @@ public class WdlParser {
         return tree;
     }
     public ParseTree parse__gen13(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse__gen13(ctx);
     }
     private static ParseTree parse__gen13(ParserContext ctx) throws SyntaxError {
@@ -3025,7 +2161,7 @@ public class WdlParser {
         return tree;
     }
     public ParseTree parse__gen14(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse__gen14(ctx);
     }
     private static ParseTree parse__gen14(ParserContext ctx) throws SyntaxError {
@@ -3066,7 +2202,7 @@ public class WdlParser {
         return tree;
     }
     public ParseTree parse__gen15(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse__gen15(ctx);
     }
     private static ParseTree parse__gen15(ParserContext ctx) throws SyntaxError {
@@ -3092,7 +2228,7 @@ public class WdlParser {
         return tree;
     }
     public ParseTree parse__gen17(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse__gen17(ctx);
     }
     private static ParseTree parse__gen17(ParserContext ctx) throws SyntaxError {
@@ -3133,7 +2269,7 @@ public class WdlParser {
         return tree;
     }
     public ParseTree parse__gen18(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse__gen18(ctx);
     }
     private static ParseTree parse__gen18(ParserContext ctx) throws SyntaxError {
@@ -3174,7 +2310,7 @@ public class WdlParser {
         return tree;
     }
     public ParseTree parse__gen19(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse__gen19(ctx);
     }
     private static ParseTree parse__gen19(ParserContext ctx) throws SyntaxError {
@@ -3215,7 +2351,7 @@ public class WdlParser {
         return tree;
     }
     public ParseTree parse__gen20(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse__gen20(ctx);
     }
     private static ParseTree parse__gen20(ParserContext ctx) throws SyntaxError {
@@ -3256,7 +2392,7 @@ public class WdlParser {
         return tree;
     }
     public ParseTree parse__gen3(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse__gen3(ctx);
     }
     private static ParseTree parse__gen3(ParserContext ctx) throws SyntaxError {
@@ -3282,7 +2418,7 @@ public class WdlParser {
         return tree;
     }
     public ParseTree parse__gen4(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse__gen4(ctx);
     }
     private static ParseTree parse__gen4(ParserContext ctx) throws SyntaxError {
@@ -3308,7 +2444,7 @@ public class WdlParser {
         return tree;
     }
     public ParseTree parse__gen5(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse__gen5(ctx);
     }
     private static ParseTree parse__gen5(ParserContext ctx) throws SyntaxError {
@@ -3334,7 +2470,7 @@ public class WdlParser {
         return tree;
     }
     public ParseTree parse__gen6(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse__gen6(ctx);
     }
     private static ParseTree parse__gen6(ParserContext ctx) throws SyntaxError {
@@ -3360,7 +2496,7 @@ public class WdlParser {
         return tree;
     }
     public ParseTree parse__gen7(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse__gen7(ctx);
     }
     private static ParseTree parse__gen7(ParserContext ctx) throws SyntaxError {
@@ -3386,7 +2522,7 @@ public class WdlParser {
         return tree;
     }
     public ParseTree parse__gen8(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse__gen8(ctx);
     }
     private static ParseTree parse__gen8(ParserContext ctx) throws SyntaxError {
@@ -3412,7 +2548,7 @@ public class WdlParser {
         return tree;
     }
     public ParseTree parse__gen11(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse__gen11(ctx);
     }
     private static ParseTree parse__gen11(ParserContext ctx) throws SyntaxError {
@@ -3441,7 +2577,7 @@ public class WdlParser {
         return tree;
     }
     public ParseTree parse__gen12(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse__gen12(ctx);
     }
     private static ParseTree parse__gen12(ParserContext ctx) throws SyntaxError {
@@ -3470,7 +2606,7 @@ public class WdlParser {
         return tree;
     }
     public ParseTree parse__gen16(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse__gen16(ctx);
     }
     private static ParseTree parse__gen16(ParserContext ctx) throws SyntaxError {
@@ -3499,7 +2635,7 @@ public class WdlParser {
         return tree;
     }
     public ParseTree parse__gen2(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse__gen2(ctx);
     }
     private static ParseTree parse__gen2(ParserContext ctx) throws SyntaxError {
@@ -3528,7 +2664,7 @@ public class WdlParser {
         return tree;
     }
     public ParseTree parse__gen9(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse__gen9(ctx);
     }
     private static ParseTree parse__gen9(ParserContext ctx) throws SyntaxError {
@@ -3557,7 +2693,7 @@ public class WdlParser {
         return tree;
     }
     public ParseTree parse_alias(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse_alias(ctx);
     }
     private static ParseTree parse_alias(ParserContext ctx) throws SyntaxError {
@@ -3592,7 +2728,7 @@ public class WdlParser {
         ));
     }
     public ParseTree parse_call(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse_call(ctx);
     }
     private static ParseTree parse_call(ParserContext ctx) throws SyntaxError {
@@ -3635,7 +2771,7 @@ public class WdlParser {
         ));
     }
     public ParseTree parse_call_body(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse_call_body(ctx);
     }
     private static ParseTree parse_call_body(ParserContext ctx) throws SyntaxError {
@@ -3677,7 +2813,7 @@ public class WdlParser {
         ));
     }
     public ParseTree parse_call_input(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse_call_input(ctx);
     }
     private static ParseTree parse_call_input(ParserContext ctx) throws SyntaxError {
@@ -3716,7 +2852,7 @@ public class WdlParser {
         ));
     }
     public ParseTree parse_cmd_param(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse_cmd_param(ctx);
     }
     private static ParseTree parse_cmd_param(ParserContext ctx) throws SyntaxError {
@@ -3758,7 +2894,7 @@ public class WdlParser {
         ));
     }
     public ParseTree parse_cmd_param_kv(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse_cmd_param_kv(ctx);
     }
     private static ParseTree parse_cmd_param_kv(ParserContext ctx) throws SyntaxError {
@@ -3800,7 +2936,7 @@ public class WdlParser {
         ));
     }
     public ParseTree parse_command(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse_command(ctx);
     }
     private static ParseTree parse_command(ParserContext ctx) throws SyntaxError {
@@ -3841,7 +2977,7 @@ public class WdlParser {
         ));
     }
     public ParseTree parse_command_part(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse_command_part(ctx);
     }
     private static ParseTree parse_command_part(ParserContext ctx) throws SyntaxError {
@@ -3882,7 +3018,7 @@ public class WdlParser {
         ));
     }
     public ParseTree parse_declaration(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse_declaration(ctx);
     }
     private static ParseTree parse_declaration(ParserContext ctx) throws SyntaxError {
@@ -3923,7 +3059,7 @@ public class WdlParser {
         ));
     }
     public ParseTree parse_document(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse_document(ctx);
     }
     private static ParseTree parse_document(ParserContext ctx) throws SyntaxError {
@@ -3957,7 +3093,7 @@ public class WdlParser {
         return tree;
     }
     public ParseTree parse_if_stmt(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse_if_stmt(ctx);
     }
     private static ParseTree parse_if_stmt(ParserContext ctx) throws SyntaxError {
@@ -4005,7 +3141,7 @@ public class WdlParser {
         ));
     }
     public ParseTree parse_import(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse_import(ctx);
     }
     private static ParseTree parse_import(ParserContext ctx) throws SyntaxError {
@@ -4045,7 +3181,7 @@ public class WdlParser {
         ));
     }
     public ParseTree parse_import_namespace(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse_import_namespace(ctx);
     }
     private static ParseTree parse_import_namespace(ParserContext ctx) throws SyntaxError {
@@ -4080,7 +3216,7 @@ public class WdlParser {
         ));
     }
     public ParseTree parse_kv(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse_kv(ctx);
     }
     private static ParseTree parse_kv(ParserContext ctx) throws SyntaxError {
@@ -4120,7 +3256,7 @@ public class WdlParser {
         ));
     }
     public ParseTree parse_map(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse_map(ctx);
     }
     private static ParseTree parse_map(ParserContext ctx) throws SyntaxError {
@@ -4157,7 +3293,7 @@ public class WdlParser {
         ));
     }
     public ParseTree parse_map_kv(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse_map_kv(ctx);
     }
     private static ParseTree parse_map_kv(ParserContext ctx) throws SyntaxError {
@@ -4197,7 +3333,7 @@ public class WdlParser {
         ));
     }
     public ParseTree parse_mapping(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse_mapping(ctx);
     }
     private static ParseTree parse_mapping(ParserContext ctx) throws SyntaxError {
@@ -4237,7 +3373,7 @@ public class WdlParser {
         ));
     }
     public ParseTree parse_meta(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse_meta(ctx);
     }
     private static ParseTree parse_meta(ParserContext ctx) throws SyntaxError {
@@ -4274,7 +3410,7 @@ public class WdlParser {
         ));
     }
     public ParseTree parse_object_kv(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse_object_kv(ctx);
     }
     private static ParseTree parse_object_kv(ParserContext ctx) throws SyntaxError {
@@ -4314,7 +3450,7 @@ public class WdlParser {
         ));
     }
     public ParseTree parse_output_kv(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse_output_kv(ctx);
     }
     private static ParseTree parse_output_kv(ParserContext ctx) throws SyntaxError {
@@ -4357,7 +3493,7 @@ public class WdlParser {
         ));
     }
     public ParseTree parse_outputs(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse_outputs(ctx);
     }
     private static ParseTree parse_outputs(ParserContext ctx) throws SyntaxError {
@@ -4398,7 +3534,7 @@ public class WdlParser {
         ));
     }
     public ParseTree parse_parameter_meta(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse_parameter_meta(ctx);
     }
     private static ParseTree parse_parameter_meta(ParserContext ctx) throws SyntaxError {
@@ -4435,7 +3571,7 @@ public class WdlParser {
         ));
     }
     public ParseTree parse_runtime(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse_runtime(ctx);
     }
     private static ParseTree parse_runtime(ParserContext ctx) throws SyntaxError {
@@ -4472,7 +3608,7 @@ public class WdlParser {
         ));
     }
     public ParseTree parse_scatter(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse_scatter(ctx);
     }
     private static ParseTree parse_scatter(ParserContext ctx) throws SyntaxError {
@@ -4525,7 +3661,7 @@ public class WdlParser {
         ));
     }
     public ParseTree parse_sections(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse_sections(ctx);
     }
     private static ParseTree parse_sections(ParserContext ctx) throws SyntaxError {
@@ -4590,7 +3726,7 @@ public class WdlParser {
         ));
     }
     public ParseTree parse_setter(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse_setter(ctx);
     }
     private static ParseTree parse_setter(ParserContext ctx) throws SyntaxError {
@@ -4625,7 +3761,7 @@ public class WdlParser {
         ));
     }
     public ParseTree parse_task(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse_task(ctx);
     }
     private static ParseTree parse_task(ParserContext ctx) throws SyntaxError {
@@ -4672,7 +3808,7 @@ public class WdlParser {
         ));
     }
     public ParseTree parse_wf_body_element(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse_wf_body_element(ctx);
     }
     private static ParseTree parse_wf_body_element(ParserContext ctx) throws SyntaxError {
@@ -4761,7 +3897,7 @@ public class WdlParser {
         ));
     }
     public ParseTree parse_wf_meta(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse_wf_meta(ctx);
     }
     private static ParseTree parse_wf_meta(ParserContext ctx) throws SyntaxError {
@@ -4798,7 +3934,7 @@ public class WdlParser {
         ));
     }
     public ParseTree parse_wf_output(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse_wf_output(ctx);
     }
     private static ParseTree parse_wf_output(ParserContext ctx) throws SyntaxError {
@@ -4839,7 +3975,7 @@ public class WdlParser {
         ));
     }
     public ParseTree parse_wf_output_declaration_syntax(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse_wf_output_declaration_syntax(ctx);
     }
     private static ParseTree parse_wf_output_declaration_syntax(ParserContext ctx) throws SyntaxError {
@@ -4882,7 +4018,7 @@ public class WdlParser {
         ));
     }
     public ParseTree parse_wf_output_wildcard(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse_wf_output_wildcard(ctx);
     }
     private static ParseTree parse_wf_output_wildcard(ParserContext ctx) throws SyntaxError {
@@ -4917,7 +4053,7 @@ public class WdlParser {
         ));
     }
     public ParseTree parse_wf_output_wildcard_syntax(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse_wf_output_wildcard_syntax(ctx);
     }
     private static ParseTree parse_wf_output_wildcard_syntax(ParserContext ctx) throws SyntaxError {
@@ -4955,7 +4091,7 @@ public class WdlParser {
         ));
     }
     public ParseTree parse_wf_outputs(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse_wf_outputs(ctx);
     }
     private static ParseTree parse_wf_outputs(ParserContext ctx) throws SyntaxError {
@@ -4996,7 +4132,7 @@ public class WdlParser {
         ));
     }
     public ParseTree parse_wf_parameter_meta(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse_wf_parameter_meta(ctx);
     }
     private static ParseTree parse_wf_parameter_meta(ParserContext ctx) throws SyntaxError {
@@ -5033,7 +4169,7 @@ public class WdlParser {
         ));
     }
     public ParseTree parse_while_loop(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse_while_loop(ctx);
     }
     private static ParseTree parse_while_loop(ParserContext ctx) throws SyntaxError {
@@ -5081,7 +4217,7 @@ public class WdlParser {
         ));
     }
     public ParseTree parse_workflow(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse_workflow(ctx);
     }
     private static ParseTree parse_workflow(ParserContext ctx) throws SyntaxError {
@@ -5125,7 +4261,7 @@ public class WdlParser {
         ));
     }
     public ParseTree parse_workflow_or_task_or_decl(List<Terminal> tokens, SyntaxErrorFormatter error_formatter) throws SyntaxError {
-        ParserContext ctx = new ParserContext(new TokenStream(tokens), error_formatter);
+        ParserContext ctx = context(new TokenStream(tokens), error_formatter);
         return parse_workflow_or_task_or_decl(ctx);
     }
     private static ParseTree parse_workflow_or_task_or_decl(ParserContext ctx) throws SyntaxError {
@@ -5179,8 +4315,8 @@ public class WdlParser {
     private class LexerRegexOutput implements LexerOutput {
         public WdlTerminalIdentifier terminal;
         public int group;
-        public Method function;
-        LexerRegexOutput(WdlTerminalIdentifier terminal, int group, Method function) {
+        public LexerFunction function;
+        LexerRegexOutput(WdlTerminalIdentifier terminal, int group, LexerFunction function) {
             this.terminal = terminal;
             this.group = group;
             this.function = function;
@@ -5201,15 +4337,57 @@ public class WdlParser {
             this.action = action;
         }
     }
+    /*
+     * A lexer regex, compiled when it is first tried: a short document only meets the
+     * patterns of the modes it enters, up to the first that matches each token.  Most
+     * can only start with a few characters, so a token starting with any other skips the
+     * regex without compiling or running it.
+     */
     private class HermesRegex {
+        public String regex;
+        public int flags;
         public Pattern pattern;
+        public WdlParserRuntime.FirstChars first;
+        public WdlParserRuntime.CommandScanner scanner;
         public List<LexerOutput> outputs;
-        HermesRegex(Pattern pattern, List<LexerOutput> outputs) {
-            this.pattern = pattern;
+        HermesRegex(String regex, List<LexerOutput> outputs) {
+            this(regex, 0, outputs);
+        }
+        HermesRegex(String regex, int flags, List<LexerOutput> outputs) {
+            this.regex = regex;
+            this.flags = flags;
+            this.scanner = WdlParserRuntime.CommandScanner.of(regex, flags);
             this.outputs = outputs;
         }
+        /*
+         * Match at start.  A match that reached the end of what has been read so far might
+         * differ with more text, so it is tried again after reading more.
+         */
+        public MatchResult lookingAt(WdlParserRuntime.LexerInput input, int start) throws IOException {
+            if (this.scanner != null) {
+                return this.scanner.lookingAt(input, start);
+            }
+            if (this.first == null) {
+                this.first = new WdlParserRuntime.FirstChars(this.regex, this.flags);
+            }
+            if (start < input.length() && !this.first.contains(input.charAt(start))) {
+                return null;
+            }
+            if (this.pattern == null) {
+                this.pattern = Pattern.compile(this.regex, this.flags);
+            }
+            Matcher matcher = this.pattern.matcher(input);
+            while (true) {
+                matcher.region(start, input.length());
+                boolean found = matcher.lookingAt();
+                if (!matcher.hitEnd() || !input.fill()) {
+                    return found ? matcher : null;
+                }
+                matcher.reset(input);
+            }
+        }
         public String toString() {
-            return String.format("<HermesRegex pattern=%s, outputs=%s>", this.pattern, this.outputs);
+            return String.format("<HermesRegex pattern=%s, outputs=%s>", this.scanner != null ? this.scanner : this.regex, this.outputs);
         }
     }
     private class LineColumn {
@@ -5223,15 +4401,17 @@ public class WdlParser {
         }
     }
     private class LexerContext {
-        public String string;
+        public WdlParserRuntime.LexerInput input;
+        public int position;
+        public int line_start;
         public String resource;
         public int line;
         public int col;
         public Stack<String> stack;
         public Object context;
         public List<Terminal> terminals;
-        LexerContext(String string, String resource) {
-            this.string = string;
+        LexerContext(WdlParserRuntime.LexerInput input, String resource) {
+            this.input = input;
             this.resource = resource;
             this.line = 1;
             this.col = 1;
@@ -5239,16 +4419,23 @@ public class WdlParser {
             this.stack.push("default");
             this.terminals = new ArrayList<Terminal>();
         }
-        public void advance(String match) {
-            LineColumn lc = advance_line_col(match, match.length());
-            this.line = lc.line;
-            this.col = lc.col;
-            this.string = this.string.substring(match.length());
+        public void advance(int end) {
+            for (int i = this.position; i < end; i++) {
+                if (this.input.charAt(i) == '\n') {
+                    this.line += 1;
+                    this.col = 1;
+                    this.line_start = i + 1;
+                } else {
+                    this.col += 1;
+                }
+            }
+            this.position = end;
+            this.input.release(this.line_start);
         }
-        public LineColumn advance_line_col(String match, int length) {
+        public LineColumn advance_line_col(int end) {
             LineColumn lc = new LineColumn(this.line, this.col);
-            for (int i = 0; i < length && i < match.length(); i++) {
-                if (match.charAt(i) == '\n') {
+            for (int i = this.position; i < end; i++) {
+                if (this.input.charAt(i) == '\n') {
                     lc.line += 1;
                     lc.col = 1;
                 } else {
@@ -5299,46 +4486,155 @@ public void output(LexerContext ctx, TerminalIdentifier terminal, String source_
     default_action(ctx, terminal, source_string, line, col);
 }
 public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String source_string, int line, int col) {
-    default_action(ctx, terminal, StringEscapeUtils.unescapeJava(source_string.substring(1, source_string.length() - 1)), line, col);
+    int end = source_string.length() - 1;
+    boolean escaped = source_string.lastIndexOf('\\', end) > 0;
+    ctx.terminals.add(new StringTerminal(terminal.id(), terminal.string(), source_string, 1, end, escaped, ctx.resource, line, col));
+}
+/**
+ * A string literal whose text is source[start, end).  If escaped, the text holds escape
+ * sequences, which are decoded the first time getSourceString() is called.
+ */
+public static class StringTerminal extends Terminal {
+    private final String source;
+    private final int start;
+    private final int end;
+    private final boolean escaped;
+    private String source_string;
+    public StringTerminal(int id, String terminal_str, String source, int start, int end, boolean escaped, String resource, int line, int col) {
+        super(id, terminal_str, null, resource, line, col);
+        this.source = source;
+        this.start = start;
+        this.end = end;
+        this.escaped = escaped;
+    }
+    public String getSourceString() {
+        /* Racing threads decode the same String, so this needs no lock. */
+        String source_string = this.source_string;
+        if (source_string == null) {
+            source_string = this.escaped ? unescape(this.source, this.start, this.end) : this.source.substring(this.start, this.end);
+            this.source_string = source_string;
+        }
+        return source_string;
+    }
+    /* The text without copying it if there is nothing to decode. */
+    public CharSequence getSourceSequence() {
+        if (this.source_string != null || this.escaped) {
+            return this.getSourceString();
+        }
+        return java.nio.CharBuffer.wrap(this.source, this.start, this.end);
+    }
+    /* Whether the text holds escape sequences. */
+    public boolean isEscaped() {
+        return this.escaped;
+    }
+    /*
+     * Decode the escape sequences string literals may hold: \b \t \n \f \r \" \' \\, octal
+     * and unicode escapes.  A backslash before any other character is dropped.
+     */
+    private static String unescape(String source, int start, int end) {
+        StringBuilder builder = new StringBuilder(end - start);
+        int i = start;
+        while (i < end) {
+            char c = source.charAt(i++);
+            if (c != '\\' || i == end) {
+                builder.append(c);
+                continue;
+            }
+            c = source.charAt(i);
+            if (c >= '0' && c <= '7') {
+                int value = c - '0';
+                int digits = (c <= '3') ? 3 : 2;
+                for (i++; --digits > 0 && i < end && source.charAt(i) >= '0' && source.charAt(i) <= '7'; i++) {
+                    value = value * 8 + source.charAt(i) - '0';
+                }
+                builder.append((char) value);
+                continue;
+            }
+            if (c == 'u') {
+                while (i < end && source.charAt(i) == 'u') {
+                    i++;
+                }
+                if (i < end && source.charAt(i) == '+') {
+                    i++;
+                }
+                if (i + 4 > end) {
+                    throw new IllegalArgumentException("Less than 4 hex digits in unicode value: " + source.substring(start, end));
+                }
+                builder.append((char) Integer.parseInt(source.substring(i, i + 4), 16));
+                i += 4;
+                continue;
+            }
+            switch (c) {
+                case 'b': builder.append('\b'); break;
+                case 't': builder.append('\t'); break;
+                case 'n': builder.append('\n'); break;
+                case 'f': builder.append('\f'); break;
+                case 'r': builder.append('\r'); break;
+                case '\\':
+                case '"':
+                case '\'': builder.append(c); break;
+                default: continue;
+            }
+            i++;
+        }
+        return builder.toString();
+    }
 }
     /* END USER CODE */
     public void destroy(Object context) {
         return;
     }
-    private Method getFunction(String name) throws SyntaxError {
-        try {
-            return getClass().getMethod(
-                name,
-                LexerContext.class,
-                TerminalIdentifier.class,
-                String.class,
-                int.class,
-                int.class
-            );
-        } catch (NoSuchMethodException e) {
+    /*
+     * A function that lexer regexes call on a match.  They are called directly rather than
+     * through reflection, whose lookups and generated accessors cost several milliseconds
+     * at startup.
+     */
+    private static class LexerFunction {
+        private static final String[] names = {"default_action", "task", "workflow", "output", "wdl_unescape"};
+        private final int index;
+        LexerFunction(int index) {
+            this.index = index;
+        }
+        void invoke(WdlParser parser, LexerContext lctx, TerminalIdentifier terminal, String source_string, int line, int col) {
+            switch (this.index) {
+                case 0: parser.default_action(lctx, terminal, source_string, line, col); break;
+                case 1: parser.task(lctx, terminal, source_string, line, col); break;
+                case 2: parser.workflow(lctx, terminal, source_string, line, col); break;
+                case 3: parser.output(lctx, terminal, source_string, line, col); break;
+                default: parser.wdl_unescape(lctx, terminal, source_string, line, col);
+            }
+        }
+        public String toString() {
+            return names[this.index];
+        }
+    }
+    private LexerFunction getFunction(String name) throws SyntaxError {
+        int index = Arrays.asList(LexerFunction.names).indexOf(name);
+        if (index < 0) {
             throw new SyntaxError("No such method: " + name);
         }
+        return new LexerFunction(index);
     }
     private void lexer_init() throws SyntaxError {
         this.regex = new HashMap<String, List<HermesRegex>>();
         this.regex.put("default", Arrays.asList(new HermesRegex[] {
             new HermesRegex(
-                Pattern.compile("\\s+"),
+                "\\s+",
                 Arrays.asList(new LexerOutput[] {
                 })
             ),
             new HermesRegex(
-                Pattern.compile("/\\*(.*?)\\*/", Pattern.DOTALL),
+                "/\\*(.*?)\\*/", Pattern.DOTALL,
                 Arrays.asList(new LexerOutput[] {
                 })
             ),
             new HermesRegex(
-                Pattern.compile("#.*"),
+                "#.*",
                 Arrays.asList(new LexerOutput[] {
                 })
             ),
             new HermesRegex(
-                Pattern.compile("task(?![a-zA-Z0-9_])"),
+                "task(?![a-zA-Z0-9_])",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_TASK,
@@ -5348,7 +4644,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("(call)\\s+"),
+                "(call)\\s+",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_CALL,
@@ -5359,7 +4655,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("workflow(?![a-zA-Z0-9_])"),
+                "workflow(?![a-zA-Z0-9_])",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_WORKFLOW,
@@ -5369,7 +4665,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("import(?![a-zA-Z0-9_])"),
+                "import(?![a-zA-Z0-9_])",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_IMPORT,
@@ -5379,7 +4675,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("input(?![a-zA-Z0-9_])"),
+                "input(?![a-zA-Z0-9_])",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_INPUT,
@@ -5389,7 +4685,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("output(?![a-zA-Z0-9_])"),
+                "output(?![a-zA-Z0-9_])",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_OUTPUT,
@@ -5399,7 +4695,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("as(?![a-zA-Z0-9_])"),
+                "as(?![a-zA-Z0-9_])",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_AS,
@@ -5409,7 +4705,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("if(?![a-zA-Z0-9_])"),
+                "if(?![a-zA-Z0-9_])",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_IF,
@@ -5419,7 +4715,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("then(?![a-zA-Z0-9_])"),
+                "then(?![a-zA-Z0-9_])",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_THEN,
@@ -5429,7 +4725,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("else(?![a-zA-Z0-9_])"),
+                "else(?![a-zA-Z0-9_])",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_ELSE,
@@ -5439,7 +4735,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("while(?![a-zA-Z0-9_])"),
+                "while(?![a-zA-Z0-9_])",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_WHILE,
@@ -5449,7 +4745,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("runtime(?![a-zA-Z0-9_])"),
+                "runtime(?![a-zA-Z0-9_])",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_RUNTIME,
@@ -5459,7 +4755,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("scatter(?![a-zA-Z0-9_])"),
+                "scatter(?![a-zA-Z0-9_])",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_SCATTER,
@@ -5470,7 +4766,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("command\\s*(?=<<<)"),
+                "command\\s*(?=<<<)",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_RAW_COMMAND,
@@ -5481,7 +4777,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("command\\s*(?=\\{)"),
+                "command\\s*(?=\\{)",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_RAW_COMMAND,
@@ -5492,7 +4788,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("parameter_meta(?![a-zA-Z0-9_])"),
+                "parameter_meta(?![a-zA-Z0-9_])",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_PARAMETER_META,
@@ -5502,7 +4798,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("meta(?![a-zA-Z0-9_])"),
+                "meta(?![a-zA-Z0-9_])",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_META,
@@ -5512,7 +4808,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("(true|false)(?![a-zA-Z0-9_])"),
+                "(true|false)(?![a-zA-Z0-9_])",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_BOOLEAN,
@@ -5522,7 +4818,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("(object)\\s*(\\{)"),
+                "(object)\\s*(\\{)",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_OBJECT,
@@ -5537,7 +4833,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("(Array|Map|Object|Pair|Boolean|Int|Float|Uri|File|String)(?![a-zA-Z0-9_])(?![a-zA-Z0-9_])"),
+                "(Array|Map|Object|Pair|Boolean|Int|Float|Uri|File|String)(?![a-zA-Z0-9_])(?![a-zA-Z0-9_])",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_TYPE,
@@ -5547,7 +4843,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("[a-zA-Z]([a-zA-Z0-9_])*"),
+                "[a-zA-Z]([a-zA-Z0-9_])*",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_IDENTIFIER,
@@ -5557,7 +4853,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\\"(?>[^\\\\\\\"\\n]|\\\\[\\\"\\'nrbtfav\\\\?]|\\\\[0-7]{1,3}|\\\\x[0-9a-fA-F]+|\\\\[uU]([0-9a-fA-F]{4})([0-9a-fA-F]{4})?)*\\\""),
+                "\\\"(?>[^\\\\\\\"\\n]|\\\\[\\\"\\'nrbtfav\\\\?]|\\\\[0-7]{1,3}|\\\\x[0-9a-fA-F]+|\\\\[uU]([0-9a-fA-F]{4})([0-9a-fA-F]{4})?)*\\\"",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_STRING,
@@ -5567,7 +4863,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("'(?>[^\\\\\\'\\n]|\\\\[\\\"\\'nrbtfav\\\\?]|\\\\[0-7]{1,3}|\\\\x[0-9a-fA-F]+|\\\\[uU]([0-9a-fA-F]{4})([0-9a-fA-F]{4})?)*'"),
+                "'(?>[^\\\\\\'\\n]|\\\\[\\\"\\'nrbtfav\\\\?]|\\\\[0-7]{1,3}|\\\\x[0-9a-fA-F]+|\\\\[uU]([0-9a-fA-F]{4})([0-9a-fA-F]{4})?)*'",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_STRING,
@@ -5577,7 +4873,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile(":"),
+                ":",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_COLON,
@@ -5587,7 +4883,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile(","),
+                ",",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_COMMA,
@@ -5597,7 +4893,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("=="),
+                "==",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_DOUBLE_EQUAL,
@@ -5607,7 +4903,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\|\\|"),
+                "\\|\\|",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_DOUBLE_PIPE,
@@ -5617,7 +4913,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\&\\&"),
+                "\\&\\&",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_DOUBLE_AMPERSAND,
@@ -5627,7 +4923,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("!="),
+                "!=",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_NOT_EQUAL,
@@ -5637,7 +4933,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("="),
+                "=",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_EQUAL,
@@ -5647,7 +4943,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\."),
+                "\\.",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_DOT,
@@ -5657,7 +4953,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\{"),
+                "\\{",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_LBRACE,
@@ -5667,7 +4963,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\}"),
+                "\\}",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_RBRACE,
@@ -5677,7 +4973,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\("),
+                "\\(",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_LPAREN,
@@ -5687,7 +4983,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\)"),
+                "\\)",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_RPAREN,
@@ -5697,7 +4993,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\["),
+                "\\[",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_LSQUARE,
@@ -5707,7 +5003,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\]"),
+                "\\]",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_RSQUARE,
@@ -5717,7 +5013,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\+"),
+                "\\+",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_PLUS,
@@ -5727,7 +5023,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\*"),
+                "\\*",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_ASTERISK,
@@ -5737,7 +5033,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("-"),
+                "-",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_DASH,
@@ -5747,7 +5043,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("/"),
+                "/",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_SLASH,
@@ -5757,7 +5053,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("%"),
+                "%",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_PERCENT,
@@ -5767,7 +5063,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("<="),
+                "<=",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_LTEQ,
@@ -5777,7 +5073,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("<"),
+                "<",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_LT,
@@ -5787,7 +5083,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile(">="),
+                ">=",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_GTEQ,
@@ -5797,7 +5093,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile(">"),
+                ">",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_GT,
@@ -5807,7 +5103,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("!"),
+                "!",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_NOT,
@@ -5817,7 +5113,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\?"),
+                "\\?",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_QMARK,
@@ -5827,7 +5123,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("-?[0-9]+\\.[0-9]+"),
+                "-?[0-9]+\\.[0-9]+",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_FLOAT,
@@ -5837,7 +5133,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("[0-9]+"),
+                "[0-9]+",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_INTEGER,
@@ -5849,17 +5145,17 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
         }));
         this.regex.put("wf_output", Arrays.asList(new HermesRegex[] {
             new HermesRegex(
-                Pattern.compile("\\s+"),
+                "\\s+",
                 Arrays.asList(new LexerOutput[] {
                 })
             ),
             new HermesRegex(
-                Pattern.compile("#.*"),
+                "#.*",
                 Arrays.asList(new LexerOutput[] {
                 })
             ),
             new HermesRegex(
-                Pattern.compile("(Array|Map|Object|Pair|Boolean|Int|Float|Uri|File|String)(?![a-zA-Z0-9_])(?![a-zA-Z0-9_])"),
+                "(Array|Map|Object|Pair|Boolean|Int|Float|Uri|File|String)(?![a-zA-Z0-9_])(?![a-zA-Z0-9_])",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_TYPE,
@@ -5871,7 +5167,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\{"),
+                "\\{",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_LBRACE,
@@ -5881,7 +5177,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\}"),
+                "\\}",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_RBRACE,
@@ -5892,7 +5188,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile(","),
+                ",",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_COMMA,
@@ -5902,7 +5198,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\."),
+                "\\.",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_DOT,
@@ -5912,7 +5208,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\*"),
+                "\\*",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_ASTERISK,
@@ -5922,7 +5218,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("[a-zA-Z]([a-zA-Z0-9_])*(\\.[a-zA-Z]([a-zA-Z0-9_])*)*"),
+                "[a-zA-Z]([a-zA-Z0-9_])*(\\.[a-zA-Z]([a-zA-Z0-9_])*)*",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_FQN,
@@ -5934,17 +5230,17 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
         }));
         this.regex.put("wf_output_declaration", Arrays.asList(new HermesRegex[] {
             new HermesRegex(
-                Pattern.compile("\\s+"),
+                "\\s+",
                 Arrays.asList(new LexerOutput[] {
                 })
             ),
             new HermesRegex(
-                Pattern.compile("#.*"),
+                "#.*",
                 Arrays.asList(new LexerOutput[] {
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\}"),
+                "\\}",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_RBRACE,
@@ -5955,7 +5251,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\["),
+                "\\[",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_LSQUARE,
@@ -5965,7 +5261,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\]"),
+                "\\]",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_RSQUARE,
@@ -5975,7 +5271,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\+"),
+                "\\+",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_PLUS,
@@ -5985,7 +5281,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\*"),
+                "\\*",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_ASTERISK,
@@ -5995,7 +5291,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("[0-9]+"),
+                "[0-9]+",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_INTEGER,
@@ -6005,7 +5301,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("(true|false)(?![a-zA-Z0-9_])"),
+                "(true|false)(?![a-zA-Z0-9_])",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_BOOLEAN,
@@ -6015,7 +5311,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("if"),
+                "if",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_IF,
@@ -6025,7 +5321,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("else"),
+                "else",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_ELSE,
@@ -6035,7 +5331,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("then"),
+                "then",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_THEN,
@@ -6045,7 +5341,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("(Array|Map|Object|Pair|Boolean|Int|Float|Uri|File|String)(?![a-zA-Z0-9_])(?![a-zA-Z0-9_])"),
+                "(Array|Map|Object|Pair|Boolean|Int|Float|Uri|File|String)(?![a-zA-Z0-9_])(?![a-zA-Z0-9_])",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_TYPE,
@@ -6055,7 +5351,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("[a-zA-Z]([a-zA-Z0-9_])*"),
+                "[a-zA-Z]([a-zA-Z0-9_])*",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_IDENTIFIER,
@@ -6065,7 +5361,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile(":"),
+                ":",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_COLON,
@@ -6075,7 +5371,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile(","),
+                ",",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_COMMA,
@@ -6085,7 +5381,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\."),
+                "\\.",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_DOT,
@@ -6095,7 +5391,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("=="),
+                "==",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_DOUBLE_EQUAL,
@@ -6105,7 +5401,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("="),
+                "=",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_EQUAL,
@@ -6115,7 +5411,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\|\\|"),
+                "\\|\\|",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_DOUBLE_PIPE,
@@ -6125,7 +5421,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\&\\&"),
+                "\\&\\&",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_DOUBLE_AMPERSAND,
@@ -6135,7 +5431,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("!="),
+                "!=",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_NOT_EQUAL,
@@ -6145,7 +5441,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("="),
+                "=",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_EQUAL,
@@ -6155,7 +5451,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\."),
+                "\\.",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_DOT,
@@ -6165,7 +5461,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\{"),
+                "\\{",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_LBRACE,
@@ -6175,7 +5471,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\("),
+                "\\(",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_LPAREN,
@@ -6185,7 +5481,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\)"),
+                "\\)",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_RPAREN,
@@ -6195,7 +5491,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\["),
+                "\\[",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_LSQUARE,
@@ -6205,7 +5501,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\]"),
+                "\\]",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_RSQUARE,
@@ -6215,7 +5511,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\+"),
+                "\\+",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_PLUS,
@@ -6225,7 +5521,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\*"),
+                "\\*",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_ASTERISK,
@@ -6235,7 +5531,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("-"),
+                "-",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_DASH,
@@ -6245,7 +5541,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("/"),
+                "/",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_SLASH,
@@ -6255,7 +5551,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("%"),
+                "%",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_PERCENT,
@@ -6265,7 +5561,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("<="),
+                "<=",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_LTEQ,
@@ -6275,7 +5571,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("<"),
+                "<",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_LT,
@@ -6285,7 +5581,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile(">="),
+                ">=",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_GTEQ,
@@ -6295,7 +5591,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile(">"),
+                ">",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_GT,
@@ -6305,7 +5601,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("!"),
+                "!",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_NOT,
@@ -6315,7 +5611,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\?"),
+                "\\?",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_QMARK,
@@ -6325,7 +5621,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\\"(?>[^\\\\\\\"\\n]|\\\\[\\\"\\'nrbtfav\\\\?]|\\\\[0-7]{1,3}|\\\\x[0-9a-fA-F]+|\\\\[uU]([0-9a-fA-F]{4})([0-9a-fA-F]{4})?)*\\\""),
+                "\\\"(?>[^\\\\\\\"\\n]|\\\\[\\\"\\'nrbtfav\\\\?]|\\\\[0-7]{1,3}|\\\\x[0-9a-fA-F]+|\\\\[uU]([0-9a-fA-F]{4})([0-9a-fA-F]{4})?)*\\\"",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_STRING,
@@ -6335,7 +5631,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("'(?>[^\\\\\\'\\n]|\\\\[\\\"\\'nrbtfav\\\\?]|\\\\[0-7]{1,3}|\\\\x[0-9a-fA-F]+|\\\\[uU]([0-9a-fA-F]{4})([0-9a-fA-F]{4})?)*'"),
+                "'(?>[^\\\\\\'\\n]|\\\\[\\\"\\'nrbtfav\\\\?]|\\\\[0-7]{1,3}|\\\\x[0-9a-fA-F]+|\\\\[uU]([0-9a-fA-F]{4})([0-9a-fA-F]{4})?)*'",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_STRING,
@@ -6345,7 +5641,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("-?[0-9]+\\.[0-9]+"),
+                "-?[0-9]+\\.[0-9]+",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_FLOAT,
@@ -6355,7 +5651,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("[0-9]+"),
+                "[0-9]+",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_INTEGER,
@@ -6367,12 +5663,12 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
         }));
         this.regex.put("task_fqn", Arrays.asList(new HermesRegex[] {
             new HermesRegex(
-                Pattern.compile("\\s+"),
+                "\\s+",
                 Arrays.asList(new LexerOutput[] {
                 })
             ),
             new HermesRegex(
-                Pattern.compile("[a-zA-Z]([a-zA-Z0-9_])*(\\.[a-zA-Z]([a-zA-Z0-9_])*)*"),
+                "[a-zA-Z]([a-zA-Z0-9_])*(\\.[a-zA-Z]([a-zA-Z0-9_])*)*",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_FQN,
@@ -6385,12 +5681,12 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
         }));
         this.regex.put("scatter", Arrays.asList(new HermesRegex[] {
             new HermesRegex(
-                Pattern.compile("\\s+"),
+                "\\s+",
                 Arrays.asList(new LexerOutput[] {
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\("),
+                "\\(",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_LPAREN,
@@ -6400,7 +5696,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("in(?![a-zA-Z0-9_])"),
+                "in(?![a-zA-Z0-9_])",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_IN,
@@ -6411,7 +5707,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("[a-zA-Z]([a-zA-Z0-9_])*"),
+                "[a-zA-Z]([a-zA-Z0-9_])*",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_IDENTIFIER,
@@ -6423,7 +5719,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
         }));
         this.regex.put("raw_command", Arrays.asList(new HermesRegex[] {
             new HermesRegex(
-                Pattern.compile("\\{"),
+                "\\{",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_RAW_CMD_START,
@@ -6433,7 +5729,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\}"),
+                "\\}",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_RAW_CMD_END,
@@ -6444,7 +5740,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\$\\{"),
+                "\\$\\{",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_CMD_PARAM_START,
@@ -6455,7 +5751,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("(.*?)(?=\\$\\{|\\})", Pattern.DOTALL),
+                "(.*?)(?=\\$\\{|\\})", Pattern.DOTALL,
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_CMD_PART,
@@ -6467,7 +5763,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
         }));
         this.regex.put("raw_command2", Arrays.asList(new HermesRegex[] {
             new HermesRegex(
-                Pattern.compile("<<<"),
+                "<<<",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_RAW_CMD_START,
@@ -6477,7 +5773,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile(">>>"),
+                ">>>",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_RAW_CMD_END,
@@ -6488,7 +5784,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\$\\{"),
+                "\\$\\{",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_CMD_PARAM_START,
@@ -6499,7 +5795,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("(.*?)(?=\\$\\{|>>>)", Pattern.DOTALL),
+                "(.*?)(?=\\$\\{|>>>)", Pattern.DOTALL,
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_CMD_PART,
@@ -6511,12 +5807,12 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
         }));
         this.regex.put("cmd_param", Arrays.asList(new HermesRegex[] {
             new HermesRegex(
-                Pattern.compile("\\s+"),
+                "\\s+",
                 Arrays.asList(new LexerOutput[] {
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\}"),
+                "\\}",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_CMD_PARAM_END,
@@ -6527,7 +5823,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\["),
+                "\\[",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_LSQUARE,
@@ -6537,7 +5833,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\]"),
+                "\\]",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_RSQUARE,
@@ -6547,7 +5843,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("="),
+                "=",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_EQUAL,
@@ -6557,7 +5853,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\+"),
+                "\\+",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_PLUS,
@@ -6567,7 +5863,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\*"),
+                "\\*",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_ASTERISK,
@@ -6577,7 +5873,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("[0-9]+"),
+                "[0-9]+",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_INTEGER,
@@ -6587,7 +5883,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("if"),
+                "if",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_IF,
@@ -6597,7 +5893,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("else"),
+                "else",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_ELSE,
@@ -6607,7 +5903,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("then"),
+                "then",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_THEN,
@@ -6617,7 +5913,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("[a-zA-Z]([a-zA-Z0-9_])*(?=\\s*=)"),
+                "[a-zA-Z]([a-zA-Z0-9_])*(?=\\s*=)",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_CMD_ATTR_HINT,
@@ -6632,7 +5928,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("(true|false)(?![a-zA-Z0-9_])"),
+                "(true|false)(?![a-zA-Z0-9_])",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_BOOLEAN,
@@ -6642,7 +5938,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("(Array|Map|Object|Pair|Boolean|Int|Float|Uri|File|String)(?![a-zA-Z0-9_])(?![a-zA-Z0-9_])"),
+                "(Array|Map|Object|Pair|Boolean|Int|Float|Uri|File|String)(?![a-zA-Z0-9_])(?![a-zA-Z0-9_])",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_TYPE,
@@ -6652,7 +5948,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("[a-zA-Z]([a-zA-Z0-9_])*"),
+                "[a-zA-Z]([a-zA-Z0-9_])*",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_IDENTIFIER,
@@ -6662,7 +5958,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile(":"),
+                ":",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_COLON,
@@ -6672,7 +5968,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile(","),
+                ",",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_COMMA,
@@ -6682,7 +5978,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\."),
+                "\\.",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_DOT,
@@ -6692,7 +5988,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("=="),
+                "==",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_DOUBLE_EQUAL,
@@ -6702,7 +5998,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\|\\|"),
+                "\\|\\|",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_DOUBLE_PIPE,
@@ -6712,7 +6008,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\&\\&"),
+                "\\&\\&",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_DOUBLE_AMPERSAND,
@@ -6722,7 +6018,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("!="),
+                "!=",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_NOT_EQUAL,
@@ -6732,7 +6028,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("="),
+                "=",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_EQUAL,
@@ -6742,7 +6038,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\."),
+                "\\.",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_DOT,
@@ -6752,7 +6048,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\{"),
+                "\\{",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_LBRACE,
@@ -6762,7 +6058,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\("),
+                "\\(",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_LPAREN,
@@ -6772,7 +6068,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\)"),
+                "\\)",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_RPAREN,
@@ -6782,7 +6078,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\["),
+                "\\[",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_LSQUARE,
@@ -6792,7 +6088,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\]"),
+                "\\]",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_RSQUARE,
@@ -6802,7 +6098,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\+"),
+                "\\+",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_PLUS,
@@ -6812,7 +6108,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\*"),
+                "\\*",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_ASTERISK,
@@ -6822,7 +6118,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("-"),
+                "-",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_DASH,
@@ -6832,7 +6128,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("/"),
+                "/",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_SLASH,
@@ -6842,7 +6138,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("%"),
+                "%",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_PERCENT,
@@ -6852,7 +6148,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("<="),
+                "<=",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_LTEQ,
@@ -6862,7 +6158,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("<"),
+                "<",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_LT,
@@ -6872,7 +6168,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile(">="),
+                ">=",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_GTEQ,
@@ -6882,7 +6178,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile(">"),
+                ">",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_GT,
@@ -6892,7 +6188,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("!"),
+                "!",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_NOT,
@@ -6902,7 +6198,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("\\\"(?>[^\\\\\\\"\\n]|\\\\[\\\"\\'nrbtfav\\\\?]|\\\\[0-7]{1,3}|\\\\x[0-9a-fA-F]+|\\\\[uU]([0-9a-fA-F]{4})([0-9a-fA-F]{4})?)*\\\""),
+                "\\\"(?>[^\\\\\\\"\\n]|\\\\[\\\"\\'nrbtfav\\\\?]|\\\\[0-7]{1,3}|\\\\x[0-9a-fA-F]+|\\\\[uU]([0-9a-fA-F]{4})([0-9a-fA-F]{4})?)*\\\"",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_STRING,
@@ -6912,7 +6208,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("'(?>[^\\\\\\'\\n]|\\\\[\\\"\\'nrbtfav\\\\?]|\\\\[0-7]{1,3}|\\\\x[0-9a-fA-F]+|\\\\[uU]([0-9a-fA-F]{4})([0-9a-fA-F]{4})?)*'"),
+                "'(?>[^\\\\\\'\\n]|\\\\[\\\"\\'nrbtfav\\\\?]|\\\\[0-7]{1,3}|\\\\x[0-9a-fA-F]+|\\\\[uU]([0-9a-fA-F]{4})([0-9a-fA-F]{4})?)*'",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_STRING,
@@ -6922,7 +6218,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("-?[0-9]+\\.[0-9]+"),
+                "-?[0-9]+\\.[0-9]+",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_FLOAT,
@@ -6932,7 +6228,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                 })
             ),
             new HermesRegex(
-                Pattern.compile("[0-9]+"),
+                "[0-9]+",
                 Arrays.asList(new LexerOutput[] {
                     new LexerRegexOutput(
                         WdlTerminalIdentifier.TERMINAL_INTEGER,
@@ -6943,9 +6239,12 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
             ),
         }));
     }
-    private void unrecognized_token(String string, int line, int col) throws SyntaxError {
-        String[] a = string.split("\n");
-        String bad_line = string.split("\n")[line-1];
+    private void unrecognized_token(LexerContext lctx, int line, int col) throws SyntaxError, IOException {
+        WdlParserRuntime.LexerInput input = lctx.input;
+        int end;
+        while ((end = input.indexOf('\n', lctx.position)) < 0 && input.fill()) {
+        }
+        String bad_line = input.substring(lctx.line_start, end < 0 ? input.length() : end);
         StringBuffer spaces = new StringBuffer();
         for (int i = 0; i < col-1; i++) {
           spaces.append(' ');
@@ -6956,12 +6255,12 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
         );
         throw new SyntaxError(message);
     }
-    private int next(LexerContext lctx) throws SyntaxError {
+    private int next(LexerContext lctx) throws SyntaxError, IOException {
         String mode = lctx.stack.peek();
         for (int i = 0; i < this.regex.get(mode).size(); i++) {
             HermesRegex regex = this.regex.get(mode).get(i);
-            Matcher matcher = regex.pattern.matcher(lctx.string);
-            if (matcher.lookingAt()) {
+            MatchResult matcher = regex.lookingAt(lctx.input, lctx.position);
+            if (matcher != null) {
                 for (LexerOutput output : regex.outputs) {
                     if (output instanceof LexerStackPush) {
                         lctx.stack.push(((LexerStackPush) output).mode);
@@ -6981,7 +6280,7 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                         int group_line = lctx.line;
                         int group_col = lctx.col;
                         if (regex_output.group > 0) {
-                            LineColumn lc = lctx.advance_line_col(matcher.group(0), matcher.start(regex_output.group));
+                            LineColumn lc = lctx.advance_line_col(matcher.start(regex_output.group));
                             group_line = lc.line;
                             group_col = lc.col;
                         }
@@ -7001,8 +6300,9 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
                         }
                     }
                 }
-                lctx.advance(matcher.group(0));
-                return matcher.group(0).length();
+                int length = matcher.end() - lctx.position;
+                lctx.advance(matcher.end());
+                return length;
             }
         }
         return 0;
@@ -7017,17 +6317,49 @@ public void wdl_unescape(LexerContext ctx, TerminalIdentifier terminal, String s
      * @throws SyntaxError If part of the source code could not lexically analyzed
      */
     public List<Terminal> lex(String string, String resource) throws SyntaxError {
-        LexerContext lctx = new LexerContext(string, resource);
+        try {
+            return lex(new WdlParserRuntime.LexerInput(string), resource);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+    /**
+     * Lexically analyze WDL source code read from a channel as UTF-8.  The channel is read
+     * in chunks as the lexer needs them and is not closed.
+     *
+     * @param channel The WDL source code to analyze
+     * @param resource A descriptor of where this code came from (usually a file path)
+     * @return List of Terminal objects.
+     * @throws SyntaxError If part of the source code could not lexically analyzed
+     * @throws IOException If the channel could not be read or does not hold UTF-8
+     */
+    public List<Terminal> lex(ReadableByteChannel channel, String resource) throws SyntaxError, IOException {
+        return lex(new WdlParserRuntime.LexerInput(channel), resource);
+    }
+    public List<Terminal> lex(InputStream stream, String resource) throws SyntaxError, IOException {
+        return lex(Channels.newChannel(stream), resource);
+    }
+    public List<Terminal> lex(Path path) throws SyntaxError, IOException {
+        try (FileChannel channel = FileChannel.open(path)) {
+            return lex(channel, path.toString());
+        }
+    }
+    private List<Terminal> lex(WdlParserRuntime.LexerInput input, String resource) throws SyntaxError, IOException {
+        LexerContext lctx = new LexerContext(input, resource);
         Object context = this.init();
         lctx.context = context;
-        String string_copy = new String(string);
         if (this.regex == null) {
             lexer_init();
         }
-        while (lctx.string.length() > 0) {
+        long deadline = this.timeout > 0 ? System.nanoTime() + this.timeout * 1000000L : 0;
+        for (int ticks = 1; lctx.position < input.length() || input.fill(); ticks++) {
             int match_length = this.next(lctx);
             if (match_length == 0) {
-                this.unrecognized_token(string_copy, lctx.line, lctx.col);
+                this.unrecognized_token(lctx, lctx.line, lctx.col);
+            }
+            check_tokens(lctx.terminals.size());
+            if (deadline != 0 && (ticks & 1023) == 0 && System.nanoTime() - deadline > 0) {
+                throw new SyntaxError("Timed out lexing at line " + lctx.line + ", column " + lctx.col);
             }
         }
         this.destroy(context);
@@ -0,0 +1,700 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.regex.MatchResult;
+import java.util.regex.Pattern;
+
+/**
+ * The parts of WdlParser's runtime that are written by hand rather than generated by hermes.
+ * WdlParser.java keeps only the hooks these need; the README lists those hooks, which have
+ * to be carried over by hand when the parser is generated again.
+ */
+final class WdlParserRuntime {
+    private WdlParserRuntime() {}
+
+    /*
+     * Matches command text up to the next ${ or end delimiter, like (.*?)(?=\$\{|end) with
+     * DOTALL but without testing the lookahead at every character: one pass looks for '$'
+     * and the first character of the end delimiter.
+     */
+    static final class CommandScanner {
+        private static final String PREFIX = "(.*?)(?=\\$\\{|";
+        private final String end;
+        CommandScanner(String end) {
+            this.end = end;
+        }
+
+        /* A scanner for regex if it is (.*?)(?=\$\{|end) with DOTALL and a literal end, or null. */
+        static CommandScanner of(String regex, int flags) {
+            if (flags != Pattern.DOTALL || !regex.startsWith(PREFIX) || !regex.endsWith(")")) {
+                return null;
+            }
+            StringBuilder end = new StringBuilder();
+            for (int i = PREFIX.length(); i < regex.length() - 1; i++) {
+                char c = regex.charAt(i);
+                if (c == '\\') {
+                    c = regex.charAt(++i);
+                    if (Character.isLetterOrDigit(c)) {
+                        return null;
+                    }
+                } else if ("\\[](){}.*+?^$|".indexOf(c) >= 0) {
+                    return null;
+                }
+                end.append(c);
+            }
+            return end.length() == 0 ? null : new CommandScanner(end.toString());
+        }
+        public MatchResult lookingAt(LexerInput input, int start) throws IOException {
+            char first = this.end.charAt(0);
+            /* Neither ${ nor the end delimiter can start past safe without reading more. */
+            int lookahead = Math.max(2, this.end.length()) - 1;
+            int i = start;
+            while (true) {
+                boolean complete = input.isComplete();
+                int safe = complete ? input.length() : input.length() - lookahead;
+                for (; i < safe; i++) {
+                    char c = input.charAt(i);
+                    if (c == '$' && i + 1 < input.length() && input.charAt(i + 1) == '{') {
+                        return new Prefix(input, start, i);
+                    }
+                    if (c == first && input.startsWith(this.end, i)) {
+                        return new Prefix(input, start, i);
+                    }
+                }
+                if (complete) {
+                    return null;
+                }
+                input.fill();
+            }
+        }
+        public String toString() {
+            return "<CommandScanner end=" + this.end + ">";
+        }
+    }
+
+    /* A match of input[start, end), with no groups but group 0. */
+    static final class Prefix implements MatchResult {
+        private final LexerInput input;
+        private final int start;
+        private final int end;
+        Prefix(LexerInput input, int start, int end) {
+            this.input = input;
+            this.start = start;
+            this.end = end;
+        }
+        public int start() {
+            return this.start;
+        }
+        public int start(int group) {
+            check(group);
+            return this.start;
+        }
+        public int end() {
+            return this.end;
+        }
+        public int end(int group) {
+            check(group);
+            return this.end;
+        }
+        public String group() {
+            return this.input.substring(this.start, this.end);
+        }
+        public String group(int group) {
+            check(group);
+            return group();
+        }
+        public int groupCount() {
+            return 0;
+        }
+        private void check(int group) {
+            if (group != 0) {
+                throw new IndexOutOfBoundsException("No group " + group);
+            }
+        }
+    }
+
+    /*
+     * The text being lexed.  Indices are offsets from the start of the source, but only a
+     * window of it is held: text read from a channel is decoded from UTF-8 a chunk at a time
+     * as matches need it, and the text before the current line is dropped as the window
+     * moves, so neither the bytes nor the characters of a large input are held whole.
+     */
+    static final class LexerInput implements CharSequence {
+        private static final int CHUNK_SIZE = 64 * 1024;
+        private ReadableByteChannel channel;
+        private CharsetDecoder decoder;
+        private ByteBuffer bytes;
+        private char[] chars;
+        private int base;
+        private int limit;
+        private int mark;
+        LexerInput(String string) {
+            this.chars = string.toCharArray();
+            this.limit = this.chars.length;
+        }
+        LexerInput(ReadableByteChannel channel) {
+            this.channel = channel;
+            this.decoder = StandardCharsets.UTF_8.newDecoder();
+            this.bytes = ByteBuffer.allocate(CHUNK_SIZE);
+            this.chars = new char[2 * CHUNK_SIZE];
+        }
+        public int length() {
+            return this.limit;
+        }
+        public char charAt(int index) {
+            return this.chars[index - this.base];
+        }
+        public CharSequence subSequence(int start, int end) {
+            return substring(start, end);
+        }
+        public String substring(int start, int end) {
+            return new String(this.chars, start - this.base, end - start);
+        }
+        public String toString() {
+            return substring(this.base, this.limit);
+        }
+        public boolean startsWith(String prefix, int index) {
+            if (index + prefix.length() > this.limit) {
+                return false;
+            }
+            for (int i = 0; i < prefix.length(); i++) {
+                if (this.chars[index - this.base + i] != prefix.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        public int indexOf(char c, int from) {
+            for (int i = from - this.base; i < this.limit - this.base; i++) {
+                if (this.chars[i] == c) {
+                    return i + this.base;
+                }
+            }
+            return -1;
+        }
+
+        /* Whether the whole source has been read. */
+        public boolean isComplete() {
+            return this.channel == null;
+        }
+
+        /* Text before index will not be asked for again. */
+        public void release(int index) {
+            this.mark = index;
+        }
+
+        /* Read and decode another chunk; false if there was no more to read. */
+        public boolean fill() throws IOException {
+            if (this.channel == null) {
+                return false;
+            }
+            if (this.chars.length - (this.limit - this.base) < CHUNK_SIZE) {
+                int kept = this.limit - this.mark;
+                char[] chars = this.chars;
+                if (kept + CHUNK_SIZE > chars.length) {
+                    chars = new char[Math.max(2 * chars.length, kept + CHUNK_SIZE)];
+                }
+                System.arraycopy(this.chars, this.mark - this.base, chars, 0, kept);
+                this.chars = chars;
+                this.base = this.mark;
+            }
+            int before = this.limit;
+            while (this.limit == before && this.channel != null) {
+                boolean end = this.channel.read(this.bytes) < 0;
+                this.bytes.flip();
+                CharBuffer out = CharBuffer.wrap(this.chars, this.limit - this.base, this.chars.length - (this.limit - this.base));
+                CoderResult result = this.decoder.decode(this.bytes, out, end);
+                if (!result.isError() && end) {
+                    result = this.decoder.flush(out);
+                }
+                if (result.isError()) {
+                    result.throwException();
+                }
+                this.bytes.compact();
+                this.limit = out.position() + this.base;
+                if (end) {
+                    this.channel = null;
+                }
+            }
+            return this.limit > before;
+        }
+
+        /* The rest of the source. */
+        public String readAll() throws IOException {
+            while (fill()) {
+                release(this.base);
+            }
+            return toString();
+        }
+    }
+
+    /**
+     * A top-level Task or Workflow of a document from parseLazy(), kept as its tokens until
+     * one of its attributes is first asked for.  Expansion happens once, under a lock, so
+     * a LazyAst can be shared between threads.  A syntax error in its tokens is thrown as
+     * an UncheckedSyntaxError from every access, or as a SyntaxError from expand().
+     */
+    static final class LazyAst extends WdlParser.Ast {
+        private final List<WdlParser.Terminal> tokens;
+        /* The whole document's tokens, for reporting a syntax error as parse() would. */
+        private final List<WdlParser.Terminal> document;
+        private final WdlParser.SyntaxErrorFormatter error_formatter;
+        private final WdlParser parser;
+        private volatile WdlParser.Ast ast;
+        private WdlParser.SyntaxError error;
+        LazyAst(String name, List<WdlParser.Terminal> tokens, List<WdlParser.Terminal> document, WdlParser.SyntaxErrorFormatter error_formatter, WdlParser parser) {
+            super(name, null);
+            this.tokens = tokens;
+            this.document = document;
+            this.error_formatter = error_formatter;
+            this.parser = parser;
+        }
+        public boolean isExpanded() {
+            return this.ast != null;
+        }
+        public WdlParser.Ast expand() throws WdlParser.SyntaxError {
+            WdlParser.Ast ast = this.ast;
+            if (ast != null) {
+                return ast;
+            }
+            synchronized (this) {
+                if (this.ast == null) {
+                    if (this.error != null) {
+                        throw this.error;
+                    }
+                    try {
+                        this.ast = this.parser.parse_definition(getName(), this.tokens, this.error_formatter);
+                    } catch (WdlParser.SyntaxError e) {
+                        this.error = e;
+                        throw e;
+                    }
+                }
+                return this.ast;
+            }
+        }
+        private WdlParser.Ast ast() {
+            try {
+                return expand();
+            } catch (WdlParser.SyntaxError e) {
+                throw new WdlParser.UncheckedSyntaxError(e);
+            }
+        }
+        public WdlParser.AstNode getAttribute(String name) {
+            /* The name is known without expanding, so tasks can be looked up by it. */
+            if (name.equals("name") && this.ast == null && this.tokens.size() > 1
+                    && this.tokens.get(1).getId() == WdlParser.WdlTerminalIdentifier.TERMINAL_IDENTIFIER.id()) {
+                return this.tokens.get(1);
+            }
+            return ast().getAttribute(name);
+        }
+        public Map<String, WdlParser.AstNode> getAttributes() {
+            return ast().getAttributes();
+        }
+        public String toString() {
+            return ast().toString();
+        }
+        public String toPrettyString(int indent) {
+            return ast().toPrettyString(indent);
+        }
+    }
+
+    /* WdlParser.parseLazy: parse the document around its top-level tasks and workflows, which become LazyAsts. */
+    static WdlParser.Ast parseLazy(WdlParser parser, List<WdlParser.Terminal> tokens, WdlParser.SyntaxErrorFormatter error_formatter) throws WdlParser.SyntaxError {
+        parser.check_tokens(tokens.size());
+        List<int[]> definitions = definitions(tokens);
+        if (definitions.isEmpty()) {
+            return (WdlParser.Ast) parser.parse(tokens, error_formatter).toAst();
+        }
+        WdlParser.AstList imports = null;
+        WdlParser.AstList body = new WdlParser.AstList();
+        int start = 0;
+        for (int i = 0; i <= definitions.size(); i++) {
+            int end = i < definitions.size() ? definitions.get(i)[0] : tokens.size();
+            if (start < end || i == 0) {
+                WdlParser.Ast namespace;
+                try {
+                    namespace = (WdlParser.Ast) parser.parse(tokens.subList(start, end), error_formatter).toAst();
+                } catch (WdlParser.SyntaxError e) {
+                    /* Report the error as parsing the whole document would. */
+                    parser.parse(tokens, error_formatter);
+                    throw e;
+                }
+                WdlParser.AstList parsed = namespace == null ? new WdlParser.AstList() : (WdlParser.AstList) namespace.getAttribute("imports");
+                if (i > 0 && !parsed.isEmpty()) {
+                    /* Imports after a definition, which the whole document reports. */
+                    parser.parse(tokens, error_formatter);
+                }
+                if (imports == null) {
+                    imports = parsed;
+                }
+                if (namespace != null) {
+                    body.addAll((WdlParser.AstList) namespace.getAttribute("body"));
+                }
+            }
+            if (i < definitions.size()) {
+                int[] definition = definitions.get(i);
+                String name = tokens.get(definition[0]).getId() == WdlParser.WdlTerminalIdentifier.TERMINAL_TASK.id() ? "Task" : "Workflow";
+                body.add(new LazyAst(name, tokens.subList(definition[0], definition[1]), tokens, error_formatter, parser));
+                start = definition[1];
+            }
+        }
+        Map<String, WdlParser.AstNode> attributes = new LinkedHashMap<String, WdlParser.AstNode>();
+        attributes.put("imports", imports);
+        attributes.put("body", body);
+        return new WdlParser.Ast("Namespace", attributes);
+    }
+
+    /* WdlParser.parseParallel: parseLazy, then expand the LazyAsts in parallel on pool. */
+    static WdlParser.Ast parseParallel(WdlParser parser, List<WdlParser.Terminal> tokens, WdlParser.SyntaxErrorFormatter error_formatter, ForkJoinPool pool) throws WdlParser.SyntaxError {
+        WdlParser.Ast document = parseLazy(parser, tokens, error_formatter);
+        if (document == null) {
+            return null;
+        }
+        WdlParser.AstList body = (WdlParser.AstList) document.getAttribute("body");
+        if (pool.invoke(new Expansion(body, 0, body.size()))) {
+            return document;
+        }
+        /* Let the sequential parse find the error, as it stops at the first one. */
+        parser.parse(tokens, error_formatter).toAst();
+        validate(body);
+        return document;
+    }
+
+    /* Replaces the LazyAsts in body[start, end) with their expansions; false if one has a syntax error. */
+    private static final class Expansion extends RecursiveTask<Boolean> {
+        private static final long serialVersionUID = 1L;
+        private static final int THRESHOLD = 8;
+        private final WdlParser.AstList body;
+        private final int start;
+        private final int end;
+        Expansion(WdlParser.AstList body, int start, int end) {
+            this.body = body;
+            this.start = start;
+            this.end = end;
+        }
+        protected Boolean compute() {
+            if (this.end - this.start > THRESHOLD) {
+                int middle = (this.start + this.end) >>> 1;
+                Expansion left = new Expansion(this.body, this.start, middle);
+                left.fork();
+                boolean right = new Expansion(this.body, middle, this.end).compute();
+                return left.join() & right;
+            }
+            boolean expanded = true;
+            for (int i = this.start; i < this.end; i++) {
+                WdlParser.AstNode node = this.body.get(i);
+                if (node instanceof LazyAst) {
+                    try {
+                        this.body.set(i, ((LazyAst) node).expand());
+                    } catch (WdlParser.SyntaxError e) {
+                        expanded = false;
+                    }
+                }
+            }
+            return expanded;
+        }
+    }
+
+    /*
+     * WdlParser.validate: expand every LazyAst in tree, throwing the first syntax error in them.
+     * That error is the one parse() gives for the whole document, since with unbalanced braces
+     * a definition's tokens are not what parse() sees and its own error can be misleading.
+     */
+    static void validate(WdlParser.AstNode tree) throws WdlParser.SyntaxError {
+        if (tree instanceof LazyAst) {
+            LazyAst lazy = (LazyAst) tree;
+            try {
+                lazy.expand();
+            } catch (WdlParser.SyntaxError e) {
+                lazy.parser.parse(lazy.document, lazy.error_formatter);
+                throw e;
+            }
+        } else if (tree instanceof WdlParser.Ast) {
+            for (WdlParser.AstNode child : ((WdlParser.Ast) tree).getAttributes().values()) {
+                validate(child);
+            }
+        } else if (tree instanceof WdlParser.AstList) {
+            for (WdlParser.AstNode child : (WdlParser.AstList) tree) {
+                validate(child);
+            }
+        }
+    }
+
+    /*
+     * The [start, end) token ranges of the top-level tasks and workflows: a task or workflow
+     * keyword outside any braces, up to the brace that closes the first one after it.
+     */
+    private static List<int[]> definitions(List<WdlParser.Terminal> tokens) {
+        int lbrace = WdlParser.WdlTerminalIdentifier.TERMINAL_LBRACE.id();
+        int rbrace = WdlParser.WdlTerminalIdentifier.TERMINAL_RBRACE.id();
+        int task = WdlParser.WdlTerminalIdentifier.TERMINAL_TASK.id();
+        int workflow = WdlParser.WdlTerminalIdentifier.TERMINAL_WORKFLOW.id();
+        List<int[]> definitions = new ArrayList<int[]>();
+        int depth = 0;
+        for (int i = 0; i < tokens.size(); i++) {
+            int id = tokens.get(i).getId();
+            if (id == lbrace) {
+                depth++;
+            } else if (id == rbrace) {
+                depth--;
+            } else if (depth == 0 && (id == task || id == workflow)) {
+                int start = i;
+                boolean opened = false;
+                for (i++; i < tokens.size(); i++) {
+                    id = tokens.get(i).getId();
+                    if (id == lbrace) {
+                        depth++;
+                        opened = true;
+                    } else if (id == rbrace && --depth == 0 && opened) {
+                        break;
+                    }
+                }
+                definitions.add(new int[] {start, Math.min(i + 1, tokens.size())});
+                depth = 0;
+            }
+        }
+        return definitions;
+    }
+
+    /*
+     * The characters a match of a regex can start with, or any when the regex is beyond
+     * this: only literals, escapes, simple classes, groups and alternation are read, and
+     * an alternative whose first atom may repeat zero times gives up.
+     */
+    static final class FirstChars {
+        private static final String WHITESPACE = " \t\n\u000B\f\r";
+        /* ASCII characters, then one flag for all others. */
+        private boolean[] chars = new boolean[129];
+        FirstChars(String regex, int flags) {
+            if ((flags & ~Pattern.DOTALL) != 0 || alternatives(regex, 0) != regex.length()) {
+                Arrays.fill(this.chars, true);
+            }
+        }
+        public boolean contains(char c) {
+            return this.chars[Math.min(c, 128)];
+        }
+        private void add(char c) {
+            this.chars[Math.min(c, 128)] = true;
+        }
+        private void add(char from, char to) {
+            for (char c = from; c <= to && c < 128; c++) {
+                add(c);
+            }
+            if (to >= 128) {
+                add((char) 128);
+            }
+        }
+        /* Add each alternative's first atom from i; the index of the closing ')' or end, or -1. */
+        private int alternatives(String regex, int i) {
+            while (true) {
+                i = atom(regex, i);
+                if (i < 0 || (i < regex.length() && "?*{".indexOf(regex.charAt(i)) >= 0)) {
+                    return -1;
+                }
+                i = skip(regex, i);
+                if (i < 0 || i == regex.length() || regex.charAt(i) == ')') {
+                    return i;
+                }
+                i++;
+            }
+        }
+        /* Add the characters the atom at i can start with; the index after it, or -1. */
+        private int atom(String regex, int i) {
+            if (i >= regex.length()) {
+                return -1;
+            }
+            char c = regex.charAt(i);
+            if (c == '(') {
+                if (i + 1 >= regex.length() || regex.charAt(i + 1) == '?') {
+                    return -1;
+                }
+                i = alternatives(regex, i + 1);
+                return i < 0 || i == regex.length() ? -1 : i + 1;
+            }
+            if (c == '[') {
+                return set(regex, i + 1);
+            }
+            if (c == '\\') {
+                return i + 1 < regex.length() && escape(regex.charAt(i + 1)) ? i + 2 : -1;
+            }
+            if (".^$|)*+?{".indexOf(c) >= 0) {
+                return -1;
+            }
+            add(c);
+            return i + 1;
+        }
+        /* Add the members of the class from i, just past '['; the index after ']', or -1. */
+        private int set(String regex, int i) {
+            if (i < regex.length() && (regex.charAt(i) == '^' || regex.charAt(i) == ']')) {
+                return -1;
+            }
+            while (i < regex.length()) {
+                char c = regex.charAt(i);
+                if (c == ']') {
+                    return i + 1;
+                }
+                if (c == '[' || c == '&') {
+                    return -1;
+                }
+                if (c == '\\') {
+                    if (i + 1 >= regex.length() || !escape(regex.charAt(i + 1))) {
+                        return -1;
+                    }
+                    i += 2;
+                    continue;
+                }
+                if (i + 2 < regex.length() && regex.charAt(i + 1) == '-' && regex.charAt(i + 2) != ']') {
+                    char to = regex.charAt(i + 2);
+                    if (to == '\\' || to == '[' || to < c) {
+                        return -1;
+                    }
+                    add(c, to);
+                    i += 3;
+                    continue;
+                }
+                add(c);
+                i++;
+            }
+            return -1;
+        }
+        /* Add what \c matches, if it is one character of a known set. */
+        private boolean escape(char c) {
+            if (c == 's') {
+                for (int i = 0; i < WHITESPACE.length(); i++) {
+                    add(WHITESPACE.charAt(i));
+                }
+            } else if (c == 'd') {
+                add('0', '9');
+            } else if (c == 'w') {
+                add('a', 'z');
+                add('A', 'Z');
+                add('0', '9');
+                add('_');
+            } else if (Character.isLetterOrDigit(c)) {
+                return false;
+            } else {
+                add(c);
+            }
+            return true;
+        }
+        /* The index of the '|' or ')' that ends the alternative at i, or end; -1 if unreadable. */
+        private static int skip(String regex, int i) {
+            int depth = 0;
+            while (i < regex.length()) {
+                char c = regex.charAt(i);
+                if (c == '\\') {
+                    i += 2;
+                    continue;
+                }
+                if (c == '[') {
+                    i++;
+                    if (i < regex.length() && regex.charAt(i) == '^') {
+                        i++;
+                    }
+                    if (i < regex.length() && regex.charAt(i) == ']') {
+                        i++;
+                    }
+                    while (i < regex.length() && regex.charAt(i) != ']') {
+                        char member = regex.charAt(i);
+                        if (member == '[') {
+                            return -1;
+                        }
+                        i += member == '\\' ? 2 : 1;
+                    }
+                } else if (c == '(') {
+                    depth++;
+                } else if (c == ')' || c == '|') {
+                    if (depth == 0) {
+                        return i;
+                    }
+                    if (c == ')') {
+                        depth--;
+                    }
+                }
+                i++;
+            }
+            return depth == 0 ? i : -1;
+        }
+    }
+
+    /*
+     * The parse tables are packed into strings, which the class file holds as constants,
+     * and unpacked by a short loop when the class is initialized.  Written out as array and
+     * map stores they took most of the class's bytecode, all of which the JVM must load,
+     * verify and interpret once on every start.  Each table is a list of entries separated
+     * by ';', each either a row of terminal=rule pairs or a key=id,... list, in order.
+     * WdlTablePacker prints them.
+     */
+    static int[][] unpackTable(int terminals, String packed) {
+        List<int[]> rows = new ArrayList<int[]>();
+        int[] row = new int[terminals];
+        Arrays.fill(row, -1);
+        int number = 0, terminal = 0;
+        boolean digits = false;
+        for (char c : (packed + ";").toCharArray()) {
+            if (c >= '0' && c <= '9') {
+                number = number * 10 + c - '0';
+                digits = true;
+                continue;
+            }
+            if (c == '=') {
+                terminal = number;
+            } else if (digits) {
+                row[terminal] = number;
+            }
+            if (c == ';') {
+                rows.add(row);
+                row = new int[terminals];
+                Arrays.fill(row, -1);
+            }
+            number = 0;
+            digits = false;
+        }
+        return rows.toArray(new int[rows.size()][]);
+    }
+    static Map<Integer, List<WdlParser.TerminalIdentifier>> unpackSets(WdlParser.TerminalMap terminal_map, int terminals, String packed) {
+        WdlParser.TerminalIdentifier[] values = new WdlParser.TerminalIdentifier[terminals];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = terminal_map.get(i);
+        }
+        return unpackLists(values, packed);
+    }
+    static <T> Map<Integer, List<T>> unpackLists(T[] values, String packed) {
+        Map<Integer, List<T>> map = new HashMap<Integer, List<T>>();
+        T[] list = Arrays.copyOf(values, values.length);
+        int number = 0, key = 0, size = 0;
+        boolean digits = false;
+        for (char c : (packed + ";").toCharArray()) {
+            if (c >= '0' && c <= '9') {
+                number = number * 10 + c - '0';
+                digits = true;
+                continue;
+            }
+            if (c == '=') {
+                key = number;
+            } else if (digits) {
+                list[size++] = values[number];
+            }
+            if (c == ';') {
+                map.put(key, Arrays.asList(Arrays.copyOf(list, size)));
+                size = 0;
+            }
+            number = 0;
+            digits = false;
+        }
+        return Collections.unmodifiableMap(map);
+    }
+}
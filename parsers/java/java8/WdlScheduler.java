@@ -0,0 +1,366 @@
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Admits jobs onto a machine with a fixed number of cores, bytes of memory and bytes of disk.
+ *
+ * Every job declares the Resources it needs, normally parsed from a task's evaluated runtime
+ * section with request().  Jobs wait in arrival order until their request fits next to the
+ * jobs already running.  When the oldest waiting job does not fit, later jobs that do are
+ * started in its place (backfilling), the one filling the machine best first; once the
+ * oldest job has been passed over maxBypass times, nothing else starts until it has.
+ *
+ * A request larger than the machine is reduced to the whole machine, so such a job runs
+ * alone rather than never.  The machine may be real (local()) or any made-up size, which
+ * makes scheduling decisions easy to simulate.
+ */
+public class WdlScheduler {
+    /** Cores, memory and disk, either a machine's capacity or what one job needs. */
+    public static final class Resources {
+        public static final long UNLIMITED = Long.MAX_VALUE;
+        private final double cpu;
+        private final long memory;
+        private final long disk;
+        public Resources(double cpu, long memory, long disk) {
+            this.cpu = cpu;
+            this.memory = memory;
+            this.disk = disk;
+        }
+        public double getCpu() {
+            return this.cpu;
+        }
+        public long getMemory() {
+            return this.memory;
+        }
+        public long getDisk() {
+            return this.disk;
+        }
+        Resources min(Resources other) {
+            return new Resources(Math.min(this.cpu, other.cpu), Math.min(this.memory, other.memory), Math.min(this.disk, other.disk));
+        }
+        public String toString() {
+            return this.cpu + " cpu, " + (this.memory >> 20) + " MiB memory, " + (this.disk == UNLIMITED ? "unlimited" : (this.disk >> 20) + " MiB") + " disk";
+        }
+    }
+
+    /** Queue and run times of all jobs with one name. */
+    public static final class Statistics {
+        private int jobs;
+        private long totalWait;
+        private long maxWait;
+        private long totalRun;
+        public int getJobs() {
+            return this.jobs;
+        }
+        public double getMeanWaitMillis() {
+            return this.jobs == 0 ? 0 : this.totalWait / 1e6 / this.jobs;
+        }
+        public double getMaxWaitMillis() {
+            return this.maxWait / 1e6;
+        }
+        public double getMeanRunMillis() {
+            return this.jobs == 0 ? 0 : this.totalRun / 1e6 / this.jobs;
+        }
+    }
+
+    private final class Job implements Runnable {
+        private final String name;
+        private final Resources request;
+        private final Callable<? extends CompletionStage<?>> body;
+        private final CompletableFuture<Object> result = new CompletableFuture<Object>();
+        private final long submitted = System.nanoTime();
+        private long started;
+        private int bypassed;
+        Job(String name, Resources request, Callable<? extends CompletionStage<?>> body) {
+            this.name = name;
+            this.request = request;
+            this.body = body;
+        }
+        public void run() {
+            CompletionStage<?> stage;
+            try {
+                stage = this.body.call();
+            } catch (Throwable t) {
+                this.result.completeExceptionally(t);
+                finished(this);
+                return;
+            }
+            stage.whenComplete((value, t) -> {
+                if (t != null) {
+                    this.result.completeExceptionally(t);
+                } else {
+                    this.result.complete(value);
+                }
+                finished(this);
+            });
+        }
+    }
+
+    public static final int DEFAULT_MAX_BYPASS = 16;
+
+    private final Resources capacity;
+    private final int maxBypass;
+    private final Executor executor;
+    private final LinkedList<Job> queue = new LinkedList<Job>();
+    private final Map<String, Statistics> statistics = new TreeMap<String, Statistics>();
+    private double usedCpu;
+    private long usedMemory;
+    private long usedDisk;
+    private int running;
+    private long start = -1;
+    private long last;
+    private double cpuTime;
+    private double memoryTime;
+
+    public WdlScheduler(Resources capacity) {
+        this(capacity, DEFAULT_MAX_BYPASS, Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "wdl-job");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    /**
+     * @param maxBypass how many later jobs may start ahead of the oldest waiting job
+     * @param executor runs admitted jobs; it must not limit how many run at once
+     */
+    public WdlScheduler(Resources capacity, int maxBypass, Executor executor) {
+        this.capacity = capacity;
+        this.maxBypass = maxBypass;
+        this.executor = executor;
+    }
+
+    /**
+     * This machine: all available cores and the physical memory.  Disk is not limited, as
+     * declared disks are sized for cloud backends and would otherwise serialize most tasks.
+     */
+    public static Resources local() {
+        long memory = physicalMemory();
+        if (memory <= 0) {
+            memory = Runtime.getRuntime().maxMemory();
+        }
+        return new Resources(Runtime.getRuntime().availableProcessors(), memory, Resources.UNLIMITED);
+    }
+
+    /**
+     * The machine's physical memory in bytes, or 0 if the JVM does not report it.
+     * getTotalMemorySize replaced getTotalPhysicalMemorySize in JDK 14, so it is looked up by
+     * name, and the deprecated method is only called on the JDKs that do not have it.
+     */
+    @SuppressWarnings("deprecation")
+    public static long physicalMemory() {
+        java.lang.management.OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (!(os instanceof com.sun.management.OperatingSystemMXBean)) {
+            return 0;
+        }
+        com.sun.management.OperatingSystemMXBean bean = (com.sun.management.OperatingSystemMXBean) os;
+        try {
+            return (Long) com.sun.management.OperatingSystemMXBean.class.getMethod("getTotalMemorySize").invoke(bean);
+        } catch (ReflectiveOperationException e) {
+            return bean.getTotalPhysicalMemorySize();
+        }
+    }
+
+    /* Section: Requests */
+
+    /**
+     * The resources requested by an evaluated runtime section: cpu (default 1), memory such
+     * as "7 GB" or "512 MiB" (default WdlEngine.DEFAULT_TASK_MEMORY) and disks such as
+     * "local-disk 100 SSD, /mnt/tmp 50 HDD" in GB (default 0).
+     */
+    public static Resources request(Map<String, Object> runtime) throws WdlEvaluator.EvaluationError {
+        double cpu = 1;
+        if (runtime.get("cpu") != null) {
+            cpu = WdlEvaluator.asFloat(runtime.get("cpu"));
+            if (!(cpu > 0)) {
+                throw new WdlEvaluator.EvaluationError("runtime cpu must be positive, got " + runtime.get("cpu"));
+            }
+        }
+        long memory = WdlEngine.DEFAULT_TASK_MEMORY;
+        if (runtime.get("memory") != null) {
+            memory = bytes(runtime.get("memory"), "B");
+        }
+        long disk = 0;
+        Object disks = runtime.get("disks");
+        if (disks != null) {
+            for (Object spec : disks instanceof List ? (List<?>) disks : Arrays.asList(WdlEvaluator.asString(disks).split(","))) {
+                String[] words = WdlEvaluator.asString(spec).trim().split("\\s+");
+                if (words.length < 2) {
+                    throw new WdlEvaluator.EvaluationError("Expected disks as \"<mount> <size in GB> <type>\", got '" + spec + "'");
+                }
+                disk += bytes(words[1], "GB");
+            }
+        }
+        return new Resources(cpu, memory, disk);
+    }
+
+    /* A size such as 7, "7", "7 GB" or "7.5GiB", in unit if none is given. */
+    private static long bytes(Object value, String unit) throws WdlEvaluator.EvaluationError {
+        String size = WdlEvaluator.asString(value).trim();
+        int split = 0;
+        while (split < size.length() && (Character.isDigit(size.charAt(split)) || size.charAt(split) == '.')) {
+            split++;
+        }
+        String suffix = size.substring(split).trim();
+        try {
+            double bytes = Double.parseDouble(size.substring(0, split)) * WdlStdlib.unit(suffix.isEmpty() ? unit : suffix);
+            return (long) Math.ceil(bytes);
+        } catch (NumberFormatException e) {
+            throw new WdlEvaluator.EvaluationError("Cannot parse size '" + value + "'");
+        }
+    }
+
+    /* Section: Scheduling */
+
+    /**
+     * Run body once request fits on the machine.  name groups jobs in getStatistics(),
+     * normally by task or call.
+     */
+    public <T> CompletableFuture<T> submit(String name, Resources request, Callable<T> body) {
+        return submitAsync(name, request, () -> CompletableFuture.completedFuture(body.call()));
+    }
+
+    /**
+     * Like submit(), but body only starts the job: its resources stay taken until the stage
+     * body returns completes, without a thread waiting for it.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> submitAsync(String name, Resources request, Callable<? extends CompletionStage<T>> body) {
+        Job job = new Job(name, request.min(this.capacity), body);
+        synchronized (this) {
+            this.queue.add(job);
+            schedule();
+        }
+        return (CompletableFuture<T>) job.result;
+    }
+
+    /* Start every job that may start now.  Caller holds the lock. */
+    private void schedule() {
+        while (!this.queue.isEmpty()) {
+            Job head = this.queue.getFirst();
+            if (fits(head.request)) {
+                start(this.queue.removeFirst());
+                continue;
+            }
+            if (head.bypassed >= this.maxBypass) {
+                return;
+            }
+            Job best = null;
+            double bestShare = -1;
+            for (Job job : this.queue) {
+                if (job != head && fits(job.request) && share(job.request) > bestShare) {
+                    best = job;
+                    bestShare = share(job.request);
+                }
+            }
+            if (best == null) {
+                return;
+            }
+            this.queue.remove(best);
+            head.bypassed++;
+            start(best);
+        }
+    }
+    private boolean fits(Resources request) {
+        return this.usedCpu + request.cpu <= this.capacity.cpu + 1e-9
+            && this.usedMemory + request.memory <= this.capacity.memory
+            && (this.capacity.disk == Resources.UNLIMITED || this.usedDisk + request.disk <= this.capacity.disk);
+    }
+
+    /* The largest fraction of the machine a request takes in any one dimension. */
+    private double share(Resources request) {
+        double share = Math.max(request.cpu / this.capacity.cpu, request.memory / (double) this.capacity.memory);
+        return this.capacity.disk == Resources.UNLIMITED ? share : Math.max(share, request.disk / (double) this.capacity.disk);
+    }
+    private void start(Job job) {
+        account();
+        job.started = System.nanoTime();
+        this.usedCpu += job.request.cpu;
+        this.usedMemory += job.request.memory;
+        this.usedDisk += job.request.disk;
+        this.running++;
+        try {
+            this.executor.execute(job);
+        } catch (RejectedExecutionException e) {
+            job.result.completeExceptionally(e);
+            release(job);
+        }
+    }
+    private synchronized void finished(Job job) {
+        long now = System.nanoTime();
+        Statistics statistics = this.statistics.get(job.name);
+        if (statistics == null) {
+            statistics = new Statistics();
+            this.statistics.put(job.name, statistics);
+        }
+        statistics.jobs++;
+        statistics.totalWait += job.started - job.submitted;
+        statistics.maxWait = Math.max(statistics.maxWait, job.started - job.submitted);
+        statistics.totalRun += now - job.started;
+        release(job);
+        schedule();
+    }
+    private void release(Job job) {
+        account();
+        this.usedCpu -= job.request.cpu;
+        this.usedMemory -= job.request.memory;
+        this.usedDisk -= job.request.disk;
+        this.running--;
+    }
+
+    /* Integrate usage over time up to now, for getUtilization(). */
+    private void account() {
+        long now = System.nanoTime();
+        if (this.start < 0) {
+            this.start = now;
+        } else {
+            this.cpuTime += this.usedCpu * (now - this.last);
+            this.memoryTime += this.usedMemory * (double) (now - this.last);
+        }
+        this.last = now;
+    }
+
+    /* Section: Reporting */
+
+    public Resources getCapacity() {
+        return this.capacity;
+    }
+    public synchronized int getRunning() {
+        return this.running;
+    }
+    public synchronized int getWaiting() {
+        return this.queue.size();
+    }
+
+    /** Queue and run times of finished jobs by name. */
+    public synchronized Map<String, Statistics> getStatistics() {
+        return Collections.unmodifiableMap(new TreeMap<String, Statistics>(this.statistics));
+    }
+
+    /**
+     * Mean fraction of the cores and of the memory in use since the first job started,
+     * as {cpu, memory}.
+     */
+    public synchronized double[] getUtilization() {
+        account();
+        double elapsed = this.last - this.start;
+        if (elapsed <= 0) {
+            return new double[] {0, 0};
+        }
+        return new double[] {this.cpuTime / elapsed / this.capacity.cpu, this.memoryTime / elapsed / this.capacity.memory};
+    }
+
+    /** A table of getStatistics() and getUtilization(). */
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-32s %8s %14s %14s %14s%n", "job", "count", "mean wait ms", "max wait ms", "mean run ms"));
+        for (Map.Entry<String, Statistics> entry : getStatistics().entrySet()) {
+            Statistics s = entry.getValue();
+            sb.append(String.format("%-32s %8d %14.1f %14.1f %14.1f%n", entry.getKey(), s.getJobs(), s.getMeanWaitMillis(), s.getMaxWaitMillis(), s.getMeanRunMillis()));
+        }
+        double[] utilization = getUtilization();
+        sb.append(String.format("utilization: %.1f%% cpu, %.1f%% memory of %s%n", utilization[0] * 100, utilization[1] * 100, this.capacity));
+        return sb.toString();
+    }
+}
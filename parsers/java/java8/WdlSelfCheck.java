@@ -0,0 +1,309 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Self-checking harnesses for the parts of the Java WDL tooling whose results are easy to get
+ * subtly wrong and hard to see in a benchmark.  Each check prints what it verified and the
+ * process exits with status 1 if any of them failed.
+ *
+ *   java -cp . WdlSelfCheck [hashing|scheduler|writing]
+ */
+public class WdlSelfCheck {
+    private static int failures;
+
+    private static void check(boolean condition, String description) {
+        if (!condition) {
+            failures++;
+        }
+        System.out.println((condition ? "ok     " : "FAILED ") + description);
+    }
+
+    /* Section: WdlFileHasher */
+
+    /* The documented digest of file, computed by streaming it rather than by mapping chunks. */
+    private static String expected(Path file) throws IOException {
+        long size = Files.size(file);
+        MessageDigest root = WdlFileHasher.digest();
+        root.update((byte) 1);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            root.update((byte) (size >>> shift));
+        }
+        byte[] block = new byte[WdlFileHasher.LEAF_SIZE];
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            do {
+                int length = 0;
+                for (int n; length < block.length && (n = in.read(block, length, block.length - length)) > 0; ) {
+                    length += n;
+                }
+                MessageDigest leaf = WdlFileHasher.digest();
+                leaf.update((byte) 0);
+                leaf.update(block, 0, length);
+                root.update(leaf.digest());
+                size -= length;
+            } while (size > 0);
+        }
+        return "sha256-tree:" + WdlFileHasher.hex(root.digest());
+    }
+    private static Path write(Path directory, String name, int length, Random random) throws IOException {
+        byte[] contents = new byte[length];
+        random.nextBytes(contents);
+        return Files.write(directory.resolve(name), contents);
+    }
+
+    public static void hashing() throws IOException {
+        int leaf = WdlFileHasher.LEAF_SIZE;
+        Path directory = Files.createTempDirectory("wdl-hashing");
+        try {
+            Random random = new Random(42);
+            List<Path> files = Arrays.asList(
+                write(directory, "empty", 0, random),
+                write(directory, "byte", 1, random),
+                write(directory, "leaf", leaf, random),
+                write(directory, "leaf-plus-one", leaf + 1, random),
+                write(directory, "several", 7 * leaf / 2, random),
+                write(directory, "many", 9 * leaf + 123, random));
+            Map<Path, String> expected = new HashMap<Path, String>();
+            for (Path file : files) {
+                expected.put(file, expected(file));
+            }
+
+            for (int chunkSize : new int[] {1, leaf, 2 * leaf, 3 * leaf + 1, WdlFileHasher.DEFAULT_CHUNK_SIZE}) {
+                for (int parallelism : new int[] {1, 4}) {
+                    try (WdlFileHasher hasher = new WdlFileHasher(parallelism, chunkSize, null)) {
+                        check(hasher.hashAll(files).equals(expected),
+                            "hashing: chunk size " + chunkSize + " (" + hasher.getChunkSize() + " mapped), " + parallelism + " threads");
+                    }
+                }
+            }
+            check(new HashSet<String>(expected.values()).size() == files.size(), "hashing: distinct contents have distinct digests");
+
+            Path memo = directory.resolve("memo.tsv");
+            Path file = directory.resolve("many");
+            long size = Files.size(file);
+            String digest = expected.get(file);
+            try (WdlFileHasher hasher = new WdlFileHasher(2, leaf, memo)) {
+                hasher.hash(file);
+                check(hasher.getBytesHashed() == size, "hashing: a new file is read once");
+                check(digest.equals(hasher.hash(file)) && hasher.getBytesHashed() == size, "hashing: an unchanged file is answered from the memo");
+            }
+            try (WdlFileHasher hasher = new WdlFileHasher(2, 2 * leaf, memo)) {
+                check(digest.equals(hasher.hash(file)) && hasher.getBytesHashed() == 0, "hashing: the memo file is reused by a new hasher with another chunk size");
+
+                FileTime modified = Files.getLastModifiedTime(file);
+                try (OutputStream out = Files.newOutputStream(file, StandardOpenOption.APPEND)) {
+                    out.write(7);
+                }
+                Files.setLastModifiedTime(file, modified);
+                String appended = hasher.hash(file);
+                check(appended.equals(expected(file)) && !appended.equals(digest) && hasher.getBytesHashed() == size + 1,
+                    "hashing: a change of size is hashed again");
+
+                byte[] contents = Files.readAllBytes(file);
+                contents[contents.length / 2] ^= 1;
+                Files.write(file, contents);
+                Files.setLastModifiedTime(file, FileTime.fromMillis(modified.toMillis() + 2000));
+                String rewritten = hasher.hash(file);
+                check(rewritten.equals(expected(file)) && !rewritten.equals(appended) && hasher.getBytesHashed() == 2 * (size + 1),
+                    "hashing: a change of modification time is hashed again");
+            }
+        } finally {
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+                for (Path entry : entries) {
+                    Files.delete(entry);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+
+    /* Section: WdlScheduler */
+
+    /*
+     * Jobs on a made-up machine whose bodies run on the thread that submits or finishes them
+     * and last until finish() is called, so which jobs are running never depends on timing.
+     */
+    private static final class Jobs {
+        private final WdlScheduler.Resources capacity;
+        private final WdlScheduler scheduler;
+        private final Map<String, WdlScheduler.Resources> requests = new HashMap<String, WdlScheduler.Resources>();
+        private final Map<String, CompletableFuture<Object>> running = new HashMap<String, CompletableFuture<Object>>();
+        private final List<String> started = new ArrayList<String>();
+        Jobs(WdlScheduler.Resources capacity, int maxBypass) {
+            this.capacity = capacity;
+            this.scheduler = new WdlScheduler(capacity, maxBypass, Runnable::run);
+        }
+        Jobs submit(String name, double cpu, long memory, long disk) {
+            WdlScheduler.Resources request = new WdlScheduler.Resources(cpu, memory, disk);
+            this.requests.put(name, request.min(this.capacity));
+            this.scheduler.submitAsync(name, request, () -> {
+                CompletableFuture<Object> done = new CompletableFuture<Object>();
+                this.running.put(name, done);
+                this.started.add(name);
+                return done;
+            });
+            return this;
+        }
+        Jobs finish(String... names) {
+            for (String name : names) {
+                this.running.remove(name).complete(name);
+            }
+            return this;
+        }
+
+        /* Whether exactly the jobs named have started, in that order, and the running ones fit. */
+        boolean started(String names) {
+            double cpu = 0;
+            long memory = 0;
+            long disk = 0;
+            for (String name : this.running.keySet()) {
+                cpu += this.requests.get(name).getCpu();
+                memory += this.requests.get(name).getMemory();
+                disk += this.requests.get(name).getDisk();
+            }
+            boolean fits = cpu <= this.capacity.getCpu() + 1e-9 && memory <= this.capacity.getMemory()
+                && (this.capacity.getDisk() == WdlScheduler.Resources.UNLIMITED || disk <= this.capacity.getDisk());
+            return fits && this.scheduler.getRunning() == this.running.size()
+                && this.scheduler.getWaiting() == this.requests.size() - this.started.size()
+                && String.join(" ", this.started).equals(names);
+        }
+    }
+
+    public static void scheduler() throws WdlEvaluator.EvaluationError {
+        long gib = 1L << 30;
+        long unlimited = WdlScheduler.Resources.UNLIMITED;
+
+        Jobs cpu = new Jobs(new WdlScheduler.Resources(4, 64 * gib, unlimited), WdlScheduler.DEFAULT_MAX_BYPASS);
+        for (int i = 1; i <= 6; i++) {
+            cpu.submit("c" + i, 1, gib, 0);
+        }
+        check(cpu.started("c1 c2 c3 c4"), "scheduler: no more cores are taken than the machine has");
+        check(cpu.finish("c2").started("c1 c2 c3 c4 c5"), "scheduler: a finished job's cores go to the next job");
+
+        Jobs memory = new Jobs(new WdlScheduler.Resources(16, 8 * gib, unlimited), WdlScheduler.DEFAULT_MAX_BYPASS);
+        memory.submit("m1", 1, 3 * gib, 0).submit("m2", 1, 3 * gib, 0).submit("m3", 1, 3 * gib, 0);
+        check(memory.started("m1 m2"), "scheduler: no more memory is taken than the machine has");
+        check(memory.finish("m1").started("m1 m2 m3"), "scheduler: a finished job's memory goes to the next job");
+
+        Jobs disk = new Jobs(new WdlScheduler.Resources(16, 64 * gib, 100 * gib), WdlScheduler.DEFAULT_MAX_BYPASS);
+        disk.submit("d1", 1, gib, 40 * gib).submit("d2", 1, gib, 40 * gib).submit("d3", 1, gib, 40 * gib);
+        check(disk.started("d1 d2"), "scheduler: no more disk is taken than the machine has");
+        check(disk.finish("d2").started("d1 d2 d3"), "scheduler: a finished job's disk goes to the next job");
+        Jobs local = new Jobs(new WdlScheduler.Resources(16, 64 * gib, unlimited), WdlScheduler.DEFAULT_MAX_BYPASS);
+        local.submit("d1", 1, gib, 40 * gib).submit("d2", 1, gib, 40 * gib).submit("d3", 1, gib, 40 * gib);
+        check(local.started("d1 d2 d3"), "scheduler: disk is not limited on a machine with unlimited disk");
+
+        Jobs backfill = new Jobs(new WdlScheduler.Resources(4, 64 * gib, unlimited), WdlScheduler.DEFAULT_MAX_BYPASS);
+        backfill.submit("a", 2, gib, 0).submit("large", 4, gib, 0).submit("s1", 1, gib, 0).submit("s2", 1, gib, 0).submit("s3", 1, gib, 0);
+        check(backfill.started("a s1 s2"), "scheduler: small jobs backfill behind a large one that does not fit");
+        check(backfill.finish("s1").started("a s1 s2 s3"), "scheduler: a small job takes cores freed while the large one waits");
+        check(backfill.finish("a", "s2").started("a s1 s2 s3"), "scheduler: the large job waits for all of the cores it needs");
+        check(backfill.finish("s3").started("a s1 s2 s3 large"), "scheduler: the large job starts once they are free");
+        backfill.submit("s4", 1, gib, 0);
+        check(backfill.started("a s1 s2 s3 large"), "scheduler: a job submitted while the large one runs waits for it");
+        check(backfill.finish("large").started("a s1 s2 s3 large s4"), "scheduler: and then starts");
+
+        Jobs best = new Jobs(new WdlScheduler.Resources(4, 64 * gib, unlimited), WdlScheduler.DEFAULT_MAX_BYPASS);
+        best.submit("a", 3, gib, 0).submit("b", 1, gib, 0).submit("large", 4, gib, 0).submit("half", 0.5, gib, 0).submit("one", 1, gib, 0);
+        check(best.finish("b").started("a b one"), "scheduler: the backfilled job that fills the machine best goes first");
+
+        Jobs bypass = new Jobs(new WdlScheduler.Resources(4, 64 * gib, unlimited), 2);
+        bypass.submit("a", 1, gib, 0).submit("large", 4, gib, 0);
+        for (int i = 1; i <= 4; i++) {
+            bypass.submit("s" + i, 0.5, gib, 0);
+        }
+        check(bypass.started("a s1 s2"), "scheduler: no more than maxBypass jobs start ahead of the oldest");
+        check(bypass.finish("s1").started("a s1 s2"), "scheduler: then nothing starts before it, though it fits");
+        check(bypass.finish("a", "s2").started("a s1 s2 large"), "scheduler: the oldest job starts next");
+        check(bypass.finish("large").started("a s1 s2 large s3 s4"), "scheduler: and the rest after it");
+
+        Jobs oversized = new Jobs(new WdlScheduler.Resources(4, 8 * gib, 100 * gib), WdlScheduler.DEFAULT_MAX_BYPASS);
+        oversized.submit("huge", 64, 1024 * gib, 1024 * gib).submit("s", 1, gib, 0);
+        check(oversized.started("huge"), "scheduler: a request larger than the machine runs, alone");
+        check(oversized.finish("huge").started("huge s"), "scheduler: and releases the whole machine");
+
+        Map<String, Object> runtime = new HashMap<String, Object>();
+        runtime.put("cpu", 2L);
+        runtime.put("memory", "512 MiB");
+        runtime.put("disks", "local-disk 10 SSD, /mnt/tmp 5 HDD");
+        WdlScheduler.Resources request = WdlScheduler.request(runtime);
+        check(request.getCpu() == 2 && request.getMemory() == 512L << 20 && request.getDisk() == 15000000000L,
+            "scheduler: cpu, memory and disks are read from a runtime section");
+        request = WdlScheduler.request(new HashMap<String, Object>());
+        check(request.getCpu() == 1 && request.getMemory() == WdlEngine.DEFAULT_TASK_MEMORY && request.getDisk() == 0,
+            "scheduler: a runtime section without them gets the defaults");
+    }
+
+    /* Section: WdlStdlib */
+
+    /* The file write_lines() writes for lines, or null if it takes more than five seconds. */
+    private static Path writeLines(Path directory, ExecutorService executor, Object... lines) throws Exception {
+        WdlEvaluator.Function function = WdlStdlib.functions(directory, null, null).get("write_lines");
+        Future<Object> path = executor.submit(() -> function.call(Collections.<Object>singletonList(Arrays.asList(lines))));
+        try {
+            return Paths.get((String) path.get(5, TimeUnit.SECONDS));
+        } catch (TimeoutException e) {
+            path.cancel(true);
+            return null;
+        }
+    }
+    private static boolean holds(Path file, String expected) throws IOException {
+        return file != null && Arrays.equals(Files.readAllBytes(file), expected.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static void writing() throws Exception {
+        Path directory = Files.createTempDirectory("wdl-writing");
+        ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "wdl-self-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < 100000; i++) {
+                sb.append((char) ('a' + i % 26));
+            }
+            String letters = sb.toString();
+
+            Path path = writeLines(directory, executor, "a", "b\tc", "\u00e9\ud83d\ude00");
+            check(holds(path, "a\nb\tc\n\u00e9\ud83d\ude00\n"), "writing: write_lines() writes each line in UTF-8");
+            check(path != null && path.getFileName().toString().matches("write_lines_[0-9a-f]{64}\\.txt"),
+                "writing: the file is named after its SHA-256, with a .txt extension");
+            check(path != null && path.equals(writeLines(directory, executor, "a", "b\tc", "\u00e9\ud83d\ude00")),
+                "writing: the same lines are written to the same file");
+            check(holds(writeLines(directory, executor, letters), letters + "\n"), "writing: a line longer than the buffers is written whole");
+            check(holds(writeLines(directory, executor, "a\ud800b"), "a?b\n"), "writing: an unpaired surrogate is written as ?");
+            check(holds(writeLines(directory, executor, "\ude00" + letters, "z\ud83d"), "?" + letters + "\nz?\n"),
+                "writing: the text after unpaired surrogates is written whole");
+        } finally {
+            executor.shutdownNow();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+                for (Path entry : entries) {
+                    Files.delete(entry);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String check = args.length > 0 ? args[0] : "all";
+        if (check.equals("all") || check.equals("hashing")) {
+            hashing();
+        }
+        if (check.equals("all") || check.equals("scheduler")) {
+            scheduler();
+        }
+        if (check.equals("all") || check.equals("writing")) {
+            writing();
+        }
+        if (failures > 0) {
+            System.out.println(failures + " checks failed");
+            System.exit(1);
+        }
+    }
+}
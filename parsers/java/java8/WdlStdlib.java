@@ -0,0 +1,587 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * The parts of the WDL standard library that touch the file system: stdout(), stderr(),
+ * glob(), size(), read_*() and write_*().  They are bound to one directory, normally a
+ * call's execution directory, against which relative paths are resolved, and to a directory
+ * into which write_*() places its files.
+ *
+ * read_lines(), read_tsv() and read_objects() memory-map the file and index it in one pass
+ * over the raw bytes.  They return lazy arrays that decode a line or cell only when it is
+ * accessed, so a file with millions of rows never turns into millions of boxed lists.
+ *
+ * write_*() streams its output through a pooled direct buffer into a FileChannel, hashing it
+ * on the way, and names the file after the digest.  Scatter shards that write the same
+ * content share one file.
+ */
+public class WdlStdlib {
+    private static final int BUFFER_SIZE = 64 << 10;
+    private static final Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<ByteBuffer>();
+
+    private final Path directory;
+    private final Path writes;
+    private final Path stdout;
+    private final Path stderr;
+
+    private WdlStdlib(Path directory, Path writes, Path stdout, Path stderr) {
+        this.directory = directory;
+        this.writes = writes;
+        this.stdout = stdout;
+        this.stderr = stderr;
+    }
+
+    /**
+     * The full standard library bound to directory.  stdout and stderr may be null outside
+     * of task outputs, in which case stdout() and stderr() fail.
+     */
+    public static Map<String, WdlEvaluator.Function> functions(Path directory, Path stdout, Path stderr) {
+        return functions(directory, directory, stdout, stderr);
+    }
+
+    /**
+     * Like functions(directory, stdout, stderr), but write_*() places its files in writes,
+     * which may be shared with other directories to deduplicate them.
+     */
+    public static Map<String, WdlEvaluator.Function> functions(Path directory, Path writes, Path stdout, Path stderr) {
+        WdlStdlib io = new WdlStdlib(directory, writes, stdout, stderr);
+        Map<String, WdlEvaluator.Function> lib = WdlEvaluator.standardLibrary();
+        lib.put("stdout", args -> io.stream("stdout", io.stdout, args));
+        lib.put("stderr", args -> io.stream("stderr", io.stderr, args));
+        lib.put("glob", args -> {
+            arity("glob", args, 1);
+            return io.glob(WdlEvaluator.asString(args.get(0)));
+        });
+        lib.put("size", args -> {
+            if (args.size() < 1 || args.size() > 2) {
+                throw new WdlEvaluator.EvaluationError("size() takes 1 to 2 arguments, got " + args.size());
+            }
+            double unit = args.size() == 2 ? unit(WdlEvaluator.asString(args.get(1))) : 1;
+            try {
+                return Double.valueOf(Files.size(io.resolve(args.get(0))) / unit);
+            } catch (IOException e) {
+                throw io.error("size", e);
+            }
+        });
+        lib.put("read_lines", args -> io.text("read_lines", args).lines());
+        lib.put("read_string", args -> io.content("read_string", args));
+        lib.put("read_int", args -> WdlEvaluator.asInt(io.content("read_int", args).trim()));
+        lib.put("read_float", args -> WdlEvaluator.asFloat(io.content("read_float", args).trim()));
+        lib.put("read_boolean", args -> {
+            String value = io.content("read_boolean", args).trim();
+            if (value.equalsIgnoreCase("true")) return Boolean.TRUE;
+            if (value.equalsIgnoreCase("false")) return Boolean.FALSE;
+            throw new WdlEvaluator.EvaluationError("read_boolean() expected true or false, got '" + value + "'");
+        });
+        lib.put("read_tsv", args -> io.text("read_tsv", args).rows());
+        lib.put("read_map", args -> {
+            Map<Object, Object> map = new LinkedHashMap<Object, Object>();
+            for (Object item : io.text("read_map", args).rows()) {
+                List<?> row = (List<?>) item;
+                if (row.size() != 2) {
+                    throw new WdlEvaluator.EvaluationError("read_map() expected 2 columns, got " + row.size());
+                }
+                map.put(row.get(0), row.get(1));
+            }
+            return Collections.unmodifiableMap(map);
+        });
+        lib.put("read_object", args -> {
+            List<Object> objects = io.objects("read_object", args);
+            if (objects.size() != 1) {
+                throw new WdlEvaluator.EvaluationError("read_object() expected 1 row of values, got " + objects.size());
+            }
+            return objects.get(0);
+        });
+        lib.put("read_objects", args -> io.objects("read_objects", args));
+        lib.put("read_json", args -> {
+            arity("read_json", args, 1);
+            try {
+                try (Reader reader = Files.newBufferedReader(io.resolve(args.get(0)), StandardCharsets.UTF_8)) {
+                    return WdlJson.parse(reader);
+                }
+            } catch (IOException e) {
+                throw io.error("read_json", e);
+            }
+        });
+        lib.put("write_lines", args -> {
+            arity("write_lines", args, 1);
+            List<Object> lines = WdlEvaluator.asArray(args.get(0));
+            return io.write("write_lines", out -> {
+                for (Object line : lines) {
+                    out.append(WdlEvaluator.stringify(line)).append('\n');
+                }
+            });
+        });
+        lib.put("write_tsv", args -> {
+            arity("write_tsv", args, 1);
+            List<Object> rows = WdlEvaluator.asArray(args.get(0));
+            return io.write("write_tsv", out -> {
+                for (Object row : rows) {
+                    row(WdlEvaluator.asArray(row), out);
+                }
+            });
+        });
+        lib.put("write_map", args -> {
+            arity("write_map", args, 1);
+            if (!(args.get(0) instanceof Map)) {
+                throw new WdlEvaluator.EvaluationError("write_map() expected a Map, got " + WdlEvaluator.describe(args.get(0)));
+            }
+            Map<?, ?> map = (Map<?, ?>) args.get(0);
+            return io.write("write_map", out -> {
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    out.append(WdlEvaluator.stringify(entry.getKey())).append('\t').append(WdlEvaluator.stringify(entry.getValue())).append('\n');
+                }
+            });
+        });
+        lib.put("write_object", args -> {
+            arity("write_object", args, 1);
+            return io.writeObjects("write_object", Collections.singletonList(args.get(0)));
+        });
+        lib.put("write_objects", args -> {
+            arity("write_objects", args, 1);
+            return io.writeObjects("write_objects", WdlEvaluator.asArray(args.get(0)));
+        });
+        lib.put("write_json", args -> {
+            arity("write_json", args, 1);
+            return io.write("write_json", out -> WdlJson.write(args.get(0), out));
+        });
+        return lib;
+    }
+
+    private static void arity(String name, List<Object> args, int n) throws WdlEvaluator.EvaluationError {
+        if (args.size() != n) {
+            throw new WdlEvaluator.EvaluationError(name + "() takes " + n + " arguments, got " + args.size());
+        }
+    }
+    static double unit(String unit) throws WdlEvaluator.EvaluationError {
+        switch (unit) {
+            case "B": return 1;
+            case "K": case "KB": return 1e3;
+            case "M": case "MB": return 1e6;
+            case "G": case "GB": return 1e9;
+            case "T": case "TB": return 1e12;
+            case "Ki": case "KiB": return 1L << 10;
+            case "Mi": case "MiB": return 1L << 20;
+            case "Gi": case "GiB": return 1L << 30;
+            case "Ti": case "TiB": return 1L << 40;
+            default: throw new WdlEvaluator.EvaluationError("Unknown size unit: " + unit);
+        }
+    }
+    private WdlEvaluator.EvaluationError error(String function, IOException e) {
+        return new WdlEvaluator.EvaluationError(function + "() failed: " + e);
+    }
+    private Path resolve(Object file) throws WdlEvaluator.EvaluationError {
+        return this.directory.resolve(WdlEvaluator.asString(file));
+    }
+    private Object stream(String name, Path path, List<Object> args) throws WdlEvaluator.EvaluationError {
+        arity(name, args, 0);
+        if (path == null) {
+            throw new WdlEvaluator.EvaluationError(name + "() is only available in task outputs");
+        }
+        return path.toString();
+    }
+    private String content(String function, List<Object> args) throws WdlEvaluator.EvaluationError {
+        arity(function, args, 1);
+        try {
+            String content = new String(Files.readAllBytes(resolve(args.get(0))), StandardCharsets.UTF_8);
+            return content.endsWith("\n") ? content.substring(0, content.length() - 1) : content;
+        } catch (IOException e) {
+            throw error(function, e);
+        }
+    }
+    private Text text(String function, List<Object> args) throws WdlEvaluator.EvaluationError {
+        arity(function, args, 1);
+        try {
+            return Text.map(resolve(args.get(0)));
+        } catch (IOException e) {
+            throw error(function, e);
+        }
+    }
+
+    /* The first row of a TSV names the fields of the objects in the remaining rows. */
+    private List<Object> objects(String function, List<Object> args) throws WdlEvaluator.EvaluationError {
+        List<Object> rows = text(function, args).rows();
+        if (rows.isEmpty()) {
+            throw new WdlEvaluator.EvaluationError(function + "() expected a header row");
+        }
+        List<?> header = (List<?>) rows.get(0);
+        String[] keys = header.toArray(new String[header.size()]);
+        for (int i = 1; i < rows.size(); i++) {
+            if (((List<?>) rows.get(i)).size() != keys.length) {
+                throw new WdlEvaluator.EvaluationError(function + "() expected " + keys.length + " columns in row " + (i + 1));
+            }
+        }
+        return new AbstractList<Object>() {
+            public Object get(int index) {
+                List<?> row = (List<?>) rows.get(index + 1);
+                Map<String, Object> object = new LinkedHashMap<String, Object>();
+                for (int i = 0; i < keys.length; i++) {
+                    object.put(keys[i], row.get(i));
+                }
+                return Collections.unmodifiableMap(object);
+            }
+            public int size() {
+                return rows.size() - 1;
+            }
+        };
+    }
+    private Object glob(String pattern) throws WdlEvaluator.EvaluationError {
+        PathMatcher matcher = this.directory.getFileSystem().getPathMatcher("glob:" + pattern);
+        List<String> matches = new ArrayList<String>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.directory)) {
+            for (Path path : stream) {
+                if (matcher.matches(path.getFileName()) && Files.isRegularFile(path)) {
+                    matches.add(path.toString());
+                }
+            }
+        } catch (IOException e) {
+            throw error("glob", e);
+        }
+        Collections.sort(matches);
+        return Collections.unmodifiableList(new ArrayList<Object>(matches));
+    }
+    private static void row(List<?> cells, Appendable out) throws IOException {
+        for (int i = 0; i < cells.size(); i++) {
+            if (i > 0) {
+                out.append('\t');
+            }
+            out.append(WdlEvaluator.stringify(cells.get(i)));
+        }
+        out.append('\n');
+    }
+
+    /* A header row of keys followed by one row of values per object; all must have the same keys. */
+    private Object writeObjects(String function, List<Object> objects) throws WdlEvaluator.EvaluationError {
+        if (objects.isEmpty()) {
+            throw new WdlEvaluator.EvaluationError(function + "() expected at least one object");
+        }
+        Set<?> keys = null;
+        for (Object object : objects) {
+            if (!(object instanceof Map)) {
+                throw new WdlEvaluator.EvaluationError(function + "() expected an Object, got " + WdlEvaluator.describe(object));
+            }
+            if (keys == null) {
+                keys = ((Map<?, ?>) object).keySet();
+            } else if (!keys.equals(((Map<?, ?>) object).keySet())) {
+                throw new WdlEvaluator.EvaluationError(function + "() expected all objects to have the keys " + keys);
+            }
+        }
+        List<Object> header = new ArrayList<Object>(keys);
+        return write(function, out -> {
+            row(header, out);
+            List<Object> values = new ArrayList<Object>(header.size());
+            for (Object object : objects) {
+                values.clear();
+                for (Object key : header) {
+                    values.add(((Map<?, ?>) object).get(key));
+                }
+                row(values, out);
+            }
+        });
+    }
+
+    private interface Content {
+        void to(Appendable out) throws IOException, WdlEvaluator.EvaluationError;
+    }
+
+    /*
+     * Write content to a temporary file, then rename it after its SHA-256, with an extension
+     * for its format.  If that file already exists it holds the same bytes, so the new copy is
+     * dropped instead.
+     */
+    private Object write(String function, Content content) throws WdlEvaluator.EvaluationError {
+        Path temporary = null;
+        try {
+            Files.createDirectories(this.writes);
+            temporary = Files.createTempFile(this.writes, function + "_", ".tmp");
+            String digest;
+            try (Sink sink = new Sink(FileChannel.open(temporary, StandardOpenOption.WRITE))) {
+                content.to(sink);
+                digest = sink.digest();
+            }
+            String extension = function.equals("write_lines") ? ".txt" : function.equals("write_json") ? ".json" : ".tsv";
+            Path path = this.writes.resolve(function + "_" + digest + extension);
+            if (Files.exists(path)) {
+                Files.delete(temporary);
+            } else {
+                Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+            temporary = null;
+            return path.toString();
+        } catch (IOException e) {
+            throw error(function, e);
+        } finally {
+            if (temporary != null) {
+                try {
+                    Files.deleteIfExists(temporary);
+                } catch (IOException e) {
+                    /* Leave it behind */
+                }
+            }
+        }
+    }
+
+    /*
+     * UTF-8 encodes appended characters into a pooled direct buffer and writes it to a
+     * channel whenever it fills, updating a SHA-256 with every byte written.  An unpaired
+     * surrogate is written as '?', as String.getBytes does.
+     */
+    private static final class Sink implements Appendable, Closeable {
+        private final FileChannel channel;
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private final CharBuffer chars = CharBuffer.allocate(8 << 10);
+        private final MessageDigest sha256 = WdlFileHasher.digest();
+        private ByteBuffer bytes;
+
+        Sink(FileChannel channel) {
+            this.channel = channel;
+            ByteBuffer buffer = buffers.poll();
+            this.bytes = buffer != null ? buffer : ByteBuffer.allocateDirect(BUFFER_SIZE);
+        }
+        public Appendable append(CharSequence sequence) throws IOException {
+            return append(sequence, 0, sequence.length());
+        }
+        public Appendable append(CharSequence sequence, int start, int end) throws IOException {
+            while (start < end) {
+                int n = Math.min(end - start, this.chars.remaining());
+                if (sequence instanceof String) {
+                    this.chars.put((String) sequence, start, start + n);
+                } else {
+                    for (int i = start; i < start + n; i++) {
+                        this.chars.put(sequence.charAt(i));
+                    }
+                }
+                start += n;
+                if (!this.chars.hasRemaining()) {
+                    encode(false);
+                }
+            }
+            return this;
+        }
+        public Appendable append(char c) throws IOException {
+            this.chars.put(c);
+            if (!this.chars.hasRemaining()) {
+                encode(false);
+            }
+            return this;
+        }
+        private void encode(boolean last) throws IOException {
+            this.chars.flip();
+            while (this.encoder.encode(this.chars, this.bytes, last).isOverflow()) {
+                drain();
+            }
+            /* A trailing high surrogate stays behind until its pair arrives */
+            this.chars.compact();
+            if (last) {
+                while (this.encoder.flush(this.bytes).isOverflow()) {
+                    drain();
+                }
+                drain();
+            }
+        }
+        private void drain() throws IOException {
+            this.bytes.flip();
+            this.sha256.update(this.bytes.duplicate());
+            while (this.bytes.hasRemaining()) {
+                this.channel.write(this.bytes);
+            }
+            this.bytes.clear();
+        }
+        /* Flushes everything appended and returns the digest of the content. */
+        String digest() throws IOException {
+            encode(true);
+            return WdlFileHasher.hex(this.sha256.digest());
+        }
+        public void close() throws IOException {
+            this.channel.close();
+            if (this.bytes != null) {
+                this.bytes.clear();
+                buffers.offer(this.bytes);
+                this.bytes = null;
+            }
+        }
+    }
+
+    /* Section: Lazy text */
+
+    /*
+     * A memory-mapped UTF-8 file and the offset at which each of its lines starts.  Files over
+     * 1 GiB are mapped in several segments; a line that straddles two is copied out.
+     */
+    static final class Text {
+        private static final int SEGMENT = 1 << 30;
+        private final ByteBuffer[] segments;
+        private final long size;
+        private final long[] starts;
+        private final int count;
+
+        private Text(ByteBuffer[] segments, long size, long[] starts, int count) {
+            this.segments = segments;
+            this.size = size;
+            this.starts = starts;
+            this.count = count;
+        }
+        static Text map(Path path) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                long size = channel.size();
+                ByteBuffer[] segments = new ByteBuffer[(int) ((size + SEGMENT - 1) / SEGMENT)];
+                for (int i = 0; i < segments.length; i++) {
+                    long offset = (long) i * SEGMENT;
+                    segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(SEGMENT, size - offset));
+                }
+                long[] starts = new long[(int) Math.max(16, Math.min(1 << 20, size / 64))];
+                int count = 0;
+                long position = 0;
+                boolean lineStart = true;
+                byte[] chunk = new byte[64 << 10];
+                for (ByteBuffer segment : segments) {
+                    ByteBuffer view = segment.duplicate();
+                    while (view.hasRemaining()) {
+                        int n = Math.min(chunk.length, view.remaining());
+                        view.get(chunk, 0, n);
+                        for (int i = 0; i < n; i++) {
+                            if (lineStart) {
+                                if (count == starts.length) {
+                                    if (count == Integer.MAX_VALUE - 8) {
+                                        throw new IOException(path + " has too many lines");
+                                    }
+                                    starts = Arrays.copyOf(starts, (int) Math.min(Integer.MAX_VALUE - 8L, count * 2L));
+                                }
+                                starts[count++] = position + i;
+                                lineStart = false;
+                            }
+                            if (chunk[i] == '\n') {
+                                lineStart = true;
+                            }
+                        }
+                        position += n;
+                    }
+                }
+                return new Text(segments, size, starts, count);
+            }
+        }
+        int count() {
+            return this.count;
+        }
+        /* Offset just past the last character of line i, excluding its line terminator. */
+        long end(int i) {
+            long end = i + 1 < this.count ? this.starts[i + 1] - 1 : this.size;
+            if (i + 1 == this.count && end > this.starts[i] && byteAt(end - 1) == '\n') {
+                end--;
+            }
+            if (end > this.starts[i] && byteAt(end - 1) == '\r') {
+                end--;
+            }
+            return end;
+        }
+        long start(int i) {
+            return this.starts[i];
+        }
+        byte byteAt(long offset) {
+            return this.segments[(int) (offset / SEGMENT)].get((int) (offset % SEGMENT));
+        }
+        String decode(long start, long end) {
+            byte[] bytes = new byte[(int) (end - start)];
+            int segment = (int) (start / SEGMENT);
+            if (bytes.length > 0 && segment == (int) ((end - 1) / SEGMENT)) {
+                ByteBuffer view = this.segments[segment].duplicate();
+                view.position((int) (start % SEGMENT));
+                view.get(bytes);
+            } else {
+                for (int i = 0; i < bytes.length; i++) {
+                    bytes[i] = byteAt(start + i);
+                }
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        List<Object> lines() {
+            return new Lines(this);
+        }
+        List<Object> rows() {
+            return new Rows(this);
+        }
+    }
+    private static final class Lines extends AbstractList<Object> implements RandomAccess, WdlValues.StringArray {
+        private final Text text;
+        Lines(Text text) {
+            this.text = text;
+        }
+        public Object get(int i) {
+            if (i < 0 || i >= this.text.count()) {
+                throw new IndexOutOfBoundsException("Index " + i + " out of bounds for length " + this.text.count());
+            }
+            return this.text.decode(this.text.start(i), this.text.end(i));
+        }
+        public int size() {
+            return this.text.count();
+        }
+        public int depth() {
+            return 1;
+        }
+    }
+    private static final class Rows extends AbstractList<Object> implements RandomAccess, WdlValues.StringArray {
+        private final Text text;
+        Rows(Text text) {
+            this.text = text;
+        }
+        public Object get(int i) {
+            if (i < 0 || i >= this.text.count()) {
+                throw new IndexOutOfBoundsException("Index " + i + " out of bounds for length " + this.text.count());
+            }
+            return new Row(this.text, this.text.start(i), this.text.end(i));
+        }
+        public int size() {
+            return this.text.count();
+        }
+        public int depth() {
+            return 2;
+        }
+    }
+
+    /* One TSV row; the tab offsets are found once, cells are decoded on access. */
+    private static final class Row extends AbstractList<Object> implements RandomAccess, WdlValues.StringArray {
+        private final Text text;
+        private final long[] bounds;
+        Row(Text text, long start, long end) {
+            this.text = text;
+            int tabs = 0;
+            for (long i = start; i < end; i++) {
+                if (text.byteAt(i) == '\t') {
+                    tabs++;
+                }
+            }
+            this.bounds = new long[tabs + 2];
+            this.bounds[0] = start;
+            int n = 1;
+            for (long i = start; i < end; i++) {
+                if (text.byteAt(i) == '\t') {
+                    this.bounds[n++] = i + 1;
+                }
+            }
+            this.bounds[n] = end + 1;
+        }
+        public Object get(int i) {
+            if (i < 0 || i >= size()) {
+                throw new IndexOutOfBoundsException("Index " + i + " out of bounds for length " + size());
+            }
+            return this.text.decode(this.bounds[i], this.bounds[i + 1] - 1);
+        }
+        public int size() {
+            return this.bounds.length - 1;
+        }
+        public int depth() {
+            return 1;
+        }
+    }
+}
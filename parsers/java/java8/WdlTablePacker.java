@@ -0,0 +1,94 @@
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.*;
+
+/**
+ * Prints WdlParser's parse tables packed as WdlParserRuntime unpacks them, for carrying a
+ * regenerated grammar's tables over to java8/WdlParser.java.  The tables are read by
+ * reflection from whichever WdlParser is first on the classpath, so running this against
+ * the hermes output in java8/generated prints the blocks to paste in place of the old ones:
+ *
+ *   javac -d generated/classes generated/WdlParser.java WdlTablePacker.java
+ *   java -cp generated/classes WdlTablePacker
+ *
+ * Run against java8/WdlParser.java itself, it prints what that file already holds.
+ */
+public class WdlTablePacker {
+    private static Object field(Class<?> parser, String name) throws Exception {
+        Field field = parser.getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(null);
+    }
+
+    /* Each entry as a quoted string, joined with + and ended with the text in end. */
+    private static void strings(StringBuilder out, String indent, List<String> entries, String end) {
+        for (int i = 0; i < entries.size(); i++) {
+            out.append(indent).append('"').append(entries.get(i));
+            out.append(i + 1 < entries.size() ? ";\" +\n" : "\"\n");
+        }
+        out.append(end);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static void main(String[] args) throws Exception {
+        Class<?> parser = Class.forName("WdlParser");
+        Method id = Class.forName("WdlParser$TerminalIdentifier").getMethod("id");
+        StringBuilder out = new StringBuilder();
+
+        int[][] table = (int[][]) field(parser, "table");
+        List<String> rows = new ArrayList<String>();
+        for (int[] row : table) {
+            StringBuilder entries = new StringBuilder();
+            for (int terminal = 0; terminal < row.length; terminal++) {
+                if (row[terminal] >= 0) {
+                    entries.append(entries.length() > 0 ? "," : "").append(terminal).append('=').append(row[terminal]);
+                }
+            }
+            rows.add(entries.toString());
+        }
+        int terminals = table.length > 0 ? table[0].length : 0;
+        out.append("    /* table[nonterminal][terminal] = rule */\n");
+        out.append("    static final int[][] table = WdlParserRuntime.unpackTable(").append(terminals).append(",\n");
+        strings(out, "        ", rows, "    );\n");
+
+        for (String name : new String[] {"nonterminal_first", "nonterminal_follow", "rule_first"}) {
+            Map<Integer, List<?>> sets = (Map<Integer, List<?>>) field(parser, name);
+            List<String> entries = new ArrayList<String>();
+            for (Integer key : new TreeSet<Integer>(sets.keySet())) {
+                StringBuilder ids = new StringBuilder();
+                for (Object terminal : sets.get(key)) {
+                    ids.append(ids.length() > 0 ? "," : "").append(id.invoke(terminal));
+                }
+                entries.add(key + "=" + ids);
+            }
+            out.append("    static {\n");
+            out.append("        ").append(name).append(" = WdlParserRuntime.unpackSets(terminal_map, ").append(terminals).append(",\n");
+            strings(out, "            ", entries, "        );\n    }\n");
+        }
+
+        Map<Integer, String> rules = (Map<Integer, String>) field(parser, "rules");
+        Map<Integer, List<String>> nonterminal_rules = (Map<Integer, List<String>>) field(parser, "nonterminal_rules");
+        Map<String, Integer> ids = new HashMap<String, Integer>();
+        for (Map.Entry<Integer, String> rule : rules.entrySet()) {
+            ids.put(rule.getValue(), rule.getKey());
+        }
+        List<String> entries = new ArrayList<String>();
+        for (Integer key : new TreeSet<Integer>(nonterminal_rules.keySet())) {
+            StringBuilder list = new StringBuilder();
+            for (String rule : nonterminal_rules.get(key)) {
+                list.append(list.length() > 0 ? "," : "").append(ids.get(rule));
+            }
+            entries.add(key + "=" + list);
+        }
+        out.append("\n");
+        out.append("    /* nonterminal_rules[nonterminal] = rules, packed as ids in order of their text */\n");
+        out.append("    static {\n");
+        out.append("        String[] text = new String[rules.size()];\n");
+        out.append("        for (Map.Entry<Integer, String> rule : rules.entrySet()) {\n");
+        out.append("            text[rule.getKey()] = rule.getValue();\n");
+        out.append("        }\n");
+        out.append("        nonterminal_rules = WdlParserRuntime.unpackLists(text,\n");
+        strings(out, "            ", entries, "        );\n    }\n");
+        System.out.print(out);
+    }
+}
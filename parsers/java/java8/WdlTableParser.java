@@ -0,0 +1,374 @@
+import java.util.*;
+
+/**
+ * A WDL parser that interprets WdlParser's grammar tables instead of running its generated
+ * per-nonterminal methods.
+ *
+ * At class initialization each string in WdlParser.rules is compiled into a Rule, and each
+ * nonterminal into a Symbol holding its row of the LL(1) table, its FIRST and FOLLOW sets
+ * as arrays indexed by terminal id and, for expressions, the nud and led rule and binding
+ * powers of each terminal.  Parsing then runs in a few short methods that HotSpot compiles
+ * and inlines early, where the generated parser spreads the same work over a hundred
+ * methods, some too large to inline.  Parse trees, and so ASTs, and syntax error messages
+ * are the same as the generated parser's; see the engines benchmark in WdlBenchmark.
+ */
+public class WdlTableParser {
+    private static final int TERMINALS = 58;
+
+    /* One production, with its right-hand side as terminal ids and nonterminal ids. */
+    private static final class Rule {
+        private final int id;
+        private final String text;
+        private int lhs;
+        private int[] morphemes;
+        private WdlParser.AstTransform transform, nudTransform;
+        /* Lists: the item nonterminal and separator terminal, or -1. */
+        private boolean list;
+        private int separator = -1;
+        /* Expressions: morphemes before <=>, and whether the rule is :op $e or $e :op $e. */
+        private int nud;
+        private boolean prefix, infix;
+        Rule(int id, String text) {
+            this.id = id;
+            this.text = text;
+        }
+    }
+
+    private static final class Symbol {
+        private final int id;
+        private final String name;
+        private final WdlParser.NonTerminal nonterminal;
+        private final List<Rule> rules = new ArrayList<Rule>();
+        private final boolean[] first = new boolean[TERMINALS];
+        private final boolean[] follow = new boolean[TERMINALS];
+        private int[] table;
+        private boolean nullable, list, expression;
+        private Rule[] nud, led;
+        private int[] infix, prefix;
+        Symbol(int id, String name) {
+            this.id = id;
+            this.name = name;
+            this.nonterminal = new WdlParser.NonTerminal(id, name);
+        }
+    }
+
+    private static final class Context {
+        private final List<WdlParser.Terminal> tokens;
+        private final WdlParser.SyntaxErrorFormatter error_formatter;
+        private int index;
+        private String nonterminal;
+        private String rule;
+        Context(List<WdlParser.Terminal> tokens, WdlParser.SyntaxErrorFormatter error_formatter) {
+            this.tokens = tokens instanceof RandomAccess ? tokens : new ArrayList<WdlParser.Terminal>(tokens);
+            this.error_formatter = error_formatter;
+        }
+        WdlParser.Terminal current() {
+            return this.index < this.tokens.size() ? this.tokens.get(this.index) : null;
+        }
+
+        /* The current terminal's id, or -1 at the end of the tokens or for an invalid id. */
+        int id() {
+            if (this.index >= this.tokens.size()) {
+                return -1;
+            }
+            int id = this.tokens.get(this.index).getId();
+            return id >= 0 && id < TERMINALS ? id : -1;
+        }
+    }
+
+    private static final Map<String, Symbol> symbols = new HashMap<String, Symbol>();
+    private static final Symbol[] byId = new Symbol[WdlParser.table.length];
+    private static final Rule[] rules;
+    private static final WdlParser.TerminalIdentifier[] terminals = new WdlParser.TerminalIdentifier[TERMINALS];
+    static {
+        for (int id = 0; id < TERMINALS; id++) {
+            terminals[id] = WdlParser.terminal_map.get(id);
+        }
+        for (Map.Entry<Integer, List<String>> entry : WdlParser.nonterminal_rules.entrySet()) {
+            String rule = entry.getValue().get(0);
+            Symbol symbol = new Symbol(entry.getKey(), rule.substring(1, rule.indexOf(' ')));
+            symbols.put(symbol.name, symbol);
+            byId[symbol.id - TERMINALS] = symbol;
+            symbol.table = WdlParser.table[symbol.id - TERMINALS];
+            fill(symbol.first, WdlParser.nonterminal_first.get(symbol.id));
+            fill(symbol.follow, WdlParser.nonterminal_follow.get(symbol.id));
+        }
+        rules = new Rule[Collections.max(WdlParser.rules.keySet()) + 1];
+        for (Map.Entry<Integer, String> entry : new TreeMap<Integer, String>(WdlParser.rules).entrySet()) {
+            Rule rule = compile(entry.getKey(), entry.getValue());
+            rules[rule.id] = rule;
+        }
+        expression(symbols.get("e"), WdlParser.infix_binding_power_e, WdlParser.prefix_binding_power_e);
+        expression(symbols.get("type_e"), WdlParser.infix_binding_power_type_e, WdlParser.prefix_binding_power_type_e);
+        for (boolean changed = true; changed; ) {
+            changed = false;
+            for (Symbol symbol : byId) {
+                if (symbol != null && !symbol.nullable && nullable(symbol)) {
+                    symbol.nullable = changed = true;
+                }
+            }
+        }
+    }
+    private static void fill(boolean[] set, List<WdlParser.TerminalIdentifier> terminals) {
+        for (WdlParser.TerminalIdentifier terminal : terminals) {
+            if (terminal.id() >= 0 && terminal.id() < TERMINALS) {
+                set[terminal.id()] = true;
+            }
+        }
+    }
+
+    /* Compile a rule of the form $lhs = rhs [-> transform], where rhs may be list($item[, :separator]). */
+    private static Rule compile(int id, String text) {
+        Rule rule = new Rule(id, text);
+        int equals = text.indexOf(" = ");
+        int arrow = text.indexOf(" -> ");
+        Symbol lhs = symbols.get(text.substring(1, equals));
+        rule.lhs = lhs.id;
+        String rhs = text.substring(equals + 3, arrow < 0 ? text.length() : arrow);
+        rule.transform = arrow < 0 ? new WdlParser.AstTransformSubstitution(0) : transform(text.substring(arrow + 4));
+        if (rhs.startsWith("list(")) {
+            rhs = rhs.substring(5, rhs.length() - 1).replace(",", "");
+            rule.list = lhs.list = true;
+        }
+        List<Integer> morphemes = new ArrayList<Integer>();
+        rule.nud = -1;
+        for (String morpheme : rhs.split(" ")) {
+            if (morpheme.equals("<=>")) {
+                rule.nud = morphemes.size();
+            } else if (morpheme.equals(":_empty")) {
+                continue;
+            } else if (morpheme.startsWith(":")) {
+                morphemes.add(WdlParser.terminal_map.get(morpheme.substring(1)).id());
+            } else {
+                morphemes.add(symbols.get(morpheme.substring(1)).id);
+            }
+        }
+        rule.morphemes = new int[morphemes.size()];
+        for (int i = 0; i < rule.morphemes.length; i++) {
+            rule.morphemes[i] = morphemes.get(i);
+        }
+        if (rule.list && rule.morphemes.length > 1) {
+            rule.separator = rule.morphemes[1];
+        }
+        int[] m = rule.morphemes;
+        rule.infix = rule.nud < 0 && m.length == 3 && m[0] == lhs.id && m[2] == lhs.id;
+        rule.prefix = rule.nud < 0 && m.length == 2 && WdlParser.is_terminal(m[0]) && m[1] == lhs.id;
+        if (rule.nud < 0) {
+            rule.nud = m.length;
+        }
+        rule.nudTransform = rule.nud < m.length ? new WdlParser.AstTransformSubstitution(0) : rule.transform;
+        lhs.rules.add(rule);
+        return rule;
+    }
+
+    /* Name( key=$0, ... ) or $n. */
+    private static WdlParser.AstTransform transform(String text) {
+        if (text.startsWith("$")) {
+            return new WdlParser.AstTransformSubstitution(Integer.parseInt(text.substring(1)));
+        }
+        int open = text.indexOf('(');
+        LinkedHashMap<String, Integer> parameters = new LinkedHashMap<String, Integer>();
+        for (String parameter : text.substring(open + 1, text.lastIndexOf(')')).trim().split(", ")) {
+            String index = parameter.substring(parameter.indexOf('=') + 2);
+            parameters.put(parameter.substring(0, parameter.indexOf('=')), index.equals("$") ? '$' : Integer.parseInt(index));
+        }
+        return new WdlParser.AstTransformNodeCreator(text.substring(0, open), parameters);
+    }
+
+    /*
+     * Index an expression's rules by the terminal that starts their nud, in rule order as the
+     * generated nud methods test them, and by the terminal that starts their led.  The
+     * generated parser is all left-associative, so the right operand binds at the
+     * operator's own binding power.
+     */
+    private static void expression(Symbol symbol, Map<Integer, Integer> infix, Map<Integer, Integer> prefix) {
+        symbol.expression = true;
+        symbol.nud = new Rule[TERMINALS];
+        symbol.led = new Rule[TERMINALS];
+        symbol.infix = new int[TERMINALS];
+        symbol.prefix = new int[TERMINALS];
+        for (Map.Entry<Integer, Integer> entry : infix.entrySet()) {
+            symbol.infix[entry.getKey()] = entry.getValue();
+        }
+        for (Map.Entry<Integer, Integer> entry : prefix.entrySet()) {
+            symbol.prefix[entry.getKey()] = entry.getValue();
+        }
+        for (Rule rule : symbol.rules) {
+            if (rule.infix) {
+                symbol.led[rule.morphemes[1]] = rule;
+                continue;
+            }
+            if (rule.nud < rule.morphemes.length && symbol.led[rule.morphemes[rule.nud]] == null) {
+                symbol.led[rule.morphemes[rule.nud]] = rule;
+            }
+            for (WdlParser.TerminalIdentifier terminal : WdlParser.rule_first.get(rule.id)) {
+                if (terminal.id() >= 0 && terminal.id() < TERMINALS && symbol.nud[terminal.id()] == null) {
+                    symbol.nud[terminal.id()] = rule;
+                }
+            }
+        }
+    }
+    private static boolean nullable(Symbol symbol) {
+        for (Rule rule : symbol.rules) {
+            boolean nullable = true;
+            for (int i = 0; i < rule.morphemes.length && nullable && !rule.list; i++) {
+                nullable = !WdlParser.is_terminal(rule.morphemes[i]) && byId[rule.morphemes[i] - TERMINALS].nullable;
+            }
+            if (nullable) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Parse tokens as a document, as WdlParser.parse() does. */
+    public WdlParser.ParseTree parse(List<WdlParser.Terminal> tokens) throws WdlParser.SyntaxError {
+        return parse(tokens, new WdlParser.DefaultSyntaxErrorFormatter());
+    }
+    public WdlParser.ParseTree parse(List<WdlParser.Terminal> tokens, WdlParser.SyntaxErrorFormatter error_formatter) throws WdlParser.SyntaxError {
+        Context ctx = new Context(tokens, error_formatter);
+        WdlParser.ParseTree tree = parse(ctx, symbols.get("document"));
+        if (ctx.current() != null) {
+            throw new WdlParser.SyntaxError(ctx.error_formatter.excessTokens("parse", ctx.current()));
+        }
+        return tree;
+    }
+
+    /**
+     * Parse a prefix of tokens as the nonterminal of the given name, without the leading $,
+     * as WdlParser's parse_ method of that name does.
+     */
+    public WdlParser.ParseTree parse(String nonterminal, List<WdlParser.Terminal> tokens, WdlParser.SyntaxErrorFormatter error_formatter) throws WdlParser.SyntaxError {
+        Symbol symbol = symbols.get(nonterminal);
+        if (symbol == null) {
+            throw new IllegalArgumentException("No such nonterminal: " + nonterminal);
+        }
+        return parse(new Context(tokens, error_formatter), symbol);
+    }
+    private static WdlParser.ParseTree parse(Context ctx, Symbol symbol) throws WdlParser.SyntaxError {
+        if (symbol.expression) {
+            return expression(ctx, symbol, 0);
+        }
+        return symbol.list ? list(ctx, symbol) : production(ctx, symbol);
+    }
+    private static WdlParser.ParseTree production(Context ctx, Symbol symbol) throws WdlParser.SyntaxError {
+        WdlParser.Terminal current = ctx.current();
+        int id = ctx.id();
+        WdlParser.ParseTree tree = new WdlParser.ParseTree(symbol.nonterminal);
+        ctx.nonterminal = symbol.name;
+        if (symbol.nullable && (current == null || id >= 0 && !symbol.first[id] && symbol.follow[id])) {
+            return tree;
+        }
+        if (current == null) {
+            throw new WdlParser.SyntaxError(ctx.error_formatter.unexpectedEof(
+                symbol.name, WdlParser.nonterminal_first.get(symbol.id), WdlParser.nonterminal_rules.get(symbol.id)));
+        }
+        Rule rule = id >= 0 && symbol.table[id] >= 0 ? rules[symbol.table[id]] : null;
+        if (rule != null && rule.morphemes.length > 0) {
+            ctx.rule = rule.text;
+            tree.setAstTransformation(rule.transform);
+            sequence(ctx, tree, rule, 0, rule.morphemes.length, 0);
+            return tree;
+        }
+        if (symbol.nullable) {
+            return tree;
+        }
+        throw new WdlParser.SyntaxError(ctx.error_formatter.unexpectedSymbol(
+            symbol.name, current, WdlParser.nonterminal_first.get(symbol.id), symbol.rules.get(symbol.rules.size() - 1).text));
+    }
+    private static WdlParser.ParseTree list(Context ctx, Symbol symbol) throws WdlParser.SyntaxError {
+        Rule rule = symbol.rules.get(0);
+        Symbol item = byId[rule.morphemes[0] - TERMINALS];
+        WdlParser.ParseTree tree = new WdlParser.ParseTree(symbol.nonterminal);
+        tree.setList(true);
+        if (rule.separator >= 0) {
+            tree.setListSeparator(rule.separator);
+        }
+        ctx.nonterminal = symbol.name;
+        int id = ctx.id();
+        if (ctx.current() == null || id >= 0 && !symbol.first[id] && symbol.follow[id]) {
+            return tree;
+        }
+        while ((id = ctx.id()) >= 0 && symbol.first[id]) {
+            tree.add(parse(ctx, item));
+            ctx.nonterminal = symbol.name;
+            if (rule.separator >= 0) {
+                if (ctx.id() != rule.separator) {
+                    break;
+                }
+                tree.add(expect(ctx, rule.separator));
+            }
+        }
+        return tree;
+    }
+
+    /* The Pratt loop of an expression nonterminal. */
+    private static WdlParser.ParseTree expression(Context ctx, Symbol symbol, int rbp) throws WdlParser.SyntaxError {
+        WdlParser.ParseTree left = nud(ctx, symbol);
+        left.setExpr(true);
+        left.setNud(true);
+        int id;
+        while ((id = ctx.id()) >= 0 && rbp < symbol.infix[id]) {
+            left = led(ctx, symbol, left, id);
+        }
+        left.setExpr(true);
+        return left;
+    }
+    private static WdlParser.ParseTree nud(Context ctx, Symbol symbol) throws WdlParser.SyntaxError {
+        WdlParser.ParseTree tree = new WdlParser.ParseTree(symbol.nonterminal);
+        ctx.nonterminal = symbol.name;
+        int id = ctx.id();
+        Rule rule = id >= 0 ? symbol.nud[id] : null;
+        if (rule == null) {
+            return tree;
+        }
+        ctx.rule = rule.text;
+        tree.setAstTransformation(rule.nudTransform);
+        tree.setNudMorphemeCount(rule.nud);
+        sequence(ctx, tree, rule, 0, rule.nud, rule.prefix ? symbol.prefix[id] : 0);
+        tree.setPrefix(rule.prefix);
+        return tree;
+    }
+    private static WdlParser.ParseTree led(Context ctx, Symbol symbol, WdlParser.ParseTree left, int id) throws WdlParser.SyntaxError {
+        WdlParser.ParseTree tree = new WdlParser.ParseTree(symbol.nonterminal);
+        ctx.nonterminal = symbol.name;
+        Rule rule = symbol.led[id];
+        ctx.rule = rule.text;
+        tree.setAstTransformation(rule.transform);
+        tree.setExprNud(rule.infix);
+        tree.setInfix(rule.infix);
+        tree.add(left);
+        sequence(ctx, tree, rule, rule.infix ? 1 : rule.nud, rule.morphemes.length, symbol.infix[id]);
+        return tree;
+    }
+
+    /* Add morphemes [from, to) of rule to tree; the rule's own expression nonterminal binds at rbp. */
+    private static void sequence(Context ctx, WdlParser.ParseTree tree, Rule rule, int from, int to, int rbp) throws WdlParser.SyntaxError {
+        for (int i = from; i < to; i++) {
+            int morpheme = rule.morphemes[i];
+            if (morpheme < TERMINALS) {
+                tree.add(expect(ctx, morpheme));
+                continue;
+            }
+            Symbol symbol = byId[morpheme - TERMINALS];
+            tree.add(symbol.expression ? expression(ctx, symbol, morpheme == rule.lhs ? rbp : 0) : parse(ctx, symbol));
+        }
+    }
+    private static WdlParser.Terminal expect(Context ctx, int terminal) throws WdlParser.SyntaxError {
+        WdlParser.Terminal current = ctx.current();
+        if (current == null) {
+            throw new WdlParser.SyntaxError(ctx.error_formatter.noMoreTokens(
+                ctx.nonterminal, terminals[terminal], ctx.tokens.get(ctx.tokens.size() - 1)));
+        }
+        if (current.getId() != terminal) {
+            throw new WdlParser.SyntaxError(ctx.error_formatter.unexpectedSymbol(
+                ctx.nonterminal, current, Collections.singletonList(terminals[terminal]), ctx.rule));
+        }
+        ctx.index++;
+        WdlParser.Terminal next = ctx.current();
+        if (next != null && !WdlParser.is_terminal(next.getId())) {
+            throw new WdlParser.SyntaxError(ctx.error_formatter.invalidTerminal(ctx.nonterminal, next));
+        }
+        return current;
+    }
+}
@@ -0,0 +1,359 @@
+import java.util.*;
+
+/**
+ * Compact, immutable representations of WDL Array values.
+ *
+ * Arrays are still plain Lists to the rest of the code, but the Lists built here avoid
+ * copying and boxing: Array[Int], Array[Float] and Array[Boolean] are backed by primitive
+ * arrays, arrays of Strings (and so Files) that share a long common prefix store it once,
+ * and flatten(), prefix(), zip(), cross(), transpose() and range() return views that share
+ * the arrays they were computed from instead of copying them.  All of them are read-only;
+ * since WDL values are never mutated, sharing them is always safe.
+ */
+public final class WdlValues {
+    /* Arrays of Strings shorter than this, or sharing a shorter prefix, are not worth compacting. */
+    private static final int MIN_SHARED_LENGTH = 16;
+    private static final int MIN_SHARED_PREFIX = 8;
+
+    private WdlValues() {
+    }
+
+    /**
+     * An array whose elements are Strings, or StringArrays of depth - 1.  Coercing one to an
+     * Array of String of the same depth is a no-op, which keeps lazy arrays lazy.
+     */
+    public interface StringArray {
+        int depth();
+    }
+
+    /**
+     * An immutable array of values, taking ownership of the given Java array.  Elements that
+     * are all Long, all Double, all Boolean, or all Strings with a common prefix are stored
+     * unboxed.
+     */
+    public static List<Object> array(Object[] values) {
+        if (values.length == 0) {
+            return Collections.emptyList();
+        }
+        Class<?> type = values[0] == null ? null : values[0].getClass();
+        for (int i = 1; i < values.length && type != null; i++) {
+            if (values[i] == null || values[i].getClass() != type) {
+                type = null;
+            }
+        }
+        if (type == Long.class) {
+            long[] longs = new long[values.length];
+            for (int i = 0; i < longs.length; i++) {
+                longs[i] = (Long) values[i];
+            }
+            return new LongArray(longs);
+        }
+        if (type == Double.class) {
+            double[] doubles = new double[values.length];
+            for (int i = 0; i < doubles.length; i++) {
+                doubles[i] = (Double) values[i];
+            }
+            return new DoubleArray(doubles);
+        }
+        if (type == Boolean.class) {
+            BitSet bits = new BitSet(values.length);
+            for (int i = 0; i < values.length; i++) {
+                bits.set(i, (Boolean) values[i]);
+            }
+            return new BooleanArray(bits, values.length);
+        }
+        if (type == String.class && values.length >= MIN_SHARED_LENGTH) {
+            String prefix = (String) values[0];
+            for (int i = 1; i < values.length && prefix.length() >= MIN_SHARED_PREFIX; i++) {
+                String value = (String) values[i];
+                int n = 0;
+                int max = Math.min(prefix.length(), value.length());
+                while (n < max && prefix.charAt(n) == value.charAt(n)) {
+                    n++;
+                }
+                prefix = prefix.substring(0, n);
+            }
+            if (prefix.length() >= MIN_SHARED_PREFIX) {
+                return new PrefixedStrings(prefix, values);
+            }
+        }
+        return Collections.unmodifiableList(Arrays.asList(values));
+    }
+
+    /** An Array[Int] of the first length values. */
+    public static List<Object> ints(long[] values, int length) {
+        return new LongArray(length == values.length ? values : Arrays.copyOf(values, length));
+    }
+
+    /** An Array[Float] of the first length values. */
+    public static List<Object> floats(double[] values, int length) {
+        return new DoubleArray(length == values.length ? values : Arrays.copyOf(values, length));
+    }
+
+    /** The integers 0 until n, without storing them. */
+    public static List<Object> range(int n) {
+        return new Range(n);
+    }
+
+    /** The concatenation of arrays, sharing them. */
+    public static List<Object> flatten(List<? extends List<?>> arrays) throws WdlEvaluator.EvaluationError {
+        List<List<?>> parts = new ArrayList<List<?>>(arrays.size());
+        long size = 0;
+        for (List<?> array : arrays) {
+            if (!array.isEmpty()) {
+                parts.add(array);
+                size += array.size();
+            }
+        }
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new WdlEvaluator.EvaluationError("flatten() result has too many elements: " + size);
+        }
+        if (parts.size() == 1) {
+            return readOnly(parts.get(0));
+        }
+        return new Concatenation(parts.toArray(new List<?>[parts.size()]));
+    }
+
+    /** Each value of array, stringified, with prefix prepended. */
+    public static List<Object> prefix(String prefix, List<?> array) throws WdlEvaluator.EvaluationError {
+        for (Object value : array) {
+            WdlEvaluator.asString(value);
+        }
+        return new Prefixed(prefix, array);
+    }
+
+    /** Pairs of the elements of left and right at the same index. */
+    public static List<Object> zip(List<?> left, List<?> right) throws WdlEvaluator.EvaluationError {
+        if (left.size() != right.size()) {
+            throw new WdlEvaluator.EvaluationError("zip() requires arrays of equal length, got " + left.size() + " and " + right.size());
+        }
+        return new Zip(left, right);
+    }
+
+    /** Pairs of every element of left with every element of right, left major. */
+    public static List<Object> cross(List<?> left, List<?> right) throws WdlEvaluator.EvaluationError {
+        long size = (long) left.size() * right.size();
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new WdlEvaluator.EvaluationError("cross() result has too many elements: " + size);
+        }
+        return new Cross(left, right);
+    }
+
+    /** The columns of a rectangular array of arrays. */
+    public static List<Object> transpose(List<?> rows) throws WdlEvaluator.EvaluationError {
+        int width = rows.isEmpty() ? 0 : WdlEvaluator.asArray(rows.get(0)).size();
+        for (Object row : rows) {
+            if (WdlEvaluator.asArray(row).size() != width) {
+                throw new WdlEvaluator.EvaluationError("transpose() requires a rectangular array");
+            }
+        }
+        return new Transpose(rows, width);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> readOnly(List<?> list) {
+        if (list instanceof View || list instanceof StringArray) {
+            return (List<Object>) list;
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    /* Section: Representations */
+
+    private static abstract class View extends AbstractList<Object> implements RandomAccess {
+        void check(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size());
+            }
+        }
+    }
+
+    /** Array[Int] backed by a long[]. */
+    public static final class LongArray extends View {
+        private final long[] values;
+        LongArray(long[] values) {
+            this.values = values;
+        }
+        public long getLong(int index) {
+            return this.values[index];
+        }
+        public Object get(int index) {
+            return Long.valueOf(this.values[index]);
+        }
+        public int size() {
+            return this.values.length;
+        }
+    }
+
+    /** Array[Float] backed by a double[]. */
+    public static final class DoubleArray extends View {
+        private final double[] values;
+        DoubleArray(double[] values) {
+            this.values = values;
+        }
+        public double getDouble(int index) {
+            return this.values[index];
+        }
+        public Object get(int index) {
+            return Double.valueOf(this.values[index]);
+        }
+        public int size() {
+            return this.values.length;
+        }
+    }
+
+    /** Array[Boolean] backed by a bit set. */
+    public static final class BooleanArray extends View {
+        private final BitSet values;
+        private final int size;
+        BooleanArray(BitSet values, int size) {
+            this.values = values;
+            this.size = size;
+        }
+        public boolean getBoolean(int index) {
+            check(index);
+            return this.values.get(index);
+        }
+        public Object get(int index) {
+            return Boolean.valueOf(getBoolean(index));
+        }
+        public int size() {
+            return this.size;
+        }
+    }
+
+    /*
+     * Strings sharing a prefix, stored as the prefix plus all suffixes concatenated into one
+     * String.  A gather of ten thousand shard outputs such as .../call-x/shard-1234/out.bam
+     * costs the length of "1234/out.bam" and an offset per element.
+     */
+    private static final class PrefixedStrings extends View implements StringArray {
+        private final String prefix;
+        private final String suffixes;
+        private final int[] offsets;
+        PrefixedStrings(String prefix, Object[] values) {
+            this.prefix = prefix;
+            this.offsets = new int[values.length + 1];
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < values.length; i++) {
+                this.offsets[i] = sb.length();
+                sb.append((String) values[i], prefix.length(), ((String) values[i]).length());
+            }
+            this.offsets[values.length] = sb.length();
+            this.suffixes = sb.toString();
+        }
+        public Object get(int index) {
+            check(index);
+            return this.prefix.concat(this.suffixes.substring(this.offsets[index], this.offsets[index + 1]));
+        }
+        public int size() {
+            return this.offsets.length - 1;
+        }
+        public int depth() {
+            return 1;
+        }
+    }
+    private static final class Range extends View {
+        private final int size;
+        Range(int size) {
+            this.size = size;
+        }
+        public Object get(int index) {
+            check(index);
+            return Long.valueOf(index);
+        }
+        public int size() {
+            return this.size;
+        }
+    }
+    private static final class Concatenation extends View {
+        private final List<?>[] parts;
+        private final int[] starts;
+        Concatenation(List<?>[] parts) {
+            this.parts = parts;
+            this.starts = new int[parts.length + 1];
+            for (int i = 0; i < parts.length; i++) {
+                this.starts[i + 1] = this.starts[i] + parts[i].size();
+            }
+        }
+        public Object get(int index) {
+            check(index);
+            int part = Arrays.binarySearch(this.starts, index);
+            if (part < 0) {
+                part = -part - 2;
+            }
+            return this.parts[part].get(index - this.starts[part]);
+        }
+        public int size() {
+            return this.starts[this.parts.length];
+        }
+    }
+    private static final class Prefixed extends View implements StringArray {
+        private final String prefix;
+        private final List<?> values;
+        Prefixed(String prefix, List<?> values) {
+            this.prefix = prefix;
+            this.values = values;
+        }
+        public Object get(int index) {
+            return this.prefix + WdlEvaluator.stringify(this.values.get(index));
+        }
+        public int size() {
+            return this.values.size();
+        }
+        public int depth() {
+            return 1;
+        }
+    }
+    private static final class Zip extends View {
+        private final List<?> left;
+        private final List<?> right;
+        Zip(List<?> left, List<?> right) {
+            this.left = left;
+            this.right = right;
+        }
+        public Object get(int index) {
+            return new WdlEvaluator.Pair(this.left.get(index), this.right.get(index));
+        }
+        public int size() {
+            return this.left.size();
+        }
+    }
+    private static final class Cross extends View {
+        private final List<?> left;
+        private final List<?> right;
+        Cross(List<?> left, List<?> right) {
+            this.left = left;
+            this.right = right;
+        }
+        public Object get(int index) {
+            check(index);
+            return new WdlEvaluator.Pair(this.left.get(index / this.right.size()), this.right.get(index % this.right.size()));
+        }
+        public int size() {
+            return this.left.size() * this.right.size();
+        }
+    }
+    private static final class Transpose extends View {
+        private final List<?> rows;
+        private final int width;
+        Transpose(List<?> rows, int width) {
+            this.rows = rows;
+            this.width = width;
+        }
+        public Object get(int column) {
+            check(column);
+            return new View() {
+                public Object get(int row) {
+                    return ((List<?>) rows.get(row)).get(column);
+                }
+                public int size() {
+                    return rows.size();
+                }
+            };
+        }
+        public int size() {
+            return this.width;
+        }
+    }
+}
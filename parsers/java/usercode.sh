@@ -0,0 +1,26 @@
+#!/bin/bash
+#
+# Check that the user code in java7/WdlParser.java and java8/WdlParser.java is the code<java>
+# block of ../grammar.hgr as hermes pastes it: the first line indented by four spaces and the
+# rest dedented by four.  Edit the grammar, not the parsers, when this fails.
+
+STATUS=0
+EXPECTED=$(mktemp)
+ACTUAL=$(mktemp)
+
+awk '/^    code<java> << JAVA$/ { copy = 1; first = 1; next }
+     /^    JAVA$/ { copy = 0 }
+     copy { sub(/^    /, ""); if (first) { $0 = "    " $0; first = 0 } print }' ../grammar.hgr > ${EXPECTED}
+
+for PARSER in java7/WdlParser.java java8/WdlParser.java; do
+  awk '/^    \/\* END USER CODE \*\/$/ { copy = 0 }
+       copy { print }
+       /^    \/\* START USER CODE \*\/$/ { copy = 1 }' ${PARSER} > ${ACTUAL}
+  if ! diff -u ${EXPECTED} ${ACTUAL}; then
+    echo "${PARSER}: user code differs from ../grammar.hgr" >&2
+    STATUS=1
+  fi
+done
+
+rm -f ${EXPECTED} ${ACTUAL}
+exit ${STATUS}